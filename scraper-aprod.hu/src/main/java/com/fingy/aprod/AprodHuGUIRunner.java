@@ -5,7 +5,6 @@ import com.fingy.aprod.criteria.City;
 import com.fingy.gui.AppendableJTextArea;
 import com.fingy.scrape.context.ScrapeContext;
 import com.fingy.scrape.context.ScrapeResult;
-import com.fingy.scrape.jsoup.AbstractJsoupScraper;
 import com.fingy.scrape.security.ProxyBasedScrapeDetectionOverrider;
 import com.fingy.scrape.security.TorNetworkProxyBasedScrapeDetectionOverride;
 import com.jgoodies.forms.factories.FormFactory;
@@ -214,6 +213,7 @@ public class AprodHuGUIRunner extends JFrame {
 
     private final class ScraperWorker extends SwingWorker<Object, Object> {
         private ProxyBasedScrapeDetectionOverrider scrapeDetectionOverrider = new TorNetworkProxyBasedScrapeDetectionOverride();
+        private volatile AprodScraperScheduler runningScheduler;
 
         @Override
         protected Object doInBackground() throws Exception {
@@ -222,7 +222,10 @@ public class AprodHuGUIRunner extends JFrame {
         }
 
         public void terminate() {
-            AbstractJsoupScraper.setScrapeCompromised(true);
+            final AprodScraperScheduler scheduler = runningScheduler;
+            if (scheduler != null) {
+                scheduler.getHostCircuitBreakers().stopAll();
+            }
             shouldStop = true;
             scrapeDetectionOverrider.destroyContext();
         }
@@ -254,7 +257,7 @@ public class AprodHuGUIRunner extends JFrame {
                 ScrapeResult result = doScrape(city, category);
 
                 infoPane.appendLine("Finished scrape iteration");
-                infoPane.appendLine("Scrape was compromised: " + (AbstractJsoupScraper.isScrapeCompromised() && !shouldStop));
+                infoPane.appendLine("Scrape was compromised: " + (runningScheduler.getHostCircuitBreakers().isCompromised() && !shouldStop));
                 infoPane.appendLine("Total contacts scraped: " + result.getScrapeSize());
 
                 queueSize = result.getQueueSize();
@@ -269,7 +272,8 @@ public class AprodHuGUIRunner extends JFrame {
         private ScrapeResult doScrape(City city, Category category) {
             String startUrl = String.format(category.getLink(), city.getUrlName());
             ScrapeContext context = new ScrapeContext(contacts.getAbsolutePath(), VISITED_TXT_FILE_NAME, QUEUED_TXT_FILE_NAME, new ContactLoader());
-            ScrapeResult result = new AprodScraperScheduler(startUrl, context).doScrape();
+            runningScheduler = new AprodScraperScheduler(startUrl, context);
+            ScrapeResult result = runningScheduler.doScrape();
             context.save();
             return result;
         }
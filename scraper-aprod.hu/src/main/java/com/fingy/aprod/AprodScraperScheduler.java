@@ -47,18 +47,22 @@ public class AprodScraperScheduler extends AbstractScrapeScheduler<Contact> {
 
     @Override
     protected void doSpecificInitialization() {
-        getWorkGeneratingScrapingThreadPool().submit(new FirstAdPageJsoupScraper(initialUrl, context.getLinksQueue()));
-        getWorkGeneratingScrapingThreadPool().submit(new FirstAdPageJsoupScraper(initialSeeksUrl, context.getLinksQueue()));
+        getWorkGeneratingScrapingThreadPool().submit(
+                withHostLimits(new FirstAdPageJsoupScraper(initialUrl, context.getLinksQueue())));
+        getWorkGeneratingScrapingThreadPool().submit(
+                withHostLimits(new FirstAdPageJsoupScraper(initialSeeksUrl, context.getLinksQueue())));
     }
 
     @Override
     protected void submitWorkGeneratingTask(String link) {
-        getWorkGeneratingScrapingThreadPool().submit(new AdPageContactJsoupScraper(link, context.getLinksQueue()));
+        getWorkGeneratingScrapingThreadPool().submit(
+                withHostLimits(new AdPageContactJsoupScraper(link, context.getLinksQueue())));
     }
 
     @Override
     protected void submitDetailScrapingTask(String link) {
-        getDetailsScrapingCompletionService().submit(new ContactJsoupScraper(link, context.getLinksQueue()));
+        getDetailsScrapingCompletionService().submit(
+                withHostLimits(new ContactJsoupScraper(link, context.getLinksQueue())));
     }
 
     @Override
@@ -1,7 +1,6 @@
 package com.fingy.aprod.scrape;
 
 import com.fingy.scrape.AbstractWorkQueueAwareScraper;
-import com.fingy.scrape.jsoup.AbstractJsoupScraper;
 import com.fingy.scrape.context.ScraperLinksQueue;
 import com.fingy.scrape.util.HtmlUnitParserUtil;
 import com.gargoylesoftware.htmlunit.WebClient;
@@ -27,7 +26,7 @@ public abstract class AbstractAprodHuJsoupScraper<T> extends AbstractWorkQueueAw
         try {
             return HtmlUnitParserUtil.getHtmlPageFromUrlWithoutJavaScriptSupportUsingClient(webClientHolder.get(), getScrapeUrl());
         } catch (IOException e) {
-            AbstractJsoupScraper.setScrapeCompromised(true);
+            markHostCompromised();
             throw e;
         }
     }
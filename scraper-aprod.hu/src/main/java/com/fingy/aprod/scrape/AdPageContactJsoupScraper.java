@@ -11,6 +11,7 @@ import org.jsoup.nodes.Element;
 import org.jsoup.select.Elements;
 
 import com.fingy.scrape.context.ScraperLinksQueue;
+import com.fingy.scrape.context.SynchronizedScraperLinksQueue;
 
 public class AdPageContactJsoupScraper extends AbstractAprodHuJsoupScraper<String> {
 
@@ -46,7 +47,7 @@ public class AdPageContactJsoupScraper extends AbstractAprodHuJsoupScraper<Strin
 	}
 
 	public static void main(String[] args) {
-		ScraperLinksQueue linksQueue = new ScraperLinksQueue();
+		ScraperLinksQueue linksQueue = new SynchronizedScraperLinksQueue();
 		new AdPageContactJsoupScraper("http://aprod.hu/konyv-ujsag/budapest/?all_categories=all&page=564", linksQueue).call();
 		System.out.println(linksQueue.getQueuedLinks());
 	}
@@ -13,8 +13,8 @@ import org.jsoup.select.Elements;
 
 import com.fingy.aprod.Contact;
 import com.fingy.aprod.scrape.exception.SessionExpiredException;
-import com.fingy.scrape.jsoup.AbstractJsoupScraper;
 import com.fingy.scrape.context.ScraperLinksQueue;
+import com.fingy.scrape.context.SynchronizedScraperLinksQueue;
 import com.fingy.scrape.util.JsoupParserUtil;
 
 public class ContactJsoupScraper extends AbstractAprodHuJsoupScraper<Contact> {
@@ -43,7 +43,7 @@ public class ContactJsoupScraper extends AbstractAprodHuJsoupScraper<Contact> {
 		}
 
 		getLinksQueue().addIfNotVisited(getScrapeUrl());
-		AbstractJsoupScraper.setScrapeCompromised(true);
+		markHostCompromised();
 		throw new SessionExpiredException(getScrapeUrl());
 	}
 
@@ -109,6 +109,6 @@ public class ContactJsoupScraper extends AbstractAprodHuJsoupScraper<Contact> {
 	}
 
 	public static void main(String[] args) throws IOException {
-		System.out.println(new ContactJsoupScraper("http://aprod.hu/hirdetes/dohanyboltnak-uzlethelyiseg-kiado-benzinkuton-ID13WEp.html#aab5e98961", new ScraperLinksQueue()).call());
+		System.out.println(new ContactJsoupScraper("http://aprod.hu/hirdetes/dohanyboltnak-uzlethelyiseg-kiado-benzinkuton-ID13WEp.html#aab5e98961", new SynchronizedScraperLinksQueue()).call());
 	}
 }
@@ -7,7 +7,9 @@ import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
 
 import com.fingy.aprod.criteria.Category;
+import com.fingy.scrape.context.LinkBatch;
 import com.fingy.scrape.context.ScraperLinksQueue;
+import com.fingy.scrape.context.SynchronizedScraperLinksQueue;
 
 public class FirstAdPageJsoupScraper extends AbstractAprodHuJsoupScraper<String> {
 
@@ -24,11 +26,13 @@ public class FirstAdPageJsoupScraper extends AbstractAprodHuJsoupScraper<String>
 		String scrapeUrl = getScrapeUrl();
 		Integer lastPageNumber = getLastPageNumber(page);
 
-		getLinksQueue().addIfNotVisited(scrapeUrl);
+		LinkBatch pageLinks = new LinkBatch(getLinksQueue());
+		pageLinks.add(scrapeUrl);
 		for(int i = 2; i <= lastPageNumber; i++) {
 			String pageLink = scrapeUrl + (scrapeUrl.contains("?") ? "&" : "?") + "page=" + i;
-			getLinksQueue().addIfNotVisited(pageLink);
+			pageLinks.add(pageLink);
 		}
+		pageLinks.flush();
 
 		return scrapeUrl;
 	}
@@ -40,7 +44,7 @@ public class FirstAdPageJsoupScraper extends AbstractAprodHuJsoupScraper<String>
 	}
 
 	public static void main(String[] args) {
-		ScraperLinksQueue linksQueue = new ScraperLinksQueue();
+		ScraperLinksQueue linksQueue = new SynchronizedScraperLinksQueue();
 		new FirstAdPageJsoupScraper(Category.BOOKS_MAGAZINES.getLink(), linksQueue).call();
 		System.out.println(linksQueue.getQueuedLinks());
 	}
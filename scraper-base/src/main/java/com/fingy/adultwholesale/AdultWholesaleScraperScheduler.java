@@ -15,11 +15,8 @@ import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
-import com.fingy.scrape.AbstractScraper;
 import org.apache.commons.io.FileUtils;
 import org.jsoup.Connection.Method;
 import org.jsoup.Connection.Response;
@@ -29,6 +26,10 @@ import com.fingy.adultwholesale.scrape.AdultItemCategoryJsoupScraper;
 import com.fingy.adultwholesale.scrape.AdultItemJsoupScraper;
 import com.fingy.concurrent.ExecutorsUtil;
 import com.fingy.scrape.context.ScraperLinksQueue;
+import com.fingy.scrape.context.SynchronizedScraperLinksQueue;
+import com.fingy.scrape.fetch.HostCircuitBreakers;
+import com.fingy.scrape.fetch.HostConcurrencyLimiter;
+import com.fingy.scrape.util.JsoupParserUtil;
 
 public class AdultWholesaleScraperScheduler {
 
@@ -41,9 +42,9 @@ public class AdultWholesaleScraperScheduler {
 	private static final String LOGIN_PAGE = "http://www.adultwholesaledirect.com/login.php";
 	private static final String STARTING_URL = "http://www.adultwholesaledirect.com/customer/bulk/ajax_getbulkcategories.php";
 
-	private static final int AVAILABLE_PROCESSORS = Runtime.getRuntime().availableProcessors();
-
 	private Map<String, String> cookies;
+	private final HostCircuitBreakers hostCircuitBreakers = new HostCircuitBreakers();
+	private final HostConcurrencyLimiter hostConcurrencyLimiter = new HostConcurrencyLimiter();
 
 	private ExecutorService categoryScrapingThreadPool;
 	private ExecutorCompletionService<AdultItem> categoryScrapingCompletionService;
@@ -81,7 +82,7 @@ public class AdultWholesaleScraperScheduler {
 		categoryScrapingCompletionService = new ExecutorCompletionService<AdultItem>(categoryScrapingThreadPool);
 		itemScrapingCompletionService = new ExecutorCompletionService<AdultItem>(itemScrapintThreadPool);
 
-		linksQueue = new ScraperLinksQueue();
+		linksQueue = new SynchronizedScraperLinksQueue();
 		queuedProducts = new HashSet<String>();
 		queuedCategories = new LinkedHashSet<String>();
 		scrapedCategories = new LinkedHashSet<String>();
@@ -94,7 +95,7 @@ public class AdultWholesaleScraperScheduler {
 		System.getProperties().setProperty("socksProxyHost", "127.0.0.1");
 		System.getProperties().setProperty("socksProxyPort", "9150");
 
-		AbstractScraper.setScrapeCompromised(false);
+		hostCircuitBreakers.reset();
 		doLogin();
 
 		loadVisitedLinksFromFile();
@@ -133,14 +134,16 @@ public class AdultWholesaleScraperScheduler {
 	}
 
 	private void doLogin() throws IOException {
-		final Response response = Jsoup.connect(LOGIN_PAGE).data(LOGIN_CREDENTIALS).method(Method.POST).userAgent(USER_AGENT).timeout(0).execute();
+		final Response response = Jsoup.connect(LOGIN_PAGE).data(LOGIN_CREDENTIALS).method(Method.POST).userAgent(USER_AGENT).timeout(JsoupParserUtil.getTimeoutMillis()).execute();
 		cookies = response.cookies();
 	}
 
 	private void processEntryPageIfNeeded() throws ExecutionException {
 		System.out.println("AdultWholesaleScraperScheduler.processEntryPage()");
 		try {
-			Callable<AdultItem> entryPageTask = new AdultItemCategoryJsoupScraper(cookies, STARTING_URL, linksQueue);
+			Callable<AdultItem> entryPageTask = new AdultItemCategoryJsoupScraper(cookies, STARTING_URL, linksQueue)
+					.withHostCircuitBreakers(hostCircuitBreakers)
+					.withHostConcurrencyLimiter(hostConcurrencyLimiter);
 			categoryScrapingCompletionService.submit(entryPageTask).get();
 		} catch (InterruptedException e) {
 			e.printStackTrace();
@@ -150,7 +153,7 @@ public class AdultWholesaleScraperScheduler {
 	private void submitScrapingTasksWhileThereIsEnoughWork() {
 		System.out.println("AdultWholesaleScraperScheduler.submitScrapingTasksWhileThereIsEnoughWork()");
 		while (stillHaveLinksToBeScraped()) {
-			if (AbstractScraper.isScrapeCompromised()) {
+			if (hostCircuitBreakers.isAnyHostUnavailable()) {
 				System.out.println("Session expired, breaking");
 				break;
 			}
@@ -179,7 +182,9 @@ public class AdultWholesaleScraperScheduler {
 
 	private void submitCategoryScrapingTask(final String link) {
 		try {
-			categoryScrapingCompletionService.submit(new AdultItemCategoryJsoupScraper(cookies, link, linksQueue));
+			categoryScrapingCompletionService.submit(new AdultItemCategoryJsoupScraper(cookies, link, linksQueue)
+					.withHostCircuitBreakers(hostCircuitBreakers)
+					.withHostConcurrencyLimiter(hostConcurrencyLimiter));
 		} catch (Exception e) {
 			e.printStackTrace();
 		}
@@ -187,7 +192,8 @@ public class AdultWholesaleScraperScheduler {
 
 	private void submitItemScrapingTask(final String link) {
 		try {
-			itemScrapingCompletionService.submit(new AdultItemJsoupScraper(cookies, link, linksQueue));
+			itemScrapingCompletionService.submit(new AdultItemJsoupScraper(cookies, link, linksQueue).withHostCircuitBreakers(hostCircuitBreakers)
+					.withHostConcurrencyLimiter(hostConcurrencyLimiter));
 		} catch (Exception e) {
 			e.printStackTrace();
 		}
@@ -248,7 +254,7 @@ public class AdultWholesaleScraperScheduler {
 	}
 
 	private ExecutorService createDefaultThreadPool() {
-		return new ThreadPoolExecutor(AVAILABLE_PROCESSORS * 10, Integer.MAX_VALUE, 1, TimeUnit.MINUTES, new LinkedBlockingQueue<Runnable>());
+		return ExecutorsUtil.createBoundedThreadPool(10);
 	}
 
 	private boolean isItemDescriptionPage(String href) {
@@ -9,6 +9,7 @@ import org.jsoup.nodes.Element;
 import org.jsoup.select.Elements;
 
 import com.fingy.adultwholesale.AdultItem;
+import com.fingy.scrape.context.LinkBatch;
 import com.fingy.scrape.context.ScraperLinksQueue;
 
 public class AdultItemCategoryJsoupScraper extends AbstractAdultItemJsoupScraper {
@@ -27,20 +28,28 @@ public class AdultItemCategoryJsoupScraper extends AbstractAdultItemJsoupScraper
 
 	@Override
 	protected AdultItem doScrapePage(Document page) {
-		scrapePages(page);
-		scrapeCategories(page);
-		scrapeSubCategories(page);
-		scrapeNextPage(page);
+		LinkBatch links = new LinkBatch(linksQueue);
+		scrapePages(page, links);
+		scrapeCategories(page, links);
+		scrapeSubCategories(page, links);
+		scrapeNextPage(page, links);
+		links.flush();
 
 		linksQueue.markVisited(getScrapeUrl());
 		return new AdultItem("", "", "", "", "", "", "", getScrapeUrl(), "");
 	}
 
-	private void scrapePages(Document page) {
+	private void addLink(LinkBatch links, String link) {
+		if (!link.isEmpty()) {
+			links.add(link);
+		}
+	}
+
+	private void scrapePages(Document page, LinkBatch links) {
 		final Elements itemLinks = page.select("div.itemsList div.item span.title a");
 		for (Element itemLink : itemLinks) {
 			String link = extractItemLink(itemLink.attr("onclick"));
-			linksQueue.addIfNotVisited(link);
+			addLink(links, link);
 		}
 	}
 
@@ -51,15 +60,15 @@ public class AdultItemCategoryJsoupScraper extends AbstractAdultItemJsoupScraper
 		return "";
 	}
 
-	private void scrapeCategories(Document page) {
+	private void scrapeCategories(Document page, LinkBatch links) {
 		final Elements categoryLinks = page.select("a.categorylinkred");
 		for (Element categoryLink : categoryLinks) {
 			String link = extractCategoryLink(categoryLink.attr("onclick"));
-			linksQueue.addIfNotVisited(link);
+			addLink(links, link);
 		}
 	}
 
-	private void scrapeSubCategories(Document page) {
+	private void scrapeSubCategories(Document page, LinkBatch links) {
 		final Elements categoryLinks = page.select("ul.categTree li a");
 		for (Element categoryLink : categoryLinks) {
 			String link;
@@ -68,7 +77,7 @@ public class AdultItemCategoryJsoupScraper extends AbstractAdultItemJsoupScraper
 			} else {
 				link = extractCategoryLink(categoryLink.attr("href"));
 			}
-			linksQueue.addIfNotVisited(link);
+			addLink(links, link);
 		}
 	}
 
@@ -79,12 +88,12 @@ public class AdultItemCategoryJsoupScraper extends AbstractAdultItemJsoupScraper
 		return "";
 	}
 
-	private void scrapeNextPage(Document page) {
+	private void scrapeNextPage(Document page, LinkBatch links) {
 		final Elements pageLinks = page.select("div.pag a");
 
 		for (Element linkElement : pageLinks) {
 			String link = extractNextLink(linkElement.attr("href"));
-			linksQueue.addIfNotVisited(link);
+			addLink(links, link);
 		}
 	}
 
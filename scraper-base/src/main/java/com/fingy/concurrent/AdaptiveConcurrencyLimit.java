@@ -0,0 +1,116 @@
+package com.fingy.concurrent;
+
+/**
+ * Limit on the number of requests in flight that adapts to how the target responds (AIMD). While latency stays close to its running
+ * average the limit grows by about one for every limit's worth of successful requests; a timeout or an overload response halves it.
+ * Requests that were already in flight when the limit was cut do not cut it again, so one burst of errors counts as one signal.
+ */
+public class AdaptiveConcurrencyLimit {
+
+    public static final double DEFAULT_BACKOFF_RATIO = 0.5;
+    public static final double DEFAULT_LATENCY_TOLERANCE = 2.0;
+
+    private static final double LATENCY_SMOOTHING = 0.1;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final double latencyTolerance;
+
+    private double limit;
+    private int inFlight;
+    private double smoothedLatencyNanos;
+    private long lastDecreaseNanos = Long.MIN_VALUE;
+
+    public AdaptiveConcurrencyLimit(final int initialLimit, final int minLimit, final int maxLimit) {
+        this(initialLimit, minLimit, maxLimit, DEFAULT_BACKOFF_RATIO, DEFAULT_LATENCY_TOLERANCE);
+    }
+
+    public AdaptiveConcurrencyLimit(final int initialLimit, final int minLimit, final int maxLimit, final double backoffRatio,
+            final double latencyTolerance) {
+        if (minLimit < 1 || maxLimit < minLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Invalid limits: " + initialLimit + " in [" + minLimit + ", " + maxLimit + "]");
+        }
+        if (backoffRatio <= 0 || backoffRatio >= 1 || latencyTolerance < 1) {
+            throw new IllegalArgumentException("Invalid backoff ratio or latency tolerance: " + backoffRatio + ", " + latencyTolerance);
+        }
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.latencyTolerance = latencyTolerance;
+        limit = initialLimit;
+    }
+
+    /**
+     * Blocks until fewer requests than the limit are in flight. Returns the start time to pass to {@link #onSuccess(long)} or
+     * {@link #onOverload(long)}; one of those or {@link #onIgnored()} must follow every acquire.
+     */
+    public synchronized long acquire() throws InterruptedException {
+        while (inFlight >= getLimit()) {
+            wait();
+        }
+        inFlight++;
+        return System.nanoTime();
+    }
+
+    /**
+     * Like {@link #acquire()}, but returns {@code false} instead of waiting when the limit is reached; for callers that must not block,
+     * which take the start time themselves.
+     */
+    public synchronized boolean tryAcquire() {
+        if (inFlight >= getLimit()) {
+            return false;
+        }
+        inFlight++;
+        return true;
+    }
+
+    /**
+     * The request got a normal response. The limit grows only if latency is stable and the limit was actually being used.
+     */
+    public synchronized void onSuccess(final long startNanos) {
+        final long latencyNanos = System.nanoTime() - startNanos;
+        final boolean limitInUse = inFlight * 2 >= getLimit();
+        release();
+
+        if (smoothedLatencyNanos == 0) {
+            smoothedLatencyNanos = latencyNanos;
+            return;
+        }
+        if (latencyNanos <= smoothedLatencyNanos * latencyTolerance && limitInUse) {
+            limit = Math.min(maxLimit, limit + 1 / limit);
+        }
+        smoothedLatencyNanos += (latencyNanos - smoothedLatencyNanos) * LATENCY_SMOOTHING;
+    }
+
+    /**
+     * The request timed out or the target answered that it is overloaded.
+     */
+    public synchronized void onOverload(final long startNanos) {
+        release();
+        if (startNanos > lastDecreaseNanos) {
+            limit = Math.max(minLimit, limit * backoffRatio);
+            lastDecreaseNanos = System.nanoTime();
+        }
+    }
+
+    /**
+     * The request failed for a reason that says nothing about the target's load, such as a missing page.
+     */
+    public synchronized void onIgnored() {
+        release();
+    }
+
+    private void release() {
+        inFlight--;
+        notifyAll();
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+}
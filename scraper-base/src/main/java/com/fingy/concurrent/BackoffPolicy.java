@@ -0,0 +1,54 @@
+package com.fingy.concurrent;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Exponential backoff with jitter for retrying failed work: the n-th retry waits between half and all of
+ * {@code min(maxDelay, baseDelay * 2^(n-1))}, so retries of many items that failed together spread out instead of arriving at once.
+ */
+public class BackoffPolicy {
+
+    public static final long DEFAULT_BASE_DELAY_MILLIS = 1000;
+    public static final long DEFAULT_MAX_DELAY_MILLIS = 5 * 60 * 1000;
+    public static final int DEFAULT_MAX_ATTEMPTS = 5;
+
+    private final long baseDelayMillis;
+    private final long maxDelayMillis;
+    private final int maxAttempts;
+
+    public BackoffPolicy() {
+        this(DEFAULT_BASE_DELAY_MILLIS, DEFAULT_MAX_DELAY_MILLIS, DEFAULT_MAX_ATTEMPTS);
+    }
+
+    /**
+     * {@code maxAttempts} counts the first attempt, so it allows {@code maxAttempts - 1} retries.
+     */
+    public BackoffPolicy(final long baseDelayMillis, final long maxDelayMillis, final int maxAttempts) {
+        if (baseDelayMillis <= 0 || maxDelayMillis < baseDelayMillis || maxAttempts < 1) {
+            throw new IllegalArgumentException("Invalid backoff: " + baseDelayMillis + ", " + maxDelayMillis + ", " + maxAttempts);
+        }
+        this.baseDelayMillis = baseDelayMillis;
+        this.maxDelayMillis = maxDelayMillis;
+        this.maxAttempts = maxAttempts;
+    }
+
+    public long getDelayMillis(final int retry) {
+        if (retry < 1) {
+            throw new IllegalArgumentException("Retries are counted from 1: " + retry);
+        }
+        long ceiling = baseDelayMillis;
+        for (int i = 1; i < retry && ceiling < maxDelayMillis; i++) {
+            ceiling *= 2;
+        }
+        ceiling = Math.min(ceiling, maxDelayMillis);
+        return ceiling / 2 + ThreadLocalRandom.current().nextLong(ceiling - ceiling / 2 + 1);
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public int getMaxRetries() {
+        return maxAttempts - 1;
+    }
+}
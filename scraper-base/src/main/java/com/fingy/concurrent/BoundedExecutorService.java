@@ -0,0 +1,174 @@
+package com.fingy.concurrent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Executor that lets at most a fixed number of tasks be queued or running in the wrapped executor. A submitting thread blocks until a
+ * task finishes and frees a slot, so a full pool slows its producer down instead of growing an unbounded queue or running the task on
+ * the producer's own thread.
+ */
+public class BoundedExecutorService extends AbstractExecutorService {
+
+    private static final ExecutorTaskListener NO_OP_LISTENER = new ExecutorTaskListener() {
+        @Override
+        public void taskSubmitted() {
+        }
+
+        @Override
+        public void taskFinished() {
+        }
+    };
+
+    private final ExecutorService executorService;
+    private final Semaphore taskSlots;
+    private final int capacity;
+    private volatile ExecutorTaskListener taskListener = NO_OP_LISTENER;
+
+    public BoundedExecutorService(final ExecutorService executorService, final int capacity) {
+        this(executorService, new Semaphore(capacity), capacity);
+    }
+
+    /**
+     * Takes its slots from {@code taskSlots}, which holds {@code capacity} permits and may be shared with other pools, so that all of
+     * them together have at most that many tasks queued or running. {@link #isSaturated()} and {@link #getPendingTaskCount()} then
+     * count the tasks of every pool sharing the slots.
+     */
+    public BoundedExecutorService(final ExecutorService executorService, final Semaphore taskSlots, final int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Capacity must be positive: " + capacity);
+        }
+        this.executorService = executorService;
+        this.capacity = capacity;
+        this.taskSlots = taskSlots;
+    }
+
+    public void setTaskListener(final ExecutorTaskListener taskListener) {
+        this.taskListener = taskListener == null ? NO_OP_LISTENER : taskListener;
+    }
+
+    /**
+     * Blocks until there is a free slot for the task. If the waiting thread is interrupted the task is rejected and the interrupt flag
+     * is kept.
+     */
+    @Override
+    public void execute(final Runnable command) {
+        try {
+            taskSlots.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("Interrupted while waiting for a free task slot", e);
+        }
+
+        final ExecutorTaskListener listener = taskListener;
+        listener.taskSubmitted();
+        final BoundedTask task = new BoundedTask(command, listener);
+        try {
+            executorService.execute(task);
+        } catch (RejectedExecutionException e) {
+            task.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Frees the slot of a task handed to the wrapped executor that will never run, e.g. one a {@link SharedExecutorView} skips after
+     * {@link SharedExecutorView#shutdownNow()}. Does nothing for other tasks.
+     */
+    static void abandon(final Runnable task) {
+        if (task instanceof BoundedTask) {
+            ((BoundedTask) task).release();
+        }
+    }
+
+    /**
+     * Blocks until at least one slot is free, without taking it.
+     */
+    public void awaitFreeSlot() throws InterruptedException {
+        taskSlots.acquire();
+        taskSlots.release();
+    }
+
+    public boolean isSaturated() {
+        return taskSlots.availablePermits() == 0;
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int getPendingTaskCount() {
+        return capacity - taskSlots.availablePermits();
+    }
+
+    @Override
+    public void shutdown() {
+        executorService.shutdown();
+    }
+
+    /**
+     * The tasks that never started have their slots freed and are reported finished to the listener, and are returned as they were
+     * submitted.
+     */
+    @Override
+    public List<Runnable> shutdownNow() {
+        final List<Runnable> abandonedTasks = new ArrayList<>();
+        for (Runnable task : executorService.shutdownNow()) {
+            abandon(task);
+            abandonedTasks.add(task instanceof BoundedTask ? ((BoundedTask) task).command : task);
+        }
+        return abandonedTasks;
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return executorService.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return executorService.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(final long timeout, final TimeUnit unit) throws InterruptedException {
+        return executorService.awaitTermination(timeout, unit);
+    }
+
+    /**
+     * Holds a slot until it has run or is abandoned, whichever comes first.
+     */
+    private final class BoundedTask implements Runnable {
+
+        private final Runnable command;
+        private final ExecutorTaskListener listener;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private BoundedTask(final Runnable command, final ExecutorTaskListener listener) {
+            this.command = command;
+            this.listener = listener;
+        }
+
+        @Override
+        public void run() {
+            try {
+                command.run();
+            } finally {
+                release();
+            }
+        }
+
+        private void release() {
+            if (released.compareAndSet(false, true)) {
+                taskSlots.release();
+                listener.taskFinished();
+            }
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.fingy.concurrent;
+
+/**
+ * Told about every task a {@link BoundedExecutorService} accepts and about the moment it is done, successfully or not.
+ * {@link #taskSubmitted()} is always called before the task can start, so a count kept by the listener never drops to zero while
+ * a task is still pending.
+ */
+public interface ExecutorTaskListener {
+
+    void taskSubmitted();
+
+    void taskFinished();
+}
@@ -1,6 +1,7 @@
 package com.fingy.concurrent;
 
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
@@ -9,6 +10,7 @@ public final class ExecutorsUtil {
 
     private static final int AVAILABLE_PROCESSORS = Runtime.getRuntime().availableProcessors();
     private static final int DEFAULT_WORK_QUEUE_CAPACITY = 5000;
+    private static final int DEFAULT_TASK_SLOTS_PER_THREAD = 2;
 
     private ExecutorsUtil() {
     }
@@ -22,6 +24,25 @@ public final class ExecutorsUtil {
         }
     }
 
+    /**
+     * Lets the tasks finish for up to {@code gracePeriod}, then interrupts the ones still running and waits up to as long again for
+     * them to notice. Returns whether the executor terminated.
+     */
+    public static boolean shutDownAndCancelAfter(ExecutorService executorService, long gracePeriod, TimeUnit timeUnit) {
+        executorService.shutdown();
+        try {
+            if (executorService.awaitTermination(gracePeriod, timeUnit)) {
+                return true;
+            }
+            executorService.shutdownNow();
+            return executorService.awaitTermination(gracePeriod, timeUnit);
+        } catch (InterruptedException e) {
+            executorService.shutdownNow();
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
     public static ThreadPoolExecutor createThreadPool(int processorMultiplier) {
         return creteThreadPool(processorMultiplier, DEFAULT_WORK_QUEUE_CAPACITY);
     }
@@ -32,4 +53,43 @@ public final class ExecutorsUtil {
         threadPoolExecutor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
         return threadPoolExecutor;
     }
+
+    /**
+     * Creates a fixed pool whose submitters block once every thread is busy and one more task per thread is waiting.
+     */
+    public static BoundedExecutorService createBoundedThreadPool(int processorMultiplier) {
+        final int poolSize = AVAILABLE_PROCESSORS * processorMultiplier;
+        final ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(poolSize, poolSize, 1, TimeUnit.DAYS, new LinkedBlockingQueue<Runnable>());
+        return new BoundedExecutorService(threadPoolExecutor, poolSize * DEFAULT_TASK_SLOTS_PER_THREAD);
+    }
+
+    /**
+     * Runs every task on its own virtual thread, so tasks blocked on the network hold no platform thread. Only the number of tasks
+     * queued or running is limited; how many of them hit one host at a time is left to the links queue's politeness policy.
+     */
+    public static BoundedExecutorService createVirtualThreadPool(int maxConcurrentTasks) {
+        return new BoundedExecutorService(Executors.newVirtualThreadPerTaskExecutor(), maxConcurrentTasks);
+    }
+
+    /**
+     * Bounds an existing executor to one waiting task per thread it runs. A pool with a work queue only starts threads beyond its core
+     * size once the queue is full, which the bound prevents, so it runs on its core threads alone; pools from
+     * {@link #creteThreadPool(int, int)} also stay below their queue capacity, so their caller-runs policy no longer kicks in. Pools
+     * handing tasks straight to new threads grow to their maximum size, and pools without a maximum are left effectively unbounded.
+     */
+    public static BoundedExecutorService createBoundedExecutor(ExecutorService executorService) {
+        if (executorService instanceof BoundedExecutorService) {
+            return (BoundedExecutorService) executorService;
+        }
+
+        int capacity = AVAILABLE_PROCESSORS * DEFAULT_TASK_SLOTS_PER_THREAD;
+        if (executorService instanceof ThreadPoolExecutor) {
+            final ThreadPoolExecutor threadPoolExecutor = (ThreadPoolExecutor) executorService;
+            final boolean handOff = threadPoolExecutor.getQueue().remainingCapacity() == 0;
+            final long threads = Math.max(1, handOff ? threadPoolExecutor.getMaximumPoolSize() : threadPoolExecutor.getCorePoolSize());
+            final long waitingTasks = Math.min(threads * (DEFAULT_TASK_SLOTS_PER_THREAD - 1), threadPoolExecutor.getQueue().remainingCapacity());
+            capacity = (int) Math.min(Integer.MAX_VALUE, threads + waitingTasks);
+        }
+        return new BoundedExecutorService(executorService, capacity);
+    }
 }
@@ -0,0 +1,129 @@
+package com.fingy.concurrent;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One user's view of an executor shared with others. Shutting the view down only affects the tasks submitted through it: it takes no
+ * more, {@link #shutdownNow()} interrupts the ones running and skips the ones still waiting, and {@link #awaitTermination(long, TimeUnit)}
+ * waits for them alone. The shared executor keeps running everybody else's tasks. Wrap it in a {@link BoundedExecutorService} to give
+ * the user a quota of the shared threads.
+ */
+public class SharedExecutorView extends AbstractExecutorService {
+
+    private final ExecutorService sharedExecutor;
+    private final Set<Thread> runningThreads = new HashSet<>();
+
+    private int pendingTasks;
+    private boolean shutdown;
+    private boolean aborted;
+
+    public SharedExecutorView(final ExecutorService sharedExecutor) {
+        this.sharedExecutor = sharedExecutor;
+    }
+
+    @Override
+    public void execute(final Runnable command) {
+        synchronized (this) {
+            if (shutdown) {
+                throw new RejectedExecutionException("The executor view has been shut down");
+            }
+            pendingTasks++;
+        }
+
+        try {
+            sharedExecutor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    runTask(command);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            taskRemoved();
+            throw e;
+        }
+    }
+
+    private void runTask(final Runnable command) {
+        try {
+            if (taskStarted()) {
+                command.run();
+            } else {
+                BoundedExecutorService.abandon(command);
+            }
+        } finally {
+            taskEnded();
+        }
+    }
+
+    private synchronized boolean taskStarted() {
+        return !aborted && runningThreads.add(Thread.currentThread());
+    }
+
+    /**
+     * Only interrupts a thread while it is running one of this view's tasks; an interrupt that arrives after the task returned is cleared
+     * by the shared executor before the thread runs the next one.
+     */
+    private synchronized void taskEnded() {
+        runningThreads.remove(Thread.currentThread());
+        taskRemoved();
+    }
+
+    private synchronized void taskRemoved() {
+        if (--pendingTasks == 0) {
+            notifyAll();
+        }
+    }
+
+    public synchronized int getPendingTaskCount() {
+        return pendingTasks;
+    }
+
+    @Override
+    public synchronized void shutdown() {
+        shutdown = true;
+    }
+
+    /**
+     * The tasks still waiting in the shared executor are skipped when their turn comes rather than returned, as they cannot be taken
+     * out of its queue. A skipped task of a {@link BoundedExecutorService} wrapping this view still frees its slot.
+     */
+    @Override
+    public synchronized List<Runnable> shutdownNow() {
+        shutdown = true;
+        aborted = true;
+        for (Thread runningThread : runningThreads) {
+            runningThread.interrupt();
+        }
+        return Collections.emptyList();
+    }
+
+    @Override
+    public synchronized boolean isShutdown() {
+        return shutdown;
+    }
+
+    @Override
+    public synchronized boolean isTerminated() {
+        return shutdown && pendingTasks == 0;
+    }
+
+    @Override
+    public synchronized boolean awaitTermination(final long timeout, final TimeUnit unit) throws InterruptedException {
+        final long deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (!isTerminated()) {
+            final long remainingNanos = deadline - System.nanoTime();
+            if (remainingNanos <= 0) {
+                return false;
+            }
+            TimeUnit.NANOSECONDS.timedWait(this, remainingNanos);
+        }
+        return true;
+    }
+}
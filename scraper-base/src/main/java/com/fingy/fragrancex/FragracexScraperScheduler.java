@@ -10,8 +10,6 @@ import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
@@ -27,11 +25,9 @@ import com.fingy.scrape.JsoupImageDownloader;
 
 public class FragracexScraperScheduler {
 
-	private static final int AVAILABLE_PROCESSORS = Runtime.getRuntime().availableProcessors();
-
 	private ExecutorService itemScrapintThreadPool;
 	private ExecutorCompletionService<PerfumeItem> itemScrapingCompletionService;
-	private ThreadPoolExecutor imageScrapingThreadPool;
+	private ExecutorService imageScrapingThreadPool;
 
 	private Workbook workbook;
 
@@ -126,9 +122,8 @@ public class FragracexScraperScheduler {
 		return !new File(imagePath + ".jpeg").exists() && !new File(imagePath + ".png").exists();
 	}
 
-	private ThreadPoolExecutor createDefaultThreadPool() {
-		return new ThreadPoolExecutor(AVAILABLE_PROCESSORS * 10, Integer.MAX_VALUE, 1, TimeUnit.MINUTES,
-				new LinkedBlockingQueue<Runnable>());
+	private ExecutorService createDefaultThreadPool() {
+		return ExecutorsUtil.createBoundedThreadPool(10);
 	}
 
 	private void updateWorksheet(final PerfumeItem item) {
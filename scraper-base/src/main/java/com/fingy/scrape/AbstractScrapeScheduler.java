@@ -1,31 +1,115 @@
 package com.fingy.scrape;
 
-import com.fingy.adultwholesale.scrape.AbstractAdultItemJsoupScraper;
-import com.fingy.adultwholesale.scrape.AdultItemJsoupScraper;
+import com.fingy.concurrent.BackoffPolicy;
+import com.fingy.concurrent.BoundedExecutorService;
+import com.fingy.concurrent.ExecutorTaskListener;
 import com.fingy.concurrent.ExecutorsUtil;
+import com.fingy.scrape.context.CompletedResultsCollector;
+import com.fingy.scrape.context.DeferredLinks;
+import com.fingy.scrape.context.LinkRetryQueue;
+import com.fingy.scrape.context.PriorityScraperLinksQueue;
 import com.fingy.scrape.context.ScrapeContext;
 import com.fingy.scrape.context.ScrapeDetails;
 import com.fingy.scrape.context.ScrapeResult;
+import com.fingy.scrape.context.ScrapedItemPublisher;
+import com.fingy.scrape.context.ScrapedItemSink;
+import com.fingy.scrape.context.ScraperLinksQueue;
+import com.fingy.scrape.fetch.AsyncPageFetcher;
+import com.fingy.scrape.fetch.HostCircuitBreakers;
+import com.fingy.scrape.fetch.HostConcurrencyLimiter;
+import com.fingy.scrape.jsoup.AbstractJsoupScraper;
+import com.fingy.scrape.util.JsoupParserUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
 
 public abstract class AbstractScrapeScheduler<T extends ScrapeDetails> {
 
-    private static final int DEFAULT_TERMINATION_AWAIT_INTERVAL_MINUTES = 5;
-    private static final int DETAILS_AWAIT_TIMEOUT = 3000;
+    private static final int DEFAULT_VIRTUAL_THREAD_TASKS = 1000;
+    private static final long HOST_PROBE_WAIT_MILLIS = 1000;
+    private static final int MAX_LINK_DEFERRALS = 5;
 
     private static Logger logger = LoggerFactory.getLogger(AbstractScrapeScheduler.class);
 
-    private final ExecutorService workGeneratingScrapingThreadPool = createWorkGeneratingThreadPool();
-    private final ExecutorService detailsScrapingThreadPool = createDetailsScrapingThreadPool();
-    private final ExecutorCompletionService<T> detailsScrapingCompletionService = new ExecutorCompletionService<>(detailsScrapingThreadPool);
+    private final boolean virtualThreads;
+    private final BoundedExecutorService workGeneratingScrapingThreadPool;
+    private final BoundedExecutorService detailsScrapingThreadPool;
+    private final DetailsCompletionQueue detailsCompletionQueue;
+    private final ExecutorCompletionService<T> detailsScrapingCompletionService;
+    private final AtomicLong detailsTasksSubmitted = new AtomicLong();
+    private final HostCircuitBreakers hostCircuitBreakers = new HostCircuitBreakers();
+    private final HostConcurrencyLimiter hostConcurrencyLimiter = new HostConcurrencyLimiter();
+    private ExecutorTaskListener detailsTaskListener;
+
+    private volatile ScrapedItemPublisher<T> resultsPublisher;
+    private int maxPendingResults;
+    private CompletedResultsCollector<T> resultsCollector;
+    private AsyncPageFetcher pageFetcher;
+    private volatile AsyncPageFetcher sharedPageFetcher;
+    private DeferredLinks pausedHostLinks;
+    private LinkRetryQueue linkRetryQueue;
+    private Thread dispatcherThread;
+    private volatile boolean cancelled;
+    private boolean frontierExhausted;
+    private boolean terminated;
 
     protected final ScrapeContext context;
 
     public AbstractScrapeScheduler(final ScrapeContext context) {
+        this(context, false);
+    }
+
+    /**
+     * With {@code virtualThreads} the default pools run each task on a virtual thread, up to {@value #DEFAULT_VIRTUAL_THREAD_TASKS}
+     * tasks per pool, instead of on a few platform threads per processor.
+     */
+    public AbstractScrapeScheduler(final ScrapeContext context, final boolean virtualThreads) {
+        this(context, virtualThreads, null);
+    }
+
+    /**
+     * Takes both pools from {@code threadPoolFactory} instead of {@link #createWorkGeneratingThreadPool()} and
+     * {@link #createDetailsScrapingThreadPool()}, e.g. to run on capacity shared with other jobs of a
+     * {@link com.fingy.scrape.daemon.ScrapeDaemon}.
+     */
+    public AbstractScrapeScheduler(final ScrapeContext context, final Supplier<ExecutorService> threadPoolFactory) {
+        this(context, false, threadPoolFactory);
+    }
+
+    private AbstractScrapeScheduler(final ScrapeContext context, final boolean virtualThreads,
+            final Supplier<ExecutorService> threadPoolFactory) {
         this.context = context;
+        this.virtualThreads = virtualThreads;
+        workGeneratingScrapingThreadPool = ExecutorsUtil.createBoundedExecutor(
+                threadPoolFactory == null ? createWorkGeneratingThreadPool() : threadPoolFactory.get());
+        detailsScrapingThreadPool = ExecutorsUtil.createBoundedExecutor(
+                threadPoolFactory == null ? createDetailsScrapingThreadPool() : threadPoolFactory.get());
+        detailsCompletionQueue = new DetailsCompletionQueue();
+        detailsScrapingCompletionService = new ExecutorCompletionService<>(detailsScrapingThreadPool, detailsCompletionQueue);
+    }
+
+    /**
+     * Publishes the details items to subscribers as they are scraped, once they were handed to {@link #createScrapedItemSink()}.
+     * Scraping waits for the subscribers: once {@code maxPendingResults} finished details tasks are waiting for demand, no more links
+     * are dispatched. Subscribe before the scrape starts; the publisher completes when {@link #doScrape()} ends, or fails with a
+     * {@link CancellationException} on {@link #cancel()}. The first details item also waits for a subscriber, so no item is lost to a
+     * late one: without a subscriber, or with subscribers that never request items, the scrape stalls once {@code maxPendingResults}
+     * details tasks have finished, until it is cancelled.
+     */
+    public Flow.Publisher<T> publishResults(final int maxPendingResults) {
+        if (maxPendingResults < 1) {
+            throw new IllegalArgumentException("Invalid maximum of pending results: " + maxPendingResults);
+        }
+        if (resultsPublisher != null) {
+            throw new IllegalStateException("The results are already published");
+        }
+        this.maxPendingResults = maxPendingResults;
+        resultsPublisher = new ScrapedItemPublisher<>();
+        return resultsPublisher;
     }
 
     public ExecutorService getWorkGeneratingScrapingThreadPool() {
@@ -36,6 +120,10 @@ public abstract class AbstractScrapeScheduler<T extends ScrapeDetails> {
         return detailsScrapingCompletionService;
     }
 
+    /**
+     * Pools that are not a {@link BoundedExecutorService} already get wrapped in one, so submitting to a busy pool blocks the
+     * dispatcher instead of queueing without limit or running the task on the dispatching thread.
+     */
     protected ExecutorService createWorkGeneratingThreadPool() {
         return createThreadPool();
     }
@@ -44,19 +132,52 @@ public abstract class AbstractScrapeScheduler<T extends ScrapeDetails> {
         return createThreadPool();
     }
 
-    protected ThreadPoolExecutor createThreadPool() {
-        return ExecutorsUtil.createThreadPool(1);
+    protected ExecutorService createThreadPool() {
+        if (virtualThreads) {
+            return ExecutorsUtil.createVirtualThreadPool(DEFAULT_VIRTUAL_THREAD_TASKS);
+        }
+        return ExecutorsUtil.createBoundedThreadPool(1);
+    }
+
+    public boolean isUsingVirtualThreads() {
+        return virtualThreads;
     }
 
     public ScrapeResult doScrape() {
+        return scrape(false);
+    }
+
+    /**
+     * Like {@link #doScrape()}, but if the frontier runs dry the pools are left running so the next iteration of a {@link ScrapeSession}
+     * can reuse them. A cancelled or stopped iteration still shuts them down, since tasks may be left running.
+     */
+    public ScrapeResult doScrapeIteration() {
+        return scrape(true);
+    }
+
+    private ScrapeResult scrape(final boolean keepPools) {
+        if (terminated) {
+            throw new IllegalStateException("The scheduler's pools have been shut down");
+        }
         int queuedSize = 0;
+        synchronized (this) {
+            dispatcherThread = Thread.currentThread();
+        }
         try {
             initializeScraper();
             submitScrapingTasksWhileThereIsEnoughWork();
-            collectResults();
+            collectResults(keepPools && frontierExhausted);
         } catch (Exception e) {
             logger.error("Exception occured", e);
         } finally {
+            stopDispatching();
+            cancelPausedHostLinks();
+            cancelLinkRetries();
+            stopCollectingResults();
+            if (!keepPools || terminated) {
+                closeResultsPublisher();
+            }
+            closePageFetcher();
             queuedSize = context.determineQueuedLinks().size();
         }
 
@@ -65,50 +186,453 @@ public abstract class AbstractScrapeScheduler<T extends ScrapeDetails> {
     }
 
     private void initializeScraper() {
-        AdultItemJsoupScraper.setScrapeCompromised(false);
+        hostCircuitBreakers.reset();
+        configureLinksQueue(context.getLinksQueue());
         context.initialize();
+        detailsTaskListener = createDetailsTaskListener(context.getLinksQueue());
+        workGeneratingScrapingThreadPool.setTaskListener(context.getLinksQueue());
+        detailsScrapingThreadPool.setTaskListener(detailsTaskListener);
+        resultsCollector = new CompletedResultsCollector<>(detailsScrapingCompletionService, createResultsSink());
+        resultsCollector.start();
+        pausedHostLinks = new DeferredLinks(context.getLinksQueue(), MAX_LINK_DEFERRALS);
+        linkRetryQueue = new LinkRetryQueue(context.getLinksQueue(), createRetryBackoffPolicy(), context.getDeadLetterFile());
+        context.getLinksQueue().setRetryQueue(linkRetryQueue);
         doSpecificInitialization();
     }
 
     protected abstract void doSpecificInitialization();
 
+    /**
+     * The items always go to {@link #createScrapedItemSink()}, which their links being visited and saved relies on, and then to the
+     * results publisher if there is one.
+     */
+    private ScrapedItemSink<T> createResultsSink() {
+        final ScrapedItemSink<? super T> scrapedItemSink = createScrapedItemSink();
+        final ScrapedItemPublisher<T> publisher = resultsPublisher;
+        return new ScrapedItemSink<T>() {
+            @Override
+            public void addScrapedItem(final T item) {
+                scrapedItemSink.addScrapedItem(item);
+                if (publisher != null) {
+                    publisher.addScrapedItem(item);
+                }
+            }
+        };
+    }
+
+    /**
+     * Where details results go while the scrape is running. Defaults to the context, which keeps them for {@link ScrapeContext#save()};
+     * a sink that writes items out instead keeps memory bounded by the tasks in flight.
+     */
+    protected ScrapedItemSink<? super T> createScrapedItemSink() {
+        return context;
+    }
+
+    /**
+     * Called before the queued links are loaded into the queue. By default a {@link PriorityScraperLinksQueue} is told to sort links
+     * with {@link #isDetailsLink(String)}.
+     */
+    protected void configureLinksQueue(final ScraperLinksQueue linksQueue) {
+        if (linksQueue instanceof PriorityScraperLinksQueue) {
+            ((PriorityScraperLinksQueue) linksQueue).setLinkClassifier(new PriorityScraperLinksQueue.LinkClassifier() {
+                @Override
+                public boolean isDetailsLink(final String link) {
+                    return AbstractScrapeScheduler.this.isDetailsLink(link);
+                }
+            });
+        }
+    }
+
+    private void detailsTaskCompleted() {
+        if (context.getLinksQueue() instanceof PriorityScraperLinksQueue) {
+            ((PriorityScraperLinksQueue) context.getLinksQueue()).detailsLinkCompleted();
+        }
+    }
+
+    /**
+     * Reports details tasks to the links queue and counts them, so a details link that no task was started for can be reported
+     * completed right away; see {@link #releaseDetailsLinkWithoutTask(String, long)}.
+     */
+    private ExecutorTaskListener createDetailsTaskListener(final ScraperLinksQueue linksQueue) {
+        return new ExecutorTaskListener() {
+            @Override
+            public void taskSubmitted() {
+                detailsTasksSubmitted.incrementAndGet();
+                linksQueue.taskSubmitted();
+            }
+
+            @Override
+            public void taskFinished() {
+                detailsTaskCompleted();
+                linksQueue.taskFinished();
+            }
+        };
+    }
+
+    /**
+     * A taken details link counts against the {@link PriorityScraperLinksQueue} high-water mark until its task finishes. Links that
+     * were deferred, skipped by {@link #submitDetailScrapingTask(String)} or failed to be submitted never get a task, so they are
+     * released here instead.
+     */
+    private void releaseDetailsLinkWithoutTask(final String link, final long detailsTasksSubmittedBefore) {
+        if (isDetailsLink(link) && detailsTasksSubmitted.get() == detailsTasksSubmittedBefore) {
+            detailsTaskCompleted();
+        }
+    }
+
+    /**
+     * Every task submitted to the two pools is counted by the links queue, so the loop ends as soon as the queue is empty and no task
+     * is left that could add to it. Links of a host whose circuit breaker is open are held back until it lets a request through again,
+     * while the other hosts keep being scraped. A scraper that finds it was detected ends the iteration.
+     */
     private void submitScrapingTasksWhileThereIsEnoughWork() {
-        while (context.stillHaveLinksToBeScraped(DETAILS_AWAIT_TIMEOUT)) {
-            if (AbstractAdultItemJsoupScraper.isScrapeCompromised()) {
-                logger.trace("Session expired, breaking");
+        frontierExhausted = false;
+        while (!cancelled) {
+            if (!context.stillHaveLinksToBeScraped()) {
+                frontierExhausted = true;
+                break;
+            }
+            if (hostCircuitBreakers.isStopped() || hostCircuitBreakers.isCompromised()) {
+                logger.trace("Scraping stopped or compromised, breaking");
                 break;
             }
 
             try {
+                awaitResultsDemand();
                 String link = context.getNextLinkToScrape();
-                if (isDetailsLink(link)) {
-                    submitDetailScrapingTask(link);
-                } else {
-                    submitWorkGeneratingTask(link);
+                final long detailsTasksSubmittedBefore = detailsTasksSubmitted.get();
+                try {
+                    dispatch(link);
+                } finally {
+                    releaseDetailsLinkWithoutTask(link, detailsTasksSubmittedBefore);
+                }
+            } catch (InterruptedException | RejectedExecutionException e) {
+                if (!cancelled) {
+                    logger.error("Exception occured", e);
                 }
-            } catch (InterruptedException e) {
-                logger.error("Exception occured", e);
                 break;
             }
         }
+        stopDispatching();
+    }
+
+    private void dispatch(final String link) throws InterruptedException {
+        final long hostPauseMillis = hostCircuitBreakers.getDelayBeforeRequestMillis(link, HOST_PROBE_WAIT_MILLIS);
+        if (hostPauseMillis > 0) {
+            if (!pausedHostLinks.defer(link, hostPauseMillis)) {
+                logger.trace("Host still paused, leaving link for the next run: " + link);
+            }
+        } else if (isDetailsLink(link)) {
+            submitDetailScrapingTask(link);
+        } else {
+            awaitDetailsScrapingCapacity();
+            submitWorkGeneratingTask(link);
+        }
+    }
+
+    /**
+     * Stops a running {@link #doScrape()} from another thread. No more links are submitted, the tasks still running are interrupted and
+     * the links they did not finish stay queued for the next run. Fetches give up on interrupt or at the latest after
+     * {@link JsoupParserUtil#getTimeoutMillis()}, so {@code doScrape()} returns within about that long.
+     */
+    public void cancel() {
+        synchronized (this) {
+            cancelled = true;
+            if (dispatcherThread != null) {
+                dispatcherThread.interrupt();
+            }
+        }
+        closeResultsPublisher();
+    }
+
+    /**
+     * Whether the pools were shut down, by {@link #shutdown()} or by an iteration that ended with tasks still running, after which the
+     * scheduler cannot scrape again.
+     */
+    public boolean isTerminated() {
+        return terminated;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Scrapers submitted to the pools should report to these, see {@link #withHostLimits(AbstractScraper)};
+     * the async tasks do so by themselves. Reset at the start of every iteration. {@link HostCircuitBreakers#stopAll()} stops the
+     * running one; after it ends, {@link HostCircuitBreakers#isCompromised()} tells whether a scraper was detected, e.g. so the runner
+     * can switch to another proxy.
+     */
+    public HostCircuitBreakers getHostCircuitBreakers() {
+        return hostCircuitBreakers;
+    }
+
+    /**
+     * Holds the requests to each host to the concurrency it sustains, within the pools' sizes; see {@link HostConcurrencyLimiter}.
+     * Scrapers submitted to the pools should use it, the async tasks do so by themselves. Unlike the breakers it is kept between
+     * iterations.
+     */
+    public HostConcurrencyLimiter getHostConcurrencyLimiter() {
+        return hostConcurrencyLimiter;
+    }
+
+    /**
+     * Hands {@code scraper} the scheduler's {@link #getHostCircuitBreakers()} and {@link #getHostConcurrencyLimiter()}.
+     */
+    protected <S extends AbstractScraper<?>> S withHostLimits(final S scraper) {
+        scraper.withHostCircuitBreakers(hostCircuitBreakers).withHostConcurrencyLimiter(hostConcurrencyLimiter);
+        return scraper;
+    }
+
+    /**
+     * The dispatching thread was only interrupted to cancel the scrape; clears that so the cleanup that follows can wait for the tasks.
+     */
+    private void stopDispatching() {
+        synchronized (this) {
+            dispatcherThread = null;
+            if (cancelled) {
+                Thread.interrupted();
+            }
+        }
+    }
+
+    /**
+     * How long finishing tasks are waited for before they are interrupted, and after that again for them to stop. The default is the
+     * fetch timeout, the longest a task should block on one request.
+     */
+    protected long getTerminationGraceMillis() {
+        return JsoupParserUtil.getTimeoutMillis();
+    }
+
+    /**
+     * Holds listing pages back while the details pool is full, so the links they would add don't pile up faster than they are scraped.
+     */
+    private void awaitDetailsScrapingCapacity() throws InterruptedException {
+        if (detailsScrapingThreadPool.isSaturated()) {
+            logger.trace("Details scraping pool is full, waiting before scraping the next listing page");
+            detailsScrapingThreadPool.awaitFreeSlot();
+        }
+    }
+
+    /**
+     * Holds dispatching back while the results publisher's subscribers leave too many finished details tasks waiting.
+     */
+    private void awaitResultsDemand() throws InterruptedException {
+        if (resultsPublisher != null && detailsCompletionQueue.size() >= maxPendingResults) {
+            logger.trace("Results are not consumed, waiting before scraping the next link");
+            detailsCompletionQueue.awaitSizeBelow(maxPendingResults);
+        }
+    }
+
+    private void closeResultsPublisher() {
+        final ScrapedItemPublisher<T> publisher = resultsPublisher;
+        if (publisher == null) {
+            return;
+        }
+        if (cancelled) {
+            publisher.closeExceptionally(new CancellationException("The scrape was cancelled"));
+        } else {
+            publisher.close();
+        }
     }
 
     protected abstract void submitWorkGeneratingTask(final String link);
 
+    /**
+     * Used by {@link #submitAsyncDetailScrapingTask(AbstractJsoupScraper)} and {@link #submitAsyncWorkGeneratingTask(AbstractJsoupScraper)};
+     * only created once one of them is called.
+     */
+    protected AsyncPageFetcher createPageFetcher() {
+        return new AsyncPageFetcher();
+    }
+
+    /**
+     * Makes the async tasks use a fetcher that outlives this scheduler, e.g. one shared by the jobs of a daemon. It is not closed when
+     * the scrape ends.
+     */
+    public void setSharedPageFetcher(final AsyncPageFetcher fetcher) {
+        sharedPageFetcher = fetcher;
+    }
+
+    protected AsyncPageFetcher getPageFetcher() {
+        final AsyncPageFetcher shared = sharedPageFetcher;
+        if (shared != null) {
+            return shared;
+        }
+        if (pageFetcher == null) {
+            pageFetcher = createPageFetcher();
+        }
+        return pageFetcher;
+    }
+
+    /**
+     * Scrapes a details link through the page fetcher instead of the details pool, so no thread waits on the network. The result
+     * reaches the completion service like that of a pooled task, and the task counts as in flight until it is there.
+     */
+    protected void submitAsyncDetailScrapingTask(final AbstractJsoupScraper<T> scraper) {
+        final ExecutorTaskListener listener = detailsTaskListener;
+        final CompletableFuture<T> scraped = startAsyncScraping(scraper, listener);
+        if (scraped != null) {
+            scraped.whenComplete(new BiConsumer<T, Throwable>() {
+                @Override
+                public void accept(final T details, final Throwable failure) {
+                    detailsCompletionQueue.add(scraped);
+                    listener.taskFinished();
+                }
+            });
+        }
+    }
+
+    protected void submitAsyncWorkGeneratingTask(final AbstractJsoupScraper<?> scraper) {
+        final CompletableFuture<?> scraped = startAsyncScraping(scraper, context.getLinksQueue());
+        if (scraped != null) {
+            scraped.whenComplete(new BiConsumer<Object, Throwable>() {
+                @Override
+                public void accept(final Object result, final Throwable failure) {
+                    if (failure != null) {
+                        logger.error("Exception occured", failure);
+                    }
+                    context.getLinksQueue().taskFinished();
+                }
+            });
+        }
+    }
+
+    private <S> CompletableFuture<S> startAsyncScraping(final AbstractJsoupScraper<S> scraper, final ExecutorTaskListener listener) {
+        withHostLimits(scraper);
+        listener.taskSubmitted();
+        try {
+            return scraper.scrapeAsync(getPageFetcher());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            logger.error("Exception occured", e);
+        }
+        listener.taskFinished();
+        return null;
+    }
+
+    /**
+     * Backoff for links whose scrape failed; see {@link LinkRetryQueue}. Only scrapers that know the links queue, like
+     * {@link AbstractWorkQueueAwareScraper}, report their failures to it.
+     */
+    protected BackoffPolicy createRetryBackoffPolicy() {
+        return new BackoffPolicy();
+    }
+
+    private void cancelLinkRetries() {
+        if (linkRetryQueue != null) {
+            context.getLinksQueue().setRetryQueue(null);
+            linkRetryQueue.cancelAll();
+            linkRetryQueue = null;
+        }
+    }
+
+    private void cancelPausedHostLinks() {
+        if (pausedHostLinks != null) {
+            pausedHostLinks.cancelAll();
+            pausedHostLinks = null;
+        }
+    }
+
+    private void closePageFetcher() {
+        if (pageFetcher != null) {
+            if (cancelled) {
+                pageFetcher.shutdownNow();
+            } else {
+                pageFetcher.close();
+            }
+            pageFetcher = null;
+        }
+    }
+
     protected abstract void submitDetailScrapingTask(final String link);
 
     protected abstract boolean isDetailsLink(final String link);
 
+    /**
+     * Shuts down the pools after the last {@link #doScrapeIteration()}; {@link #doScrape()} does that by itself.
+     */
+    public void shutdown() {
+        if (!terminated) {
+            awaitTerminationOfTheTasks();
+        }
+        closeResultsPublisher();
+    }
+
     private void awaitTerminationOfTheTasks() {
-        ExecutorsUtil.shutDownExecutorServiceAndAwaitTermination(workGeneratingScrapingThreadPool, DEFAULT_TERMINATION_AWAIT_INTERVAL_MINUTES,
-                TimeUnit.MINUTES);
-        ExecutorsUtil.shutDownExecutorServiceAndAwaitTermination(detailsScrapingThreadPool, DEFAULT_TERMINATION_AWAIT_INTERVAL_MINUTES,
-                TimeUnit.MINUTES);
+        terminated = true;
+        if (cancelled) {
+            workGeneratingScrapingThreadPool.shutdownNow();
+            detailsScrapingThreadPool.shutdownNow();
+        }
+        ExecutorsUtil.shutDownAndCancelAfter(workGeneratingScrapingThreadPool, getTerminationGraceMillis(), TimeUnit.MILLISECONDS);
+        ExecutorsUtil.shutDownAndCancelAfter(detailsScrapingThreadPool, getTerminationGraceMillis(), TimeUnit.MILLISECONDS);
     }
 
-    private void collectResults() {
-        awaitTerminationOfTheTasks();
+    /**
+     * With {@code tasksFinished} every task has already ended, as the links queue counted none in flight, so the pools are not shut down.
+     */
+    private void collectResults(final boolean tasksFinished) {
+        if (!tasksFinished) {
+            awaitTerminationOfTheTasks();
+        }
+        stopCollectingResults();
         context.collectResultsFromCompletionService(detailsScrapingCompletionService);
     }
 
+    private void stopCollectingResults() {
+        final CompletedResultsCollector<T> collector = resultsCollector;
+        if (collector == null) {
+            return;
+        }
+        resultsCollector = null;
+
+        try {
+            collector.finish();
+            logger.trace("Collected " + collector.getCollectedCount() + " results, " + collector.getFailedCount() + " tasks failed");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.error("Exception occured", e);
+        }
+    }
+
+    /**
+     * Completion queue that wakes the dispatcher waiting in {@link #awaitResultsDemand()} whenever a finished details task is taken.
+     */
+    private class DetailsCompletionQueue extends LinkedBlockingQueue<Future<T>> {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public Future<T> poll() {
+            return taken(super.poll());
+        }
+
+        @Override
+        public Future<T> poll(final long timeout, final TimeUnit unit) throws InterruptedException {
+            return taken(super.poll(timeout, unit));
+        }
+
+        @Override
+        public Future<T> take() throws InterruptedException {
+            return taken(super.take());
+        }
+
+        private Future<T> taken(final Future<T> completedTask) {
+            if (completedTask != null) {
+                synchronized (this) {
+                    notifyAll();
+                }
+            }
+            return completedTask;
+        }
+
+        private synchronized void awaitSizeBelow(final int maxSize) throws InterruptedException {
+            while (size() >= maxSize) {
+                wait();
+            }
+        }
+    }
+
 }
\ No newline at end of file
@@ -1,46 +1,120 @@
 package com.fingy.scrape;
 
 import java.util.concurrent.Callable;
-import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.fingy.concurrent.AdaptiveConcurrencyLimit;
 import com.fingy.scrape.exception.ScrapeException;
+import com.fingy.scrape.fetch.CircuitBreaker;
+import com.fingy.scrape.fetch.HostCircuitBreakers;
+import com.fingy.scrape.fetch.HostConcurrencyLimiter;
 
 public abstract class AbstractScraper<T> implements Callable<T> {
 
-    private static AtomicBoolean scrapeCompromised = new AtomicBoolean();
-    protected final Logger logger = LoggerFactory.getLogger(getClass());
+	protected final Logger logger = LoggerFactory.getLogger(getClass());
 
 	private final String scrapeUrl;
+	private volatile HostCircuitBreakers hostCircuitBreakers = new HostCircuitBreakers();
+	private volatile HostConcurrencyLimiter hostConcurrencyLimiter;
 
 	public AbstractScraper(String scrapeUrl) {
 		this.scrapeUrl = scrapeUrl;
 	}
 
-    public static boolean isScrapeCompromised() {
-        return scrapeCompromised.get();
-    }
+	/**
+	 * Set by the scheduler that runs the scraper, so it pauses hosts for that scheduler only. A scraper run on its own keeps breakers
+	 * that no other scraper sees.
+	 */
+	public AbstractScraper<T> withHostCircuitBreakers(final HostCircuitBreakers breakers) {
+		hostCircuitBreakers = breakers;
+		return this;
+	}
+
+	public HostCircuitBreakers getHostCircuitBreakers() {
+		return hostCircuitBreakers;
+	}
+
+	protected CircuitBreaker getHostCircuitBreaker() {
+		return hostCircuitBreakers.getBreakerFor(scrapeUrl);
+	}
+
+	/**
+	 * Set by the scheduler that runs the scraper, so its requests to each host are held to the limit the host sustains. A scraper run
+	 * on its own is bounded by its pool alone.
+	 */
+	public AbstractScraper<T> withHostConcurrencyLimiter(final HostConcurrencyLimiter limiter) {
+		hostConcurrencyLimiter = limiter;
+		return this;
+	}
+
+	public HostConcurrencyLimiter getHostConcurrencyLimiter() {
+		return hostConcurrencyLimiter;
+	}
+
+	/**
+	 * Limit of this link's host, or {@code null} while no {@link HostConcurrencyLimiter} is set.
+	 */
+	protected AdaptiveConcurrencyLimit getHostConcurrencyLimit() {
+		final HostConcurrencyLimiter limiter = hostConcurrencyLimiter;
+		return limiter == null ? null : limiter.getLimitFor(scrapeUrl);
+	}
 
-    public static void setScrapeCompromised(final boolean isExpired) {
-        scrapeCompromised.set(isExpired);
-    }
+	/**
+	 * Pauses scraping of this link's host and ends the scheduler's iteration, e.g. when the page shows that the session expired or the
+	 * scraper was detected; see {@link HostCircuitBreakers#markCompromised(String)}.
+	 */
+	protected void markHostCompromised() {
+		hostCircuitBreakers.markCompromised(scrapeUrl);
+	}
+
+	/**
+	 * Throws unless a request to this link's host may be sent now; see {@link CircuitBreaker#allowRequest()}.
+	 */
+	protected void checkHostAvailable() {
+		if (hostCircuitBreakers.isStopped()) {
+			throw new ScrapeException("Scraping stopped");
+		}
+		if (!getHostCircuitBreaker().allowRequest()) {
+			throw new ScrapeException("Scrape compromised, host paused: " + scrapeUrl);
+		}
+	}
 
-    protected abstract T scrapeLink();
+	protected abstract T scrapeLink();
 
 	public String getScrapeUrl() {
 		return scrapeUrl;
 	}
 
 	public T call() {
+		if (Thread.currentThread().isInterrupted()) {
+			throw new ScrapeException("Scrape cancelled: " + scrapeUrl);
+		}
 		try {
 			final T scrapedData =  scrapeLink();
 			logger.debug("Successfully scraped link " + scrapeUrl);
 			return scrapedData;
 		} catch (ScrapeException e) {
+			reportScrapeFailure(e);
 			throw e;
 		}
 	}
 
+	/**
+	 * Passes a failed scrape to {@link #scrapeFailed(ScrapeException)} unless the task was cancelled.
+	 */
+	protected final void reportScrapeFailure(final ScrapeException e) {
+		if (!Thread.currentThread().isInterrupted()) {
+			scrapeFailed(e);
+		}
+	}
+
+	/**
+	 * Called when scraping the link fails, before the exception is rethrown.
+	 */
+	protected void scrapeFailed(final ScrapeException e) {
+		// do nothing
+	}
+
 }
@@ -4,6 +4,7 @@ import java.util.Map;
 
 import com.fingy.scrape.jsoup.AbstractJsoupScraper;
 import com.fingy.scrape.context.ScraperLinksQueue;
+import com.fingy.scrape.exception.ScrapeException;
 
 public abstract class AbstractWorkQueueAwareScraper<T> extends AbstractJsoupScraper<T> {
 
@@ -22,4 +23,12 @@ public abstract class AbstractWorkQueueAwareScraper<T> extends AbstractJsoupScra
     public ScraperLinksQueue getLinksQueue() {
         return linksQueue;
     }
+
+    /**
+     * Hands the link to the queue's retry queue, if it has one, which only retries transient failures.
+     */
+    @Override
+    protected void scrapeFailed(final ScrapeException e) {
+        linksQueue.linkFailed(getScrapeUrl(), e);
+    }
 }
@@ -12,6 +12,8 @@ import org.jsoup.Jsoup;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.fingy.scrape.util.JsoupParserUtil;
+
 public class JsoupImageDownloader implements Runnable {
 	private final Logger logger = LoggerFactory.getLogger(getClass());
 
@@ -44,6 +46,6 @@ public class JsoupImageDownloader implements Runnable {
 	}
 
 	private Connection createAndSetUpImageConnection() {
-		return Jsoup.connect(imageUrl).cookies(cookies).userAgent(USER_AGENT).timeout(0).ignoreContentType(true);
+		return Jsoup.connect(imageUrl).cookies(cookies).userAgent(USER_AGENT).timeout(JsoupParserUtil.getTimeoutMillis()).ignoreContentType(true);
 	}
 }
\ No newline at end of file
@@ -0,0 +1,84 @@
+package com.fingy.scrape;
+
+import java.io.Closeable;
+
+import com.fingy.scrape.context.ScrapeContext;
+import com.fingy.scrape.context.ScrapeDetails;
+import com.fingy.scrape.context.ScrapeResult;
+
+/**
+ * Runs one scheduler for many iterations instead of building a new scheduler and context for each. The frontier, visited links and
+ * results stay in the context and the pools stay up between iterations, so an iteration costs no more for a large crawl than for a
+ * small one. The context is saved after every iteration; build it with an event log so that only appends the new events and rewrites
+ * the files once the log is due for compaction.
+ */
+public class ScrapeSession<T extends ScrapeDetails> implements Closeable {
+
+    private final AbstractScrapeScheduler<T> scheduler;
+    private final ScrapeContext context;
+    private int iterationCount;
+    private boolean closed;
+
+    public ScrapeSession(final AbstractScrapeScheduler<T> scheduler) {
+        this.scheduler = scheduler;
+        context = scheduler.context;
+    }
+
+    /**
+     * Scrapes until the frontier runs dry, the scheduler is cancelled or scraping is stopped, then saves the context. The links that
+     * were not scraped are queued again at the start of the next iteration.
+     */
+    public ScrapeResult runIteration() {
+        if (!canRunIteration()) {
+            throw new IllegalStateException("The scrape session is closed or its scheduler was shut down");
+        }
+        final ScrapeResult result = scheduler.doScrapeIteration();
+        context.save();
+        iterationCount++;
+        return result;
+    }
+
+    /**
+     * Runs iterations until one leaves nothing queued, {@code maxIterations} have run or the scheduler is cancelled or shut down, and
+     * returns the result of the last one.
+     */
+    public ScrapeResult runWhileThereAreQueuedLinks(final int maxIterations) {
+        if (maxIterations < 1) {
+            throw new IllegalArgumentException("At least one iteration has to run: " + maxIterations);
+        }
+        ScrapeResult result = runIteration();
+        for (int i = 1; i < maxIterations && result.getQueueSize() > 0 && !scheduler.isCancelled() && canRunIteration(); i++) {
+            result = runIteration();
+        }
+        return result;
+    }
+
+    /**
+     * False once the session is closed, or once an iteration that was stopped, cancelled or ended by a detected scraper had to shut
+     * the scheduler's pools down with tasks still running. To go on, close the session and start a new one on a new scheduler and
+     * context, which load what this one saved.
+     */
+    public boolean canRunIteration() {
+        return !closed && !scheduler.isTerminated();
+    }
+
+    public int getIterationCount() {
+        return iterationCount;
+    }
+
+    public void cancel() {
+        scheduler.cancel();
+    }
+
+    /**
+     * Shuts the scheduler's pools down and closes the context's event log. The context was already saved after the last iteration.
+     */
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            scheduler.shutdown();
+            context.close();
+        }
+    }
+}
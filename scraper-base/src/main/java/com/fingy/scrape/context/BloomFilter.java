@@ -0,0 +1,70 @@
+package com.fingy.scrape.context;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free Bloom filter over 64-bit hashes. Probe positions are derived from the single hash with double hashing, so callers only
+ * need to hash each key once.
+ */
+public class BloomFilter {
+
+    private final AtomicLongArray bits;
+    private final long bitCount;
+    private final int hashCount;
+
+    public BloomFilter(final long expectedInsertions, final double falsePositiveProbability) {
+        if (expectedInsertions <= 0) {
+            throw new IllegalArgumentException("Expected insertions must be positive: " + expectedInsertions);
+        }
+        if (falsePositiveProbability <= 0 || falsePositiveProbability >= 1) {
+            throw new IllegalArgumentException("False positive probability must be between 0 and 1: " + falsePositiveProbability);
+        }
+
+        final long optimalBitCount = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveProbability) / (Math.log(2) * Math.log(2)));
+        final int wordCount = (int) Math.min(Integer.MAX_VALUE - 8, (optimalBitCount + Long.SIZE - 1) / Long.SIZE);
+
+        bits = new AtomicLongArray(wordCount);
+        bitCount = (long) wordCount * Long.SIZE;
+        hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedInsertions * Math.log(2)));
+    }
+
+    public void put(final long hash) {
+        final long h1 = hash;
+        final long h2 = (hash >>> 32) | 1L;
+        for (int i = 0; i < hashCount; i++) {
+            setBit(probe(h1, h2, i));
+        }
+    }
+
+    public boolean mightContain(final long hash) {
+        final long h1 = hash;
+        final long h2 = (hash >>> 32) | 1L;
+        for (int i = 0; i < hashCount; i++) {
+            if (!isBitSet(probe(h1, h2, i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long probe(final long h1, final long h2, final int i) {
+        return ((h1 + i * h2) & Long.MAX_VALUE) % bitCount;
+    }
+
+    private void setBit(final long bitIndex) {
+        final int word = (int) (bitIndex >>> 6);
+        final long mask = 1L << bitIndex;
+
+        long current;
+        do {
+            current = bits.get(word);
+            if ((current & mask) != 0) {
+                return;
+            }
+        } while (!bits.compareAndSet(word, current, current | mask));
+    }
+
+    private boolean isBitSet(final long bitIndex) {
+        return (bits.get((int) (bitIndex >>> 6)) & (1L << bitIndex)) != 0;
+    }
+}
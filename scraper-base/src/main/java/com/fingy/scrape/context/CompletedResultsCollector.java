@@ -0,0 +1,98 @@
+package com.fingy.scrape.context;
+
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Drains a {@link CompletionService} on its own thread while the scrape is running and hands every result to a
+ * {@link ScrapedItemSink}. Finished tasks are taken off the completion queue right away, so only the results of tasks still in
+ * flight are held in memory. A failed task is logged and counted; it never stops the collecting of the others.
+ */
+public class CompletedResultsCollector<T> implements Runnable {
+
+    private static final long POLL_INTERVAL_MILLIS = 200;
+
+    private static Logger logger = LoggerFactory.getLogger(CompletedResultsCollector.class);
+
+    private final CompletionService<T> completionService;
+    private final ScrapedItemSink<? super T> sink;
+    private final Thread collectingThread;
+
+    private volatile boolean finishing;
+    private volatile int collectedCount;
+    private volatile int failedCount;
+
+    public CompletedResultsCollector(final CompletionService<T> completionService, final ScrapedItemSink<? super T> sink) {
+        this.completionService = completionService;
+        this.sink = sink;
+        collectingThread = new Thread(this, "scrape-results-collector");
+        collectingThread.setDaemon(true);
+    }
+
+    public void start() {
+        collectingThread.start();
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (!finishing) {
+                final Future<T> future = completionService.poll(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                if (future != null) {
+                    collect(future);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        Future<T> future;
+        while ((future = completionService.poll()) != null) {
+            collect(future);
+        }
+    }
+
+    private void collect(final Future<T> future) {
+        try {
+            final T result = future.get();
+            if (result != null) {
+                sink.addScrapedItem(result);
+                collectedCount++;
+            }
+        } catch (ExecutionException e) {
+            failedCount++;
+            logger.error("Exception occured", e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            failedCount++;
+            logger.error("Exception occured", e);
+        }
+    }
+
+    /**
+     * Collects whatever has already completed and stops the collecting thread. Call it once the executor behind the completion
+     * service has terminated, otherwise results of tasks that finish afterwards are left in the completion queue.
+     */
+    public void finish() throws InterruptedException {
+        finishing = true;
+        if (collectingThread.isAlive()) {
+            collectingThread.join();
+        } else if (collectingThread.getState() == Thread.State.NEW) {
+            run();
+        }
+    }
+
+    public int getCollectedCount() {
+        return collectedCount;
+    }
+
+    public int getFailedCount() {
+        return failedCount;
+    }
+}
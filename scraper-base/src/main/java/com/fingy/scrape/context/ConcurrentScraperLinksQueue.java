@@ -0,0 +1,234 @@
+package com.fingy.scrape.context;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedTransferQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Drop-in replacement for {@link SynchronizedScraperLinksQueue} that does not serialize scraper threads on a single monitor.
+ * Deduplication uses concurrent sets and the FIFO is a lock-free transfer queue, which hands each new link to exactly one waiting
+ * taker. The visited links store must be thread safe.
+ */
+public class ConcurrentScraperLinksQueue extends ScraperLinksQueue {
+
+    private final Set<String> queuedLinksSet;
+    private final LinkedTransferQueue<String> linksToTake;
+
+    private final ReentrantLock emptinessLock = new ReentrantLock();
+    private final Condition linksAvailable = emptinessLock.newCondition();
+    private final AtomicInteger emptinessWaiters = new AtomicInteger();
+    private final AtomicInteger inFlightTasks = new AtomicInteger();
+
+    public ConcurrentScraperLinksQueue() {
+        this(InMemoryVisitedLinksStore.createDefault(Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>())));
+    }
+
+    public ConcurrentScraperLinksQueue(final VisitedLinksStore visitedLinksStore) {
+        super(visitedLinksStore);
+        queuedLinksSet = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+        linksToTake = new LinkedTransferQueue<>();
+    }
+
+    @Override
+    public Collection<String> getQueuedLinks() {
+        return Collections.unmodifiableCollection(queuedLinksSet);
+    }
+
+    @Override
+    public int getSize() {
+        return getQueuedCount();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return hasNoLinksToTake();
+    }
+
+    @Override
+    public boolean delayedIsEmpty(final long timeoutMillis) {
+        if (hasNoLinksToTake()) {
+            awaitLinksWithTimeout(timeoutMillis);
+        }
+        return hasNoLinksToTake();
+    }
+
+    private void awaitLinksWithTimeout(final long timeoutMillis) {
+        emptinessWaiters.incrementAndGet();
+        emptinessLock.lock();
+        try {
+            if (hasNoLinksToTake()) {
+                linksAvailable.await(timeoutMillis, TimeUnit.MILLISECONDS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            emptinessLock.unlock();
+            emptinessWaiters.decrementAndGet();
+        }
+    }
+
+    @Override
+    public void taskSubmitted() {
+        inFlightTasks.incrementAndGet();
+    }
+
+    @Override
+    public void taskFinished() {
+        if (inFlightTasks.decrementAndGet() == 0) {
+            signalEmptinessWaiters();
+        }
+    }
+
+    @Override
+    public int getInFlightTaskCount() {
+        return inFlightTasks.get();
+    }
+
+    @Override
+    public boolean awaitLinksWhileTasksInFlight() {
+        emptinessWaiters.incrementAndGet();
+        emptinessLock.lock();
+        try {
+            while (hasNoLinksToTake() && inFlightTasks.get() > 0) {
+                linksAvailable.await();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            emptinessLock.unlock();
+            emptinessWaiters.decrementAndGet();
+        }
+        return !hasNoLinksToTake();
+    }
+
+    private void signalEmptinessWaiters() {
+        if (emptinessWaiters.get() > 0) {
+            emptinessLock.lock();
+            try {
+                linksAvailable.signalAll();
+            } finally {
+                emptinessLock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public int getVisitedSize() {
+        return getVisitedLinksStore().size();
+    }
+
+    @Override
+    public void add(final String linkToEnqueue) {
+        if (enqueueIfNotAlreadyQueued(linkToEnqueue)) {
+            signalEmptinessWaiters();
+            fireLinkQueued(linkToEnqueue);
+        }
+    }
+
+    private boolean enqueueIfNotAlreadyQueued(final String linkToEnqueue) {
+        if (markQueued(linkToEnqueue)) {
+            offerLink(linkToEnqueue);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public int addAllIfNotVisited(final Collection<String> linksToAdd) {
+        int numberAdded = 0;
+
+        for (String linkToEnqueue : linksToAdd) {
+            if (!isAlreadyVisited(linkToEnqueue) && enqueueIfNotAlreadyQueued(linkToEnqueue)) {
+                numberAdded++;
+                fireLinkQueued(linkToEnqueue);
+            }
+        }
+
+        signalEmptinessWaiters();
+        return numberAdded;
+    }
+
+    @Override
+    public void markVisited(final String linkToMarkVisited) {
+        if (getVisitedLinksStore().add(linkToMarkVisited)) {
+            fireLinkVisited(linkToMarkVisited);
+        }
+    }
+
+    @Override
+    public void markAllVisited(final Collection<String> linksToMarkVisited) {
+        for (String linkToMarkVisited : linksToMarkVisited) {
+            getVisitedLinksStore().restore(linkToMarkVisited);
+        }
+    }
+
+    @Override
+    public String take() throws InterruptedException {
+        return removeFromQueuedLinksSet(takeLink());
+    }
+
+    @Override
+    public String take(final long timeout) throws InterruptedException {
+        return removeFromQueuedLinksSet(pollLink(timeout));
+    }
+
+    private String removeFromQueuedLinksSet(final String taken) {
+        if (taken != null) {
+            unmarkQueued(taken);
+        }
+        return taken;
+    }
+
+    @Override
+    public String peek() {
+        return peekLink();
+    }
+
+    @Override
+    public boolean isVisited(final String link) {
+        return isAlreadyVisited(link);
+    }
+
+    private boolean isAlreadyVisited(final String linkToEnqueue) {
+        return getVisitedLinksStore().contains(linkToEnqueue);
+    }
+
+    protected boolean markQueued(final String linkToEnqueue) {
+        return queuedLinksSet.add(linkToEnqueue);
+    }
+
+    protected void unmarkQueued(final String takenLink) {
+        queuedLinksSet.remove(takenLink);
+    }
+
+    protected int getQueuedCount() {
+        return queuedLinksSet.size();
+    }
+
+    protected void offerLink(final String linkToEnqueue) {
+        linksToTake.offer(linkToEnqueue);
+    }
+
+    protected String takeLink() throws InterruptedException {
+        return linksToTake.take();
+    }
+
+    protected String pollLink(final long timeoutMillis) throws InterruptedException {
+        return linksToTake.poll(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    protected String peekLink() {
+        return linksToTake.peek();
+    }
+
+    protected boolean hasNoLinksToTake() {
+        return linksToTake.isEmpty();
+    }
+
+}
@@ -0,0 +1,109 @@
+package com.fingy.scrape.context;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Holds links back for a while and then puts them into the links queue again, e.g. links of a host whose circuit breaker is open.
+ * A held link counts as a task in flight, so the crawl does not end while links are waiting to come back. A link held back more
+ * than a given number of times is dropped for this run; it stays among the queued links that are saved for the next one.
+ */
+public class DeferredLinks {
+
+    private final ScraperLinksQueue linksQueue;
+    private final int maxDeferrals;
+    private final ConcurrentMap<String, Integer> deferralCounts = new ConcurrentHashMap<>();
+    private final Set<DeferredLink> pendingLinks = ConcurrentHashMap.newKeySet();
+    private final ScheduledExecutorService timer;
+
+    public DeferredLinks(final ScraperLinksQueue linksQueue, final int maxDeferrals) {
+        this.linksQueue = linksQueue;
+        this.maxDeferrals = maxDeferrals;
+        timer = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(final Runnable runnable) {
+                final Thread thread = new Thread(runnable, "deferred-links-timer");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Queues {@code link} again after {@code delayMillis}. Returns {@code false} if the link was already held back too often, or
+     * {@link #cancelAll()} was called, and it is dropped instead.
+     */
+    public boolean defer(final String link, final long delayMillis) {
+        final Integer deferrals = deferralCounts.get(link);
+        final int count = deferrals == null ? 1 : deferrals + 1;
+        if (count > maxDeferrals) {
+            return false;
+        }
+        deferralCounts.put(link, count);
+
+        final DeferredLink deferredLink = new DeferredLink(link);
+        linksQueue.taskSubmitted();
+        pendingLinks.add(deferredLink);
+        try {
+            timer.schedule(deferredLink, delayMillis, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            deferredLink.release(false);
+            return false;
+        }
+        return true;
+    }
+
+    public int getDeferralCount(final String link) {
+        final Integer deferrals = deferralCounts.get(link);
+        return deferrals == null ? 0 : deferrals;
+    }
+
+    public int getPendingCount() {
+        return pendingLinks.size();
+    }
+
+    /**
+     * Drops the links still held back, without queuing them, and stops the timer.
+     */
+    public void cancelAll() {
+        timer.shutdownNow();
+        for (DeferredLink pendingLink : pendingLinks) {
+            pendingLink.release(false);
+        }
+    }
+
+    private final class DeferredLink implements Runnable {
+
+        private final String link;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private DeferredLink(final String link) {
+            this.link = link;
+        }
+
+        @Override
+        public void run() {
+            release(true);
+        }
+
+        private void release(final boolean requeue) {
+            if (released.compareAndSet(false, true)) {
+                pendingLinks.remove(this);
+                try {
+                    if (requeue) {
+                        linksQueue.addIfNotVisited(link);
+                    }
+                } finally {
+                    linksQueue.taskFinished();
+                }
+            }
+        }
+    }
+}
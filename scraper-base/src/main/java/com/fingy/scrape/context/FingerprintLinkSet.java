@@ -0,0 +1,206 @@
+package com.fingy.scrape.context;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import com.fingy.scrape.util.UrlUtil;
+
+/**
+ * Set of links that keeps only a 64-bit fingerprint and a 32-bit check hash of each canonical link in open-addressing tables, about
+ * 20 bytes per link instead of the 150+ a {@code HashSet<String>} entry costs. The tables are split into independently locked
+ * segments so concurrent scrapers rarely contend. A link whose fingerprint is already taken by a link with a different check hash
+ * is kept as an exact string instead, so a fingerprint collision never makes one link pass for another.
+ */
+public class FingerprintLinkSet {
+
+    private static final int SEGMENT_BITS = 4;
+    private static final int SEGMENT_COUNT = 1 << SEGMENT_BITS;
+    private static final int INITIAL_SEGMENT_CAPACITY = 1024;
+    private static final long EMPTY_SLOT = 0L;
+    private static final long EMPTY_SLOT_REPLACEMENT = 1L;
+
+    private final Segment[] segments = new Segment[SEGMENT_COUNT];
+    private final long fingerprintMask;
+
+    public FingerprintLinkSet() {
+        this(-1L);
+    }
+
+    /**
+     * Only keeps the fingerprint bits in the mask, so tests can make links collide.
+     */
+    FingerprintLinkSet(final long fingerprintMask) {
+        this.fingerprintMask = fingerprintMask;
+        for (int i = 0; i < SEGMENT_COUNT; i++) {
+            segments[i] = new Segment();
+        }
+    }
+
+    public boolean add(final String link) {
+        final String canonical = UrlUtil.canonicalize(link);
+        final long fingerprint = maskedFingerprint(canonical);
+        return segmentFor(fingerprint).add(fingerprint, checkHash(canonical), canonical);
+    }
+
+    public boolean contains(final String link) {
+        final String canonical = UrlUtil.canonicalize(link);
+        final long fingerprint = maskedFingerprint(canonical);
+        return segmentFor(fingerprint).contains(fingerprint, checkHash(canonical), canonical);
+    }
+
+    public boolean remove(final String link) {
+        final String canonical = UrlUtil.canonicalize(link);
+        final long fingerprint = maskedFingerprint(canonical);
+        return segmentFor(fingerprint).remove(fingerprint, checkHash(canonical), canonical);
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    private Segment segmentFor(final long fingerprint) {
+        return segments[(int) (fingerprint >>> (Long.SIZE - SEGMENT_BITS))];
+    }
+
+    private long maskedFingerprint(final String canonical) {
+        final long masked = fingerprintOfCanonical(canonical) & fingerprintMask;
+        return masked == EMPTY_SLOT ? EMPTY_SLOT_REPLACEMENT : masked;
+    }
+
+    static long fingerprint(final String link) {
+        return fingerprintOfCanonical(UrlUtil.canonicalize(link));
+    }
+
+    private static long fingerprintOfCanonical(final String canonical) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < canonical.length(); i++) {
+            hash ^= canonical.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+
+        final long mixed = mix(hash);
+        return mixed == EMPTY_SLOT ? EMPTY_SLOT_REPLACEMENT : mixed;
+    }
+
+    /**
+     * Polynomial hash, independent of the FNV fingerprint, that tells apart links sharing a fingerprint.
+     */
+    private static int checkHash(final String canonical) {
+        return canonical.hashCode();
+    }
+
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private static final class Segment {
+
+        private long[] table = new long[INITIAL_SEGMENT_CAPACITY];
+        private int[] checks = new int[INITIAL_SEGMENT_CAPACITY];
+        private Set<String> collidingLinks;
+        private int size;
+
+        private synchronized boolean add(final long fingerprint, final int check, final String link) {
+            if (collidingLinks != null && collidingLinks.contains(link)) {
+                return false;
+            }
+
+            final int slot = find(fingerprint);
+            if (table[slot] == fingerprint) {
+                if (checks[slot] == check) {
+                    return false;
+                }
+                if (collidingLinks == null) {
+                    collidingLinks = new HashSet<>();
+                }
+                collidingLinks.add(link);
+                size++;
+                return true;
+            }
+
+            table[slot] = fingerprint;
+            checks[slot] = check;
+            size++;
+            if (size * 4 > table.length * 3) {
+                resize();
+            }
+            return true;
+        }
+
+        private synchronized boolean contains(final long fingerprint, final int check, final String link) {
+            final int slot = find(fingerprint);
+            if (table[slot] == fingerprint && checks[slot] == check) {
+                return true;
+            }
+            return collidingLinks != null && collidingLinks.contains(link);
+        }
+
+        /**
+         * Backward-shift deletion, so lookups never need tombstones to step over.
+         */
+        private synchronized boolean remove(final long fingerprint, final int check, final String link) {
+            if (collidingLinks != null && collidingLinks.remove(link)) {
+                size--;
+                return true;
+            }
+
+            final int slot = find(fingerprint);
+            if (table[slot] != fingerprint || checks[slot] != check) {
+                return false;
+            }
+
+            final int mask = table.length - 1;
+            int emptied = slot;
+            for (int next = (emptied + 1) & mask; table[next] != EMPTY_SLOT; next = (next + 1) & mask) {
+                final int home = (int) table[next] & mask;
+                if (((next - home) & mask) >= ((next - emptied) & mask)) {
+                    table[emptied] = table[next];
+                    checks[emptied] = checks[next];
+                    emptied = next;
+                }
+            }
+            table[emptied] = EMPTY_SLOT;
+            size--;
+            return true;
+        }
+
+        private synchronized int size() {
+            return size;
+        }
+
+        /**
+         * The slot holding the fingerprint, or the empty slot where it would go.
+         */
+        private int find(final long fingerprint) {
+            final int mask = table.length - 1;
+            int slot = (int) fingerprint & mask;
+            while (table[slot] != EMPTY_SLOT && table[slot] != fingerprint) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        private void resize() {
+            final long[] oldTable = table;
+            final int[] oldChecks = checks;
+            table = new long[oldTable.length * 2];
+            checks = new int[oldTable.length * 2];
+            for (int i = 0; i < oldTable.length; i++) {
+                if (oldTable[i] != EMPTY_SLOT) {
+                    final int slot = find(oldTable[i]);
+                    table[slot] = oldTable[i];
+                    checks[slot] = oldChecks[i];
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.fingy.scrape.context;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Visited links store for crawls too large to keep every visited URL on the heap. Only fingerprints are retained, plus the rare
+ * links whose fingerprint collides and the links visited since the last save, which the {@link ScrapeContext} appends to the visited file.
+ */
+public class FingerprintVisitedLinksStore implements VisitedLinksStore {
+
+    private final FingerprintLinkSet visitedFingerprints = new FingerprintLinkSet();
+    private final Queue<String> linksToPersist = new ConcurrentLinkedQueue<>();
+
+    @Override
+    public boolean add(final String link) {
+        if (visitedFingerprints.add(link)) {
+            linksToPersist.add(link);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void restore(final String link) {
+        visitedFingerprints.add(link);
+    }
+
+    @Override
+    public boolean contains(final String link) {
+        return visitedFingerprints.contains(link);
+    }
+
+    @Override
+    public int size() {
+        return visitedFingerprints.size();
+    }
+
+    @Override
+    public Collection<String> getLinks() {
+        return Collections.unmodifiableCollection(linksToPersist);
+    }
+
+    @Override
+    public void markPersisted(final Collection<String> persistedLinks) {
+        for (int i = 0; i < persistedLinks.size(); i++) {
+            linksToPersist.poll();
+        }
+    }
+
+    @Override
+    public boolean retainsAllLinks() {
+        return false;
+    }
+}
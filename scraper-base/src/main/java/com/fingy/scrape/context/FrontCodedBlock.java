@@ -0,0 +1,134 @@
+package com.fingy.scrape.context;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+/**
+ * Block of sorted links in front-coded form: a varint count, then per link the varint length of the UTF-8 prefix it shares with the
+ * previous link, the varint length of the rest, and the rest. Links crawled from one site share most of their bytes, so a block
+ * takes a fraction of the space of the same links as {@link String}s.
+ */
+final class FrontCodedBlock {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private FrontCodedBlock() {
+    }
+
+    static final class Writer {
+
+        private final ByteArrayOutputStream entries = new ByteArrayOutputStream();
+        private byte[] previous = new byte[0];
+        private int count;
+
+        void add(final String link) {
+            final byte[] current = link.getBytes(UTF_8);
+            final int shared = sharedPrefixLength(previous, current);
+
+            writeVarInt(entries, shared);
+            writeVarInt(entries, current.length - shared);
+            entries.write(current, shared, current.length - shared);
+
+            previous = current;
+            count++;
+        }
+
+        int getCount() {
+            return count;
+        }
+
+        byte[] toByteArray() {
+            final ByteArrayOutputStream block = new ByteArrayOutputStream(entries.size() + 5);
+            writeVarInt(block, count);
+            final byte[] body = entries.toByteArray();
+            block.write(body, 0, body.length);
+            return block.toByteArray();
+        }
+
+        private static int sharedPrefixLength(final byte[] first, final byte[] second) {
+            final int maxLength = Math.min(first.length, second.length);
+            int shared = 0;
+            while (shared < maxLength && first[shared] == second[shared]) {
+                shared++;
+            }
+            return shared;
+        }
+
+        private static void writeVarInt(final ByteArrayOutputStream output, int value) {
+            while ((value & ~0x7f) != 0) {
+                output.write((value & 0x7f) | 0x80);
+                value >>>= 7;
+            }
+            output.write(value);
+        }
+    }
+
+    /**
+     * Walks the links of a block in order. Reads through a duplicate of the buffer, so several readers can share one block.
+     */
+    static final class Reader {
+
+        private final ByteBuffer block;
+        private int remaining;
+        private byte[] current = new byte[64];
+        private int currentLength;
+
+        Reader(final ByteBuffer buffer, final int blockStart) {
+            block = buffer.duplicate();
+            block.position(blockStart);
+            remaining = readVarInt(block);
+        }
+
+        boolean next() {
+            if (remaining == 0) {
+                return false;
+            }
+
+            final int shared = readVarInt(block);
+            final int suffixLength = readVarInt(block);
+            if (shared + suffixLength > current.length) {
+                current = Arrays.copyOf(current, Math.max(current.length * 2, shared + suffixLength));
+            }
+            block.get(current, shared, suffixLength);
+            currentLength = shared + suffixLength;
+            remaining--;
+            return true;
+        }
+
+        String getLink() {
+            return new String(current, 0, currentLength, UTF_8);
+        }
+
+        private static int readVarInt(final ByteBuffer buffer) {
+            int value = 0;
+            for (int shift = 0;; shift += 7) {
+                final byte b = buffer.get();
+                value |= (b & 0x7f) << shift;
+                if (b >= 0) {
+                    return value;
+                }
+            }
+        }
+    }
+
+    static String firstLink(final ByteBuffer buffer, final int blockStart) {
+        final Reader reader = new Reader(buffer, blockStart);
+        return reader.next() ? reader.getLink() : null;
+    }
+
+    static boolean contains(final ByteBuffer buffer, final int blockStart, final String link) {
+        final Reader reader = new Reader(buffer, blockStart);
+        while (reader.next()) {
+            final int comparison = reader.getLink().compareTo(link);
+            if (comparison == 0) {
+                return true;
+            }
+            if (comparison > 0) {
+                return false;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,305 @@
+package com.fingy.scrape.context;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Sorted set of links kept as {@link FrontCodedBlock}s in a single byte array. New links collect in a small sorted buffer that is
+ * merged into the blocks once it reaches an eighth of the set or its byte budget. Adding a link costs O(log n) amortized: the sorted
+ * buffer insert, plus the share of a merge that rewrites the whole set. Once the byte budget rather than the set size triggers the
+ * merges, they come every budget's worth of links, so a very large set needs a larger budget. The merge runs outside the lock on the
+ * buffer it swapped out, and lookups keep checking that buffer until the merged blocks are swapped in. Iteration is in
+ * {@link String} order. Wrapped in an {@link InMemoryVisitedLinksStore} it keeps a frontier's visited links exact at a fraction of the
+ * heap a {@code HashSet} needs; the queued links a frontier holds in memory are not front-coded.
+ */
+public class FrontCodedLinkSet extends AbstractSet<String> {
+
+    static final int BLOCK_SIZE = 16;
+
+    public static final long DEFAULT_MAX_PENDING_BYTES = 8L * 1024 * 1024;
+
+    private static final int MIN_MERGE_THRESHOLD = 1024;
+    private static final int PENDING_LINK_OVERHEAD_BYTES = 80;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final ReentrantLock mergeLock = new ReentrantLock();
+    private final long maxPendingBytes;
+
+    private ByteBuffer blocks = ByteBuffer.allocate(0);
+    private int[] blockOffsets = new int[0];
+    private int encodedSize;
+    private TreeSet<String> pendingLinks = new TreeSet<>();
+    private long pendingBytes;
+    private TreeSet<String> mergingLinks = new TreeSet<>();
+
+    public FrontCodedLinkSet() {
+        this(DEFAULT_MAX_PENDING_BYTES);
+    }
+
+    /**
+     * Merges the buffer early once its links take about {@code maxPendingBytes} of heap, however small it is next to the blocks.
+     */
+    public FrontCodedLinkSet(final long maxPendingBytes) {
+        if (maxPendingBytes <= 0) {
+            throw new IllegalArgumentException("Pending bytes must be positive: " + maxPendingBytes);
+        }
+        this.maxPendingBytes = maxPendingBytes;
+    }
+
+    @Override
+    public boolean add(final String link) {
+        final boolean mergeDue;
+        lock.writeLock().lock();
+        try {
+            if (mergingLinks.contains(link) || encodedContains(link) || !pendingLinks.add(link)) {
+                return false;
+            }
+            pendingBytes += PENDING_LINK_OVERHEAD_BYTES + 2L * link.length();
+            mergeDue = pendingBytes >= maxPendingBytes || pendingLinks.size() >= Math.max(MIN_MERGE_THRESHOLD, encodedSize / 8);
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        if (mergeDue && mergeLock.tryLock()) {
+            try {
+                mergePendingLinks();
+            } finally {
+                mergeLock.unlock();
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean contains(final Object link) {
+        if (!(link instanceof String)) {
+            return false;
+        }
+
+        lock.readLock().lock();
+        try {
+            return pendingLinks.contains(link) || mergingLinks.contains(link) || encodedContains((String) link);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private boolean encodedContains(final String link) {
+        int low = 0;
+        int high = blockOffsets.length - 1;
+        while (low <= high) {
+            final int middle = (low + high) >>> 1;
+            final int comparison = FrontCodedBlock.firstLink(blocks, blockOffsets[middle]).compareTo(link);
+            if (comparison == 0) {
+                return true;
+            }
+            if (comparison < 0) {
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+
+        return high >= 0 && FrontCodedBlock.contains(blocks, blockOffsets[high], link);
+    }
+
+    @Override
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return encodedSize + mergingLinks.size() + pendingLinks.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Merges the buffered links into the blocks. Called on its own once the buffer is big enough; calling it before a long read-only
+     * phase frees the buffer early.
+     */
+    public void compact() {
+        mergeLock.lock();
+        try {
+            mergePendingLinks();
+        } finally {
+            mergeLock.unlock();
+        }
+    }
+
+    /**
+     * Called with the merge lock held. The blocks are never modified in place, so the ones captured here stay valid while the merged
+     * copy is written without holding the read/write lock.
+     */
+    private void mergePendingLinks() {
+        final ByteBuffer encodedBlocks;
+        final int[] encodedOffsets;
+        final TreeSet<String> linksToMerge;
+        lock.writeLock().lock();
+        try {
+            if (pendingLinks.isEmpty()) {
+                return;
+            }
+            encodedBlocks = blocks;
+            encodedOffsets = blockOffsets;
+            linksToMerge = pendingLinks;
+            mergingLinks = pendingLinks;
+            pendingLinks = new TreeSet<>();
+            pendingBytes = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        final ByteArrayOutputStream mergedBlocks = new ByteArrayOutputStream(encodedBlocks.capacity() + linksToMerge.size() * 16);
+        final List<Integer> mergedOffsets = new ArrayList<>();
+        FrontCodedBlock.Writer writer = new FrontCodedBlock.Writer();
+        int mergedSize = 0;
+
+        final Iterator<String> merged = new SortedMergeIterator(new EncodedLinksIterator(encodedBlocks, encodedOffsets),
+                linksToMerge.iterator());
+        while (merged.hasNext()) {
+            writer.add(merged.next());
+            mergedSize++;
+            if (writer.getCount() == BLOCK_SIZE) {
+                mergedOffsets.add(mergedBlocks.size());
+                final byte[] block = writer.toByteArray();
+                mergedBlocks.write(block, 0, block.length);
+                writer = new FrontCodedBlock.Writer();
+            }
+        }
+        if (writer.getCount() > 0) {
+            mergedOffsets.add(mergedBlocks.size());
+            final byte[] block = writer.toByteArray();
+            mergedBlocks.write(block, 0, block.length);
+        }
+
+        final ByteBuffer mergedBuffer = ByteBuffer.wrap(mergedBlocks.toByteArray());
+        final int[] offsets = new int[mergedOffsets.size()];
+        for (int i = 0; i < offsets.length; i++) {
+            offsets[i] = mergedOffsets.get(i);
+        }
+
+        lock.writeLock().lock();
+        try {
+            blocks = mergedBuffer;
+            blockOffsets = offsets;
+            encodedSize = mergedSize;
+            mergingLinks = new TreeSet<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Iterates over a snapshot taken when the iterator is created; links added afterwards are not seen.
+     */
+    @Override
+    public Iterator<String> iterator() {
+        lock.readLock().lock();
+        try {
+            final Iterator<String> encoded = new SortedMergeIterator(new EncodedLinksIterator(blocks, blockOffsets),
+                    mergingLinks.iterator());
+            return new SortedMergeIterator(encoded, new ArrayList<>(pendingLinks).iterator());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static final class EncodedLinksIterator implements Iterator<String> {
+
+        private final ByteBuffer blocks;
+        private final int[] blockOffsets;
+        private int nextBlock;
+        private FrontCodedBlock.Reader reader;
+        private String nextLink;
+
+        private EncodedLinksIterator(final ByteBuffer blocks, final int[] blockOffsets) {
+            this.blocks = blocks;
+            this.blockOffsets = blockOffsets;
+            advance();
+        }
+
+        private void advance() {
+            while (reader == null || !reader.next()) {
+                if (nextBlock == blockOffsets.length) {
+                    nextLink = null;
+                    return;
+                }
+                reader = new FrontCodedBlock.Reader(blocks, blockOffsets[nextBlock++]);
+            }
+            nextLink = reader.getLink();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextLink != null;
+        }
+
+        @Override
+        public String next() {
+            if (nextLink == null) {
+                throw new NoSuchElementException();
+            }
+            final String link = nextLink;
+            advance();
+            return link;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /**
+     * Merges two sorted iterators that have no links in common.
+     */
+    private static final class SortedMergeIterator implements Iterator<String> {
+
+        private final Iterator<String> first;
+        private final Iterator<String> second;
+        private String nextFromFirst;
+        private String nextFromSecond;
+
+        private SortedMergeIterator(final Iterator<String> first, final Iterator<String> second) {
+            this.first = first;
+            this.second = second;
+            nextFromFirst = first.hasNext() ? first.next() : null;
+            nextFromSecond = second.hasNext() ? second.next() : null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextFromFirst != null || nextFromSecond != null;
+        }
+
+        @Override
+        public String next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            final String link;
+            if (nextFromSecond == null || (nextFromFirst != null && nextFromFirst.compareTo(nextFromSecond) < 0)) {
+                link = nextFromFirst;
+                nextFromFirst = first.hasNext() ? first.next() : null;
+            } else {
+                link = nextFromSecond;
+                nextFromSecond = second.hasNext() ? second.next() : null;
+            }
+            return link;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.fingy.scrape.context;
+
+public class HostPolitenessPolicy {
+
+    public static final HostPolitenessPolicy UNRESTRICTED = new HostPolitenessPolicy(0, 0, Double.POSITIVE_INFINITY, 1);
+
+    private final long minDelayMillis;
+    private final long maxRandomDelayMillis;
+    private final double requestsPerSecond;
+    private final int burstSize;
+
+    public HostPolitenessPolicy(final long minDelayMillis, final long maxRandomDelayMillis) {
+        this(minDelayMillis, maxRandomDelayMillis, Double.POSITIVE_INFINITY, 1);
+    }
+
+    public HostPolitenessPolicy(final long minDelayMillis, final long maxRandomDelayMillis, final double requestsPerSecond,
+            final int burstSize) {
+        if (minDelayMillis < 0 || maxRandomDelayMillis < 0 || requestsPerSecond <= 0 || burstSize < 1) {
+            throw new IllegalArgumentException("Invalid politeness policy");
+        }
+
+        this.minDelayMillis = minDelayMillis;
+        this.maxRandomDelayMillis = maxRandomDelayMillis;
+        this.requestsPerSecond = requestsPerSecond;
+        this.burstSize = burstSize;
+    }
+
+    public long getMinDelayMillis() {
+        return minDelayMillis;
+    }
+
+    public long getMaxRandomDelayMillis() {
+        return maxRandomDelayMillis;
+    }
+
+    public double getRequestsPerSecond() {
+        return requestsPerSecond;
+    }
+
+    public int getBurstSize() {
+        return burstSize;
+    }
+
+    public boolean isRateLimited() {
+        return !Double.isInfinite(requestsPerSecond);
+    }
+}
@@ -0,0 +1,59 @@
+package com.fingy.scrape.context;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tells when the next request to one host may start under a {@link HostPolitenessPolicy}: after the minimum delay plus a random delay
+ * since the last request, and once a token is available if the policy limits the rate. Callers guard it as they guard the host's
+ * links; only {@link #getDelayNanos()} may be read from other threads.
+ */
+public class HostRequestPacer {
+
+    private double tokens;
+    private long lastRefillNanos;
+    private volatile long eligibleAtNanos;
+
+    public HostRequestPacer(final HostPolitenessPolicy policy) {
+        tokens = policy.getBurstSize();
+        lastRefillNanos = System.nanoTime();
+        eligibleAtNanos = lastRefillNanos;
+    }
+
+    /**
+     * A request was just started; the next one has to wait as {@code requestPolicy} says.
+     */
+    public void recordRequest(final HostPolitenessPolicy requestPolicy) {
+        final long now = System.nanoTime();
+        long nextEligibleAt = now + TimeUnit.MILLISECONDS.toNanos(requestPolicy.getMinDelayMillis() + randomDelayMillis(requestPolicy));
+
+        if (requestPolicy.isRateLimited()) {
+            refillTokens(requestPolicy, now);
+            tokens -= 1;
+            if (tokens < 1) {
+                long nanosUntilNextToken = (long) ((1 - tokens) * TimeUnit.SECONDS.toNanos(1) / requestPolicy.getRequestsPerSecond());
+                nextEligibleAt = Math.max(nextEligibleAt, now + nanosUntilNextToken);
+            }
+        }
+
+        eligibleAtNanos = nextEligibleAt;
+    }
+
+    private long randomDelayMillis(final HostPolitenessPolicy requestPolicy) {
+        long maxRandomDelay = requestPolicy.getMaxRandomDelayMillis();
+        return maxRandomDelay > 0 ? ThreadLocalRandom.current().nextLong(maxRandomDelay + 1) : 0;
+    }
+
+    private void refillTokens(final HostPolitenessPolicy requestPolicy, final long now) {
+        double refilled = (now - lastRefillNanos) * requestPolicy.getRequestsPerSecond() / TimeUnit.SECONDS.toNanos(1);
+        tokens = Math.min(requestPolicy.getBurstSize(), tokens + refilled);
+        lastRefillNanos = now;
+    }
+
+    /**
+     * How long until the host may be sent the next request; 0 or less once it may.
+     */
+    public long getDelayNanos() {
+        return eligibleAtNanos - System.nanoTime();
+    }
+}
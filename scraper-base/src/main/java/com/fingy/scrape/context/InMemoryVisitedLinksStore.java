@@ -0,0 +1,65 @@
+package com.fingy.scrape.context;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * Keeps every visited link in the given set, which is what {@link ScraperLinksQueue} has always done.
+ */
+public class InMemoryVisitedLinksStore implements VisitedLinksStore {
+
+    /**
+     * System property that, set to {@code true}, makes the queues keep their visited links in a {@link FrontCodedLinkSet} unless
+     * they are given a store.
+     */
+    public static final String FRONT_CODED_PROPERTY = "scraper.visitedLinks.frontCoded";
+
+    private final Set<String> visitedLinks;
+
+    public InMemoryVisitedLinksStore(final Set<String> visitedLinks) {
+        this.visitedLinks = visitedLinks;
+    }
+
+    /**
+     * The store a queue uses when it is not given one: over {@code heapSet}, or over a {@link FrontCodedLinkSet} when
+     * {@link #FRONT_CODED_PROPERTY} is set.
+     */
+    public static InMemoryVisitedLinksStore createDefault(final Set<String> heapSet) {
+        return new InMemoryVisitedLinksStore(Boolean.getBoolean(FRONT_CODED_PROPERTY) ? new FrontCodedLinkSet() : heapSet);
+    }
+
+    @Override
+    public boolean add(final String link) {
+        return visitedLinks.add(link);
+    }
+
+    @Override
+    public void restore(final String link) {
+        visitedLinks.add(link);
+    }
+
+    @Override
+    public boolean contains(final String link) {
+        return visitedLinks.contains(link);
+    }
+
+    @Override
+    public int size() {
+        return visitedLinks.size();
+    }
+
+    @Override
+    public Collection<String> getLinks() {
+        return Collections.unmodifiableCollection(visitedLinks);
+    }
+
+    @Override
+    public void markPersisted(final Collection<String> persistedLinks) {
+    }
+
+    @Override
+    public boolean retainsAllLinks() {
+        return true;
+    }
+}
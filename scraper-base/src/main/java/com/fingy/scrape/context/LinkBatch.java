@@ -0,0 +1,39 @@
+package com.fingy.scrape.context;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Collects the links a scraper finds on one page and queues them together. Links are de-duplicated locally, as they are spelled, and
+ * {@link #flush()} takes the frontier's lock once per page instead of once per anchor. Not thread safe; each task uses its own.
+ */
+public class LinkBatch {
+
+    private final ScraperLinksQueue linksQueue;
+    private final Set<String> links = new LinkedHashSet<>();
+
+    public LinkBatch(final ScraperLinksQueue linksQueue) {
+        this.linksQueue = linksQueue;
+    }
+
+    public void add(final String link) {
+        links.add(link);
+    }
+
+    public int size() {
+        return links.size();
+    }
+
+    /**
+     * Queues the collected links that are not visited yet with one {@link ScraperLinksQueue#addAllIfNotVisited(java.util.Collection)}
+     * and empties the batch. Returns the number of links queued.
+     */
+    public int flush() {
+        if (links.isEmpty()) {
+            return 0;
+        }
+        final int queued = linksQueue.addAllIfNotVisited(links);
+        links.clear();
+        return queued;
+    }
+}
@@ -0,0 +1,85 @@
+package com.fingy.scrape.context;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fingy.concurrent.BackoffPolicy;
+import com.fingy.scrape.fetch.HostCircuitBreakers;
+import com.fingy.scrape.fetch.HostConcurrencyLimiter;
+
+/**
+ * Puts links whose scrape failed back into the links queue after a backoff, so transient failures are retried within the run instead
+ * of waiting for the next one. A link that keeps failing is written to a dead-letter file with the last failure once it has used up
+ * its attempts, and so is a link that failed for good, e.g. because its page could not be parsed; either way it stays among the
+ * queued links saved for the next run.
+ */
+public class LinkRetryQueue {
+
+    private static final String ENCODING = "UTF-8";
+
+    private static Logger logger = LoggerFactory.getLogger(LinkRetryQueue.class);
+
+    private final BackoffPolicy backoffPolicy;
+    private final File deadLetterFile;
+    private final DeferredLinks pendingRetries;
+
+    /**
+     * Without a {@code deadLetterFile} links that used up their attempts are only logged.
+     */
+    public LinkRetryQueue(final ScraperLinksQueue linksQueue, final BackoffPolicy backoffPolicy, final File deadLetterFile) {
+        this.backoffPolicy = backoffPolicy;
+        this.deadLetterFile = deadLetterFile;
+        pendingRetries = new DeferredLinks(linksQueue, backoffPolicy.getMaxRetries());
+    }
+
+    /**
+     * Called by the task that failed to scrape {@code link}, before it finishes, so the crawl cannot end between the failure and the
+     * retry being counted as in flight.
+     */
+    public void retry(final String link, final Throwable failure) {
+        final int retry = pendingRetries.getDeferralCount(link) + 1;
+        if (!isTransient(failure) || retry > backoffPolicy.getMaxRetries()
+                || !pendingRetries.defer(link, backoffPolicy.getDelayMillis(retry))) {
+            deadLetter(link, failure, retry);
+        }
+    }
+
+    /**
+     * Failures a later attempt may not run into: timeouts, connection problems and the responses of a blocking or overloaded host.
+     */
+    public static boolean isTransient(final Throwable failure) {
+        return HostCircuitBreakers.isHostFailure(failure) || HostConcurrencyLimiter.isOverload(failure);
+    }
+
+    public int getRetryCount(final String link) {
+        return pendingRetries.getDeferralCount(link);
+    }
+
+    public int getPendingRetryCount() {
+        return pendingRetries.getPendingCount();
+    }
+
+    private synchronized void deadLetter(final String link, final Throwable failure, final int attempts) {
+        logger.trace("Giving up on link after " + attempts + " attempts: " + link);
+        if (deadLetterFile == null) {
+            return;
+        }
+        try {
+            FileUtils.writeLines(deadLetterFile, ENCODING, Collections.singleton(link + "\t" + failure), true);
+        } catch (IOException e) {
+            logger.error("Exception occured", e);
+        }
+    }
+
+    /**
+     * Drops the retries still waiting; their links stay queued for the next run.
+     */
+    public void cancelAll() {
+        pendingRetries.cancelAll();
+    }
+}
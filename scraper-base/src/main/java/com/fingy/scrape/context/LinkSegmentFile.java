@@ -0,0 +1,132 @@
+package com.fingy.scrape.context;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Append-only, memory-mapped file of length-prefixed UTF-8 links. Links are read back in the order they were appended. Not thread
+ * safe, {@link SpillingScraperLinksQueue} only touches segments while holding its lock.
+ */
+class LinkSegmentFile {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final File file;
+    private final MappedByteBuffer buffer;
+    private int writePosition;
+    private int readPosition;
+    private int linkCount;
+
+    LinkSegmentFile(final File file, final int capacity) throws IOException {
+        this.file = file;
+
+        final RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw");
+        try {
+            buffer = randomAccessFile.getChannel().map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        } finally {
+            randomAccessFile.close();
+        }
+    }
+
+    static int recordSize(final String link) {
+        return Integer.SIZE / Byte.SIZE + link.getBytes(UTF_8).length;
+    }
+
+    boolean append(final String link) {
+        final byte[] bytes = link.getBytes(UTF_8);
+        if (buffer.capacity() - writePosition < Integer.SIZE / Byte.SIZE + bytes.length) {
+            return false;
+        }
+
+        buffer.putInt(writePosition, bytes.length);
+        final ByteBuffer target = buffer.duplicate();
+        target.position(writePosition + Integer.SIZE / Byte.SIZE);
+        target.put(bytes);
+
+        writePosition = target.position();
+        linkCount++;
+        return true;
+    }
+
+    String read() {
+        if (readPosition >= writePosition) {
+            return null;
+        }
+
+        final String link = readAt(buffer, readPosition);
+        readPosition += Integer.SIZE / Byte.SIZE + buffer.getInt(readPosition);
+        linkCount--;
+        return link;
+    }
+
+    String peek() {
+        return readPosition < writePosition ? readAt(buffer, readPosition) : null;
+    }
+
+    private static String readAt(final ByteBuffer buffer, final int position) {
+        final byte[] bytes = new byte[buffer.getInt(position)];
+        final ByteBuffer source = buffer.duplicate();
+        source.position(position + Integer.SIZE / Byte.SIZE);
+        source.get(bytes);
+        return new String(bytes, UTF_8);
+    }
+
+    /**
+     * Snapshot of the links not read yet, which stays readable after the segment has been drained and deleted.
+     */
+    Iterable<String> unreadLinks() {
+        final ByteBuffer snapshot = buffer.duplicate();
+        final int from = readPosition;
+        final int to = writePosition;
+
+        return new Iterable<String>() {
+            @Override
+            public Iterator<String> iterator() {
+                return new Iterator<String>() {
+                    private int position = from;
+
+                    @Override
+                    public boolean hasNext() {
+                        return position < to;
+                    }
+
+                    @Override
+                    public String next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+                        final String link = readAt(snapshot, position);
+                        position += Integer.SIZE / Byte.SIZE + snapshot.getInt(position);
+                        return link;
+                    }
+
+                    @Override
+                    public void remove() {
+                        throw new UnsupportedOperationException();
+                    }
+                };
+            }
+        };
+    }
+
+    boolean isDrained() {
+        return linkCount == 0;
+    }
+
+    int getLinkCount() {
+        return linkCount;
+    }
+
+    void delete() {
+        if (!file.delete()) {
+            file.deleteOnExit();
+        }
+    }
+}
@@ -0,0 +1,413 @@
+package com.fingy.scrape.context;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.RandomAccess;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+
+/**
+ * Binary snapshot of the details, visited links and queued links of a crawl. Each of the three sections is memory-mapped as it is,
+ * so opening a snapshot costs the same whatever its size. Details are stored as an offset table and UTF-8 lines; links are stored as
+ * {@link FrontCodedBlock}s with an offset table per block, which shrinks them several times over. Visited links are written sorted,
+ * which lets {@link #isVisited(String)} binary search them in place instead of loading them into a set.
+ */
+public class MappedScrapeSnapshot {
+
+    private static final int MAGIC = 0x46534e50;
+    private static final int PLAIN_LINKS_VERSION = 1;
+    private static final int FRONT_CODED_LINKS_VERSION = 2;
+    private static final int HEADER_SIZE = 8;
+    private static final String ENCODING = "UTF-8";
+    private static final Charset UTF_8 = Charset.forName(ENCODING);
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    private final File file;
+    private final Section details;
+    private final Section visitedLinks;
+    private final Section queuedLinks;
+
+    private MappedScrapeSnapshot(final File file, final Section details, final Section visitedLinks, final Section queuedLinks) {
+        this.file = file;
+        this.details = details;
+        this.visitedLinks = visitedLinks;
+        this.queuedLinks = queuedLinks;
+    }
+
+    /**
+     * Opens the snapshot, or an empty one if the file does not exist yet.
+     */
+    public static MappedScrapeSnapshot open(final File file) throws IOException {
+        if (!file.exists()) {
+            return new MappedScrapeSnapshot(file, PlainSection.EMPTY, PlainSection.EMPTY, PlainSection.EMPTY);
+        }
+
+        final RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r");
+        try {
+            final FileChannel channel = randomAccessFile.getChannel();
+            final ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_SIZE);
+            if (header.getInt(0) != MAGIC) {
+                throw new IOException(file + " is not a scrape snapshot");
+            }
+
+            final int version = header.getInt(4);
+            final Section details = PlainSection.map(channel, HEADER_SIZE);
+            if (version == PLAIN_LINKS_VERSION) {
+                final Section visitedLinks = PlainSection.map(channel, details.end);
+                return new MappedScrapeSnapshot(file, details, visitedLinks, PlainSection.map(channel, visitedLinks.end));
+            }
+            if (version == FRONT_CODED_LINKS_VERSION) {
+                final Section visitedLinks = FrontCodedSection.map(channel, details.end);
+                return new MappedScrapeSnapshot(file, details, visitedLinks, FrontCodedSection.map(channel, visitedLinks.end));
+            }
+            throw new IOException(file + " has unsupported snapshot version " + version);
+        } finally {
+            randomAccessFile.close();
+        }
+    }
+
+    /**
+     * Writes a new snapshot next to {@code file} and moves it into place. Snapshots already mapped from the old file stay readable
+     * on platforms that allow replacing a mapped file. Visited links that already come in order, as {@link SnapshotVisitedLinksStore}
+     * keeps them, are written as they are; only unordered ones are copied and sorted first.
+     */
+    public static void write(final File file, final Collection<?> details, final Collection<String> visitedLinks,
+            final Collection<String> queuedLinks) throws IOException {
+        final Collection<String> sortedVisitedLinks = isSorted(visitedLinks) ? visitedLinks : sortedCopy(visitedLinks);
+
+        final File tempFile = new File(file.getPath() + TEMP_SUFFIX);
+        final DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tempFile)));
+        try {
+            output.writeInt(MAGIC);
+            output.writeInt(FRONT_CODED_LINKS_VERSION);
+            PlainSection.write(output, details);
+            FrontCodedSection.write(output, sortedVisitedLinks);
+            FrontCodedSection.write(output, queuedLinks);
+        } finally {
+            IOUtils.closeQuietly(output);
+        }
+        Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static boolean isSorted(final Collection<String> links) {
+        String previous = null;
+        for (String link : links) {
+            if (previous != null && previous.compareTo(link) > 0) {
+                return false;
+            }
+            previous = link;
+        }
+        return true;
+    }
+
+    private static List<String> sortedCopy(final Collection<String> links) {
+        final List<String> sortedLinks = new ArrayList<>(links);
+        Collections.sort(sortedLinks);
+        return sortedLinks;
+    }
+
+    public static void importTextFiles(final File detailsFile, final File visitedFile, final File queuedFile, final File snapshotFile)
+            throws IOException {
+        write(snapshotFile, readLinesIfExists(detailsFile), readLinesIfExists(visitedFile), readLinesIfExists(queuedFile));
+    }
+
+    private static List<String> readLinesIfExists(final File file) throws IOException {
+        return file.exists() ? FileUtils.readLines(file, ENCODING) : Collections.<String> emptyList();
+    }
+
+    public void exportTextFiles(final File detailsFile, final File visitedFile, final File queuedFile) throws IOException {
+        FileUtils.writeLines(detailsFile, ENCODING, details);
+        FileUtils.writeLines(visitedFile, ENCODING, visitedLinks);
+        FileUtils.writeLines(queuedFile, ENCODING, queuedLinks);
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    public List<String> getDetailsLines() {
+        return details;
+    }
+
+    /**
+     * Sorted in {@link String} order.
+     */
+    public List<String> getVisitedLinks() {
+        return visitedLinks;
+    }
+
+    public List<String> getQueuedLinks() {
+        return queuedLinks;
+    }
+
+    public boolean isVisited(final String link) {
+        return visitedLinks.sortedContains(link);
+    }
+
+    private abstract static class Section extends AbstractList<String> implements RandomAccess {
+
+        protected final long end;
+
+        protected Section(final long end) {
+            this.end = end;
+        }
+
+        abstract boolean sortedContains(String entry);
+
+        protected static void checkMappable(final long size, final int count) throws IOException {
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot section of " + count + " entries is too large to map");
+            }
+        }
+    }
+
+    /**
+     * Entry count, data length, an offset per entry and the UTF-8 entries.
+     */
+    private static final class PlainSection extends Section {
+
+        private static final int HEADER_SIZE = 8;
+        private static final PlainSection EMPTY = new PlainSection(null, 0, 0, 0);
+
+        private final ByteBuffer buffer;
+        private final int count;
+        private final int dataStart;
+
+        private PlainSection(final ByteBuffer buffer, final int count, final int dataStart, final long end) {
+            super(end);
+            this.buffer = buffer;
+            this.count = count;
+            this.dataStart = dataStart;
+        }
+
+        private static PlainSection map(final FileChannel channel, final long position) throws IOException {
+            final MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, position, HEADER_SIZE);
+            final int count = header.getInt(0);
+            final int dataLength = header.getInt(4);
+
+            final int dataStart = HEADER_SIZE + 4 * count;
+            final long size = (long) dataStart + dataLength;
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+            return new PlainSection(buffer, count, dataStart, position + size);
+        }
+
+        private static void write(final DataOutputStream output, final Collection<?> entries) throws IOException {
+            final List<byte[]> encodedEntries = new ArrayList<>(entries.size());
+            long dataLength = 0;
+            for (Object entry : entries) {
+                final byte[] encoded = entry.toString().getBytes(UTF_8);
+                encodedEntries.add(encoded);
+                dataLength += encoded.length;
+            }
+            checkMappable(HEADER_SIZE + 4L * encodedEntries.size() + dataLength, encodedEntries.size());
+
+            output.writeInt(encodedEntries.size());
+            output.writeInt((int) dataLength);
+            int offset = 0;
+            for (byte[] encoded : encodedEntries) {
+                output.writeInt(offset);
+                offset += encoded.length;
+            }
+            for (byte[] encoded : encodedEntries) {
+                output.write(encoded);
+            }
+        }
+
+        @Override
+        public String get(final int index) {
+            if (index < 0 || index >= count) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", size: " + count);
+            }
+
+            final int start = buffer.getInt(HEADER_SIZE + 4 * index);
+            final int entryEnd = index + 1 < count ? buffer.getInt(HEADER_SIZE + 4 * (index + 1)) : buffer.getInt(4);
+            final byte[] bytes = new byte[entryEnd - start];
+            final ByteBuffer entry = buffer.duplicate();
+            entry.position(dataStart + start);
+            entry.get(bytes);
+            return new String(bytes, UTF_8);
+        }
+
+        @Override
+        public int size() {
+            return count;
+        }
+
+        @Override
+        boolean sortedContains(final String entry) {
+            return Collections.binarySearch(this, entry) >= 0;
+        }
+    }
+
+    /**
+     * Entry count, block count, data length, an offset per block and the {@link FrontCodedBlock}s.
+     */
+    private static final class FrontCodedSection extends Section {
+
+        private static final int HEADER_SIZE = 12;
+
+        private final ByteBuffer buffer;
+        private final int count;
+        private final int blockCount;
+        private final int dataStart;
+
+        private FrontCodedSection(final ByteBuffer buffer, final int count, final int blockCount, final long end) {
+            super(end);
+            this.buffer = buffer;
+            this.count = count;
+            this.blockCount = blockCount;
+            this.dataStart = HEADER_SIZE + 4 * blockCount;
+        }
+
+        private static FrontCodedSection map(final FileChannel channel, final long position) throws IOException {
+            final MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, position, HEADER_SIZE);
+            final int count = header.getInt(0);
+            final int blockCount = header.getInt(4);
+            final int dataLength = header.getInt(8);
+
+            final long size = HEADER_SIZE + 4L * blockCount + dataLength;
+            final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+            return new FrontCodedSection(buffer, count, blockCount, position + size);
+        }
+
+        /**
+         * Counts the links as it goes, so a collection that grows while it is written still gets a consistent section.
+         */
+        private static void write(final DataOutputStream output, final Collection<String> links) throws IOException {
+            final List<byte[]> blocks = new ArrayList<>();
+            long dataLength = 0;
+            int count = 0;
+
+            FrontCodedBlock.Writer writer = new FrontCodedBlock.Writer();
+            for (String link : links) {
+                writer.add(link);
+                count++;
+                if (writer.getCount() == FrontCodedLinkSet.BLOCK_SIZE) {
+                    dataLength += addBlock(blocks, writer);
+                    writer = new FrontCodedBlock.Writer();
+                }
+            }
+            if (writer.getCount() > 0) {
+                dataLength += addBlock(blocks, writer);
+            }
+            checkMappable(HEADER_SIZE + 4L * blocks.size() + dataLength, count);
+
+            output.writeInt(count);
+            output.writeInt(blocks.size());
+            output.writeInt((int) dataLength);
+            int offset = 0;
+            for (byte[] block : blocks) {
+                output.writeInt(offset);
+                offset += block.length;
+            }
+            for (byte[] block : blocks) {
+                output.write(block);
+            }
+        }
+
+        private static int addBlock(final List<byte[]> blocks, final FrontCodedBlock.Writer writer) {
+            final byte[] block = writer.toByteArray();
+            blocks.add(block);
+            return block.length;
+        }
+
+        private int blockStart(final int block) {
+            return dataStart + buffer.getInt(HEADER_SIZE + 4 * block);
+        }
+
+        @Override
+        public String get(final int index) {
+            if (index < 0 || index >= count) {
+                throw new IndexOutOfBoundsException("Index: " + index + ", size: " + count);
+            }
+
+            final FrontCodedBlock.Reader reader = new FrontCodedBlock.Reader(buffer, blockStart(index / FrontCodedLinkSet.BLOCK_SIZE));
+            for (int i = 0; i <= index % FrontCodedLinkSet.BLOCK_SIZE; i++) {
+                reader.next();
+            }
+            return reader.getLink();
+        }
+
+        @Override
+        public Iterator<String> iterator() {
+            return new Iterator<String>() {
+                private int nextBlock;
+                private FrontCodedBlock.Reader reader;
+                private boolean hasNext = advance();
+
+                private boolean advance() {
+                    while (reader == null || !reader.next()) {
+                        if (nextBlock == blockCount) {
+                            return false;
+                        }
+                        reader = new FrontCodedBlock.Reader(buffer, blockStart(nextBlock++));
+                    }
+                    return true;
+                }
+
+                @Override
+                public boolean hasNext() {
+                    return hasNext;
+                }
+
+                @Override
+                public String next() {
+                    if (!hasNext) {
+                        throw new NoSuchElementException();
+                    }
+                    final String link = reader.getLink();
+                    hasNext = advance();
+                    return link;
+                }
+
+                @Override
+                public void remove() {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return count;
+        }
+
+        @Override
+        boolean sortedContains(final String link) {
+            int low = 0;
+            int high = blockCount - 1;
+            while (low <= high) {
+                final int middle = (low + high) >>> 1;
+                final int comparison = FrontCodedBlock.firstLink(buffer, blockStart(middle)).compareTo(link);
+                if (comparison == 0) {
+                    return true;
+                }
+                if (comparison < 0) {
+                    low = middle + 1;
+                } else {
+                    high = middle - 1;
+                }
+            }
+
+            return high >= 0 && FrontCodedBlock.contains(buffer, blockStart(high), link);
+        }
+    }
+}
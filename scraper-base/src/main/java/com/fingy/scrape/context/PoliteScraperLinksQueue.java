@@ -0,0 +1,202 @@
+package com.fingy.scrape.context;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.fingy.scrape.util.UrlUtil;
+
+/**
+ * Frontier that keeps a ready queue per host and only hands out a link once its host is eligible under the host's
+ * {@link HostPolitenessPolicy} (minimum delay between requests plus an optional token bucket). Links for other hosts keep
+ * flowing while a throttled host waits, so schedulers do not need to sleep on the dispatch thread. A policy can also be tied to a kind
+ * of link, e.g. details pages, in which case the delay after taking such a link follows that policy instead of the host's.
+ */
+public class PoliteScraperLinksQueue extends ConcurrentScraperLinksQueue {
+
+    private final HostPolitenessPolicy defaultPolicy;
+    private final Map<String, HostPolitenessPolicy> policiesByHost = new ConcurrentHashMap<>();
+    private final List<LinkPolicy> linkPolicies = new CopyOnWriteArrayList<>();
+    private final ConcurrentMap<String, HostLinksQueue> queuesByHost = new ConcurrentHashMap<>();
+    private final DelayQueue<HostLinksQueue> eligibleHosts = new DelayQueue<>();
+    private final AtomicInteger linksToTakeCount = new AtomicInteger();
+
+    public PoliteScraperLinksQueue(final HostPolitenessPolicy defaultPolicy) {
+        this.defaultPolicy = defaultPolicy;
+    }
+
+    public PoliteScraperLinksQueue(final HostPolitenessPolicy defaultPolicy, final VisitedLinksStore visitedLinksStore) {
+        super(visitedLinksStore);
+        this.defaultPolicy = defaultPolicy;
+    }
+
+    public PoliteScraperLinksQueue withPolicyForHost(final String host, final HostPolitenessPolicy policy) {
+        policiesByHost.put(host.toLowerCase(), policy);
+        return this;
+    }
+
+    /**
+     * Links {@code matcher} accepts are followed by {@code policy}'s delay on their host. The first matching policy wins.
+     */
+    public PoliteScraperLinksQueue withPolicyForLinks(final LinkMatcher matcher, final HostPolitenessPolicy policy) {
+        linkPolicies.add(new LinkPolicy(matcher, policy));
+        return this;
+    }
+
+    private HostPolitenessPolicy determinePolicyForLink(final String link, final HostPolitenessPolicy hostPolicy) {
+        for (LinkPolicy linkPolicy : linkPolicies) {
+            if (linkPolicy.matcher.matches(link)) {
+                return linkPolicy.policy;
+            }
+        }
+        return hostPolicy;
+    }
+
+    @Override
+    protected void offerLink(final String linkToEnqueue) {
+        HostLinksQueue hostQueue = getOrCreateHostQueue(UrlUtil.extractHost(linkToEnqueue));
+        linksToTakeCount.incrementAndGet();
+
+        synchronized (hostQueue) {
+            hostQueue.links.add(linkToEnqueue);
+            if (!hostQueue.scheduled) {
+                hostQueue.scheduled = true;
+                eligibleHosts.put(hostQueue);
+            }
+        }
+    }
+
+    private HostLinksQueue getOrCreateHostQueue(final String host) {
+        HostLinksQueue hostQueue = queuesByHost.get(host);
+        if (hostQueue == null) {
+            HostLinksQueue created = new HostLinksQueue(host, determinePolicyForHost(host));
+            hostQueue = queuesByHost.putIfAbsent(host, created);
+            if (hostQueue == null) {
+                hostQueue = created;
+            }
+        }
+        return hostQueue;
+    }
+
+    private HostPolitenessPolicy determinePolicyForHost(final String host) {
+        HostPolitenessPolicy policy = policiesByHost.get(host);
+        return policy != null ? policy : defaultPolicy;
+    }
+
+    @Override
+    protected String takeLink() throws InterruptedException {
+        String link = null;
+        while (link == null) {
+            link = takeFromEligibleHost(eligibleHosts.take());
+        }
+        return link;
+    }
+
+    @Override
+    protected String pollLink(final long timeoutMillis) throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+
+        String link = null;
+        while (link == null) {
+            HostLinksQueue hostQueue = eligibleHosts.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+            if (hostQueue == null) {
+                return null;
+            }
+            link = takeFromEligibleHost(hostQueue);
+        }
+        return link;
+    }
+
+    private String takeFromEligibleHost(final HostLinksQueue hostQueue) {
+        synchronized (hostQueue) {
+            String link = hostQueue.links.poll();
+            if (link != null) {
+                linksToTakeCount.decrementAndGet();
+                hostQueue.pacer.recordRequest(determinePolicyForLink(link, hostQueue.policy));
+            }
+
+            if (hostQueue.links.isEmpty()) {
+                hostQueue.scheduled = false;
+            } else {
+                eligibleHosts.put(hostQueue);
+            }
+            return link;
+        }
+    }
+
+    @Override
+    protected String peekLink() {
+        HostLinksQueue hostQueue = eligibleHosts.peek();
+        if (hostQueue == null) {
+            return null;
+        }
+
+        synchronized (hostQueue) {
+            return hostQueue.links.peek();
+        }
+    }
+
+    @Override
+    protected boolean hasNoLinksToTake() {
+        return linksToTakeCount.get() == 0;
+    }
+
+    /**
+     * Tells which links a {@link #withPolicyForLinks(LinkMatcher, HostPolitenessPolicy) link policy} applies to.
+     */
+    public interface LinkMatcher {
+
+        boolean matches(String link);
+    }
+
+    private static final class LinkPolicy {
+
+        private final LinkMatcher matcher;
+        private final HostPolitenessPolicy policy;
+
+        private LinkPolicy(final LinkMatcher matcher, final HostPolitenessPolicy policy) {
+            this.matcher = matcher;
+            this.policy = policy;
+        }
+    }
+
+    private static final class HostLinksQueue implements Delayed {
+
+        private final String host;
+        private final HostPolitenessPolicy policy;
+        private final Queue<String> links = new ArrayDeque<>();
+        private final HostRequestPacer pacer;
+
+        private boolean scheduled;
+
+        private HostLinksQueue(final String host, final HostPolitenessPolicy policy) {
+            this.host = host;
+            this.policy = policy;
+            pacer = new HostRequestPacer(policy);
+        }
+
+        @Override
+        public long getDelay(final TimeUnit unit) {
+            return unit.convert(pacer.getDelayNanos(), TimeUnit.NANOSECONDS);
+        }
+
+        @Override
+        public int compareTo(final Delayed other) {
+            long difference = getDelay(TimeUnit.NANOSECONDS) - other.getDelay(TimeUnit.NANOSECONDS);
+            return difference < 0 ? -1 : difference > 0 ? 1 : 0;
+        }
+
+        @Override
+        public String toString() {
+            return host;
+        }
+    }
+}
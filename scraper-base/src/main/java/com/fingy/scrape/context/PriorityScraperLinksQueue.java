@@ -0,0 +1,175 @@
+package com.fingy.scrape.context;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Frontier that hands out detail links before listing links. Listing links are also held back while the detail work they generated
+ * is piling up: once the queued and unfinished detail links reach the high-water mark, no listing link is taken until a detail link is
+ * reported done through {@link #detailsLinkCompleted()}. That keeps the frontier and the pending results bounded and lets results
+ * come out from the start of a run.
+ */
+public class PriorityScraperLinksQueue extends ConcurrentScraperLinksQueue {
+
+    public static final int DEFAULT_DETAILS_HIGH_WATER_MARK = 500;
+
+    private static final LinkClassifier ALL_LISTING_LINKS = new LinkClassifier() {
+        @Override
+        public boolean isDetailsLink(final String link) {
+            return false;
+        }
+    };
+
+    private final int detailsHighWaterMark;
+    private volatile LinkClassifier linkClassifier = ALL_LISTING_LINKS;
+
+    private final Deque<String> detailsLinks = new ArrayDeque<>();
+    private final Deque<String> listingLinks = new ArrayDeque<>();
+    private final AtomicInteger linksToTakeCount = new AtomicInteger();
+    private int outstandingDetailsLinks;
+
+    private final ReentrantLock frontierLock = new ReentrantLock();
+    private final Condition linkEligible = frontierLock.newCondition();
+
+    public PriorityScraperLinksQueue() {
+        this(DEFAULT_DETAILS_HIGH_WATER_MARK);
+    }
+
+    public PriorityScraperLinksQueue(final int detailsHighWaterMark) {
+        if (detailsHighWaterMark <= 0) {
+            throw new IllegalArgumentException("High-water mark must be positive: " + detailsHighWaterMark);
+        }
+        this.detailsHighWaterMark = detailsHighWaterMark;
+    }
+
+    public PriorityScraperLinksQueue(final int detailsHighWaterMark, final VisitedLinksStore visitedLinksStore) {
+        super(visitedLinksStore);
+        if (detailsHighWaterMark <= 0) {
+            throw new IllegalArgumentException("High-water mark must be positive: " + detailsHighWaterMark);
+        }
+        this.detailsHighWaterMark = detailsHighWaterMark;
+    }
+
+    /**
+     * Decides which queue each link offered from now on goes to. Until one is set every link is treated as a listing link.
+     */
+    public void setLinkClassifier(final LinkClassifier linkClassifier) {
+        this.linkClassifier = linkClassifier == null ? ALL_LISTING_LINKS : linkClassifier;
+    }
+
+    /**
+     * Reports that the work for a detail link taken from this queue has finished, successfully or not.
+     */
+    public void detailsLinkCompleted() {
+        frontierLock.lock();
+        try {
+            if (outstandingDetailsLinks > 0) {
+                outstandingDetailsLinks--;
+            }
+            linkEligible.signalAll();
+        } finally {
+            frontierLock.unlock();
+        }
+    }
+
+    public int getOutstandingDetailsLinks() {
+        frontierLock.lock();
+        try {
+            return outstandingDetailsLinks;
+        } finally {
+            frontierLock.unlock();
+        }
+    }
+
+    @Override
+    protected void offerLink(final String linkToEnqueue) {
+        final boolean detailsLink = linkClassifier.isDetailsLink(linkToEnqueue);
+
+        frontierLock.lock();
+        try {
+            if (detailsLink) {
+                detailsLinks.addLast(linkToEnqueue);
+                outstandingDetailsLinks++;
+            } else {
+                listingLinks.addLast(linkToEnqueue);
+            }
+            linksToTakeCount.incrementAndGet();
+            linkEligible.signal();
+        } finally {
+            frontierLock.unlock();
+        }
+    }
+
+    @Override
+    protected String takeLink() throws InterruptedException {
+        frontierLock.lockInterruptibly();
+        try {
+            while (!hasEligibleLink()) {
+                linkEligible.await();
+            }
+            return removeEligibleLink();
+        } finally {
+            frontierLock.unlock();
+        }
+    }
+
+    @Override
+    protected String pollLink(final long timeoutMillis) throws InterruptedException {
+        long nanosLeft = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        frontierLock.lockInterruptibly();
+        try {
+            while (!hasEligibleLink()) {
+                if (nanosLeft <= 0) {
+                    return null;
+                }
+                nanosLeft = linkEligible.awaitNanos(nanosLeft);
+            }
+            return removeEligibleLink();
+        } finally {
+            frontierLock.unlock();
+        }
+    }
+
+    @Override
+    protected String peekLink() {
+        frontierLock.lock();
+        try {
+            if (!detailsLinks.isEmpty()) {
+                return detailsLinks.peekFirst();
+            }
+            return isListingGateOpen() ? listingLinks.peekFirst() : null;
+        } finally {
+            frontierLock.unlock();
+        }
+    }
+
+    /**
+     * Counts listing links held back by the high-water mark as well, so the dispatcher keeps waiting for them instead of finishing.
+     */
+    @Override
+    protected boolean hasNoLinksToTake() {
+        return linksToTakeCount.get() == 0;
+    }
+
+    private boolean hasEligibleLink() {
+        return !detailsLinks.isEmpty() || (!listingLinks.isEmpty() && isListingGateOpen());
+    }
+
+    private boolean isListingGateOpen() {
+        return outstandingDetailsLinks < detailsHighWaterMark;
+    }
+
+    private String removeEligibleLink() {
+        linksToTakeCount.decrementAndGet();
+        return detailsLinks.isEmpty() ? listingLinks.removeFirst() : detailsLinks.removeFirst();
+    }
+
+    public interface LinkClassifier {
+
+        boolean isDetailsLink(String link);
+    }
+}
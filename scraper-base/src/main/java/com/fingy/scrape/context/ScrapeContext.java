@@ -2,38 +2,80 @@ package com.fingy.scrape.context;
 
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.NoSuchElementException;
 import java.util.Set;
 import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.Future;
-import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.LineIterator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-public class ScrapeContext {
+public class ScrapeContext implements ScrapedItemSink<Object> {
 
     private static final String ENCODING = "UTF-8";
+    private static final int LINKS_LOAD_BATCH_SIZE = 10000;
+    private static final String SNAPSHOT_TEMP_SUFFIX = ".tmp";
+    private static final String DEAD_LETTER_SUFFIX = ".failed";
 
     private static Logger logger = LoggerFactory.getLogger(ScrapeContext.class);
 
-    private final ScraperLinksQueue linksQueue = new ScraperLinksQueue();
+    private final ScraperLinksQueue linksQueue;
     private final DetailsLoader<?> detailsLoader;
 
-    private Set<String> visitedLinks = new HashSet<>();
+    /**
+     * Both guarded by the context's monitor; saving iterates over copies taken under it. The queued links are only those outside the
+     * links queue: replayed from the event log until {@link #initialize()} queues them, and taken from the queue since.
+     */
     private Set<String> queuedLinks = new HashSet<>();
     private Set<Object> scrapedItems = new HashSet<>();
 
+    /**
+     * Whether the queued links saved last time have been streamed into the links queue; until then they are read from the file or
+     * snapshot wherever the queued links are needed.
+     */
+    private volatile boolean savedQueuedLinksLoaded;
+
     private final File detailsFile;
     private final File visitedFile;
     private final File queuedFile;
 
+    private final ScrapeEventLog eventLog;
+    private final int compactionThreshold;
+
+    private final MappedScrapeSnapshot snapshot;
+
     public ScrapeContext(final String detailsFilePath, final String visitedFilePath, final String queuedFilePath,
             final DetailsLoader<?> loader) {
+        this(detailsFilePath, visitedFilePath, queuedFilePath, loader, new SynchronizedScraperLinksQueue());
+    }
+
+    public ScrapeContext(final String detailsFilePath, final String visitedFilePath, final String queuedFilePath,
+            final DetailsLoader<?> loader, final ScraperLinksQueue queue) {
+        this(detailsFilePath, visitedFilePath, queuedFilePath, loader, queue, null, 0);
+    }
+
+    /**
+     * Records every queued link, visited link and scraped item in an append-only log as it happens, instead of only writing the
+     * details, visited and queued files on {@link #save()}. Those files become a snapshot that is only rewritten once the log holds
+     * at least {@code compactionThreshold} events; on startup the snapshot is loaded and the log replayed on top of it.
+     */
+    public ScrapeContext(final String detailsFilePath, final String visitedFilePath, final String queuedFilePath,
+            final DetailsLoader<?> loader, final ScraperLinksQueue queue, final String eventLogFilePath, final int compactionThreshold) {
+        linksQueue = queue;
         detailsLoader = loader;
+        snapshot = null;
 
         detailsFile = new File(detailsFilePath);
         visitedFile = new File(visitedFilePath);
@@ -44,57 +86,310 @@ public class ScrapeContext {
 
         loadDetailsFromFile();
         loadVisitedLinksFromFile();
-        loadQueuedLinksFromFile();
+
+        this.compactionThreshold = compactionThreshold;
+        eventLog = eventLogFilePath == null ? null : replayAndOpenEventLog(new File(eventLogFilePath));
+    }
+
+    public ScrapeContext(final MappedScrapeSnapshot snapshot, final DetailsLoader<?> loader) {
+        this(snapshot, loader, new SynchronizedScraperLinksQueue(new SnapshotVisitedLinksStore(snapshot)));
+    }
+
+    /**
+     * Loads the state from a binary snapshot instead of the text files and saves it back there. Nothing is loaded up front: the
+     * details stay mapped and only the items scraped since are kept on the heap, the queued links are handed to the queue on
+     * {@link #initialize()}, and the visited links are never loaded, so the queue has to be built on a
+     * {@link SnapshotVisitedLinksStore} over the same snapshot.
+     */
+    public ScrapeContext(final MappedScrapeSnapshot snapshot, final DetailsLoader<?> loader, final ScraperLinksQueue queue) {
+        linksQueue = queue;
+        detailsLoader = loader;
+        this.snapshot = snapshot;
+
+        detailsFile = null;
+        visitedFile = null;
+        queuedFile = null;
+        eventLog = null;
+        compactionThreshold = 0;
+
+        scrapedItems = new LinkedHashSet<>();
+        queuedLinks = new LinkedHashSet<>();
+        logger.trace("Found " + snapshot.getDetailsLines().size() + " contacts and " + snapshot.getQueuedLinks().size() + " queued links");
+    }
+
+    private ScrapeEventLog replayAndOpenEventLog(final File eventLogFile) {
+        try {
+            ScrapeEventLog.replay(eventLogFile, new ScrapeEventLog.EventHandler() {
+                @Override
+                public void linkQueued(final String link) {
+                    queuedLinks.add(link);
+                }
+
+                @Override
+                public void linkVisited(final String link) {
+                    linksQueue.markVisited(link);
+                }
+
+                @Override
+                public void resultScraped(final String csvLine) {
+                    scrapedItems.add(detailsLoader.loadFromCSVLine(csvLine));
+                }
+            });
+            return new ScrapeEventLog(eventLogFile);
+        } catch (IOException e) {
+            logger.error("Exception occured", e);
+            return null;
+        }
     }
 
     public ScraperLinksQueue getLinksQueue() {
         return linksQueue;
     }
 
+    /**
+     * Streams the queued links saved last time into the links queue, the first time only, and hands it the links taken from it so far.
+     */
     public void initialize() {
-        linksQueue.markAllVisited(visitedLinks);
-        linksQueue.addAllIfNotVisited(queuedLinks);
+        if (!savedQueuedLinksLoaded) {
+            addSavedQueuedLinksToQueue();
+            savedQueuedLinksLoaded = true;
+        }
+        final List<String> outsideLinks = copyQueuedLinks();
+        linksQueue.addAllIfNotVisited(outsideLinks);
+        synchronized (this) {
+            queuedLinks.removeAll(outsideLinks);
+        }
+
+        if (eventLog != null) {
+            linksQueue.setListener(new ScraperLinksQueueListener() {
+                @Override
+                public void linkQueued(final String link) {
+                    eventLog.logQueued(link);
+                }
+
+                @Override
+                public void linkVisited(final String link) {
+                    eventLog.logVisited(link);
+                }
+            });
+        }
     }
 
+    private void addSavedQueuedLinksToQueue() {
+        final Iterator<String> savedLinks = savedQueuedLinks();
+        final List<String> batch = new ArrayList<>(LINKS_LOAD_BATCH_SIZE);
+        while (savedLinks.hasNext()) {
+            batch.add(savedLinks.next());
+            if (batch.size() == LINKS_LOAD_BATCH_SIZE) {
+                linksQueue.addAllIfNotVisited(batch);
+                batch.clear();
+            }
+        }
+        linksQueue.addAllIfNotVisited(batch);
+        logger.trace("Found " + linksQueue.getSize() + " queued links");
+    }
+
+    /**
+     * The queued links saved last time: the snapshot's, or the queued file's read line by line and closed once the last is read.
+     */
+    private Iterator<String> savedQueuedLinks() {
+        if (snapshot != null) {
+            return snapshot.getQueuedLinks().iterator();
+        }
+        if (!queuedFile.exists()) {
+            return Collections.<String> emptyIterator();
+        }
+
+        final LineIterator lines;
+        try {
+            lines = FileUtils.lineIterator(queuedFile, ENCODING);
+        } catch (IOException e) {
+            logger.error("Exception occured", e);
+            return Collections.<String> emptyIterator();
+        }
+        return new Iterator<String>() {
+            @Override
+            public boolean hasNext() {
+                if (lines.hasNext()) {
+                    return true;
+                }
+                LineIterator.closeQuietly(lines);
+                return false;
+            }
+
+            @Override
+            public String next() {
+                return lines.nextLine();
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    /**
+     * Where links that failed all their retries are written, next to the queued links file or the snapshot.
+     */
+    public File getDeadLetterFile() {
+        final File stateFile = snapshot != null ? snapshot.getFile() : queuedFile;
+        return new File(stateFile.getPath() + DEAD_LETTER_SUFFIX);
+    }
+
+    /**
+     * With an event log everything is already on disk, so this only compacts the log once it has grown past the threshold.
+     */
     public void save() {
-        saveResultsToFile();
-        saveVisitedLinksToFile();
-        saveQueuedLinksToFile();
+        if (snapshot != null) {
+            saveSnapshotToFile();
+        } else if (eventLog == null) {
+            saveResultsToFile();
+            saveVisitedLinksToFile();
+            saveQueuedLinksToFile();
+        } else if (eventLog.getEventCount() >= compactionThreshold) {
+            checkpoint();
+        }
     }
 
-    public Set<String> determineQueuedLinks() {
-        Set<String> temp = new HashSet<String>();
-        temp.addAll(linksQueue.getQueuedLinks());
-        temp.addAll(queuedLinks);
-        temp.removeAll(linksQueue.getVisitedLinks());
-        return temp;
+    /**
+     * Writes a full snapshot and truncates the event log. Scraper threads that queue or visit links wait until it is done. The
+     * context's monitor is taken before the log's, in the same order {@link #addScrapedItem(Object)} takes them.
+     */
+    public void checkpoint() {
+        if (eventLog == null) {
+            save();
+            return;
+        }
+
+        compactEventLog();
     }
 
-    private void loadDetailsFromFile() {
+    private synchronized void compactEventLog() {
         try {
-            final List<String> lines = FileUtils.readLines(detailsFile, ENCODING);
-            for (String line : lines) {
-                scrapedItems.add(detailsLoader.loadFromCSVLine(line));
+            eventLog.compact(new ScrapeEventLog.SnapshotWriter() {
+                @Override
+                public void writeSnapshot() throws IOException {
+                    writeResultsToFile();
+                    writeVisitedLinksToFile();
+                    writeQueuedLinksToFile(determineQueuedLinks());
+                }
+            });
+        } catch (IOException e) {
+            logger.error("Exception occured", e);
+        }
+    }
+
+    public void close() {
+        if (eventLog != null) {
+            linksQueue.setListener(null);
+            try {
+                eventLog.close();
+            } catch (IOException e) {
+                logger.error("Exception occured", e);
             }
-            logger.trace("Loaded " + lines.size() + " contacts");
+        }
+    }
+
+    /**
+     * The links left to scrape, read from the queue and the saved links as the view is iterated, so only the links taken from the
+     * queue are copied onto the heap. Each iteration, {@code size()} included, reads them again.
+     */
+    public Collection<String> determineQueuedLinks() {
+        final Set<String> takenLinks = new LinkedHashSet<>(copyQueuedLinks());
+        return new AbstractCollection<String>() {
+            @Override
+            public Iterator<String> iterator() {
+                return new RemainingLinksIterator(takenLinks);
+            }
+
+            @Override
+            public int size() {
+                int size = 0;
+                for (Iterator<String> iterator = iterator(); iterator.hasNext(); iterator.next()) {
+                    size++;
+                }
+                return size;
+            }
+        };
+    }
+
+    private void loadDetailsFromFile() {
+        try {
+            loadDetails(FileUtils.readLines(detailsFile, ENCODING));
         } catch (IOException e) {
             logger.error("Exception occured", e);
         }
     }
 
+    private void loadDetails(final List<String> lines) {
+        for (String line : lines) {
+            scrapedItems.add(detailsLoader.loadFromCSVLine(line));
+        }
+        logger.trace("Loaded " + lines.size() + " contacts");
+    }
+
     private void loadVisitedLinksFromFile() {
+        if (!visitedFile.exists()) {
+            return;
+        }
+
+        LineIterator lines = null;
         try {
-            visitedLinks = new HashSet<String>(FileUtils.readLines(visitedFile, ENCODING));
-            logger.trace("Found " + visitedLinks.size() + " visited links");
+            lines = FileUtils.lineIterator(visitedFile, ENCODING);
+            List<String> batch = new ArrayList<>(LINKS_LOAD_BATCH_SIZE);
+            while (lines.hasNext()) {
+                batch.add(lines.nextLine());
+                if (batch.size() == LINKS_LOAD_BATCH_SIZE) {
+                    linksQueue.markAllVisited(batch);
+                    batch.clear();
+                }
+            }
+            linksQueue.markAllVisited(batch);
+            logger.trace("Found " + linksQueue.getVisitedSize() + " visited links");
         } catch (IOException e) {
             logger.error("Exception occured", e);
+        } finally {
+            LineIterator.closeQuietly(lines);
         }
     }
 
-    private void loadQueuedLinksFromFile() {
+    /**
+     * Writes the mapped details followed by the items scraped since, and the links still left to scrape.
+     */
+    private void saveSnapshotToFile() {
+        final List<String> snapshotDetails = snapshot.getDetailsLines();
+        final List<Object> newDetails = copyScrapedItems();
+        final Collection<Object> details = new AbstractCollection<Object>() {
+            @Override
+            public Iterator<Object> iterator() {
+                final Iterator<String> snapshotIterator = snapshotDetails.iterator();
+                final Iterator<Object> newIterator = newDetails.iterator();
+                return new Iterator<Object>() {
+                    @Override
+                    public boolean hasNext() {
+                        return snapshotIterator.hasNext() || newIterator.hasNext();
+                    }
+
+                    @Override
+                    public Object next() {
+                        return snapshotIterator.hasNext() ? snapshotIterator.next() : newIterator.next();
+                    }
+
+                    @Override
+                    public void remove() {
+                        throw new UnsupportedOperationException();
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return snapshotDetails.size() + newDetails.size();
+            }
+        };
         try {
-            queuedLinks = new HashSet<String>(FileUtils.readLines(queuedFile, ENCODING));
-            logger.trace("Found " + queuedLinks.size() + " queued links");
+            MappedScrapeSnapshot.write(snapshot.getFile(), details, linksQueue.getVisitedLinks(), determineQueuedLinks());
         } catch (IOException e) {
             logger.error("Exception occured", e);
         }
@@ -102,58 +397,189 @@ public class ScrapeContext {
 
     private void saveResultsToFile() {
         try {
-            FileUtils.writeLines(detailsFile, ENCODING, scrapedItems);
+            writeResultsToFile();
         } catch (IOException e) {
             logger.error("Exception occured", e);
         }
     }
 
+    private void writeResultsToFile() throws IOException {
+        replaceFileWithLines(detailsFile, copyScrapedItems());
+    }
+
     private void saveVisitedLinksToFile() {
         try {
-            FileUtils.writeLines(visitedFile, ENCODING, visitedLinks);
+            writeVisitedLinksToFile();
         } catch (IOException e) {
             logger.error("Exception occured", e);
         }
     }
 
-    private int saveQueuedLinksToFile() {
+    private void writeVisitedLinksToFile() throws IOException {
+        final List<String> linksToSave = new ArrayList<>(linksQueue.getVisitedLinks());
+        if (linksQueue.retainsAllVisitedLinks()) {
+            replaceFileWithLines(visitedFile, linksToSave);
+        } else {
+            FileUtils.writeLines(visitedFile, ENCODING, linksToSave, true);
+        }
+        linksQueue.markVisitedLinksPersisted(linksToSave);
+    }
+
+    private void saveQueuedLinksToFile() {
         try {
-            FileUtils.writeLines(queuedFile, ENCODING, queuedLinks);
-            return queuedLinks.size();
+            writeQueuedLinksToFile(determineQueuedLinks());
         } catch (IOException e) {
             logger.error("Exception occured", e);
         }
+    }
+
+    private void writeQueuedLinksToFile(final Collection<String> linksToSave) throws IOException {
+        replaceFileWithLines(queuedFile, linksToSave);
+    }
 
-        return 0;
+    /**
+     * Writes next to the file and moves it into place, so a crash halfway through leaves the previous contents intact.
+     */
+    private static void replaceFileWithLines(final File file, final Collection<?> lines) throws IOException {
+        final File tempFile = new File(file.getPath() + SNAPSHOT_TEMP_SUFFIX);
+        FileUtils.writeLines(tempFile, ENCODING, lines);
+        Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
     }
 
     public String getNextLinkToScrape() throws InterruptedException {
         String link = linksQueue.take();
-        queuedLinks.add(link);
+        synchronized (this) {
+            queuedLinks.add(link);
+        }
         return link;
     }
 
-    public int getScrapedItemsSize() {
-        return scrapedItems.size();
+    private synchronized List<String> copyQueuedLinks() {
+        return new ArrayList<>(queuedLinks);
+    }
+
+    private synchronized List<Object> copyScrapedItems() {
+        return new ArrayList<>(scrapedItems);
+    }
+
+    public synchronized int getScrapedItemsSize() {
+        return snapshot != null ? snapshot.getDetailsLines().size() + scrapedItems.size() : scrapedItems.size();
     }
 
     public boolean stillHaveLinksToBeScraped(final long timeout) {
         return !linksQueue.delayedIsEmpty(timeout);
     }
 
-    public <T extends ScrapeDetails> void collectResultsFromCompletionService(final ExecutorCompletionService<T> completionService) {
-        long timeout = 10;
-        for (int i = 0; i < queuedLinks.size(); i++) {
+    /**
+     * Blocks until a link is queued or the last task in flight has finished; only exact when every task is reported to the links
+     * queue as an {@link com.fingy.concurrent.ExecutorTaskListener}.
+     */
+    public boolean stillHaveLinksToBeScraped() {
+        return linksQueue.awaitLinksWhileTasksInFlight();
+    }
+
+    @Override
+    public synchronized void addScrapedItem(final Object item) {
+        if (scrapedItems.add(item) && eventLog != null) {
+            eventLog.logResult(item);
+        }
+    }
+
+    /**
+     * Takes the results of the tasks that have already finished without waiting for the others, so they reach the event log while
+     * the scrape is still running.
+     */
+    public <T extends ScrapeDetails> void collectCompletedResults(final ExecutorCompletionService<T> completionService) {
+        Future<T> future;
+        while ((future = completionService.poll()) != null) {
             try {
-                final Future<T> future = completionService.poll(timeout, TimeUnit.SECONDS);
-                final T results = future.get();
-                scrapedItems.add(results);
+                addScrapedItem(future.get());
             } catch (Exception e) {
-                timeout = 0;
+                logger.error("Exception occured", e);
+            }
+        }
+    }
+
+    /**
+     * Meant for after the executor has terminated: takes every result still left in the completion service, skipping over failed
+     * tasks, and works out which links remain to be scraped.
+     */
+    public <T extends ScrapeDetails> void collectResultsFromCompletionService(final ExecutorCompletionService<T> completionService) {
+        collectCompletedResults(completionService);
+        final List<String> visitedLinks = new ArrayList<>();
+        for (String link : copyQueuedLinks()) {
+            if (linksQueue.isVisited(link)) {
+                visitedLinks.add(link);
             }
         }
+        synchronized (this) {
+            queuedLinks.removeAll(visitedLinks);
+        }
+    }
+
+    /**
+     * Goes over the taken links, then the queue's and, if they were not loaded into it, the saved ones, skipping visited links and
+     * the queue's and saved links that were taken.
+     */
+    private final class RemainingLinksIterator implements Iterator<String> {
+
+        private final Set<String> takenLinks;
+        private final Iterator<String> taken;
+        private Iterator<String> queued;
+        private Iterator<String> saved;
+        private String next;
 
-        queuedLinks = determineQueuedLinks();
-        visitedLinks.addAll(linksQueue.getVisitedLinks());
+        private RemainingLinksIterator(final Set<String> takenLinks) {
+            this.takenLinks = takenLinks;
+            taken = takenLinks.iterator();
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null) {
+                final String link = nextCandidate();
+                if (link == null) {
+                    return false;
+                }
+                if (!linksQueue.isVisited(link)) {
+                    next = link;
+                }
+            }
+            return true;
+        }
+
+        private String nextCandidate() {
+            if (taken.hasNext()) {
+                return taken.next();
+            }
+            if (queued == null) {
+                queued = linksQueue.getQueuedLinks().iterator();
+            }
+            if (saved == null) {
+                saved = savedQueuedLinksLoaded ? Collections.<String> emptyIterator() : savedQueuedLinks();
+            }
+            while (queued.hasNext() || saved.hasNext()) {
+                final String link = queued.hasNext() ? queued.next() : saved.next();
+                if (!takenLinks.contains(link)) {
+                    return link;
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public String next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            final String link = next;
+            next = null;
+            return link;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
     }
 }
\ No newline at end of file
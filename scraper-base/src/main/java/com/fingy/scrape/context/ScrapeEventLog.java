@@ -0,0 +1,182 @@
+package com.fingy.scrape.context;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.RandomAccessFile;
+import java.io.Writer;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.LineIterator;
+
+/**
+ * Append-only write-ahead log of the events that change a {@link ScrapeContext}: links queued, links visited and items scraped. Each
+ * event is one line, written through to the file as soon as it happens, so a crash loses at most the event being written. A partial
+ * last line is ignored on replay.
+ */
+public class ScrapeEventLog implements Closeable {
+
+    private static final String ENCODING = "UTF-8";
+
+    private static final char QUEUED = 'Q';
+    private static final char VISITED = 'V';
+    private static final char RESULT = 'R';
+    private static final char SEPARATOR = '\t';
+    private static final char NEW_LINE = '\n';
+
+    private final File logFile;
+    private Writer writer;
+    private int eventCount;
+
+    public ScrapeEventLog(final File logFile) throws IOException {
+        this.logFile = logFile;
+        this.writer = openWriter(true);
+    }
+
+    private Writer openWriter(final boolean append) throws IOException {
+        return new BufferedWriter(new OutputStreamWriter(new FileOutputStream(logFile, append), ENCODING));
+    }
+
+    public void logQueued(final String link) {
+        append(QUEUED, link);
+    }
+
+    public void logVisited(final String link) {
+        append(VISITED, link);
+    }
+
+    public void logResult(final Object result) {
+        append(RESULT, result.toString());
+    }
+
+    private synchronized void append(final char type, final String value) {
+        try {
+            writer.write(type);
+            writer.write(SEPARATOR);
+            writer.write(escape(value));
+            writer.write(NEW_LINE);
+            writer.flush();
+            eventCount++;
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not append to " + logFile, e);
+        }
+    }
+
+    public synchronized int getEventCount() {
+        return eventCount;
+    }
+
+    /**
+     * Runs the snapshot writer and then truncates the log. Appends wait until the snapshot is written, so no event can end up in
+     * neither of the two. The snapshot writer must not wait on scraper threads.
+     */
+    public synchronized void compact(final SnapshotWriter snapshotWriter) throws IOException {
+        snapshotWriter.writeSnapshot();
+
+        writer.close();
+        writer = openWriter(false);
+        eventCount = 0;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        writer.close();
+    }
+
+    public static void replay(final File logFile, final EventHandler handler) throws IOException {
+        if (!logFile.exists()) {
+            return;
+        }
+
+        final boolean lastLineIsComplete = endsWithNewLine(logFile);
+        final LineIterator lines = FileUtils.lineIterator(logFile, ENCODING);
+        try {
+            while (lines.hasNext()) {
+                final String line = lines.nextLine();
+                if (!lines.hasNext() && !lastLineIsComplete) {
+                    break;
+                }
+                replayLine(line, handler);
+            }
+        } finally {
+            LineIterator.closeQuietly(lines);
+        }
+    }
+
+    private static boolean endsWithNewLine(final File logFile) throws IOException {
+        final RandomAccessFile file = new RandomAccessFile(logFile, "r");
+        try {
+            if (file.length() == 0) {
+                return true;
+            }
+            file.seek(file.length() - 1);
+            return file.read() == NEW_LINE;
+        } finally {
+            IOUtils.closeQuietly(file);
+        }
+    }
+
+    private static void replayLine(final String line, final EventHandler handler) {
+        if (line.length() < 2 || line.charAt(1) != SEPARATOR) {
+            return;
+        }
+
+        final String value = unescape(line.substring(2));
+        switch (line.charAt(0)) {
+        case QUEUED:
+            handler.linkQueued(value);
+            break;
+        case VISITED:
+            handler.linkVisited(value);
+            break;
+        case RESULT:
+            handler.resultScraped(value);
+            break;
+        default:
+            break;
+        }
+    }
+
+    private static String escape(final String value) {
+        if (value.indexOf('\\') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return value.replace("\\", "\\\\").replace("\n", "\\n").replace("\r", "\\r");
+    }
+
+    private static String unescape(final String value) {
+        if (value.indexOf('\\') < 0) {
+            return value;
+        }
+
+        final StringBuilder unescaped = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            final char c = value.charAt(i);
+            if (c == '\\' && i + 1 < value.length()) {
+                final char escaped = value.charAt(++i);
+                unescaped.append(escaped == 'n' ? '\n' : escaped == 'r' ? '\r' : escaped);
+            } else {
+                unescaped.append(c);
+            }
+        }
+        return unescaped.toString();
+    }
+
+    public interface SnapshotWriter {
+
+        void writeSnapshot() throws IOException;
+    }
+
+    public interface EventHandler {
+
+        void linkQueued(String link);
+
+        void linkVisited(String link);
+
+        void resultScraped(String csvLine);
+    }
+}
@@ -0,0 +1,205 @@
+package com.fingy.scrape.context;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Flow;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Publishes scraped items to {@link Flow.Subscriber}s while the scrape is running. Every subscriber gets every item published after it
+ * subscribed, and only as many as it has requested: {@link #addScrapedItem(Object)} blocks its caller until at least one subscriber has
+ * subscribed and all of them have demand, so a slow consumer slows the scrape down instead of items piling up in memory. Items are
+ * delivered on the thread adding them, one at a time; for a scheduler that is its {@link CompletedResultsCollector} thread. A
+ * subscriber that throws from {@code onNext} is cancelled.
+ */
+public class ScrapedItemPublisher<T> implements Flow.Publisher<T>, ScrapedItemSink<T> {
+
+    private static Logger logger = LoggerFactory.getLogger(ScrapedItemPublisher.class);
+
+    private final List<ItemSubscription> subscriptions = new ArrayList<>();
+    private final Object deliveryLock = new Object();
+    private boolean closed;
+    private Throwable failure;
+
+    @Override
+    public void subscribe(final Flow.Subscriber<? super T> subscriber) {
+        if (subscriber == null) {
+            throw new NullPointerException("subscriber");
+        }
+
+        final ItemSubscription subscription = new ItemSubscription(subscriber);
+        synchronized (deliveryLock) {
+            subscriber.onSubscribe(subscription);
+            synchronized (this) {
+                if (subscription.done) {
+                    return;
+                }
+                if (!closed) {
+                    subscriptions.add(subscription);
+                    return;
+                }
+            }
+            subscription.complete(failure);
+        }
+    }
+
+    /**
+     * Waits for a subscriber if there is none yet and for every subscriber to request an item, then hands it to all of them. Once the
+     * publisher is closed items are dropped.
+     */
+    @Override
+    public void addScrapedItem(final T item) {
+        final List<ItemSubscription> receivers;
+        synchronized (this) {
+            try {
+                while (!closed && !isDemanded()) {
+                    wait();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (closed) {
+                return;
+            }
+            for (ItemSubscription subscription : subscriptions) {
+                subscription.demand--;
+            }
+            receivers = new ArrayList<>(subscriptions);
+        }
+
+        synchronized (deliveryLock) {
+            for (ItemSubscription receiver : receivers) {
+                receiver.deliver(item);
+            }
+        }
+    }
+
+    private boolean isDemanded() {
+        if (subscriptions.isEmpty()) {
+            return false;
+        }
+        for (ItemSubscription subscription : subscriptions) {
+            if (subscription.demand == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public synchronized int getSubscriberCount() {
+        return subscriptions.size();
+    }
+
+    public synchronized boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Completes every subscription. Call it once nothing is scraped anymore; items scraped later are dropped.
+     */
+    public void close() {
+        terminate(null);
+    }
+
+    /**
+     * Fails every subscription with {@code error}, e.g. when the scrape was cancelled.
+     */
+    public void closeExceptionally(final Throwable error) {
+        if (error == null) {
+            throw new NullPointerException("error");
+        }
+        terminate(error);
+    }
+
+    private void terminate(final Throwable error) {
+        final List<ItemSubscription> terminated;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            failure = error;
+            terminated = new ArrayList<>(subscriptions);
+            subscriptions.clear();
+            notifyAll();
+        }
+
+        synchronized (deliveryLock) {
+            for (ItemSubscription subscription : terminated) {
+                subscription.complete(error);
+            }
+        }
+    }
+
+    private synchronized void remove(final ItemSubscription subscription) {
+        subscriptions.remove(subscription);
+        notifyAll();
+    }
+
+    private synchronized void addDemand(final ItemSubscription subscription, final long items) {
+        subscription.demand = subscription.demand + items < 0 ? Long.MAX_VALUE : subscription.demand + items;
+        notifyAll();
+    }
+
+    /**
+     * The demand is guarded by the publisher, the signals to the subscriber by the delivery lock.
+     */
+    private final class ItemSubscription implements Flow.Subscription {
+
+        private final Flow.Subscriber<? super T> subscriber;
+        private long demand;
+        private boolean done;
+
+        private ItemSubscription(final Flow.Subscriber<? super T> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(final long items) {
+            if (items > 0) {
+                addDemand(this, items);
+                return;
+            }
+
+            remove(this);
+            synchronized (deliveryLock) {
+                complete(new IllegalArgumentException("Requested items must be positive: " + items));
+            }
+        }
+
+        @Override
+        public void cancel() {
+            remove(this);
+            synchronized (deliveryLock) {
+                done = true;
+            }
+        }
+
+        private void deliver(final T item) {
+            if (done) {
+                return;
+            }
+            try {
+                subscriber.onNext(item);
+            } catch (RuntimeException e) {
+                logger.error("Exception occured", e);
+                cancel();
+            }
+        }
+
+        private void complete(final Throwable error) {
+            if (done) {
+                return;
+            }
+            done = true;
+            if (error == null) {
+                subscriber.onComplete();
+            } else {
+                subscriber.onError(error);
+            }
+        }
+    }
+}
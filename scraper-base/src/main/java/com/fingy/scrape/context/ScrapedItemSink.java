@@ -0,0 +1,12 @@
+package com.fingy.scrape.context;
+
+/**
+ * Receives scraped items as soon as the task that scraped them finishes. The same sink may be fed from several threads, e.g. by
+ * a results collector and a {@link com.fingy.scrape.pipeline.ScrapePipeline}, so implementations shared that way must be thread-safe. Items keep arriving
+ * while the scrape is saved, so a sink that is also saved, like {@link ScrapeContext}, has to write out a copy taken under the
+ * lock {@link #addScrapedItem(Object)} holds.
+ */
+public interface ScrapedItemSink<T> {
+
+    void addScrapedItem(T item);
+}
@@ -1,121 +1,123 @@
 package com.fingy.scrape.context;
 
 import java.util.Collection;
-import java.util.Collections;
-import java.util.Iterator;
-import java.util.LinkedHashSet;
-import java.util.Set;
 
-public class ScraperLinksQueue {
+import com.fingy.concurrent.ExecutorTaskListener;
+
+/**
+ * Frontier of a crawl. Besides the links waiting to be scraped it counts the tasks in flight, as reported through
+ * {@link ExecutorTaskListener}, so a dispatcher can tell an empty frontier that tasks may still fill from a finished crawl.
+ * <p>
+ * This base holds what every frontier shares: the visited links store, the listener and the retry queue. How the queued links are
+ * kept and how takers wait for them is left to the implementations, {@link SynchronizedScraperLinksQueue} guarding everything with
+ * one monitor and {@link ConcurrentScraperLinksQueue} using concurrent collections.
+ */
+public abstract class ScraperLinksQueue implements ExecutorTaskListener {
+
+    private static final ScraperLinksQueueListener NO_OP_LISTENER = new ScraperLinksQueueListener() {
+        @Override
+        public void linkQueued(final String link) {
+        }
 
-    private final Set<String> visitedLinks;
-    private final Set<String> queuedLinksSet;
+        @Override
+        public void linkVisited(final String link) {
+        }
+    };
 
-    public ScraperLinksQueue() {
-        visitedLinks = new LinkedHashSet<String>();
-        queuedLinksSet = new LinkedHashSet<String>();
-    }
+    private final VisitedLinksStore visitedLinks;
+    private volatile ScraperLinksQueueListener listener = NO_OP_LISTENER;
+    private volatile LinkRetryQueue retryQueue;
 
-    public Collection<String> getVisitedLinks() {
-        return Collections.unmodifiableCollection(visitedLinks);
+    protected ScraperLinksQueue(final VisitedLinksStore visitedLinksStore) {
+        visitedLinks = visitedLinksStore;
     }
 
-    public Collection<String> getQueuedLinks() {
-        return Collections.unmodifiableCollection(queuedLinksSet);
+    /**
+     * The store behind the visited links. Implementations guard it as they guard their queued links, unless it is thread safe itself.
+     */
+    protected final VisitedLinksStore getVisitedLinksStore() {
+        return visitedLinks;
     }
 
-    public synchronized int getSize() {
-        return queuedLinksSet.size();
+    public Collection<String> getVisitedLinks() {
+        return visitedLinks.getLinks();
     }
 
-    public synchronized boolean isEmpty() {
-        return queuedLinksSet.isEmpty();
+    public void setListener(final ScraperLinksQueueListener listener) {
+        this.listener = listener == null ? NO_OP_LISTENER : listener;
     }
 
-    public synchronized boolean delayedIsEmpty(final long timeoutMillis) {
-        if (queuedLinksSet.isEmpty()) {
-            waitWithTimeout(timeoutMillis);
-        }
-        return queuedLinksSet.isEmpty();
+    protected void fireLinkQueued(final String link) {
+        listener.linkQueued(link);
     }
 
-    private void waitWithTimeout(final long timeoutMillis) {
-        try {
-            wait(timeoutMillis);
-        } catch (InterruptedException e) {
-        }
+    protected void fireLinkVisited(final String link) {
+        listener.linkVisited(link);
     }
 
-    public synchronized int getVisitedSize() {
-        return visitedLinks.size();
+    public boolean retainsAllVisitedLinks() {
+        return visitedLinks.retainsAllLinks();
     }
 
-    public synchronized void add(final String linkToEnqueue) {
-        if (!queuedLinksSet.contains(linkToEnqueue)) {
-            queuedLinksSet.add(linkToEnqueue);
-            notifyAll();
-        }
+    public void markVisitedLinksPersisted(final Collection<String> persistedLinks) {
+        visitedLinks.markPersisted(persistedLinks);
     }
 
-    public synchronized int addAllIfNotVisited(final Collection<String> linksToAdd) {
-        int numberAdded = 0;
+    /**
+     * A copy or a weakly consistent view, either way safe to iterate while links are being queued and taken.
+     */
+    public abstract Collection<String> getQueuedLinks();
 
-        for (String linkToEnqueue : linksToAdd) {
-            if (isNotAlreadyQueuedAndNotVisited(linkToEnqueue)) {
-                numberAdded++;
-                queuedLinksSet.add(linkToEnqueue);
-            }
-        }
+    public abstract int getSize();
 
-        notifyAll();
-        return numberAdded;
-    }
+    public abstract boolean isEmpty();
 
-    private boolean isNotAlreadyQueuedAndNotVisited(final String linkToEnqueue) {
-        return !queuedLinksSet.contains(linkToEnqueue) && !visitedLinks.contains(linkToEnqueue);
-    }
+    public abstract boolean delayedIsEmpty(long timeoutMillis);
 
-    public synchronized void markVisited(final String linkToMarkVisited) {
-        visitedLinks.add(linkToMarkVisited);
-    }
+    public abstract int getInFlightTaskCount();
 
-    public synchronized void markAllVisited(final Collection<String> linksToMarkVisited) {
-        visitedLinks.addAll(linksToMarkVisited);
-    }
+    /**
+     * Waits until there is a link to take or no task is left in flight that could still queue one. Returns {@code false} once the
+     * frontier is empty and nothing is running, which is exactly when the crawl is over.
+     */
+    public abstract boolean awaitLinksWhileTasksInFlight();
 
-    public synchronized String take() throws InterruptedException {
-        while (queuedLinksSet.isEmpty()) {
-            wait();
-        }
+    public abstract int getVisitedSize();
 
-        return takeFromQueuedLinksSet();
-    }
+    public abstract void add(String linkToEnqueue);
 
-    private String takeFromQueuedLinksSet() {
-        Iterator<String> iterator = queuedLinksSet.iterator();
-        String taken = iterator.next();
-        iterator.remove();
+    public abstract int addAllIfNotVisited(Collection<String> linksToAdd);
 
-        return taken;
-    }
+    public abstract void markVisited(String linkToMarkVisited);
 
-    public synchronized String take(final long timeout) throws InterruptedException {
-        wait(timeout);
-        return takeFromQueuedLinksSet();
-    }
+    public abstract void markAllVisited(Collection<String> linksToMarkVisited);
+
+    public abstract String take() throws InterruptedException;
 
-    public String peek() {
-        return queuedLinksSet.iterator().next();
+    public abstract String take(long timeout) throws InterruptedException;
+
+    public abstract String peek();
+
+    public abstract boolean isVisited(String link);
+
+    /**
+     * Where {@link #linkFailed(String, Throwable)} sends failed links; without one they are left for the next run.
+     */
+    public void setRetryQueue(final LinkRetryQueue retryQueue) {
+        this.retryQueue = retryQueue;
     }
 
-    public synchronized void addIfNotVisited(final String linkToEnqueue) {
-        if (!isAlreadyVisited(linkToEnqueue)) {
-            add(linkToEnqueue);
+    public void linkFailed(final String link, final Throwable failure) {
+        final LinkRetryQueue retries = retryQueue;
+        if (retries != null && !isVisited(link)) {
+            retries.retry(link, failure);
         }
     }
 
-    private boolean isAlreadyVisited(final String linkToEnqueue) {
-        return visitedLinks.contains(linkToEnqueue);
+    public void addIfNotVisited(final String linkToEnqueue) {
+        if (!isVisited(linkToEnqueue)) {
+            add(linkToEnqueue);
+        }
     }
 
 }
@@ -0,0 +1,12 @@
+package com.fingy.scrape.context;
+
+/**
+ * Notified of every link a {@link ScraperLinksQueue} newly queues or marks visited. Called outside of the queue's own locks, from
+ * whichever scraper thread made the change.
+ */
+public interface ScraperLinksQueueListener {
+
+    void linkQueued(String link);
+
+    void linkVisited(String link);
+}
@@ -0,0 +1,113 @@
+package com.fingy.scrape.context;
+
+import java.util.AbstractCollection;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Visited links store that answers for the links of a previous run straight from a {@link MappedScrapeSnapshot}, so they never have
+ * to be loaded. Only the links visited since the snapshot was taken are kept on the heap, in sorted order, so {@link #getLinks()} can
+ * merge them with the sorted snapshot links and saving never has to sort.
+ */
+public class SnapshotVisitedLinksStore implements VisitedLinksStore {
+
+    private final MappedScrapeSnapshot snapshot;
+    private final NavigableSet<String> linksVisitedSinceSnapshot = new ConcurrentSkipListSet<>();
+    private final AtomicInteger linksVisitedSinceSnapshotCount = new AtomicInteger();
+
+    public SnapshotVisitedLinksStore(final MappedScrapeSnapshot snapshot) {
+        this.snapshot = snapshot;
+    }
+
+    @Override
+    public boolean add(final String link) {
+        if (!snapshot.isVisited(link) && linksVisitedSinceSnapshot.add(link)) {
+            linksVisitedSinceSnapshotCount.incrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public void restore(final String link) {
+        add(link);
+    }
+
+    @Override
+    public boolean contains(final String link) {
+        return linksVisitedSinceSnapshot.contains(link) || snapshot.isVisited(link);
+    }
+
+    @Override
+    public int size() {
+        return snapshot.getVisitedLinks().size() + linksVisitedSinceSnapshotCount.get();
+    }
+
+    /**
+     * All visited links in {@link String} order.
+     */
+    @Override
+    public Collection<String> getLinks() {
+        return new AbstractCollection<String>() {
+            @Override
+            public Iterator<String> iterator() {
+                final Iterator<String> snapshotLinks = snapshot.getVisitedLinks().iterator();
+                final Iterator<String> newLinks = linksVisitedSinceSnapshot.iterator();
+
+                return new Iterator<String>() {
+                    private String nextSnapshotLink = nextOrNull(snapshotLinks);
+                    private String nextNewLink = nextOrNull(newLinks);
+
+                    @Override
+                    public boolean hasNext() {
+                        return nextSnapshotLink != null || nextNewLink != null;
+                    }
+
+                    @Override
+                    public String next() {
+                        if (!hasNext()) {
+                            throw new NoSuchElementException();
+                        }
+
+                        final String link;
+                        if (nextNewLink == null || (nextSnapshotLink != null && nextSnapshotLink.compareTo(nextNewLink) <= 0)) {
+                            link = nextSnapshotLink;
+                            nextSnapshotLink = nextOrNull(snapshotLinks);
+                        } else {
+                            link = nextNewLink;
+                            nextNewLink = nextOrNull(newLinks);
+                        }
+                        return link;
+                    }
+
+                    @Override
+                    public void remove() {
+                        throw new UnsupportedOperationException();
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return SnapshotVisitedLinksStore.this.size();
+            }
+        };
+    }
+
+    private static String nextOrNull(final Iterator<String> links) {
+        return links.hasNext() ? links.next() : null;
+    }
+
+    @Override
+    public void markPersisted(final Collection<String> persistedLinks) {
+    }
+
+    @Override
+    public boolean retainsAllLinks() {
+        return true;
+    }
+}
@@ -0,0 +1,312 @@
+package com.fingy.scrape.context;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.apache.commons.io.IOUtils;
+
+/**
+ * Immutable file of unique links, one per line in {@link String} order. Only every {@value #BLOCK_SIZE}th link and its byte offset
+ * are kept on the heap; a lookup reads the single block that can hold the link.
+ */
+class SortedLinksFile implements Closeable {
+
+    static final int BLOCK_SIZE = 128;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final byte NEW_LINE = '\n';
+
+    private final File file;
+    private final FileChannel channel;
+    private final String[] blockFirstLinks;
+    private final long[] blockOffsets;
+    private final long length;
+    private final int size;
+
+    private SortedLinksFile(final File file, final List<String> blockFirstLinks, final List<Long> blockOffsets, final long length,
+            final int size) throws IOException {
+        this.file = file;
+        this.channel = length > 0 ? FileChannel.open(file.toPath(), StandardOpenOption.READ) : null;
+        this.blockFirstLinks = blockFirstLinks.toArray(new String[blockFirstLinks.size()]);
+        this.blockOffsets = new long[blockOffsets.size()];
+        for (int i = 0; i < this.blockOffsets.length; i++) {
+            this.blockOffsets[i] = blockOffsets.get(i);
+        }
+        this.length = length;
+        this.size = size;
+    }
+
+    /**
+     * Scans an existing file to rebuild the block index, passing every link to the given visitor on the way.
+     */
+    static SortedLinksFile open(final File file, final LinkVisitor visitor) throws IOException {
+        final List<String> blockFirstLinks = new ArrayList<>();
+        final List<Long> blockOffsets = new ArrayList<>();
+        long offset = 0;
+        int size = 0;
+
+        if (file.exists()) {
+            final LineReader lines = new LineReader(file);
+            try {
+                while (lines.hasNext()) {
+                    final String link = lines.next();
+                    if (size % BLOCK_SIZE == 0) {
+                        blockFirstLinks.add(link);
+                        blockOffsets.add(offset);
+                    }
+                    visitor.visit(link);
+                    offset = lines.getOffset();
+                    size++;
+                }
+            } finally {
+                lines.close();
+            }
+        }
+
+        return new SortedLinksFile(file, blockFirstLinks, blockOffsets, offset, size);
+    }
+
+    /**
+     * Writes the union of this file and the given sorted links to {@code target}, dropping duplicates.
+     */
+    SortedLinksFile mergeInto(final File target, final Iterator<String> sortedLinks) throws IOException {
+        final List<String> blockFirstLinks = new ArrayList<>();
+        final List<Long> blockOffsets = new ArrayList<>();
+        long offset = 0;
+        int mergedSize = 0;
+
+        final LineReader existingLinks = new LineReader(file);
+        final OutputStream output = new BufferedOutputStream(new FileOutputStream(target));
+        try {
+            final Iterator<String> merged = new MergingIterator(existingLinks, sortedLinks);
+            while (merged.hasNext()) {
+                final String link = merged.next();
+                if (mergedSize % BLOCK_SIZE == 0) {
+                    blockFirstLinks.add(link);
+                    blockOffsets.add(offset);
+                }
+                final byte[] line = link.getBytes(UTF_8);
+                output.write(line);
+                output.write(NEW_LINE);
+                offset += line.length + 1;
+                mergedSize++;
+            }
+        } finally {
+            IOUtils.closeQuietly(output);
+            existingLinks.close();
+        }
+
+        return new SortedLinksFile(target, blockFirstLinks, blockOffsets, offset, mergedSize);
+    }
+
+    /**
+     * Closes this file and moves it to {@code target}, keeping the block index so the file does not have to be scanned again.
+     */
+    SortedLinksFile moveTo(final File target) throws IOException {
+        close();
+        Files.move(file.toPath(), target.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        return new SortedLinksFile(target, Arrays.asList(blockFirstLinks), toList(blockOffsets), length, size);
+    }
+
+    private static List<Long> toList(final long[] values) {
+        final List<Long> list = new ArrayList<>(values.length);
+        for (long value : values) {
+            list.add(value);
+        }
+        return list;
+    }
+
+    boolean contains(final String link) throws IOException {
+        final int block = findBlock(link);
+        if (block < 0) {
+            return false;
+        }
+
+        final long blockStart = blockOffsets[block];
+        final long blockEnd = block + 1 < blockOffsets.length ? blockOffsets[block + 1] : length;
+        final ByteBuffer buffer = ByteBuffer.allocate((int) (blockEnd - blockStart));
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, blockStart + buffer.position()) < 0) {
+                break;
+            }
+        }
+
+        for (String blockLink : new String(buffer.array(), 0, buffer.position(), UTF_8).split("\n")) {
+            final int comparison = blockLink.compareTo(link);
+            if (comparison == 0) {
+                return true;
+            }
+            if (comparison > 0) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    private int findBlock(final String link) {
+        final int index = Arrays.binarySearch(blockFirstLinks, link);
+        return index >= 0 ? index : -index - 2;
+    }
+
+    File getFile() {
+        return file;
+    }
+
+    int size() {
+        return size;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    interface LinkVisitor {
+        void visit(String link);
+    }
+
+    /**
+     * Reads newline separated UTF-8 links while keeping track of the byte offset, which a {@code BufferedReader} hides.
+     */
+    private static final class LineReader implements Iterator<String> {
+
+        private final InputStream input;
+        private final ByteArrayOutputStream line = new ByteArrayOutputStream();
+        private String nextLink;
+        private long offset;
+        private long nextOffset;
+
+        private LineReader(final File file) throws IOException {
+            input = file.exists() ? new BufferedInputStream(new FileInputStream(file)) : null;
+            advance();
+        }
+
+        private void advance() throws IOException {
+            nextLink = null;
+            if (input == null) {
+                return;
+            }
+
+            line.reset();
+            int read;
+            while ((read = input.read()) >= 0) {
+                nextOffset++;
+                if (read == NEW_LINE) {
+                    nextLink = new String(line.toByteArray(), UTF_8);
+                    return;
+                }
+                line.write(read);
+            }
+            if (line.size() > 0) {
+                nextLink = new String(line.toByteArray(), UTF_8);
+            }
+        }
+
+        long getOffset() {
+            return offset;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextLink != null;
+        }
+
+        @Override
+        public String next() {
+            if (nextLink == null) {
+                throw new NoSuchElementException();
+            }
+            final String link = nextLink;
+            offset = nextOffset;
+            try {
+                advance();
+            } catch (IOException e) {
+                throw new IllegalStateException("Could not read sorted links", e);
+            }
+            return link;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        void close() {
+            IOUtils.closeQuietly(input);
+        }
+    }
+
+    private static final class MergingIterator implements Iterator<String> {
+
+        private final Iterator<String> first;
+        private final Iterator<String> second;
+        private String nextFromFirst;
+        private String nextFromSecond;
+        private String lastReturned;
+
+        private MergingIterator(final Iterator<String> first, final Iterator<String> second) {
+            this.first = first;
+            this.second = second;
+            nextFromFirst = first.hasNext() ? first.next() : null;
+            nextFromSecond = second.hasNext() ? second.next() : null;
+            skipDuplicates();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return nextFromFirst != null || nextFromSecond != null;
+        }
+
+        @Override
+        public String next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            if (nextFromSecond == null || (nextFromFirst != null && nextFromFirst.compareTo(nextFromSecond) <= 0)) {
+                lastReturned = nextFromFirst;
+                nextFromFirst = first.hasNext() ? first.next() : null;
+            } else {
+                lastReturned = nextFromSecond;
+                nextFromSecond = second.hasNext() ? second.next() : null;
+            }
+            skipDuplicates();
+            return lastReturned;
+        }
+
+        private void skipDuplicates() {
+            while (nextFromFirst != null && nextFromFirst.equals(lastReturned)) {
+                nextFromFirst = first.hasNext() ? first.next() : null;
+            }
+            while (nextFromSecond != null && nextFromSecond.equals(lastReturned)) {
+                nextFromSecond = second.hasNext() ? second.next() : null;
+            }
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package com.fingy.scrape.context;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.AbstractCollection;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Frontier that keeps at most a fixed number of queued links on the heap. Links past that budget are appended to memory-mapped
+ * segment files in the spill directory and read back, in FIFO order, once the links in memory have been taken. Queued links are
+ * deduplicated by fingerprint, so heap use stays flat however far the crawl has gone.
+ */
+public class SpillingScraperLinksQueue extends ConcurrentScraperLinksQueue {
+
+    public static final int DEFAULT_SEGMENT_CAPACITY = 16 * 1024 * 1024;
+
+    private static final String SEGMENT_FILE_PREFIX = "frontier-";
+    private static final String SEGMENT_FILE_SUFFIX = ".segment";
+
+    private final int inMemoryBudget;
+    private final int segmentCapacity;
+    private final File spillDirectory;
+
+    private final Deque<String> linksInMemory = new ArrayDeque<>();
+    private final Deque<LinkSegmentFile> spilledSegments = new ArrayDeque<>();
+    private final FingerprintLinkSet queuedFingerprints = new FingerprintLinkSet();
+    private final AtomicInteger linksToTakeCount = new AtomicInteger();
+    private int nextSegmentNumber;
+
+    private final ReentrantLock frontierLock = new ReentrantLock();
+    private final Condition linkOffered = frontierLock.newCondition();
+
+    public SpillingScraperLinksQueue(final int inMemoryBudget, final File spillDirectory) {
+        this(inMemoryBudget, spillDirectory, DEFAULT_SEGMENT_CAPACITY, InMemoryVisitedLinksStore.createDefault(
+                Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>())));
+    }
+
+    public SpillingScraperLinksQueue(final int inMemoryBudget, final File spillDirectory, final int segmentCapacity,
+            final VisitedLinksStore visitedLinksStore) {
+        super(visitedLinksStore);
+        if (inMemoryBudget <= 0) {
+            throw new IllegalArgumentException("In-memory budget must be positive: " + inMemoryBudget);
+        }
+        if (segmentCapacity <= 0) {
+            throw new IllegalArgumentException("Segment capacity must be positive: " + segmentCapacity);
+        }
+
+        this.inMemoryBudget = inMemoryBudget;
+        this.segmentCapacity = segmentCapacity;
+        this.spillDirectory = spillDirectory;
+
+        if (!spillDirectory.isDirectory() && !spillDirectory.mkdirs()) {
+            throw new IllegalArgumentException("Could not create spill directory " + spillDirectory);
+        }
+        deleteLeftoverSegments();
+    }
+
+    private void deleteLeftoverSegments() {
+        final File[] files = spillDirectory.listFiles();
+        if (files == null) {
+            return;
+        }
+
+        for (File file : files) {
+            if (file.getName().startsWith(SEGMENT_FILE_PREFIX) && file.getName().endsWith(SEGMENT_FILE_SUFFIX)) {
+                file.delete();
+            }
+        }
+    }
+
+    @Override
+    public Collection<String> getQueuedLinks() {
+        return new AbstractCollection<String>() {
+            @Override
+            public Iterator<String> iterator() {
+                return queuedLinksSnapshot();
+            }
+
+            @Override
+            public int size() {
+                return getQueuedCount();
+            }
+        };
+    }
+
+    private Iterator<String> queuedLinksSnapshot() {
+        final List<Iterable<String>> parts = new ArrayList<>();
+        frontierLock.lock();
+        try {
+            parts.add(new ArrayList<>(linksInMemory));
+            for (LinkSegmentFile segment : spilledSegments) {
+                parts.add(segment.unreadLinks());
+            }
+        } finally {
+            frontierLock.unlock();
+        }
+
+        return new Iterator<String>() {
+            private final Iterator<Iterable<String>> remainingParts = parts.iterator();
+            private Iterator<String> currentPart = remainingParts.next().iterator();
+
+            @Override
+            public boolean hasNext() {
+                while (!currentPart.hasNext() && remainingParts.hasNext()) {
+                    currentPart = remainingParts.next().iterator();
+                }
+                return currentPart.hasNext();
+            }
+
+            @Override
+            public String next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return currentPart.next();
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    @Override
+    protected boolean markQueued(final String linkToEnqueue) {
+        return queuedFingerprints.add(linkToEnqueue);
+    }
+
+    @Override
+    protected void unmarkQueued(final String takenLink) {
+        queuedFingerprints.remove(takenLink);
+    }
+
+    @Override
+    protected int getQueuedCount() {
+        return queuedFingerprints.size();
+    }
+
+    @Override
+    protected void offerLink(final String linkToEnqueue) {
+        frontierLock.lock();
+        try {
+            if (spilledSegments.isEmpty() && linksInMemory.size() < inMemoryBudget) {
+                linksInMemory.addLast(linkToEnqueue);
+            } else {
+                spill(linkToEnqueue);
+            }
+            linksToTakeCount.incrementAndGet();
+            linkOffered.signal();
+        } finally {
+            frontierLock.unlock();
+        }
+    }
+
+    private void spill(final String linkToEnqueue) {
+        final LinkSegmentFile lastSegment = spilledSegments.peekLast();
+        if (lastSegment != null && lastSegment.append(linkToEnqueue)) {
+            return;
+        }
+
+        final int capacity = Math.max(segmentCapacity, LinkSegmentFile.recordSize(linkToEnqueue));
+        final File segmentFile = new File(spillDirectory, SEGMENT_FILE_PREFIX + nextSegmentNumber++ + SEGMENT_FILE_SUFFIX);
+        try {
+            final LinkSegmentFile segment = new LinkSegmentFile(segmentFile, capacity);
+            segment.append(linkToEnqueue);
+            spilledSegments.addLast(segment);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not spill queued links to " + segmentFile, e);
+        }
+    }
+
+    @Override
+    protected String takeLink() throws InterruptedException {
+        frontierLock.lockInterruptibly();
+        try {
+            while (linksToTakeCount.get() == 0) {
+                linkOffered.await();
+            }
+            return removeFirst();
+        } finally {
+            frontierLock.unlock();
+        }
+    }
+
+    @Override
+    protected String pollLink(final long timeoutMillis) throws InterruptedException {
+        long nanosLeft = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        frontierLock.lockInterruptibly();
+        try {
+            while (linksToTakeCount.get() == 0) {
+                if (nanosLeft <= 0) {
+                    return null;
+                }
+                nanosLeft = linkOffered.awaitNanos(nanosLeft);
+            }
+            return removeFirst();
+        } finally {
+            frontierLock.unlock();
+        }
+    }
+
+    @Override
+    protected String peekLink() {
+        frontierLock.lock();
+        try {
+            refillFromSpilledSegments();
+            return linksInMemory.peekFirst();
+        } finally {
+            frontierLock.unlock();
+        }
+    }
+
+    @Override
+    protected boolean hasNoLinksToTake() {
+        return linksToTakeCount.get() == 0;
+    }
+
+    private String removeFirst() {
+        refillFromSpilledSegments();
+        linksToTakeCount.decrementAndGet();
+        return linksInMemory.removeFirst();
+    }
+
+    private void refillFromSpilledSegments() {
+        while (linksInMemory.isEmpty() && !spilledSegments.isEmpty()) {
+            final LinkSegmentFile oldestSegment = spilledSegments.peekFirst();
+            String link;
+            while (linksInMemory.size() < inMemoryBudget && (link = oldestSegment.read()) != null) {
+                linksInMemory.addLast(link);
+            }
+
+            if (oldestSegment.isDrained()) {
+                spilledSegments.removeFirst();
+                oldestSegment.delete();
+            }
+        }
+    }
+
+    public int getSpilledSegmentCount() {
+        frontierLock.lock();
+        try {
+            return spilledSegments.size();
+        } finally {
+            frontierLock.unlock();
+        }
+    }
+}
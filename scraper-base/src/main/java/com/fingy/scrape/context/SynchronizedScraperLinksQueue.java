@@ -0,0 +1,185 @@
+package com.fingy.scrape.context;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The plain {@link ScraperLinksQueue}: queued links, visited links and the count of tasks in flight are all guarded by the queue's
+ * monitor, which takers also wait on.
+ */
+public class SynchronizedScraperLinksQueue extends ScraperLinksQueue {
+
+    private final Set<String> queuedLinksSet = new LinkedHashSet<String>();
+    private int inFlightTasks;
+
+    public SynchronizedScraperLinksQueue() {
+        this(InMemoryVisitedLinksStore.createDefault(new LinkedHashSet<String>()));
+    }
+
+    public SynchronizedScraperLinksQueue(final VisitedLinksStore visitedLinksStore) {
+        super(visitedLinksStore);
+    }
+
+    @Override
+    public synchronized Collection<String> getQueuedLinks() {
+        return new ArrayList<>(queuedLinksSet);
+    }
+
+    @Override
+    public synchronized int getSize() {
+        return queuedLinksSet.size();
+    }
+
+    @Override
+    public synchronized boolean isEmpty() {
+        return queuedLinksSet.isEmpty();
+    }
+
+    @Override
+    public synchronized boolean delayedIsEmpty(final long timeoutMillis) {
+        if (queuedLinksSet.isEmpty()) {
+            waitWithTimeout(timeoutMillis);
+        }
+        return queuedLinksSet.isEmpty();
+    }
+
+    private void waitWithTimeout(final long timeoutMillis) {
+        try {
+            wait(timeoutMillis);
+        } catch (InterruptedException e) {
+        }
+    }
+
+    @Override
+    public synchronized void taskSubmitted() {
+        inFlightTasks++;
+    }
+
+    @Override
+    public synchronized void taskFinished() {
+        if (--inFlightTasks == 0) {
+            notifyAll();
+        }
+    }
+
+    @Override
+    public synchronized int getInFlightTaskCount() {
+        return inFlightTasks;
+    }
+
+    @Override
+    public synchronized boolean awaitLinksWhileTasksInFlight() {
+        try {
+            while (queuedLinksSet.isEmpty() && inFlightTasks > 0) {
+                wait();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return !queuedLinksSet.isEmpty();
+    }
+
+    @Override
+    public synchronized int getVisitedSize() {
+        return getVisitedLinksStore().size();
+    }
+
+    @Override
+    public void add(final String linkToEnqueue) {
+        if (enqueue(linkToEnqueue)) {
+            fireLinkQueued(linkToEnqueue);
+        }
+    }
+
+    private synchronized boolean enqueue(final String linkToEnqueue) {
+        if (!queuedLinksSet.contains(linkToEnqueue)) {
+            queuedLinksSet.add(linkToEnqueue);
+            notifyAll();
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    public int addAllIfNotVisited(final Collection<String> linksToAdd) {
+        final List<String> addedLinks = enqueueAllIfNotVisited(linksToAdd);
+        for (String addedLink : addedLinks) {
+            fireLinkQueued(addedLink);
+        }
+        return addedLinks.size();
+    }
+
+    private synchronized List<String> enqueueAllIfNotVisited(final Collection<String> linksToAdd) {
+        final List<String> addedLinks = new ArrayList<>();
+
+        for (String linkToEnqueue : linksToAdd) {
+            if (isNotAlreadyQueuedAndNotVisited(linkToEnqueue)) {
+                addedLinks.add(linkToEnqueue);
+                queuedLinksSet.add(linkToEnqueue);
+            }
+        }
+
+        notifyAll();
+        return addedLinks;
+    }
+
+    private boolean isNotAlreadyQueuedAndNotVisited(final String linkToEnqueue) {
+        return !queuedLinksSet.contains(linkToEnqueue) && !getVisitedLinksStore().contains(linkToEnqueue);
+    }
+
+    @Override
+    public void markVisited(final String linkToMarkVisited) {
+        if (addToVisitedLinks(linkToMarkVisited)) {
+            fireLinkVisited(linkToMarkVisited);
+        }
+    }
+
+    private synchronized boolean addToVisitedLinks(final String linkToMarkVisited) {
+        return getVisitedLinksStore().add(linkToMarkVisited);
+    }
+
+    @Override
+    public synchronized void markAllVisited(final Collection<String> linksToMarkVisited) {
+        for (String linkToMarkVisited : linksToMarkVisited) {
+            getVisitedLinksStore().restore(linkToMarkVisited);
+        }
+    }
+
+    @Override
+    public synchronized String take() throws InterruptedException {
+        while (queuedLinksSet.isEmpty()) {
+            wait();
+        }
+
+        return takeFromQueuedLinksSet();
+    }
+
+    private String takeFromQueuedLinksSet() {
+        Iterator<String> iterator = queuedLinksSet.iterator();
+        String taken = iterator.next();
+        iterator.remove();
+
+        return taken;
+    }
+
+    @Override
+    public synchronized String take(final long timeout) throws InterruptedException {
+        wait(timeout);
+        return takeFromQueuedLinksSet();
+    }
+
+    @Override
+    public String peek() {
+        return queuedLinksSet.iterator().next();
+    }
+
+    @Override
+    public synchronized boolean isVisited(final String link) {
+        return getVisitedLinksStore().contains(link);
+    }
+
+}
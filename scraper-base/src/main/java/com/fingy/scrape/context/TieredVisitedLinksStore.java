@@ -0,0 +1,218 @@
+package com.fingy.scrape.context;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.NavigableSet;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fingy.scrape.util.UrlUtil;
+
+/**
+ * Visited links store for crawls of tens of millions of links. Lookups go through an in-memory {@link BloomFilter} first and only
+ * touch the exact tiers on a possible hit: the recently visited links kept in memory, then a {@link SortedLinksFile} on disk. Once
+ * enough links pile up in memory they are merged into a new sorted file. The filter is rebuilt from the sorted file on startup, so
+ * that file is the only state that needs to survive a restart.
+ */
+public class TieredVisitedLinksStore implements VisitedLinksStore, Closeable {
+
+    public static final int DEFAULT_MERGE_THRESHOLD = 100000;
+    public static final double DEFAULT_FALSE_POSITIVE_PROBABILITY = 0.01;
+
+    private static final String MERGE_FILE_SUFFIX = ".merge";
+
+    private static Logger logger = LoggerFactory.getLogger(TieredVisitedLinksStore.class);
+
+    private final BloomFilter bloomFilter;
+    private final int mergeThreshold;
+
+    private volatile NavigableSet<String> recentLinks = new ConcurrentSkipListSet<>();
+    private volatile NavigableSet<String> mergingLinks = new ConcurrentSkipListSet<>();
+    private volatile SortedLinksFile sortedLinksFile;
+
+    private final AtomicInteger recentLinksCount = new AtomicInteger();
+    private volatile int mergingLinksCount;
+
+    /**
+     * Adding to the recent links takes the read lock, swapping them out for a merge the write lock, so no add lands in a set that is
+     * already being merged.
+     */
+    private final ReentrantReadWriteLock recentLinksLock = new ReentrantReadWriteLock();
+    private final ReentrantLock mergeLock = new ReentrantLock();
+    private final ReentrantReadWriteLock sortedLinksFileLock = new ReentrantReadWriteLock();
+    private final Queue<String> linksToPersist = new ConcurrentLinkedQueue<>();
+
+    public TieredVisitedLinksStore(final File sortedLinksFile, final long expectedLinks) throws IOException {
+        this(sortedLinksFile, expectedLinks, DEFAULT_FALSE_POSITIVE_PROBABILITY, DEFAULT_MERGE_THRESHOLD);
+    }
+
+    public TieredVisitedLinksStore(final File sortedLinksFile, final long expectedLinks, final double falsePositiveProbability,
+            final int mergeThreshold) throws IOException {
+        if (mergeThreshold <= 0) {
+            throw new IllegalArgumentException("Merge threshold must be positive: " + mergeThreshold);
+        }
+
+        this.bloomFilter = new BloomFilter(expectedLinks, falsePositiveProbability);
+        this.mergeThreshold = mergeThreshold;
+        this.sortedLinksFile = SortedLinksFile.open(sortedLinksFile, new SortedLinksFile.LinkVisitor() {
+            @Override
+            public void visit(final String link) {
+                bloomFilter.put(FingerprintLinkSet.fingerprint(link));
+            }
+        });
+        logger.trace("Loaded " + this.sortedLinksFile.size() + " visited links from " + sortedLinksFile);
+    }
+
+    @Override
+    public boolean add(final String link) {
+        final String canonicalLink = UrlUtil.canonicalize(link);
+        if (containsCanonical(canonicalLink) || !addToRecentLinks(canonicalLink)) {
+            return false;
+        }
+
+        bloomFilter.put(FingerprintLinkSet.fingerprint(canonicalLink));
+        linksToPersist.add(link);
+        mergeIfThresholdReached();
+        return true;
+    }
+
+    /**
+     * Restored links are not checked against the sorted file, duplicates are dropped when the recent links are merged into it.
+     */
+    @Override
+    public void restore(final String link) {
+        final String canonicalLink = UrlUtil.canonicalize(link);
+        addToRecentLinks(canonicalLink);
+        bloomFilter.put(FingerprintLinkSet.fingerprint(canonicalLink));
+        mergeIfThresholdReached();
+    }
+
+    private boolean addToRecentLinks(final String canonicalLink) {
+        recentLinksLock.readLock().lock();
+        try {
+            if (recentLinks.add(canonicalLink)) {
+                recentLinksCount.incrementAndGet();
+                return true;
+            }
+            return false;
+        } finally {
+            recentLinksLock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean contains(final String link) {
+        return containsCanonical(UrlUtil.canonicalize(link));
+    }
+
+    private boolean containsCanonical(final String canonicalLink) {
+        if (!bloomFilter.mightContain(FingerprintLinkSet.fingerprint(canonicalLink))) {
+            return false;
+        }
+
+        return recentLinks.contains(canonicalLink) || mergingLinks.contains(canonicalLink) || sortedFileContains(canonicalLink);
+    }
+
+    private boolean sortedFileContains(final String canonicalLink) {
+        sortedLinksFileLock.readLock().lock();
+        try {
+            return sortedLinksFile.contains(canonicalLink);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not read visited links from " + sortedLinksFile.getFile(), e);
+        } finally {
+            sortedLinksFileLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Approximate, since restored links are only deduplicated against the sorted file once they are merged into it.
+     */
+    @Override
+    public int size() {
+        return sortedLinksFile.size() + mergingLinksCount + recentLinksCount.get();
+    }
+
+    @Override
+    public Collection<String> getLinks() {
+        return Collections.unmodifiableCollection(linksToPersist);
+    }
+
+    @Override
+    public void markPersisted(final Collection<String> persistedLinks) {
+        for (int i = 0; i < persistedLinks.size(); i++) {
+            linksToPersist.poll();
+        }
+    }
+
+    @Override
+    public boolean retainsAllLinks() {
+        return false;
+    }
+
+    private void mergeIfThresholdReached() {
+        if (recentLinksCount.get() >= mergeThreshold && mergeLock.tryLock()) {
+            try {
+                mergeRecentLinks();
+            } catch (IOException e) {
+                logger.error("Exception occured", e);
+            } finally {
+                mergeLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Merges the links visited since the last merge into the sorted file. Lookups keep working while the new file is written; they
+     * only wait for the moment the old file is replaced.
+     */
+    public void mergeRecentLinks() throws IOException {
+        mergeLock.lock();
+        try {
+            if (recentLinksCount.get() == 0) {
+                return;
+            }
+
+            recentLinksLock.writeLock().lock();
+            try {
+                mergingLinks = recentLinks;
+                mergingLinksCount = recentLinksCount.getAndSet(0);
+                recentLinks = new ConcurrentSkipListSet<>();
+            } finally {
+                recentLinksLock.writeLock().unlock();
+            }
+
+            final File file = sortedLinksFile.getFile();
+            final File mergeFile = new File(file.getPath() + MERGE_FILE_SUFFIX);
+            final SortedLinksFile merged = sortedLinksFile.mergeInto(mergeFile, mergingLinks.iterator());
+
+            sortedLinksFileLock.writeLock().lock();
+            try {
+                sortedLinksFile.close();
+                sortedLinksFile = merged.moveTo(file);
+                mergingLinksCount = 0;
+            } finally {
+                sortedLinksFileLock.writeLock().unlock();
+            }
+
+            mergingLinks = new ConcurrentSkipListSet<>();
+        } finally {
+            mergeLock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        mergeRecentLinks();
+        sortedLinksFile.close();
+    }
+}
@@ -0,0 +1,31 @@
+package com.fingy.scrape.context;
+
+import java.util.Collection;
+
+/**
+ * Storage behind the visited links of a {@link ScraperLinksQueue}. Links marked visited while scraping go through
+ * {@link #add(String)}, links restored from a previous run go through {@link #restore(String)}.
+ */
+public interface VisitedLinksStore {
+
+    boolean add(String link);
+
+    void restore(String link);
+
+    boolean contains(String link);
+
+    int size();
+
+    /**
+     * Stores that retain every link return all of them; compact stores only return the links passed to {@link #add(String)}, which
+     * are the ones that still need to be persisted.
+     */
+    Collection<String> getLinks();
+
+    /**
+     * Called once links returned by {@link #getLinks()} have been written out, so compact stores can let go of them.
+     */
+    void markPersisted(Collection<String> persistedLinks);
+
+    boolean retainsAllLinks();
+}
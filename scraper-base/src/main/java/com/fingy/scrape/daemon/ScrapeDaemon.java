@@ -0,0 +1,162 @@
+package com.fingy.scrape.daemon;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fingy.concurrent.ExecutorsUtil;
+import com.fingy.scrape.AbstractScrapeScheduler;
+import com.fingy.scrape.ScrapeSession;
+import com.fingy.scrape.context.ScrapeDetails;
+import com.fingy.scrape.context.ScrapeResult;
+import com.fingy.scrape.fetch.AsyncPageFetcher;
+import com.fingy.scrape.util.JsoupParserUtil;
+
+/**
+ * Runs many {@link ScrapeJob}s at once in one JVM instead of one JVM per module. The jobs' tasks run on one shared thread pool, each job
+ * limited to its quota, so threads a job leaves idle go to the others; they also share one page fetcher. Host concurrency limits and
+ * circuit breakers are not shared: each job's scheduler keeps its own. Each job runs as a {@link ScrapeSession} of up to a given number
+ * of iterations.
+ */
+public class ScrapeDaemon {
+
+    public static final int DEFAULT_MAX_ITERATIONS = 5;
+
+    private static final int AVAILABLE_PROCESSORS = Runtime.getRuntime().availableProcessors();
+
+    private static Logger logger = LoggerFactory.getLogger(ScrapeDaemon.class);
+
+    private final ThreadPoolExecutor sharedThreadPool;
+    private final AsyncPageFetcher sharedPageFetcher;
+    private final ExecutorService jobThreadPool;
+    private final int maxIterations;
+    private final ConcurrentMap<String, ScrapeSession<?>> runningJobs = new ConcurrentHashMap<>();
+    private final Set<String> submittedJobs = ConcurrentHashMap.newKeySet();
+
+    public ScrapeDaemon() {
+        this(AVAILABLE_PROCESSORS * 4, DEFAULT_MAX_ITERATIONS);
+    }
+
+    public ScrapeDaemon(final int sharedThreads, final int maxIterations) {
+        if (sharedThreads <= 0 || maxIterations <= 0) {
+            throw new IllegalArgumentException("Invalid daemon settings: " + sharedThreads + ", " + maxIterations);
+        }
+        sharedThreadPool = new ThreadPoolExecutor(sharedThreads, sharedThreads, 1, TimeUnit.MINUTES, new LinkedBlockingQueue<Runnable>());
+        sharedPageFetcher = new AsyncPageFetcher();
+        jobThreadPool = Executors.newCachedThreadPool();
+        this.maxIterations = maxIterations;
+    }
+
+    /**
+     * Starts {@code job} on a dispatcher thread of its own. The future completes with the result of its last iteration.
+     */
+    public Future<ScrapeResult> submit(final ScrapeJob job) {
+        if (!submittedJobs.add(job.getName())) {
+            throw new IllegalArgumentException("A job with this name is already running: " + job.getName());
+        }
+        try {
+            return jobThreadPool.submit(new Callable<ScrapeResult>() {
+                @Override
+                public ScrapeResult call() {
+                    try {
+                        return runJob(job);
+                    } finally {
+                        submittedJobs.remove(job.getName());
+                    }
+                }
+            });
+        } catch (RuntimeException e) {
+            submittedJobs.remove(job.getName());
+            throw e;
+        }
+    }
+
+    private ScrapeResult runJob(final ScrapeJob job) {
+        final ScrapeJobResources resources = new ScrapeJobResources(sharedThreadPool, sharedPageFetcher, job.getMaxConcurrentTasks());
+        final AbstractScrapeScheduler<?> scheduler = job.createScheduler(resources);
+        scheduler.setSharedPageFetcher(sharedPageFetcher);
+
+        final ScrapeSession<?> session = createSession(scheduler);
+        runningJobs.put(job.getName(), session);
+        try {
+            final ScrapeResult result = session.runWhileThereAreQueuedLinks(maxIterations);
+            logger.trace(job.getName() + " finished after " + session.getIterationCount() + " iterations, scraped "
+                    + result.getScrapeSize() + ", queued " + result.getQueueSize());
+            return result;
+        } finally {
+            runningJobs.remove(job.getName());
+            session.close();
+        }
+    }
+
+    private static <T extends ScrapeDetails> ScrapeSession<T> createSession(final AbstractScrapeScheduler<T> scheduler) {
+        return new ScrapeSession<>(scheduler);
+    }
+
+    /**
+     * Cancels the job's current iteration, which ends its session. Returns {@code false} if no job of that name is running.
+     */
+    public boolean cancel(final String jobName) {
+        final ScrapeSession<?> session = runningJobs.get(jobName);
+        if (session == null) {
+            return false;
+        }
+        session.cancel();
+        return true;
+    }
+
+    public Set<String> getRunningJobNames() {
+        return Collections.unmodifiableSet(submittedJobs);
+    }
+
+    public int getActiveSharedThreadCount() {
+        return sharedThreadPool.getActiveCount();
+    }
+
+    /**
+     * Cancels the running jobs and stops the shared pool and fetcher once they have ended.
+     */
+    public void shutdown() {
+        for (String jobName : runningJobs.keySet()) {
+            cancel(jobName);
+        }
+        ExecutorsUtil.shutDownAndCancelAfter(jobThreadPool, JsoupParserUtil.getTimeoutMillis() * 2, TimeUnit.MILLISECONDS);
+        ExecutorsUtil.shutDownAndCancelAfter(sharedThreadPool, JsoupParserUtil.getTimeoutMillis(), TimeUnit.MILLISECONDS);
+        sharedPageFetcher.close();
+    }
+
+    /**
+     * Runs the jobs whose class names are given, waits for all of them and shuts down.
+     */
+    public static void main(final String[] args) throws Exception {
+        final ScrapeDaemon daemon = new ScrapeDaemon();
+        final Map<String, Future<ScrapeResult>> results = new LinkedHashMap<>();
+        for (String jobClassName : args) {
+            final ScrapeJob job = (ScrapeJob) Class.forName(jobClassName).getDeclaredConstructor().newInstance();
+            results.put(job.getName(), daemon.submit(job));
+        }
+
+        for (Entry<String, Future<ScrapeResult>> result : results.entrySet()) {
+            try {
+                result.getValue().get();
+            } catch (Exception e) {
+                logger.error("Exception occured in job " + result.getKey(), e);
+            }
+        }
+        daemon.shutdown();
+    }
+}
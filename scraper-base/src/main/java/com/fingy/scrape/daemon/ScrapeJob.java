@@ -0,0 +1,26 @@
+package com.fingy.scrape.daemon;
+
+import com.fingy.scrape.AbstractScrapeScheduler;
+
+/**
+ * A scrape that a {@link ScrapeDaemon} can run next to others. Implementations need a public no-argument constructor to be started by
+ * class name.
+ */
+public interface ScrapeJob {
+
+    /**
+     * Unique among the jobs running in one daemon.
+     */
+    String getName();
+
+    /**
+     * How many of the daemon's shared threads each of the job's two pools may keep busy or waiting at once.
+     */
+    int getMaxConcurrentTasks();
+
+    /**
+     * Builds the job's context and scheduler. The scheduler should take its pools from
+     * {@link ScrapeJobResources#getThreadPoolFactory()}, or it runs on pools of its own.
+     */
+    AbstractScrapeScheduler<?> createScheduler(ScrapeJobResources resources);
+}
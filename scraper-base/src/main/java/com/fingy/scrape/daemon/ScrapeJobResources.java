@@ -0,0 +1,56 @@
+package com.fingy.scrape.daemon;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+import com.fingy.concurrent.BoundedExecutorService;
+import com.fingy.concurrent.SharedExecutorView;
+import com.fingy.scrape.fetch.AsyncPageFetcher;
+
+/**
+ * What a {@link ScrapeDaemon} shares with one job: pools that run on the daemon's threads within the job's quota, and the daemon's page
+ * fetcher. The quota covers all the job's pools together, so a scheduler's two pools cannot hold twice its share of the threads.
+ */
+public class ScrapeJobResources {
+
+    private final ExecutorService sharedThreadPool;
+    private final AsyncPageFetcher sharedPageFetcher;
+    private final int maxConcurrentTasks;
+    private final Semaphore taskSlots;
+
+    ScrapeJobResources(final ExecutorService sharedThreadPool, final AsyncPageFetcher sharedPageFetcher, final int maxConcurrentTasks) {
+        if (maxConcurrentTasks <= 0) {
+            throw new IllegalArgumentException("Job quota must be positive: " + maxConcurrentTasks);
+        }
+        this.sharedThreadPool = sharedThreadPool;
+        this.sharedPageFetcher = sharedPageFetcher;
+        this.maxConcurrentTasks = maxConcurrentTasks;
+        taskSlots = new Semaphore(maxConcurrentTasks);
+    }
+
+    /**
+     * A pool of the job's own on the daemon's threads, taking its task slots from the job's quota. Shutting it down leaves the other
+     * jobs running.
+     */
+    public BoundedExecutorService createThreadPool() {
+        return new BoundedExecutorService(new SharedExecutorView(sharedThreadPool), taskSlots, maxConcurrentTasks);
+    }
+
+    public Supplier<ExecutorService> getThreadPoolFactory() {
+        return new Supplier<ExecutorService>() {
+            @Override
+            public ExecutorService get() {
+                return createThreadPool();
+            }
+        };
+    }
+
+    public AsyncPageFetcher getPageFetcher() {
+        return sharedPageFetcher;
+    }
+
+    public int getMaxConcurrentTasks() {
+        return maxConcurrentTasks;
+    }
+}
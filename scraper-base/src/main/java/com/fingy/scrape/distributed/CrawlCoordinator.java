@@ -0,0 +1,270 @@
+package com.fingy.scrape.distributed;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fingy.scrape.util.UrlUtil;
+
+/**
+ * Runs a crawl whose frontier is partitioned by host over worker processes, on this machine unless the coordinator is bound to another
+ * address. Every {@link CrawlWorker} connects to the coordinator's socket and names its partition; the coordinator routes the seeds and
+ * every link a worker forwards to the worker that owns its host. To tell when the crawl is over it polls the workers in waves: once two
+ * waves in a row find every worker idle with the same counters, and every link sent has been received, no link can be left in flight
+ * anywhere and the workers are told to stop.
+ */
+public class CrawlCoordinator implements Closeable {
+
+    public static final long DEFAULT_POLL_INTERVAL_MILLIS = 500;
+
+    private static Logger logger = LoggerFactory.getLogger(CrawlCoordinator.class);
+
+    private final ServerSocket serverSocket;
+    private final WorkerConnection[] workers;
+    private final long pollIntervalMillis;
+    private final AtomicLong routedCount = new AtomicLong();
+    private volatile boolean stopped;
+    private IOException failure;
+
+    public CrawlCoordinator(final int port, final int workerCount) throws IOException {
+        this(port, workerCount, DEFAULT_POLL_INTERVAL_MILLIS);
+    }
+
+    /**
+     * Listens on {@code port} of the loopback interface, or on any free port if it is 0.
+     */
+    public CrawlCoordinator(final int port, final int workerCount, final long pollIntervalMillis) throws IOException {
+        this(InetAddress.getLoopbackAddress(), port, workerCount, pollIntervalMillis);
+    }
+
+    /**
+     * Listens on {@code bindAddress}, so workers on other machines can connect. The protocol is not authenticated; only bind to an
+     * address on a trusted network.
+     */
+    public CrawlCoordinator(final InetAddress bindAddress, final int port, final int workerCount, final long pollIntervalMillis)
+            throws IOException {
+        if (workerCount < 1 || pollIntervalMillis < 1) {
+            throw new IllegalArgumentException("Invalid coordinator settings: " + workerCount + ", " + pollIntervalMillis);
+        }
+        serverSocket = new ServerSocket(port, workerCount, bindAddress);
+        workers = new WorkerConnection[workerCount];
+        this.pollIntervalMillis = pollIntervalMillis;
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Waits for all the workers to connect, crawls from {@code seeds} and returns once every worker has been told to stop. Fails if a
+     * worker disconnects before that.
+     */
+    public void run(final Collection<String> seeds) throws IOException, InterruptedException {
+        acceptWorkers();
+        for (String seed : seeds) {
+            route(seed);
+        }
+
+        WaveStatus previousWave = null;
+        for (long wave = 1;; wave++) {
+            final WaveStatus currentWave = poll(wave, seeds.size());
+            if (currentWave.isQuiescent() && currentWave.equals(previousWave)) {
+                logger.trace("Crawl finished after " + wave + " waves, " + currentWave.taken + " links taken");
+                break;
+            }
+            previousWave = currentWave;
+            Thread.sleep(pollIntervalMillis);
+        }
+
+        stopped = true;
+        for (WorkerConnection worker : workers) {
+            worker.send(CrawlProtocol.STOP);
+        }
+    }
+
+    private void acceptWorkers() throws IOException {
+        for (int connected = 0; connected < workers.length; connected++) {
+            final Socket socket = serverSocket.accept();
+            final WorkerConnection worker = new WorkerConnection(socket);
+            final String[] hello = CrawlProtocol.parse(String.valueOf(worker.reader.readLine()));
+            final int partition = hello.length == 2 && CrawlProtocol.HELLO.equals(hello[0]) ? Integer.parseInt(hello[1]) : -1;
+            if (partition < 0 || partition >= workers.length || workers[partition] != null) {
+                socket.close();
+                throw new IOException("Invalid worker greeting: " + Arrays.toString(hello));
+            }
+            workers[partition] = worker;
+        }
+
+        for (int partition = 0; partition < workers.length; partition++) {
+            workers[partition].startReading(partition);
+        }
+    }
+
+    private void route(final String link) throws IOException {
+        workers[UrlUtil.getHostPartition(link, workers.length)].send(CrawlProtocol.message(CrawlProtocol.LINK, link));
+        routedCount.incrementAndGet();
+    }
+
+    private WaveStatus poll(final long wave, final int seedCount) throws IOException, InterruptedException {
+        final long routed = routedCount.get();
+        for (WorkerConnection worker : workers) {
+            worker.send(CrawlProtocol.message(CrawlProtocol.POLL, wave));
+        }
+
+        final WaveStatus status = new WaveStatus(seedCount, routed);
+        for (WorkerConnection worker : workers) {
+            status.add(worker.awaitStatus(wave));
+        }
+        return status;
+    }
+
+    private synchronized void workerFailed(final IOException e) {
+        if (failure == null) {
+            failure = e;
+        }
+        notifyAll();
+    }
+
+    @Override
+    public void close() throws IOException {
+        stopped = true;
+        for (WorkerConnection worker : workers) {
+            if (worker != null) {
+                worker.socket.close();
+            }
+        }
+        serverSocket.close();
+    }
+
+    /**
+     * Sums of the counters the workers reported in one wave.
+     */
+    private static final class WaveStatus {
+
+        private final int seedCount;
+        private final long routed;
+        private boolean idle = true;
+        private long sent;
+        private long received;
+        private long taken;
+
+        private WaveStatus(final int seedCount, final long routed) {
+            this.seedCount = seedCount;
+            this.routed = routed;
+        }
+
+        private void add(final String[] status) {
+            idle &= "1".equals(status[2]);
+            sent += Long.parseLong(status[3]);
+            received += Long.parseLong(status[4]);
+            taken += Long.parseLong(status[5]);
+        }
+
+        private boolean isQuiescent() {
+            return idle && sent + seedCount == routed && routed == received;
+        }
+
+        @Override
+        public boolean equals(final Object other) {
+            if (!(other instanceof WaveStatus)) {
+                return false;
+            }
+            final WaveStatus wave = (WaveStatus) other;
+            return idle == wave.idle && routed == wave.routed && sent == wave.sent && received == wave.received && taken == wave.taken;
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(new long[] { routed, sent, received, taken });
+        }
+    }
+
+    private final class WorkerConnection {
+
+        private final Socket socket;
+        private final BufferedReader reader;
+        private final BufferedWriter writer;
+        private String[] lastStatus;
+
+        private WorkerConnection(final Socket socket) throws IOException {
+            this.socket = socket;
+            reader = CrawlProtocol.openReader(socket);
+            writer = CrawlProtocol.openWriter(socket);
+        }
+
+        private void send(final String message) throws IOException {
+            CrawlProtocol.send(writer, message);
+        }
+
+        private void startReading(final int partition) {
+            final Thread readerThread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    readMessages(partition);
+                }
+            }, "crawl-coordinator-" + partition);
+            readerThread.setDaemon(true);
+            readerThread.start();
+        }
+
+        private void readMessages(final int partition) {
+            try {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    final String[] fields = CrawlProtocol.parse(line);
+                    if (CrawlProtocol.LINK.equals(fields[0])) {
+                        route(fields[1]);
+                    } else if (CrawlProtocol.STATUS.equals(fields[0])) {
+                        statusReceived(fields);
+                    }
+                }
+                if (!stopped) {
+                    workerFailed(new IOException("Worker " + partition + " disconnected"));
+                }
+            } catch (IOException e) {
+                if (!stopped) {
+                    workerFailed(e);
+                }
+            }
+        }
+
+        private void statusReceived(final String[] status) {
+            synchronized (CrawlCoordinator.this) {
+                lastStatus = status;
+                CrawlCoordinator.this.notifyAll();
+            }
+        }
+
+        private String[] awaitStatus(final long wave) throws IOException, InterruptedException {
+            final String expectedWave = String.valueOf(wave);
+            synchronized (CrawlCoordinator.this) {
+                while (lastStatus == null || !expectedWave.equals(lastStatus[1])) {
+                    if (failure != null) {
+                        throw failure;
+                    }
+                    CrawlCoordinator.this.wait();
+                }
+                return lastStatus;
+            }
+        }
+    }
+
+    public static void main(final String[] args) throws Exception {
+        if (args.length < 3) {
+            throw new IllegalArgumentException("Usage: CrawlCoordinator <port> <worker count> <seed>...");
+        }
+        try (CrawlCoordinator coordinator = new CrawlCoordinator(Integer.parseInt(args[0]), Integer.parseInt(args[1]))) {
+            coordinator.run(Arrays.asList(args).subList(2, args.length));
+        }
+    }
+}
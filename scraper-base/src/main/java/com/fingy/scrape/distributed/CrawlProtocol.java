@@ -0,0 +1,65 @@
+package com.fingy.scrape.distributed;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * The line protocol between a {@link CrawlCoordinator} and its {@link CrawlWorker}s: one message per line, fields separated by tabs.
+ * Links cannot contain either, so they need no escaping.
+ * <ul>
+ * <li>{@code HELLO partition} - a worker announces which partition it owns</li>
+ * <li>{@code LINK link} - a link for the partition owning its host, either way</li>
+ * <li>{@code POLL wave} - the coordinator asks for a worker's status</li>
+ * <li>{@code STATUS wave idle sent received taken} - the answer, with the worker's counters</li>
+ * <li>{@code STOP} - the crawl is over</li>
+ * </ul>
+ */
+final class CrawlProtocol {
+
+    static final String HELLO = "HELLO";
+    static final String LINK = "LINK";
+    static final String POLL = "POLL";
+    static final String STATUS = "STATUS";
+    static final String STOP = "STOP";
+
+    private static final String SEPARATOR = "\t";
+
+    private CrawlProtocol() {
+    }
+
+    static String message(final Object... fields) {
+        final StringBuilder message = new StringBuilder();
+        for (Object field : fields) {
+            if (message.length() > 0) {
+                message.append(SEPARATOR);
+            }
+            message.append(field);
+        }
+        return message.toString();
+    }
+
+    static String[] parse(final String line) {
+        return line.split(SEPARATOR);
+    }
+
+    static BufferedReader openReader(final Socket socket) throws IOException {
+        return new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+    }
+
+    static BufferedWriter openWriter(final Socket socket) throws IOException {
+        return new BufferedWriter(new OutputStreamWriter(socket.getOutputStream(), StandardCharsets.UTF_8));
+    }
+
+    static void send(final BufferedWriter writer, final String message) throws IOException {
+        synchronized (writer) {
+            writer.write(message);
+            writer.write('\n');
+            writer.flush();
+        }
+    }
+}
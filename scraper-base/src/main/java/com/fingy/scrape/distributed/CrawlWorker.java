@@ -0,0 +1,163 @@
+package com.fingy.scrape.distributed;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fingy.scrape.AbstractScrapeScheduler;
+import com.fingy.scrape.context.ScrapeContext;
+import com.fingy.scrape.context.ScrapeResult;
+import com.fingy.scrape.context.VisitedLinksStore;
+
+/**
+ * One partition of a distributed crawl, run in its own process. Its scheduler scrapes only the hosts of its partition; links to other
+ * hosts go to the {@link CrawlCoordinator}, which passes them on to their owner. The worker keeps one task counted in flight while it
+ * is connected, so its scheduler waits for forwarded links instead of stopping when its own frontier runs dry, until the coordinator
+ * sees every partition idle and says stop. Each worker saves its own context, so partitions are checkpointed independently.
+ */
+public class CrawlWorker {
+
+    private static Logger logger = LoggerFactory.getLogger(CrawlWorker.class);
+
+    private final String coordinatorHost;
+    private final int coordinatorPort;
+    private final PartitionedScraperLinksQueue linksQueue;
+    private final List<String> pendingLinks = new ArrayList<>();
+    private final AtomicLong sentCount = new AtomicLong();
+    private final AtomicLong receivedCount = new AtomicLong();
+    private final AtomicBoolean released = new AtomicBoolean();
+    private BufferedWriter writer;
+
+    public CrawlWorker(final String coordinatorHost, final int coordinatorPort, final int partition, final int partitionCount) {
+        this.coordinatorHost = coordinatorHost;
+        this.coordinatorPort = coordinatorPort;
+        linksQueue = new PartitionedScraperLinksQueue(partition, partitionCount, createForwarder());
+    }
+
+    public CrawlWorker(final String coordinatorHost, final int coordinatorPort, final int partition, final int partitionCount,
+            final VisitedLinksStore visitedLinksStore) {
+        this.coordinatorHost = coordinatorHost;
+        this.coordinatorPort = coordinatorPort;
+        linksQueue = new PartitionedScraperLinksQueue(partition, partitionCount, createForwarder(), visitedLinksStore);
+    }
+
+    private PartitionedScraperLinksQueue.LinkForwarder createForwarder() {
+        return new PartitionedScraperLinksQueue.LinkForwarder() {
+            @Override
+            public void forward(final String link) {
+                sendLink(link);
+            }
+        };
+    }
+
+    /**
+     * The queue the worker's {@link ScrapeContext} has to be built with.
+     */
+    public PartitionedScraperLinksQueue getLinksQueue() {
+        return linksQueue;
+    }
+
+    /**
+     * Connects to the coordinator, scrapes until it says the crawl is over and saves {@code context}. If the connection is lost the
+     * worker stops as well, leaving what it has not scraped queued for the next run.
+     */
+    public ScrapeResult run(final AbstractScrapeScheduler<?> scheduler, final ScrapeContext context) throws IOException {
+        if (context.getLinksQueue() != linksQueue) {
+            throw new IllegalArgumentException("The context must use the worker's links queue");
+        }
+
+        try (Socket socket = new Socket(coordinatorHost, coordinatorPort)) {
+            final BufferedReader reader = CrawlProtocol.openReader(socket);
+            connect(CrawlProtocol.openWriter(socket));
+            linksQueue.taskSubmitted();
+
+            final Thread readerThread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    readMessages(reader);
+                }
+            }, "crawl-worker-" + linksQueue.getPartition());
+            readerThread.setDaemon(true);
+            readerThread.start();
+
+            final ScrapeResult result = scheduler.doScrape();
+            context.save();
+            return result;
+        }
+    }
+
+    private void connect(final BufferedWriter connectedWriter) throws IOException {
+        CrawlProtocol.send(connectedWriter, CrawlProtocol.message(CrawlProtocol.HELLO, linksQueue.getPartition()));
+        synchronized (this) {
+            writer = connectedWriter;
+            for (String link : pendingLinks) {
+                send(CrawlProtocol.message(CrawlProtocol.LINK, link));
+            }
+            pendingLinks.clear();
+        }
+    }
+
+    private void sendLink(final String link) {
+        synchronized (this) {
+            if (writer == null) {
+                pendingLinks.add(link);
+                return;
+            }
+        }
+        send(CrawlProtocol.message(CrawlProtocol.LINK, link));
+    }
+
+    private void send(final String message) {
+        try {
+            CrawlProtocol.send(writer, message);
+            if (message.startsWith(CrawlProtocol.LINK)) {
+                sentCount.incrementAndGet();
+            }
+        } catch (IOException e) {
+            logger.error("Exception occured", e);
+        }
+    }
+
+    private void readMessages(final BufferedReader reader) {
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                final String[] fields = CrawlProtocol.parse(line);
+                if (CrawlProtocol.LINK.equals(fields[0])) {
+                    linksQueue.receive(fields[1]);
+                    receivedCount.incrementAndGet();
+                } else if (CrawlProtocol.POLL.equals(fields[0])) {
+                    send(CrawlProtocol.message(CrawlProtocol.STATUS, fields[1], isIdle() ? 1 : 0, sentCount.get(), receivedCount.get(),
+                            linksQueue.getTakenCount()));
+                } else if (CrawlProtocol.STOP.equals(fields[0])) {
+                    break;
+                }
+            }
+        } catch (IOException e) {
+            logger.error("Exception occured", e);
+        } finally {
+            release();
+        }
+    }
+
+    /**
+     * Nothing queued and nothing running but the task the connection holds.
+     */
+    private boolean isIdle() {
+        return linksQueue.isDispatching() && linksQueue.isEmpty() && linksQueue.getInFlightTaskCount() == 1;
+    }
+
+    private void release() {
+        if (released.compareAndSet(false, true)) {
+            linksQueue.taskFinished();
+        }
+    }
+}
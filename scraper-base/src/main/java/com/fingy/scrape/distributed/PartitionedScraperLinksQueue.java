@@ -0,0 +1,170 @@
+package com.fingy.scrape.distributed;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.fingy.scrape.context.FingerprintLinkSet;
+import com.fingy.scrape.context.InMemoryVisitedLinksStore;
+import com.fingy.scrape.context.SynchronizedScraperLinksQueue;
+import com.fingy.scrape.context.VisitedLinksStore;
+import com.fingy.scrape.util.UrlUtil;
+
+/**
+ * Frontier of one partition of a distributed crawl. Links of hosts owned by the partition are queued as usual; the rest are handed to a
+ * {@link LinkForwarder} for the partition that owns them. Links found on pages and links forwarded by other partitions are dropped if
+ * they were visited or if the partition has queued them and not visited them yet, since they may be taken; {@link #add(String)} still
+ * queues a link again, as retries and deferred links need.
+ * <p>
+ * Both dedupe sets keep link fingerprints only. The queued set forgets a link once it is visited, leaving the rest to the visited links
+ * store, and the forwarded set is dropped whenever it grows past {@link #withMaxForwardedLinks(int) its limit}; a link forwarded again
+ * only costs a message, as the owning partition drops it.
+ */
+public class PartitionedScraperLinksQueue extends SynchronizedScraperLinksQueue {
+
+    public static final int DEFAULT_MAX_FORWARDED_LINKS = 1000000;
+
+    private final int partition;
+    private final int partitionCount;
+    private final LinkForwarder forwarder;
+    private final FingerprintLinkSet acceptedLinks = new FingerprintLinkSet();
+    private volatile FingerprintLinkSet forwardedLinks = new FingerprintLinkSet();
+    private final AtomicInteger forwardedLinksCount = new AtomicInteger();
+    private volatile int maxForwardedLinks = DEFAULT_MAX_FORWARDED_LINKS;
+    private final AtomicLong takenCount = new AtomicLong();
+    private volatile boolean dispatching;
+
+    public PartitionedScraperLinksQueue(final int partition, final int partitionCount, final LinkForwarder forwarder) {
+        this(partition, partitionCount, forwarder, InMemoryVisitedLinksStore.createDefault(new LinkedHashSet<String>()));
+    }
+
+    public PartitionedScraperLinksQueue(final int partition, final int partitionCount, final LinkForwarder forwarder,
+            final VisitedLinksStore visitedLinksStore) {
+        super(visitedLinksStore);
+        if (partition < 0 || partition >= partitionCount) {
+            throw new IllegalArgumentException("Invalid partition: " + partition + " of " + partitionCount);
+        }
+        this.partition = partition;
+        this.partitionCount = partitionCount;
+        this.forwarder = forwarder;
+    }
+
+    public PartitionedScraperLinksQueue withMaxForwardedLinks(final int maxForwardedLinks) {
+        if (maxForwardedLinks < 1) {
+            throw new IllegalArgumentException("Invalid max forwarded links: " + maxForwardedLinks);
+        }
+        this.maxForwardedLinks = maxForwardedLinks;
+        return this;
+    }
+
+    public boolean isOwned(final String link) {
+        return UrlUtil.getHostPartition(link, partitionCount) == partition;
+    }
+
+    @Override
+    public void add(final String linkToEnqueue) {
+        if (isOwned(linkToEnqueue)) {
+            acceptedLinks.add(linkToEnqueue);
+            super.add(linkToEnqueue);
+        } else {
+            forward(linkToEnqueue);
+        }
+    }
+
+    @Override
+    public int addAllIfNotVisited(final Collection<String> linksToAdd) {
+        final List<String> ownedLinks = new ArrayList<>(linksToAdd.size());
+        for (String link : linksToAdd) {
+            if (isOwned(link)) {
+                if (accept(link)) {
+                    ownedLinks.add(link);
+                }
+            } else {
+                forward(link);
+            }
+        }
+        return super.addAllIfNotVisited(ownedLinks);
+    }
+
+    private boolean accept(final String link) {
+        return !isVisited(link) && acceptedLinks.add(link);
+    }
+
+    private void forward(final String link) {
+        if (forwardedLinks.add(link)) {
+            if (forwardedLinksCount.incrementAndGet() > maxForwardedLinks) {
+                forwardedLinks = new FingerprintLinkSet();
+                forwardedLinksCount.set(0);
+            }
+            forwarder.forward(link);
+        }
+    }
+
+    /**
+     * Queues a link another partition forwarded to this one.
+     */
+    public void receive(final String link) {
+        if (accept(link)) {
+            super.addIfNotVisited(link);
+        }
+    }
+
+    @Override
+    public void markVisited(final String linkToMarkVisited) {
+        super.markVisited(linkToMarkVisited);
+        acceptedLinks.remove(linkToMarkVisited);
+    }
+
+    @Override
+    public boolean awaitLinksWhileTasksInFlight() {
+        dispatching = true;
+        return super.awaitLinksWhileTasksInFlight();
+    }
+
+    @Override
+    public String take() throws InterruptedException {
+        final String taken = super.take();
+        takenCount.incrementAndGet();
+        return taken;
+    }
+
+    @Override
+    public String take(final long timeout) throws InterruptedException {
+        final String taken = super.take(timeout);
+        takenCount.incrementAndGet();
+        return taken;
+    }
+
+    /**
+     * Whether a scheduler has loaded its queued links and started taking from the queue. Before that an empty queue says nothing.
+     */
+    public boolean isDispatching() {
+        return dispatching;
+    }
+
+    /**
+     * How many links were taken to be scraped; the coordinator sees work going on when it changes.
+     */
+    public long getTakenCount() {
+        return takenCount.get();
+    }
+
+    public int getPartition() {
+        return partition;
+    }
+
+    public int getPartitionCount() {
+        return partitionCount;
+    }
+
+    /**
+     * Sends a link to the partition that owns its host.
+     */
+    public interface LinkForwarder {
+
+        void forward(String link);
+    }
+}
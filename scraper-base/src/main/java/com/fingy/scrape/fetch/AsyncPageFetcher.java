@@ -0,0 +1,242 @@
+package com.fingy.scrape.fetch;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.ProxySelector;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.jsoup.Connection.Response;
+import org.jsoup.HttpStatusException;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+
+import com.fingy.concurrent.AdaptiveConcurrencyLimit;
+import com.fingy.scrape.jsoup.AbstractJsoupScraper;
+import com.fingy.scrape.security.ProxyConstants;
+import com.fingy.scrape.util.JsoupParserUtil;
+
+/**
+ * Fetches pages over non-blocking sockets and parses them on a separate pool sized to the processors. The network round-trip holds no
+ * thread, so a few threads keep thousands of requests outstanding while parsing runs at CPU speed. The number of requests that are
+ * being fetched or parsed at once is capped; {@link #fetch(String, Map, CircuitBreaker, PageParser)} blocks while the cap is reached,
+ * which also bounds the parse pool's queue. It also blocks while the host is at the given {@link HostConcurrencyLimiter} limit, if any,
+ * and reports each response to the given {@link CircuitBreaker} of the host.
+ * <p>
+ * The HTTP client goes through the default {@link ProxySelector}, so {@code http.proxyHost} applies, but it cannot talk to a SOCKS
+ * proxy and would connect directly instead. While {@code socksProxyHost} is set, e.g. by
+ * {@link com.fingy.scrape.security.util.TorUtil#useTorAsProxy()}, pages are therefore fetched through Jsoup, which honours it, each on
+ * a virtual thread of its own.
+ */
+public class AsyncPageFetcher implements Closeable {
+
+    public static final int DEFAULT_MAX_OUTSTANDING_REQUESTS = 1000;
+
+    private static final int AVAILABLE_PROCESSORS = Runtime.getRuntime().availableProcessors();
+    private static final int HTTP_BAD_REQUEST = 400;
+
+    private final HttpClient httpClient;
+    private final ExecutorService proxiedFetchThreadPool;
+    private final ExecutorService parseThreadPool;
+    private final Semaphore outstandingRequests;
+    private final int maxOutstandingRequests;
+
+    public AsyncPageFetcher() {
+        this(DEFAULT_MAX_OUTSTANDING_REQUESTS, 1);
+    }
+
+    public AsyncPageFetcher(final int maxOutstandingRequests, final int parseProcessorMultiplier) {
+        if (maxOutstandingRequests <= 0) {
+            throw new IllegalArgumentException("Outstanding requests must be positive: " + maxOutstandingRequests);
+        }
+        httpClient = HttpClient.newBuilder().followRedirects(HttpClient.Redirect.NORMAL).proxy(ProxySelector.getDefault()).build();
+        proxiedFetchThreadPool = Executors.newVirtualThreadPerTaskExecutor();
+        parseThreadPool = Executors.newFixedThreadPool(AVAILABLE_PROCESSORS * parseProcessorMultiplier);
+        outstandingRequests = new Semaphore(maxOutstandingRequests);
+        this.maxOutstandingRequests = maxOutstandingRequests;
+    }
+
+    /**
+     * Starts fetching {@code url} and returns a future that completes with what {@code parser} made of the page, or exceptionally if
+     * the page could not be fetched or parsed. Status codes of 400 and above fail with an {@link HttpStatusException}, like Jsoup's own
+     * {@code get()}.
+     */
+    public <T> CompletableFuture<T> fetch(final String url, final Map<String, String> cookies, final CircuitBreaker hostBreaker,
+            final PageParser<T> parser) throws InterruptedException {
+        return fetch(url, cookies, hostBreaker, null, parser);
+    }
+
+    /**
+     * Like {@link #fetch(String, Map, CircuitBreaker, PageParser)}, but first waits for room under {@code hostLimit}, which learns from
+     * the response; {@code null} fetches at once.
+     */
+    public <T> CompletableFuture<T> fetch(final String url, final Map<String, String> cookies, final CircuitBreaker hostBreaker,
+            final AdaptiveConcurrencyLimit hostLimit, final PageParser<T> parser) throws InterruptedException {
+        final URI uri = URI.create(url);
+        outstandingRequests.acquire();
+        final long startNanos;
+        try {
+            startNanos = HostConcurrencyLimiter.acquire(hostLimit);
+        } catch (InterruptedException e) {
+            outstandingRequests.release();
+            throw e;
+        }
+
+        final CompletableFuture<FetchedPage> response;
+        try {
+            response = startFetch(uri, cookies).whenComplete(new BiConsumer<FetchedPage, Throwable>() {
+                @Override
+                public void accept(final FetchedPage fetched, final Throwable failure) {
+                    final Throwable outcome = failure != null ? failure : toStatusException(url, fetched);
+                    HostConcurrencyLimiter.release(hostLimit, startNanos, outcome);
+                    HostCircuitBreakers.recordOutcome(hostBreaker, outcome);
+                }
+            });
+        } catch (RuntimeException e) {
+            HostConcurrencyLimiter.release(hostLimit, startNanos, e);
+            outstandingRequests.release();
+            throw e;
+        }
+
+        return response.thenApplyAsync(new Function<FetchedPage, T>() {
+            @Override
+            public T apply(final FetchedPage fetched) {
+                return parser.parse(toDocument(url, fetched));
+            }
+        }, parseThreadPool).whenComplete(new BiConsumer<T, Throwable>() {
+            @Override
+            public void accept(final T parsed, final Throwable failure) {
+                outstandingRequests.release();
+            }
+        });
+    }
+
+    private CompletableFuture<FetchedPage> startFetch(final URI uri, final Map<String, String> cookies) {
+        if (isSocksProxyConfigured()) {
+            return CompletableFuture.supplyAsync(new Supplier<FetchedPage>() {
+                @Override
+                public FetchedPage get() {
+                    try {
+                        final Response response = JsoupParserUtil.getResponseFromUrlWithCookies(uri.toString(), cookies);
+                        return new FetchedPage(response.statusCode(), response.body(), response.url().toString());
+                    } catch (IOException e) {
+                        throw new CompletionException(e);
+                    }
+                }
+            }, proxiedFetchThreadPool);
+        }
+
+        return httpClient.sendAsync(createRequest(uri, cookies), HttpResponse.BodyHandlers.ofString()).thenApply(
+                new Function<HttpResponse<String>, FetchedPage>() {
+                    @Override
+                    public FetchedPage apply(final HttpResponse<String> response) {
+                        return new FetchedPage(response.statusCode(), response.body(), response.uri().toString());
+                    }
+                });
+    }
+
+    private static boolean isSocksProxyConfigured() {
+        return System.getProperty(ProxyConstants.SOCKS_PROXY_HOST_PROPERTY_NAME) != null;
+    }
+
+    private static HttpRequest createRequest(final URI uri, final Map<String, String> cookies) {
+        final HttpRequest.Builder request = HttpRequest.newBuilder(uri).GET()
+                .timeout(Duration.ofMillis(JsoupParserUtil.getTimeoutMillis())).header("User-Agent", AbstractJsoupScraper.USER_AGENT);
+        if (!cookies.isEmpty()) {
+            request.header("Cookie", toCookieHeader(cookies));
+        }
+        return request.build();
+    }
+
+    private static String toCookieHeader(final Map<String, String> cookies) {
+        final StringBuilder header = new StringBuilder();
+        for (Entry<String, String> cookie : cookies.entrySet()) {
+            if (header.length() > 0) {
+                header.append("; ");
+            }
+            header.append(cookie.getKey()).append('=').append(cookie.getValue());
+        }
+        return header.toString();
+    }
+
+    private static HttpStatusException toStatusException(final String url, final FetchedPage page) {
+        if (page.statusCode >= HTTP_BAD_REQUEST) {
+            return new HttpStatusException("HTTP error fetching URL", page.statusCode, url);
+        }
+        return null;
+    }
+
+    private static Document toDocument(final String url, final FetchedPage page) {
+        final HttpStatusException statusException = toStatusException(url, page);
+        if (statusException != null) {
+            throw new CompletionException(statusException);
+        }
+        return Jsoup.parse(page.body, page.url);
+    }
+
+    public int getAvailableRequestSlots() {
+        return outstandingRequests.availablePermits();
+    }
+
+    /**
+     * Waits for the outstanding requests to be fetched and parsed, then shuts the pools and the client down. If interrupted while
+     * waiting it aborts them instead, as {@link #shutdownNow()} does.
+     */
+    @Override
+    public void close() {
+        try {
+            outstandingRequests.acquire(maxOutstandingRequests);
+            outstandingRequests.release(maxOutstandingRequests);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            shutdownNow();
+            return;
+        }
+        proxiedFetchThreadPool.shutdown();
+        parseThreadPool.shutdown();
+        httpClient.close();
+    }
+
+    /**
+     * Aborts the outstanding requests; their futures complete exceptionally.
+     */
+    public void shutdownNow() {
+        proxiedFetchThreadPool.shutdownNow();
+        parseThreadPool.shutdownNow();
+        httpClient.shutdownNow();
+    }
+
+    public interface PageParser<T> {
+
+        T parse(Document page);
+    }
+
+    /**
+     * What either fetch path got back: the status, the body and the URL the page was finally served from.
+     */
+    private static final class FetchedPage {
+
+        private final int statusCode;
+        private final String body;
+        private final String url;
+
+        private FetchedPage(final int statusCode, final String body, final String url) {
+            this.statusCode = statusCode;
+            this.body = body;
+            this.url = url;
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.fingy.scrape.fetch;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Stops requests to one host after it fails a number of times in a row, or at once when a scraper sees it has been blocked. After a
+ * cool-down a single probe request is let through: if the host answers it closes the breaker again, otherwise a new cool-down starts.
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private static final LongSupplier SYSTEM_CLOCK = new LongSupplier() {
+        @Override
+        public long getAsLong() {
+            return System.currentTimeMillis();
+        }
+    };
+
+    private final int failureThreshold;
+    private final long coolDownMillis;
+    private final LongSupplier clockMillis;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAtMillis;
+
+    public CircuitBreaker(final int failureThreshold, final long coolDownMillis) {
+        this(failureThreshold, coolDownMillis, SYSTEM_CLOCK);
+    }
+
+    /**
+     * {@code clockMillis} tells the time the cool-down is measured with, in milliseconds.
+     */
+    CircuitBreaker(final int failureThreshold, final long coolDownMillis, final LongSupplier clockMillis) {
+        if (failureThreshold < 1 || coolDownMillis < 0) {
+            throw new IllegalArgumentException("Invalid circuit breaker settings: " + failureThreshold + ", " + coolDownMillis);
+        }
+        this.failureThreshold = failureThreshold;
+        this.coolDownMillis = coolDownMillis;
+        this.clockMillis = clockMillis;
+    }
+
+    /**
+     * Whether a request may be sent now. Once the cool-down is over the first caller gets the probe and moves the breaker to
+     * {@link State#HALF_OPEN}; its outcome must then be reported with {@link #recordSuccess()} or {@link #recordFailure()}.
+     */
+    public synchronized boolean allowRequest() {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (getRemainingCoolDownMillis() == 0) {
+                    state = State.HALF_OPEN;
+                    return true;
+                }
+                return false;
+            default:
+                return false;
+        }
+    }
+
+    public synchronized void recordSuccess() {
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+    }
+
+    public synchronized void recordFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            open();
+        }
+    }
+
+    /**
+     * A request that {@link #allowRequest()} let through was never sent. If it was the probe, the next request may probe instead.
+     */
+    public synchronized void recordAbandoned() {
+        if (state == State.HALF_OPEN) {
+            state = State.OPEN;
+            openedAtMillis = clockMillis.getAsLong() - coolDownMillis;
+        }
+    }
+
+    /**
+     * Opens the breaker regardless of the failure count, e.g. when a page shows that the session expired or the scraper was detected.
+     */
+    public synchronized void trip() {
+        open();
+    }
+
+    private void open() {
+        state = State.OPEN;
+        openedAtMillis = clockMillis.getAsLong();
+    }
+
+    /**
+     * How long until a request may be tried again: the rest of the cool-down while open, 0 otherwise.
+     */
+    public synchronized long getRemainingCoolDownMillis() {
+        if (state != State.OPEN) {
+            return 0;
+        }
+        return Math.max(0, openedAtMillis + coolDownMillis - clockMillis.getAsLong());
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+}
@@ -0,0 +1,158 @@
+package com.fingy.scrape.fetch;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.jsoup.HttpStatusException;
+
+import com.fingy.scrape.util.UrlUtil;
+
+/**
+ * One {@link CircuitBreaker} per host, so a failing or blocking host is paused on its own while the others keep being scraped. Also
+ * holds the switch that stops all scraping at once, for when the user stops a run, and remembers whether a scraper found that it was
+ * detected. Each scheduler keeps its own, so schedulers running side by side do not pause or reset each other's hosts.
+ */
+public class HostCircuitBreakers {
+
+    public static final int DEFAULT_FAILURE_THRESHOLD = 5;
+    public static final long DEFAULT_COOL_DOWN_MILLIS = 60 * 1000;
+
+    private static final int HTTP_FORBIDDEN = 403;
+    private static final int HTTP_TOO_MANY_REQUESTS = 429;
+    private static final int HTTP_INTERNAL_SERVER_ERROR = 500;
+
+    private final ConcurrentMap<String, CircuitBreaker> hostBreakers = new ConcurrentHashMap<>();
+    private final int failureThreshold;
+    private final long coolDownMillis;
+    private volatile boolean stopped;
+    private volatile boolean compromised;
+
+    public HostCircuitBreakers() {
+        this(DEFAULT_FAILURE_THRESHOLD, DEFAULT_COOL_DOWN_MILLIS);
+    }
+
+    public HostCircuitBreakers(final int failureThreshold, final long coolDownMillis) {
+        if (failureThreshold < 1 || coolDownMillis < 0) {
+            throw new IllegalArgumentException("Invalid circuit breaker settings: " + failureThreshold + ", " + coolDownMillis);
+        }
+        this.failureThreshold = failureThreshold;
+        this.coolDownMillis = coolDownMillis;
+    }
+
+    public CircuitBreaker getBreakerFor(final String url) {
+        final String host = UrlUtil.extractHost(url);
+        CircuitBreaker breaker = hostBreakers.get(host);
+        if (breaker == null) {
+            final CircuitBreaker created = new CircuitBreaker(failureThreshold, coolDownMillis);
+            breaker = hostBreakers.putIfAbsent(host, created);
+            if (breaker == null) {
+                breaker = created;
+            }
+        }
+        return breaker;
+    }
+
+    /**
+     * How long a link should wait before it is scraped: 0 if its host takes requests, otherwise the rest of the host's cool-down, or
+     * {@code probeWaitMillis} while another request is probing the host.
+     */
+    public long getDelayBeforeRequestMillis(final String url, final long probeWaitMillis) {
+        final CircuitBreaker breaker = getBreakerFor(url);
+        switch (breaker.getState()) {
+            case OPEN:
+                return breaker.getRemainingCoolDownMillis();
+            case HALF_OPEN:
+                return probeWaitMillis;
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Reports how a request that {@link CircuitBreaker#allowRequest()} let through ended; {@code failure} is {@code null} on success.
+     * Only failures that say something about the host count, a missing page does not.
+     */
+    public static void recordOutcome(final CircuitBreaker breaker, final Throwable failure) {
+        if (failure != null && isHostFailure(failure)) {
+            breaker.recordFailure();
+        } else {
+            breaker.recordSuccess();
+        }
+    }
+
+    /**
+     * Connection problems, timeouts, 403, 429 and 5xx responses. A fetch cancelled on our side is not the host's fault.
+     */
+    public static boolean isHostFailure(final Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof HttpStatusException) {
+                final int statusCode = ((HttpStatusException) cause).getStatusCode();
+                return statusCode == HTTP_FORBIDDEN || statusCode == HTTP_TOO_MANY_REQUESTS || statusCode >= HTTP_INTERNAL_SERVER_ERROR;
+            }
+            if (cause instanceof InterruptedIOException && !(cause instanceof SocketTimeoutException)) {
+                return false;
+            }
+            if (cause instanceof IOException) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Pauses the host of {@code url} at once and marks the scrape compromised, e.g. when a page shows that the session expired or the
+     * IP was blocked. Schedulers end their iteration on it, so the runner can log in again or switch to another proxy.
+     */
+    public void markCompromised(final String url) {
+        getBreakerFor(url).trip();
+        compromised = true;
+    }
+
+    public boolean isCompromised() {
+        return compromised;
+    }
+
+    /**
+     * Whether scraping was stopped or any host is paused; schedulers that scrape a single site break off their run on it.
+     */
+    public boolean isAnyHostUnavailable() {
+        return stopped || compromised || hasOpenCircuits();
+    }
+
+    public boolean hasOpenCircuits() {
+        for (CircuitBreaker breaker : hostBreakers.values()) {
+            if (breaker.getState() != CircuitBreaker.State.CLOSED) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Makes every host refuse requests until {@link #resumeAll()}.
+     */
+    public void stopAll() {
+        stopped = true;
+    }
+
+    public void resumeAll() {
+        stopped = false;
+    }
+
+    public boolean isStopped() {
+        return stopped;
+    }
+
+    /**
+     * Closes every breaker and lifts {@link #stopAll()} and {@link #markCompromised(String)}, e.g. after logging in again or switching
+     * to another proxy.
+     */
+    public void reset() {
+        hostBreakers.clear();
+        stopped = false;
+        compromised = false;
+    }
+}
@@ -0,0 +1,104 @@
+package com.fingy.scrape.fetch;
+
+import java.net.SocketTimeoutException;
+import java.net.http.HttpTimeoutException;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.jsoup.HttpStatusException;
+
+import com.fingy.concurrent.AdaptiveConcurrencyLimit;
+import com.fingy.scrape.util.UrlUtil;
+
+/**
+ * Keeps an {@link AdaptiveConcurrencyLimit} per host, so each site is fetched at the concurrency it sustains, whatever the size of the
+ * pools doing the fetching. The pools only give the upper bound. Every scheduler keeps one and hands it to its scrapers with
+ * {@link com.fingy.scrape.AbstractScraper#withHostConcurrencyLimiter(HostConcurrencyLimiter)}, so what it learns about a host outlives
+ * the scrapers and iterations, but stays with the crawl it was learned in.
+ */
+public class HostConcurrencyLimiter {
+
+    public static final int DEFAULT_INITIAL_LIMIT = 4;
+    public static final int DEFAULT_MAX_LIMIT = 256;
+
+    private static final int HTTP_TOO_MANY_REQUESTS = 429;
+    private static final int HTTP_INTERNAL_SERVER_ERROR = 500;
+
+    private final ConcurrentMap<String, AdaptiveConcurrencyLimit> hostLimits = new ConcurrentHashMap<>();
+    private final int initialLimit;
+    private final int maxLimit;
+
+    public HostConcurrencyLimiter() {
+        this(DEFAULT_INITIAL_LIMIT, DEFAULT_MAX_LIMIT);
+    }
+
+    public HostConcurrencyLimiter(final int initialLimit, final int maxLimit) {
+        if (initialLimit < 1 || maxLimit < initialLimit) {
+            throw new IllegalArgumentException("Invalid limits: " + initialLimit + ", " + maxLimit);
+        }
+        this.initialLimit = initialLimit;
+        this.maxLimit = maxLimit;
+    }
+
+    public AdaptiveConcurrencyLimit getLimitFor(final String url) {
+        final String host = UrlUtil.extractHost(url);
+        AdaptiveConcurrencyLimit hostLimit = hostLimits.get(host);
+        if (hostLimit == null) {
+            final AdaptiveConcurrencyLimit created = new AdaptiveConcurrencyLimit(initialLimit, 1, maxLimit);
+            hostLimit = hostLimits.putIfAbsent(host, created);
+            if (hostLimit == null) {
+                hostLimit = created;
+            }
+        }
+        return hostLimit;
+    }
+
+    /**
+     * Waits for room under {@code hostLimit}; a {@code null} limit, as when no limiter is set, lets the request start at once.
+     */
+    public static long acquire(final AdaptiveConcurrencyLimit hostLimit) throws InterruptedException {
+        return hostLimit == null ? System.nanoTime() : hostLimit.acquire();
+    }
+
+    /**
+     * Reports how a request started with {@link #acquire(AdaptiveConcurrencyLimit)} ended; {@code failure} is {@code null} on success.
+     */
+    public static void release(final AdaptiveConcurrencyLimit hostLimit, final long startNanos, final Throwable failure) {
+        if (hostLimit == null) {
+            return;
+        } else if (failure == null) {
+            hostLimit.onSuccess(startNanos);
+        } else if (isOverload(failure)) {
+            hostLimit.onOverload(startNanos);
+        } else {
+            hostLimit.onIgnored();
+        }
+    }
+
+    /**
+     * Timeouts, 429 and 5xx responses mean the host is getting more requests than it can handle.
+     */
+    public static boolean isOverload(final Throwable failure) {
+        for (Throwable cause = failure; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SocketTimeoutException || cause instanceof HttpTimeoutException) {
+                return true;
+            }
+            if (cause instanceof HttpStatusException) {
+                final int statusCode = ((HttpStatusException) cause).getStatusCode();
+                return statusCode == HTTP_TOO_MANY_REQUESTS || statusCode >= HTTP_INTERNAL_SERVER_ERROR;
+            }
+        }
+        return false;
+    }
+
+    public Map<String, Integer> getHostLimits() {
+        final Map<String, Integer> limits = new HashMap<>();
+        for (Map.Entry<String, AdaptiveConcurrencyLimit> hostLimit : hostLimits.entrySet()) {
+            limits.put(hostLimit.getKey(), hostLimit.getValue().getLimit());
+        }
+        return Collections.unmodifiableMap(limits);
+    }
+}
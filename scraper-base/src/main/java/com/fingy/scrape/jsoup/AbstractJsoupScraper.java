@@ -3,11 +3,20 @@ package com.fingy.scrape.jsoup;
 import java.io.IOException;
 import java.util.Collections;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.BiFunction;
 
+import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 
+import com.fingy.concurrent.AdaptiveConcurrencyLimit;
 import com.fingy.scrape.AbstractScraper;
 import com.fingy.scrape.exception.ScrapeException;
+import com.fingy.scrape.fetch.AsyncPageFetcher;
+import com.fingy.scrape.fetch.CircuitBreaker;
+import com.fingy.scrape.fetch.HostCircuitBreakers;
+import com.fingy.scrape.fetch.HostConcurrencyLimiter;
 import com.fingy.scrape.util.JsoupParserUtil;
 
 public abstract class AbstractJsoupScraper<T> extends AbstractScraper<T> {
@@ -29,22 +38,135 @@ public abstract class AbstractJsoupScraper<T> extends AbstractScraper<T> {
 
     @Override
     protected T scrapeLink() {
-        if (isScrapeCompromised()) {
-            throw new ScrapeException("Scrape compromised");
-        }
+        checkHostAvailable();
         try {
-            final Document page = getPage();
+            final Document page = fetchWithinHostLimits(new PageRequest<Document>() {
+                @Override
+                public Document execute() throws IOException {
+                    return getPage();
+                }
+            });
             return scrapePage(page);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ScrapeException("Interrupted while waiting to fetch link " + getScrapeUrl(), e);
         } catch (Exception e) {
             processException(e);
             throw new ScrapeException("Exception parsing link " + getScrapeUrl(), e);
         }
     }
 
+    /**
+     * Scrapes the link without holding a thread during the fetch: the page is fetched by {@code pageFetcher} and passed to
+     * {@link #scrapePage(Document)} on its parse pool. Failures end up as a {@link ScrapeException}, as in {@link #call()}. Only plain
+     * GET fetches are done this way, so scrapers that override {@link #getPage()} should keep being run through {@link #call()}.
+     */
+    public CompletableFuture<T> scrapeAsync(final AsyncPageFetcher pageFetcher) throws InterruptedException {
+        checkHostAvailable();
+
+        final CompletableFuture<T> scraped;
+        try {
+            scraped = pageFetcher.fetch(getScrapeUrl(), getCookies(), getHostCircuitBreaker(), getHostConcurrencyLimit(),
+                    new AsyncPageFetcher.PageParser<T>() {
+                        @Override
+                        public T parse(final Document page) {
+                            return scrapePage(page);
+                        }
+                    });
+        } catch (InterruptedException | RuntimeException e) {
+            getHostCircuitBreaker().recordAbandoned();
+            throw e;
+        }
+
+        return scraped.handle(new BiFunction<T, Throwable, T>() {
+            @Override
+            public T apply(final T scrapedData, final Throwable failure) {
+                if (failure == null) {
+                    logger.debug("Successfully scraped link " + getScrapeUrl());
+                    return scrapedData;
+                }
+
+                final Throwable cause = failure instanceof CompletionException && failure.getCause() != null ? failure.getCause() : failure;
+                if (cause instanceof Exception) {
+                    processException((Exception) cause);
+                }
+                final ScrapeException scrapeException = new ScrapeException("Exception parsing link " + getScrapeUrl(), cause);
+                reportScrapeFailure(scrapeException);
+                throw scrapeException;
+            }
+        });
+    }
+
+    /**
+     * First half of {@link #scrapeLink()} for running the fetch and the parse as separate stages, see
+     * {@link com.fingy.scrape.pipeline.ScrapePipeline}. Like {@link #scrapeAsync(AsyncPageFetcher)} it does a plain GET.
+     */
+    public String fetchPageBody() {
+        checkHostAvailable();
+        try {
+            return fetchWithinHostLimits(new PageRequest<String>() {
+                @Override
+                public String execute() throws IOException {
+                    return JsoupParserUtil.getResponseBodyAsTextFromUrlWithCookies(getScrapeUrl(), getCookies());
+                }
+            });
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ScrapeException("Interrupted while waiting to fetch link " + getScrapeUrl(), e);
+        } catch (Exception e) {
+            processException(e);
+            final ScrapeException scrapeException = new ScrapeException("Exception fetching link " + getScrapeUrl(), e);
+            reportScrapeFailure(scrapeException);
+            throw scrapeException;
+        }
+    }
+
+    /**
+     * Second half of {@link #scrapeLink()}: parses a body returned by {@link #fetchPageBody()} and scrapes it.
+     */
+    public T scrapePageBody(final String body) {
+        try {
+            return scrapePage(Jsoup.parse(body, getScrapeUrl()));
+        } catch (Exception e) {
+            processException(e);
+            final ScrapeException scrapeException = new ScrapeException("Exception parsing link " + getScrapeUrl(), e);
+            reportScrapeFailure(scrapeException);
+            throw scrapeException;
+        }
+    }
+
     protected void processException(final Exception e) {
         // do nothing
     }
 
+    /**
+     * Runs the request once the host of the link has room under its {@link HostConcurrencyLimiter} limit, if one is set, and reports
+     * back how it went so the limit can adapt and the host's {@link CircuitBreaker} can count failures. Expects
+     * {@link #checkHostAvailable()} to have let the request through.
+     */
+    private <R> R fetchWithinHostLimits(final PageRequest<R> request) throws IOException, InterruptedException {
+        final CircuitBreaker breaker = getHostCircuitBreaker();
+        final AdaptiveConcurrencyLimit hostLimit = getHostConcurrencyLimit();
+        final long startNanos;
+        try {
+            startNanos = HostConcurrencyLimiter.acquire(hostLimit);
+        } catch (InterruptedException e) {
+            breaker.recordAbandoned();
+            throw e;
+        }
+
+        try {
+            final R response = request.execute();
+            HostConcurrencyLimiter.release(hostLimit, startNanos, null);
+            breaker.recordSuccess();
+            return response;
+        } catch (IOException | RuntimeException e) {
+            HostConcurrencyLimiter.release(hostLimit, startNanos, e);
+            HostCircuitBreakers.recordOutcome(breaker, e);
+            throw e;
+        }
+    }
+
     protected Document getPage() throws IOException {
         return JsoupParserUtil.getPageFromUrlWithCookies(getScrapeUrl(), getCookies());
     }
@@ -57,4 +179,9 @@ public abstract class AbstractJsoupScraper<T> extends AbstractScraper<T> {
         this.cookies = cookies;
     }
 
+    private interface PageRequest<R> {
+
+        R execute() throws IOException;
+    }
+
 }
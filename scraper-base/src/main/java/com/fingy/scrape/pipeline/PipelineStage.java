@@ -0,0 +1,172 @@
+package com.fingy.scrape.pipeline;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fingy.concurrent.ExecutorTaskListener;
+
+/**
+ * One step of a pipeline: a bounded queue of items and a fixed number of threads that run a {@link StageHandler} on them and put the
+ * outputs into the next stage. When the next stage's queue is full the threads wait, so a slow stage holds back the stages before it
+ * instead of piling items up. Each stage is sized on its own and keeps its own {@link StageMetrics}.
+ */
+public class PipelineStage<I, O> {
+
+    private static final long POLL_INTERVAL_MILLIS = 100;
+
+    private static final ExecutorTaskListener NO_OP_LISTENER = new ExecutorTaskListener() {
+        @Override
+        public void taskSubmitted() {
+        }
+
+        @Override
+        public void taskFinished() {
+        }
+    };
+
+    private static Logger logger = LoggerFactory.getLogger(PipelineStage.class);
+
+    private final String name;
+    private final int threads;
+    private final StageHandler<I, O> handler;
+    private final BlockingQueue<I> queue;
+    private final StageMetrics metrics;
+    private final ExecutorService workers;
+
+    private volatile PipelineStage<? super O, ?> nextStage;
+    private volatile ExecutorTaskListener taskListener = NO_OP_LISTENER;
+    private volatile boolean stopping;
+    private volatile boolean discarding;
+
+    public PipelineStage(final String name, final int threads, final int queueCapacity, final StageHandler<I, O> handler) {
+        if (threads <= 0 || queueCapacity <= 0) {
+            throw new IllegalArgumentException("Threads and queue capacity must be positive: " + threads + ", " + queueCapacity);
+        }
+        this.name = name;
+        this.threads = threads;
+        this.handler = handler;
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        metrics = new StageMetrics(name, queue);
+        workers = Executors.newFixedThreadPool(threads);
+    }
+
+    /**
+     * Without a next stage, outputs are dropped once handled; that is how the last stage of a pipeline ends.
+     */
+    public void setNextStage(final PipelineStage<? super O, ?> nextStage) {
+        this.nextStage = nextStage;
+    }
+
+    /**
+     * Told when an item leaves the pipeline at this stage, because it failed, was dropped or went through the last stage.
+     */
+    public void setTaskListener(final ExecutorTaskListener taskListener) {
+        this.taskListener = taskListener == null ? NO_OP_LISTENER : taskListener;
+    }
+
+    public void start() {
+        for (int i = 0; i < threads; i++) {
+            workers.execute(new Runnable() {
+                @Override
+                public void run() {
+                    handleItemsUntilStopped();
+                }
+            });
+        }
+    }
+
+    /**
+     * Once the stage is {@link #stopNow() stopped}, the item is released to the task listener instead of being handled.
+     */
+    public void put(final I item) throws InterruptedException {
+        queue.put(item);
+        if (discarding) {
+            releaseQueuedItems();
+        }
+    }
+
+    private void handleItemsUntilStopped() {
+        try {
+            while (true) {
+                final I item = queue.poll(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+                if (item != null && discarding) {
+                    taskListener.taskFinished();
+                    return;
+                } else if (item != null) {
+                    handleItem(item);
+                } else if (stopping) {
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void handleItem(final I item) throws InterruptedException {
+        final long start = System.nanoTime();
+        final O output;
+        try {
+            output = handler.handle(item);
+        } catch (Exception e) {
+            metrics.recordFailed(System.nanoTime() - start);
+            logger.error("Exception occured", e);
+            taskListener.taskFinished();
+            return;
+        }
+        metrics.recordHandled(System.nanoTime() - start);
+
+        final PipelineStage<? super O, ?> next = nextStage;
+        if (output == null || next == null) {
+            taskListener.taskFinished();
+            return;
+        }
+
+        try {
+            next.put(output);
+        } catch (InterruptedException e) {
+            taskListener.taskFinished();
+            throw e;
+        }
+    }
+
+    /**
+     * Lets the threads finish the items still queued and then end. Call it only once nothing is put into this stage any more.
+     */
+    public boolean stopAndAwaitTermination(final long timeout, final TimeUnit unit) throws InterruptedException {
+        stopping = true;
+        workers.shutdown();
+        return workers.awaitTermination(timeout, unit);
+    }
+
+    /**
+     * Interrupts the threads and releases the items still queued, and any put later, to the task listener, so none of them is left
+     * counted as in flight.
+     */
+    public void stopNow() {
+        stopping = true;
+        discarding = true;
+        workers.shutdownNow();
+        releaseQueuedItems();
+    }
+
+    private void releaseQueuedItems() {
+        while (queue.poll() != null) {
+            taskListener.taskFinished();
+        }
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public StageMetrics getMetrics() {
+        return metrics;
+    }
+}
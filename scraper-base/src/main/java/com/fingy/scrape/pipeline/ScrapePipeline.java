@@ -0,0 +1,130 @@
+package com.fingy.scrape.pipeline;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import com.fingy.concurrent.ExecutorTaskListener;
+import com.fingy.scrape.context.ScrapedItemSink;
+import com.fingy.scrape.jsoup.AbstractJsoupScraper;
+
+/**
+ * Runs scrapers as three stages: fetch the page body, parse and scrape it, and hand the item to a {@link ScrapedItemSink}. Each stage
+ * has its own threads and bounded queue, so fetching can be given many threads, parsing about one per processor and persisting a
+ * single one, and {@link #getStageMetrics()} shows which of them to grow.
+ */
+public class ScrapePipeline<T> {
+
+    private static final int AVAILABLE_PROCESSORS = Runtime.getRuntime().availableProcessors();
+
+    public static final int DEFAULT_FETCH_THREADS = AVAILABLE_PROCESSORS * 4;
+    public static final int DEFAULT_PARSE_THREADS = AVAILABLE_PROCESSORS;
+    public static final int DEFAULT_QUEUE_CAPACITY = 100;
+
+    private final PipelineStage<AbstractJsoupScraper<T>, FetchedPage<T>> fetchStage;
+    private final PipelineStage<FetchedPage<T>, T> parseStage;
+    private final PipelineStage<T, Object> persistStage;
+
+    private volatile ExecutorTaskListener taskListener;
+
+    public ScrapePipeline(final ScrapedItemSink<? super T> sink) {
+        this(DEFAULT_FETCH_THREADS, DEFAULT_PARSE_THREADS, DEFAULT_QUEUE_CAPACITY, sink);
+    }
+
+    /**
+     * The pipeline itself persists items from a single thread.
+     */
+    public ScrapePipeline(final int fetchThreads, final int parseThreads, final int queueCapacity, final ScrapedItemSink<? super T> sink) {
+        fetchStage = new PipelineStage<>("fetch", fetchThreads, queueCapacity, new StageHandler<AbstractJsoupScraper<T>, FetchedPage<T>>() {
+            @Override
+            public FetchedPage<T> handle(final AbstractJsoupScraper<T> scraper) {
+                return new FetchedPage<>(scraper, scraper.fetchPageBody());
+            }
+        });
+        parseStage = new PipelineStage<>("parse", parseThreads, queueCapacity, new StageHandler<FetchedPage<T>, T>() {
+            @Override
+            public T handle(final FetchedPage<T> page) {
+                return page.scraper.scrapePageBody(page.body);
+            }
+        });
+        persistStage = new PipelineStage<>("persist", 1, queueCapacity, new StageHandler<T, Object>() {
+            @Override
+            public Object handle(final T item) {
+                sink.addScrapedItem(item);
+                return null;
+            }
+        });
+
+        fetchStage.setNextStage(parseStage);
+        parseStage.setNextStage(persistStage);
+    }
+
+    /**
+     * Told about every scraper submitted and about the moment it leaves the pipeline, so a links queue can count it as in flight.
+     */
+    public void setTaskListener(final ExecutorTaskListener taskListener) {
+        this.taskListener = taskListener;
+        for (PipelineStage<?, ?> stage : getStages()) {
+            stage.setTaskListener(taskListener);
+        }
+    }
+
+    public void start() {
+        for (PipelineStage<?, ?> stage : getStages()) {
+            stage.start();
+        }
+    }
+
+    /**
+     * Blocks while the fetch queue is full.
+     */
+    public void submit(final AbstractJsoupScraper<T> scraper) throws InterruptedException {
+        final ExecutorTaskListener listener = taskListener;
+        if (listener != null) {
+            listener.taskSubmitted();
+        }
+        try {
+            fetchStage.put(scraper);
+        } catch (InterruptedException e) {
+            if (listener != null) {
+                listener.taskFinished();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Stops the stages one after the other, each once it has handed on everything it had queued. Returns {@code false} if a stage
+     * did not finish within {@code timeout}; the later stages are then stopped without waiting.
+     */
+    public boolean finish(final long timeout, final TimeUnit unit) throws InterruptedException {
+        for (PipelineStage<?, ?> stage : getStages()) {
+            if (!stage.stopAndAwaitTermination(timeout, unit)) {
+                for (PipelineStage<?, ?> unfinished : getStages()) {
+                    unfinished.stopNow();
+                }
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public List<StageMetrics> getStageMetrics() {
+        return Arrays.asList(fetchStage.getMetrics(), parseStage.getMetrics(), persistStage.getMetrics());
+    }
+
+    private List<PipelineStage<?, ?>> getStages() {
+        return Arrays.<PipelineStage<?, ?>> asList(fetchStage, parseStage, persistStage);
+    }
+
+    private static final class FetchedPage<T> {
+
+        private final AbstractJsoupScraper<T> scraper;
+        private final String body;
+
+        private FetchedPage(final AbstractJsoupScraper<T> scraper, final String body) {
+            this.scraper = scraper;
+            this.body = body;
+        }
+    }
+}
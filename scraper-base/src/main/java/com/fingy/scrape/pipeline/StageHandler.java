@@ -0,0 +1,9 @@
+package com.fingy.scrape.pipeline;
+
+/**
+ * Work done by one {@link PipelineStage} on one item. Returning {@code null} drops the item instead of passing it on.
+ */
+public interface StageHandler<I, O> {
+
+    O handle(I item) throws Exception;
+}
@@ -0,0 +1,87 @@
+package com.fingy.scrape.pipeline;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters of one {@link PipelineStage}: how many items wait in its queue, how many it has handled or failed on, and how long handling
+ * takes. Comparing the stages shows which one holds the pipeline back.
+ */
+public class StageMetrics {
+
+    private final String stageName;
+    private final BlockingQueue<?> queue;
+    private final long startNanos = System.nanoTime();
+
+    private final AtomicLong handledCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+    private final AtomicLong totalLatencyNanos = new AtomicLong();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+
+    StageMetrics(final String stageName, final BlockingQueue<?> queue) {
+        this.stageName = stageName;
+        this.queue = queue;
+    }
+
+    void recordHandled(final long latencyNanos) {
+        handledCount.incrementAndGet();
+        recordLatency(latencyNanos);
+    }
+
+    void recordFailed(final long latencyNanos) {
+        failedCount.incrementAndGet();
+        recordLatency(latencyNanos);
+    }
+
+    private void recordLatency(final long latencyNanos) {
+        totalLatencyNanos.addAndGet(latencyNanos);
+        long max;
+        while (latencyNanos > (max = maxLatencyNanos.get()) && !maxLatencyNanos.compareAndSet(max, latencyNanos)) {
+            // retry until the larger value is stored
+        }
+    }
+
+    public String getStageName() {
+        return stageName;
+    }
+
+    public int getQueueDepth() {
+        return queue.size();
+    }
+
+    public int getRemainingQueueCapacity() {
+        return queue.remainingCapacity();
+    }
+
+    public long getHandledCount() {
+        return handledCount.get();
+    }
+
+    public long getFailedCount() {
+        return failedCount.get();
+    }
+
+    public double getAverageLatencyMillis() {
+        final long items = handledCount.get() + failedCount.get();
+        return items == 0 ? 0 : (double) totalLatencyNanos.get() / items / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    public double getMaxLatencyMillis() {
+        return (double) maxLatencyNanos.get() / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * Items handled or failed per second since the stage was created.
+     */
+    public double getThroughputPerSecond() {
+        final long elapsedNanos = Math.max(1, System.nanoTime() - startNanos);
+        return (double) (handledCount.get() + failedCount.get()) * TimeUnit.SECONDS.toNanos(1) / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s: queue %d, handled %d, failed %d, %.1f/s, avg %.1f ms, max %.1f ms", stageName, getQueueDepth(),
+                getHandledCount(), getFailedCount(), getThroughputPerSecond(), getAverageLatencyMillis(), getMaxLatencyMillis());
+    }
+}
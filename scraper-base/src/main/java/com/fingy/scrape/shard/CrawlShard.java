@@ -0,0 +1,345 @@
+package com.fingy.scrape.shard;
+
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+
+import org.jsoup.HttpStatusException;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fingy.concurrent.AdaptiveConcurrencyLimit;
+import com.fingy.scrape.context.HostRequestPacer;
+import com.fingy.scrape.context.ScrapedItemSink;
+import com.fingy.scrape.fetch.CircuitBreaker;
+import com.fingy.scrape.fetch.HostCircuitBreakers;
+import com.fingy.scrape.fetch.HostConcurrencyLimiter;
+import com.fingy.scrape.jsoup.AbstractJsoupScraper;
+import com.fingy.scrape.shard.ShardedCrawler.PageCollector;
+import com.fingy.scrape.shard.ShardedCrawler.PageHandler;
+import com.fingy.scrape.util.JsoupParserUtil;
+import com.fingy.scrape.util.UrlUtil;
+
+/**
+ * One shard of a {@link ShardedCrawler}. Everything but the mailbox is confined to the shard's single thread: the HTTP client runs its
+ * callbacks there, so handling a response, growing the frontier and starting the next requests need no locks.
+ * <p>
+ * The frontier is kept per host and the hosts take turns. A host only gets its next request once its politeness delay is over, its
+ * circuit breaker lets the request through and it is under its adaptive concurrency limit. None of these waits block the thread: a
+ * host held back by time is looked at again when a timer fires, one held back by its limit when one of its requests completes.
+ */
+class CrawlShard<T> {
+
+    private static final Logger logger = LoggerFactory.getLogger(CrawlShard.class);
+    private static final int HTTP_BAD_REQUEST = 400;
+    private static final long HOST_PROBE_WAIT_MILLIS = 1000;
+
+    private final ShardedCrawler<T> crawler;
+    private final int maxRequests;
+    private final PageHandler<T> pageHandler;
+    private final ScrapedItemSink<? super T> itemSink;
+    private final ExecutorService shardThread;
+    private final HttpClient httpClient;
+
+    private final Queue<String> mailbox = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+
+    private final Map<String, HostFrontier> hostFrontiers = new HashMap<>();
+    private final Queue<HostFrontier> hostsWithLinks = new ArrayDeque<>();
+    private final Set<String> seenLinks = new HashSet<>();
+    private int requestsInFlight;
+    private boolean wakeUpScheduled;
+    private long wakeUpAtNanos;
+
+    private volatile long fetchedCount;
+    private volatile long failedCount;
+
+    CrawlShard(final ShardedCrawler<T> crawler, final int index, final int maxRequests, final PageHandler<T> pageHandler,
+            final ScrapedItemSink<? super T> itemSink) {
+        this.crawler = crawler;
+        this.maxRequests = maxRequests;
+        this.pageHandler = pageHandler;
+        this.itemSink = itemSink;
+        shardThread = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(final Runnable runnable) {
+                final Thread thread = new Thread(runnable, "crawl-shard-" + index);
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        httpClient = HttpClient.newBuilder().executor(shardThread).cookieHandler(new CookieManager())
+                .followRedirects(HttpClient.Redirect.NORMAL).build();
+    }
+
+    /**
+     * Called from any thread. The link counts as in flight until this shard has fetched and handled it or found it already seen.
+     */
+    void post(final String link) {
+        crawler.linkStarted();
+        mailbox.offer(link);
+        if (drainScheduled.compareAndSet(false, true)) {
+            try {
+                shardThread.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        drainMailbox();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                dropMailbox();
+            }
+        }
+    }
+
+    private void drainMailbox() {
+        drainScheduled.set(false);
+        String link;
+        while ((link = mailbox.poll()) != null) {
+            enqueue(link);
+        }
+        startRequests();
+    }
+
+    private void dropMailbox() {
+        while (mailbox.poll() != null) {
+            crawler.linkFinished();
+        }
+    }
+
+    private void enqueue(final String link) {
+        final String canonicalLink = UrlUtil.canonicalize(link);
+        if (seenLinks.add(canonicalLink)) {
+            final HostFrontier host = getHostFrontier(canonicalLink);
+            host.links.add(canonicalLink);
+            if (host.links.size() == 1) {
+                hostsWithLinks.add(host);
+            }
+        } else {
+            crawler.linkFinished();
+        }
+    }
+
+    private HostFrontier getHostFrontier(final String link) {
+        final String host = UrlUtil.extractHost(link);
+        HostFrontier hostFrontier = hostFrontiers.get(host);
+        if (hostFrontier == null) {
+            hostFrontier = new HostFrontier(crawler.getHostConcurrencyLimiter().getLimitFor(link),
+                    new HostRequestPacer(crawler.getPolitenessPolicy()));
+            hostFrontiers.put(host, hostFrontier);
+        }
+        return hostFrontier;
+    }
+
+    /**
+     * Gives every host with links a turn, in order, until the shard runs out of requests, and sets a timer for the first host that is
+     * only held back by time.
+     */
+    private void startRequests() {
+        long wakeUpDelayNanos = Long.MAX_VALUE;
+        final int hostCount = hostsWithLinks.size();
+        for (int i = 0; i < hostCount && requestsInFlight < maxRequests; i++) {
+            final HostFrontier host = hostsWithLinks.poll();
+            final long hostDelayNanos = startHostRequests(host);
+            if (!host.links.isEmpty()) {
+                hostsWithLinks.add(host);
+                if (hostDelayNanos > 0) {
+                    wakeUpDelayNanos = Math.min(wakeUpDelayNanos, hostDelayNanos);
+                }
+            }
+        }
+        if (wakeUpDelayNanos != Long.MAX_VALUE) {
+            scheduleWakeUp(wakeUpDelayNanos);
+        }
+    }
+
+    /**
+     * Returns how long the host has to wait before its next request, or 0 if a completing request is what will let it go on.
+     */
+    private long startHostRequests(final HostFrontier host) {
+        while (requestsInFlight < maxRequests && !host.links.isEmpty()) {
+            final long politenessDelayNanos = host.pacer.getDelayNanos();
+            if (politenessDelayNanos > 0) {
+                return politenessDelayNanos;
+            }
+            final String url = host.links.peek();
+            final HostCircuitBreakers hostCircuitBreakers = crawler.getHostCircuitBreakers();
+            final long hostPauseMillis = hostCircuitBreakers.getDelayBeforeRequestMillis(url, HOST_PROBE_WAIT_MILLIS);
+            if (hostPauseMillis > 0) {
+                return TimeUnit.MILLISECONDS.toNanos(hostPauseMillis);
+            }
+            if (!host.limit.tryAcquire()) {
+                return 0;
+            }
+            final CircuitBreaker breaker = hostCircuitBreakers.getBreakerFor(url);
+            if (!breaker.allowRequest()) {
+                host.limit.onIgnored();
+                return TimeUnit.MILLISECONDS.toNanos(HOST_PROBE_WAIT_MILLIS);
+            }
+            host.links.poll();
+            host.pacer.recordRequest(crawler.getPolitenessPolicy());
+            sendRequest(host, breaker, url);
+        }
+        return 0;
+    }
+
+    private void sendRequest(final HostFrontier host, final CircuitBreaker breaker, final String url) {
+        requestsInFlight++;
+        final long startNanos = System.nanoTime();
+        try {
+            httpClient.sendAsync(createRequest(url), HttpResponse.BodyHandlers.ofString()).whenCompleteAsync(
+                    new BiConsumer<HttpResponse<String>, Throwable>() {
+                        @Override
+                        public void accept(final HttpResponse<String> response, final Throwable failure) {
+                            requestCompleted(host, breaker, url, startNanos, response, failure);
+                            startRequests();
+                        }
+                    }, shardThread);
+        } catch (RuntimeException e) {
+            requestCompleted(host, breaker, url, startNanos, null, e);
+        }
+    }
+
+    /**
+     * A later timer replaces a pending one only if it fires earlier; the one it replaced still fires, but finds nothing to start.
+     */
+    private void scheduleWakeUp(final long delayNanos) {
+        final long wakeUpAt = System.nanoTime() + delayNanos;
+        if (wakeUpScheduled && wakeUpAtNanos - wakeUpAt <= 0) {
+            return;
+        }
+        wakeUpScheduled = true;
+        wakeUpAtNanos = wakeUpAt;
+        try {
+            CompletableFuture.delayedExecutor(delayNanos, TimeUnit.NANOSECONDS, shardThread).execute(new Runnable() {
+                @Override
+                public void run() {
+                    if (wakeUpAtNanos == wakeUpAt) {
+                        wakeUpScheduled = false;
+                    }
+                    startRequests();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            wakeUpScheduled = false;
+        }
+    }
+
+    private static HttpRequest createRequest(final String url) {
+        return HttpRequest.newBuilder(URI.create(url)).GET().timeout(Duration.ofMillis(JsoupParserUtil.getTimeoutMillis()))
+                .header("User-Agent", AbstractJsoupScraper.USER_AGENT).build();
+    }
+
+    /**
+     * Only the fetch counts towards the host's breaker and limit; a page handler that fails says nothing about the host.
+     */
+    private void requestCompleted(final HostFrontier host, final CircuitBreaker breaker, final String url, final long startNanos,
+            final HttpResponse<String> response, final Throwable failure) {
+        requestsInFlight--;
+        Throwable scrapeFailure = failure;
+        if (scrapeFailure == null && response.statusCode() >= HTTP_BAD_REQUEST) {
+            scrapeFailure = new HttpStatusException("HTTP error fetching URL", response.statusCode(), url);
+        }
+        HostCircuitBreakers.recordOutcome(breaker, scrapeFailure);
+        HostConcurrencyLimiter.release(host.limit, startNanos, scrapeFailure);
+        try {
+            if (scrapeFailure == null) {
+                final Document page = Jsoup.parse(response.body(), response.uri().toString());
+                pageHandler.handle(url, page, new ShardPageCollector());
+                fetchedCount++;
+            }
+        } catch (Exception e) {
+            scrapeFailure = e;
+        } finally {
+            if (scrapeFailure != null) {
+                failedCount++;
+                logger.error("Exception occured", scrapeFailure);
+            }
+            crawler.linkFinished();
+        }
+    }
+
+    void shutdown(final boolean abort) {
+        if (abort) {
+            httpClient.shutdownNow();
+            shardThread.shutdownNow();
+        } else {
+            httpClient.shutdown();
+            shardThread.shutdown();
+        }
+    }
+
+    boolean awaitTermination(final long timeoutNanos) throws InterruptedException {
+        return shardThread.awaitTermination(Math.max(0, timeoutNanos), TimeUnit.NANOSECONDS);
+    }
+
+    long getFetchedCount() {
+        return fetchedCount;
+    }
+
+    long getFailedCount() {
+        return failedCount;
+    }
+
+    /**
+     * Only safe to call once the crawl is over and the shard thread no longer changes the set.
+     */
+    Set<String> getSeenLinks() {
+        return Collections.unmodifiableSet(seenLinks);
+    }
+
+    /**
+     * The links waiting for one host, with its concurrency limit and politeness delay.
+     */
+    private static final class HostFrontier {
+
+        private final Queue<String> links = new ArrayDeque<>();
+        private final AdaptiveConcurrencyLimit limit;
+        private final HostRequestPacer pacer;
+
+        private HostFrontier(final AdaptiveConcurrencyLimit limit, final HostRequestPacer pacer) {
+            this.limit = limit;
+            this.pacer = pacer;
+        }
+    }
+
+    private final class ShardPageCollector implements PageCollector<T> {
+
+        @Override
+        public void queueLink(final String link) {
+            final CrawlShard<T> owner = crawler.shardFor(link);
+            if (owner == CrawlShard.this) {
+                crawler.linkStarted();
+                enqueue(link);
+            } else {
+                owner.post(link);
+            }
+        }
+
+        @Override
+        public void addItem(final T item) {
+            itemSink.addScrapedItem(item);
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.fingy.scrape.shard;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.jsoup.nodes.Document;
+
+import com.fingy.scrape.context.HostPolitenessPolicy;
+import com.fingy.scrape.context.ScrapedItemSink;
+import com.fingy.scrape.fetch.HostCircuitBreakers;
+import com.fingy.scrape.fetch.HostConcurrencyLimiter;
+import com.fingy.scrape.util.UrlUtil;
+
+/**
+ * Crawls with hosts partitioned over a fixed number of shards instead of sharing one links queue and one executor. Every host is
+ * hashed to a single shard, which owns the frontier, the visited links, the HTTP connections and the cookies of its hosts and touches
+ * them from its own thread only. A link found for a host of another shard is posted to that shard's lock-free mailbox. Shards share
+ * nothing but the count of links in flight, used to tell when the crawl is over, so a multi-site crawl scales with the number of
+ * cores. An instance crawls once; its shards and their threads are started by {@link #crawl(Collection)}.
+ * <p>
+ * A shard sends at most {@code maxRequestsPerShard} requests at a time, spread over its hosts. Each host is held to the same
+ * {@link HostPolitenessPolicy}, {@link HostCircuitBreakers} and AIMD {@link HostConcurrencyLimiter} the schedulers use, so a host
+ * starts at a few requests and only gets more while it keeps up.
+ */
+public class ShardedCrawler<T> {
+
+    public static final int DEFAULT_MAX_REQUESTS_PER_SHARD = 64;
+
+    private static final int AVAILABLE_PROCESSORS = Runtime.getRuntime().availableProcessors();
+
+    private final int shardCount;
+    private final int maxRequestsPerShard;
+    private final PageHandler<T> pageHandler;
+    private final ScrapedItemSink<? super T> itemSink;
+    private volatile List<CrawlShard<T>> shards = Collections.emptyList();
+    private final AtomicLong linksInFlight = new AtomicLong();
+    private final CountDownLatch finished = new CountDownLatch(1);
+    private final AtomicBoolean started = new AtomicBoolean();
+
+    private volatile HostPolitenessPolicy politenessPolicy = HostPolitenessPolicy.UNRESTRICTED;
+    private volatile HostCircuitBreakers hostCircuitBreakers = new HostCircuitBreakers();
+    private volatile HostConcurrencyLimiter hostConcurrencyLimiter = new HostConcurrencyLimiter();
+
+    public ShardedCrawler(final PageHandler<T> pageHandler, final ScrapedItemSink<? super T> itemSink) {
+        this(AVAILABLE_PROCESSORS, DEFAULT_MAX_REQUESTS_PER_SHARD, pageHandler, itemSink);
+    }
+
+    /**
+     * {@code itemSink} is called from all shard threads, so it must be thread safe.
+     */
+    public ShardedCrawler(final int shardCount, final int maxRequestsPerShard, final PageHandler<T> pageHandler,
+            final ScrapedItemSink<? super T> itemSink) {
+        if (shardCount < 1 || maxRequestsPerShard < 1) {
+            throw new IllegalArgumentException("Invalid shard settings: " + shardCount + ", " + maxRequestsPerShard);
+        }
+        this.shardCount = shardCount;
+        this.maxRequestsPerShard = maxRequestsPerShard;
+        this.pageHandler = pageHandler;
+        this.itemSink = itemSink;
+    }
+
+    public ShardedCrawler<T> withPolitenessPolicy(final HostPolitenessPolicy politenessPolicy) {
+        this.politenessPolicy = politenessPolicy;
+        return this;
+    }
+
+    public ShardedCrawler<T> withHostCircuitBreakers(final HostCircuitBreakers hostCircuitBreakers) {
+        this.hostCircuitBreakers = hostCircuitBreakers;
+        return this;
+    }
+
+    /**
+     * The limiter's limits should only be used by this crawler, as a host held back by its limit is only looked at again when one of
+     * the crawler's own requests to it completes.
+     */
+    public ShardedCrawler<T> withHostConcurrencyLimiter(final HostConcurrencyLimiter hostConcurrencyLimiter) {
+        this.hostConcurrencyLimiter = hostConcurrencyLimiter;
+        return this;
+    }
+
+    public HostPolitenessPolicy getPolitenessPolicy() {
+        return politenessPolicy;
+    }
+
+    public HostCircuitBreakers getHostCircuitBreakers() {
+        return hostCircuitBreakers;
+    }
+
+    public HostConcurrencyLimiter getHostConcurrencyLimiter() {
+        return hostConcurrencyLimiter;
+    }
+
+    /**
+     * Crawls from {@code seeds} until no link is left on any shard, or the thread is interrupted, in which case the outstanding
+     * requests are aborted and the exception is rethrown.
+     */
+    public void crawl(final Collection<String> seeds) throws InterruptedException {
+        if (!started.compareAndSet(false, true)) {
+            throw new IllegalStateException("A sharded crawler can only crawl once");
+        }
+        start();
+        linksInFlight.incrementAndGet();
+        try {
+            for (String seed : seeds) {
+                route(seed);
+            }
+        } finally {
+            linkFinished();
+        }
+
+        try {
+            finished.await();
+            shutdown(false);
+        } catch (InterruptedException e) {
+            shutdown(true);
+            throw e;
+        }
+    }
+
+    private void start() {
+        final List<CrawlShard<T>> startedShards = new ArrayList<>(shardCount);
+        for (int i = 0; i < shardCount; i++) {
+            startedShards.add(new CrawlShard<>(this, i, maxRequestsPerShard, pageHandler, itemSink));
+        }
+        shards = Collections.unmodifiableList(startedShards);
+    }
+
+    public boolean awaitShutdown(final long timeout, final TimeUnit unit) throws InterruptedException {
+        final long deadline = System.nanoTime() + unit.toNanos(timeout);
+        for (CrawlShard<T> shard : shards) {
+            if (!shard.awaitTermination(deadline - System.nanoTime())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Posts {@code link} to the mailbox of the shard owning its host.
+     */
+    void route(final String link) {
+        shardFor(link).post(link);
+    }
+
+    CrawlShard<T> shardFor(final String link) {
+        return shards.get(UrlUtil.getHostPartition(link, shardCount));
+    }
+
+    void linkStarted() {
+        linksInFlight.incrementAndGet();
+    }
+
+    void linkFinished() {
+        if (linksInFlight.decrementAndGet() == 0) {
+            finished.countDown();
+        }
+    }
+
+    private void shutdown(final boolean abort) {
+        for (CrawlShard<T> shard : shards) {
+            shard.shutdown(abort);
+        }
+    }
+
+    public int getShardCount() {
+        return shardCount;
+    }
+
+    public long getFetchedCount() {
+        long fetched = 0;
+        for (CrawlShard<T> shard : shards) {
+            fetched += shard.getFetchedCount();
+        }
+        return fetched;
+    }
+
+    public long getFailedCount() {
+        long failed = 0;
+        for (CrawlShard<T> shard : shards) {
+            failed += shard.getFailedCount();
+        }
+        return failed;
+    }
+
+    /**
+     * The links every shard has taken into its frontier, for saving once the crawl is over.
+     */
+    public Set<String> getVisitedLinks() {
+        if (finished.getCount() > 0) {
+            throw new IllegalStateException("The crawl is still running");
+        }
+        final Set<String> visitedLinks = new HashSet<>();
+        for (CrawlShard<T> shard : shards) {
+            visitedLinks.addAll(shard.getSeenLinks());
+        }
+        return visitedLinks;
+    }
+
+    /**
+     * Scrapes one page on the thread of the shard that owns its host.
+     */
+    public interface PageHandler<T> {
+
+        void handle(String url, Document page, PageCollector<T> collector);
+    }
+
+    /**
+     * Takes what a {@link PageHandler} found on a page. Links of hosts owned by the same shard go straight into its frontier.
+     */
+    public interface PageCollector<T> {
+
+        void queueLink(String link);
+
+        void addItem(T item);
+    }
+}
@@ -1,9 +1,11 @@
 package com.fingy.scrape.util;
 
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.util.Map;
 
 import org.apache.commons.lang3.StringUtils;
+import org.jsoup.Connection;
 import org.jsoup.Connection.Response;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
@@ -14,32 +16,65 @@ public class JsoupParserUtil {
 
     private static final String USER_AGENT = "Mozilla/5.0 (Windows NT 6.1; WOW64; rv:23.0) Gecko/20100101 Firefox/23.0";
 
+	public static final int DEFAULT_TIMEOUT_MILLIS = 30 * 1000;
+
+	private static volatile int timeoutMillis = DEFAULT_TIMEOUT_MILLIS;
+
+	/**
+	 * Connect and read timeout of every fetch that does not pass its own, so a stuck connection frees its thread after at most this long.
+	 */
+	public static int getTimeoutMillis() {
+		return timeoutMillis;
+	}
+
+	public static void setTimeoutMillis(int timeout) {
+		if (timeout <= 0) {
+			throw new IllegalArgumentException("Timeout must be positive: " + timeout);
+		}
+		timeoutMillis = timeout;
+	}
+
 	public static Document getPageFromUrl(String url) throws IOException {
-		return getPageFromUrlWithTimeout(url, 0);
+		return getPageFromUrlWithTimeout(url, timeoutMillis);
 	}
 
 	public static Response getResponseFromUrl(String url) throws IOException {
-		return Jsoup.connect(url).userAgent(USER_AGENT).timeout(0).ignoreContentType(true).execute();
+		return connect(url, timeoutMillis).ignoreContentType(true).execute();
+	}
+
+	public static Response getResponseFromUrlWithCookies(String url, Map<String, String> cookies) throws IOException {
+		return connect(url, timeoutMillis).cookies(cookies).execute();
 	}
 
 	public static String getResponseBodyAsTextFromUrl(String url) throws IOException {
-		return Jsoup.connect(url).userAgent(USER_AGENT).timeout(0).ignoreContentType(true).execute().body();
+		return connect(url, timeoutMillis).ignoreContentType(true).execute().body();
 	}
 
 	public static String getResponseBodyAsTextFromUrlWithCookies(String url, Map<String, String> cookies) throws IOException {
-		return Jsoup.connect(url).userAgent(USER_AGENT).cookies(cookies).timeout(0).ignoreContentType(true).execute().body();
+		return connect(url, timeoutMillis).cookies(cookies).ignoreContentType(true).execute().body();
 	}
 
 	public static Document postDataToUrlWithCookies(String url, Map<String, String> cookies, Map<String, String> params) throws IOException {
-		return Jsoup.connect(url).userAgent(USER_AGENT).cookies(cookies).timeout(0).ignoreContentType(true).data(params).post();
+		return connect(url, timeoutMillis).cookies(cookies).ignoreContentType(true).data(params).post();
 	}
 
 	public static Document getPageFromUrlWithCookies(String url, Map<String, String> cookies) throws IOException {
-		return Jsoup.connect(url).userAgent(USER_AGENT).cookies(cookies).timeout(0).get();
+		return connect(url, timeoutMillis).cookies(cookies).get();
 	}
 
 	public static Document getPageFromUrlWithTimeout(String url, int timeout) throws IOException {
-		return Jsoup.connect(url).userAgent(USER_AGENT).timeout(timeout).get();
+		return connect(url, timeout).get();
+	}
+
+	/**
+	 * Fetches are where scrape tasks spend their time, so a task whose thread was interrupted, e.g. by shutting its pool down, stops
+	 * here instead of starting another request.
+	 */
+	private static Connection connect(String url, int timeout) throws InterruptedIOException {
+		if (Thread.currentThread().isInterrupted()) {
+			throw new InterruptedIOException("Fetch cancelled: " + url);
+		}
+		return Jsoup.connect(url).userAgent(USER_AGENT).timeout(timeout);
 	}
 
 	public static String getTagTextFromCssQuery(Element elementToQuery, String cssQuery) {
@@ -53,11 +88,11 @@ public class JsoupParserUtil {
 	}
 
 	public static Document smartGetPageFromUrl(String url) throws IOException {
-		return smartGetPageFromUrlWithTimeout(url, 0);
+		return smartGetPageFromUrlWithTimeout(url, timeoutMillis);
 	}
 
 	public static Document smartGetPageFromUrlWithTimeout(String url, int timeout) throws IOException {
-		Document page = Jsoup.connect(url).userAgent(USER_AGENT).timeout(timeout).get();
+		Document page = connect(url, timeout).get();
 		loadScriptsFromPage(page);
 		loadImagesFromPage(page);
 		loadLinkTagsFromPage(page);
@@ -0,0 +1,63 @@
+package com.fingy.scrape.util;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+
+import org.apache.commons.lang3.StringUtils;
+
+public class UrlUtil {
+
+    private static final String UNKNOWN_HOST = "";
+    private static final String SCHEME_SEPARATOR = "://";
+
+    public static String extractHost(final String link) {
+        try {
+            final String host = new URI(link.trim()).getHost();
+            return host == null ? UNKNOWN_HOST : host.toLowerCase();
+        } catch (URISyntaxException e) {
+            return UNKNOWN_HOST;
+        }
+    }
+
+    /**
+     * Which of {@code partitionCount} partitions the link's host belongs to. Depends only on the host name, so every process computes
+     * the same partition for it.
+     */
+    public static int getHostPartition(final String link, final int partitionCount) {
+        return Math.floorMod(extractHost(link).hashCode(), partitionCount);
+    }
+
+    /**
+     * Drops the fragment and the default port, lower-cases the scheme and the host and gives an empty path a "/". Links that are not
+     * absolute hierarchical URIs, or not valid URIs at all, only lose their fragment.
+     */
+    public static String canonicalize(final String link) {
+        final String trimmed = link.trim();
+        try {
+            final URI uri = new URI(trimmed);
+            if (uri.getScheme() == null || uri.getRawAuthority() == null) {
+                return StringUtils.substringBefore(trimmed, "#");
+            }
+
+            final String scheme = uri.getScheme().toLowerCase();
+            final String authority = removeDefaultPort(scheme, uri.getRawAuthority().toLowerCase());
+            final String path = uri.getRawPath().isEmpty() ? "/" : uri.getRawPath();
+            final String query = uri.getRawQuery() == null ? "" : "?" + uri.getRawQuery();
+
+            return scheme + SCHEME_SEPARATOR + authority + path + query;
+        } catch (URISyntaxException e) {
+            return StringUtils.substringBefore(trimmed, "#");
+        }
+    }
+
+    private static String removeDefaultPort(final String scheme, final String authority) {
+        if ("http".equals(scheme)) {
+            return StringUtils.removeEnd(authority, ":80");
+        }
+        if ("https".equals(scheme)) {
+            return StringUtils.removeEnd(authority, ":443");
+        }
+        return authority;
+    }
+
+}
@@ -0,0 +1,92 @@
+package com.fingy.concurrent;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class AdaptiveConcurrencyLimitTest {
+
+    private final AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(4, 1, 10);
+
+    @Test
+    public void testLimitGrowsWhileTheLimitIsUsedUpToTheMaximum() throws Exception {
+        final AdaptiveConcurrencyLimit growing = new AdaptiveConcurrencyLimit(4, 1, 10, 0.5, Double.MAX_VALUE);
+        runFullRound(growing);
+        runFullRound(growing);
+        assertThat(growing.getLimit()).isEqualTo(5);
+
+        for (int round = 0; round < 30; round++) {
+            runFullRound(growing);
+        }
+        assertThat(growing.getLimit()).isEqualTo(10);
+        assertThat(growing.getInFlight()).isEqualTo(0);
+    }
+
+    @Test
+    public void testLimitDoesNotGrowWhileMostOfItIsUnused() throws Exception {
+        final AdaptiveConcurrencyLimit growing = new AdaptiveConcurrencyLimit(4, 1, 10, 0.5, Double.MAX_VALUE);
+        for (int request = 0; request < 100; request++) {
+            growing.onSuccess(growing.acquire());
+        }
+        assertThat(growing.getLimit()).isEqualTo(4);
+    }
+
+    @Test
+    public void testOverloadHalvesTheLimitOnceForRequestsAlreadyInFlight() throws Exception {
+        final long first = limit.acquire();
+        final long second = limit.acquire();
+
+        limit.onOverload(first);
+        limit.onOverload(second);
+        assertThat(limit.getLimit()).isEqualTo(2);
+
+        limit.onOverload(limit.acquire());
+        limit.onOverload(limit.acquire());
+        assertThat(limit.getLimit()).isEqualTo(1);
+    }
+
+    @Test
+    public void testAcquireBlocksAtTheLimit() throws Exception {
+        final long[] started = new long[4];
+        for (int i = 0; i < started.length; i++) {
+            started[i] = limit.acquire();
+        }
+
+        final CountDownLatch acquired = new CountDownLatch(1);
+        final Thread waiting = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    limit.acquire();
+                    acquired.countDown();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+        waiting.start();
+
+        assertThat(acquired.await(200, TimeUnit.MILLISECONDS)).isFalse();
+        limit.onIgnored();
+        assertThat(acquired.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInitialLimitMustBeWithinBounds() {
+        new AdaptiveConcurrencyLimit(20, 1, 10);
+    }
+
+    private static void runFullRound(final AdaptiveConcurrencyLimit limit) throws InterruptedException {
+        final int roundSize = limit.getLimit();
+        final long[] started = new long[roundSize];
+        for (int i = 0; i < roundSize; i++) {
+            started[i] = limit.acquire();
+        }
+        for (int i = 0; i < roundSize; i++) {
+            limit.onSuccess(started[i]);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.fingy.concurrent;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BoundedExecutorServiceTest {
+
+    private BoundedExecutorService executor;
+
+    @Before
+    public void setUp() {
+        executor = new BoundedExecutorService(Executors.newFixedThreadPool(1), 2);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testSubmitterBlocksUntilATaskFinishes() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        executor.execute(awaiting(release));
+        executor.execute(awaiting(release));
+        assertThat(executor.isSaturated()).isTrue();
+
+        final CountDownLatch thirdSubmitted = new CountDownLatch(1);
+        final ExecutorService submitter = Executors.newSingleThreadExecutor();
+        submitter.execute(new Runnable() {
+            @Override
+            public void run() {
+                executor.execute(awaiting(release));
+                thirdSubmitted.countDown();
+            }
+        });
+
+        assertThat(thirdSubmitted.await(200, TimeUnit.MILLISECONDS)).isFalse();
+        release.countDown();
+        assertThat(thirdSubmitted.await(5, TimeUnit.SECONDS)).isTrue();
+        submitter.shutdown();
+
+        executor.shutdown();
+        assertThat(executor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(executor.getPendingTaskCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void testVirtualThreadPoolRunsTasksOnVirtualThreads() throws Exception {
+        final BoundedExecutorService virtualThreadPool = ExecutorsUtil.createVirtualThreadPool(100);
+        final Future<Boolean> virtual = virtualThreadPool.submit(new Callable<Boolean>() {
+            @Override
+            public Boolean call() {
+                return Thread.currentThread().isVirtual();
+            }
+        });
+
+        assertThat(virtual.get(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(virtualThreadPool.getCapacity()).isEqualTo(100);
+        virtualThreadPool.shutdown();
+    }
+
+    @Test
+    public void testShutdownNowFreesTheSlotsOfTasksThatNeverRan() throws Exception {
+        final AtomicInteger inFlight = new AtomicInteger();
+        executor.setTaskListener(new ExecutorTaskListener() {
+            @Override
+            public void taskSubmitted() {
+                inFlight.incrementAndGet();
+            }
+
+            @Override
+            public void taskFinished() {
+                inFlight.decrementAndGet();
+            }
+        });
+        final CountDownLatch release = new CountDownLatch(1);
+        final Runnable waitingTask = awaiting(release);
+        executor.execute(awaiting(release));
+        executor.execute(waitingTask);
+
+        assertThat(executor.shutdownNow()).containsOnly(waitingTask);
+        assertThat(executor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(executor.getPendingTaskCount()).isEqualTo(0);
+        assertThat(inFlight.get()).isEqualTo(0);
+    }
+
+    @Test
+    public void testWrappedPoolsAreSizedByTheThreadsTheyCanStart() {
+        final ThreadPoolExecutor handOffPool = new ThreadPoolExecutor(1, 8, 1, TimeUnit.SECONDS, new SynchronousQueue<Runnable>());
+        assertThat(ExecutorsUtil.createBoundedExecutor(handOffPool).getCapacity()).isEqualTo(8);
+        handOffPool.shutdown();
+
+        final ThreadPoolExecutor queueingPool = new ThreadPoolExecutor(2, 4, 1, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(100));
+        assertThat(ExecutorsUtil.createBoundedExecutor(queueingPool).getCapacity()).isEqualTo(4);
+        queueingPool.shutdown();
+
+        final ExecutorService cachedPool = Executors.newCachedThreadPool();
+        assertThat(ExecutorsUtil.createBoundedExecutor(cachedPool).getCapacity()).isEqualTo(Integer.MAX_VALUE);
+        cachedPool.shutdown();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCapacityMustBePositive() {
+        new BoundedExecutorService(Executors.newSingleThreadExecutor(), 0);
+    }
+
+    private static Runnable awaiting(final CountDownLatch latch) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    latch.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+    }
+}
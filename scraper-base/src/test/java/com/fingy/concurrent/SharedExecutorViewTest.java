@@ -0,0 +1,117 @@
+package com.fingy.concurrent;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Test;
+
+public class SharedExecutorViewTest {
+
+    private final ExecutorService sharedExecutor = Executors.newFixedThreadPool(2);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @After
+    public void tearDown() {
+        release.countDown();
+        sharedExecutor.shutdownNow();
+    }
+
+    @Test
+    public void testShutdownNowOnlyStopsTheViewsOwnTasks() throws Exception {
+        final SharedExecutorView cancelledView = new SharedExecutorView(sharedExecutor);
+        final SharedExecutorView otherView = new SharedExecutorView(sharedExecutor);
+        final CountDownLatch started = new CountDownLatch(2);
+        final Runnable blockingTask = new Runnable() {
+            @Override
+            public void run() {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        cancelledView.execute(blockingTask);
+        otherView.execute(blockingTask);
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        cancelledView.shutdownNow();
+        assertThat(cancelledView.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(otherView.getPendingTaskCount()).isEqualTo(1);
+        assertThat(sharedExecutor.isShutdown()).isFalse();
+
+        release.countDown();
+        otherView.shutdown();
+        assertThat(otherView.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    public void testTasksWaitingWhenTheViewIsAbortedAreSkipped() throws Exception {
+        final SharedExecutorView view = new SharedExecutorView(sharedExecutor);
+        final CountDownLatch skipped = new CountDownLatch(1);
+        final Runnable blockingTask = new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        view.execute(blockingTask);
+        view.execute(blockingTask);
+        view.execute(new Runnable() {
+            @Override
+            public void run() {
+                skipped.countDown();
+            }
+        });
+
+        view.shutdownNow();
+        assertThat(view.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(skipped.getCount()).isEqualTo(1L);
+    }
+
+    @Test
+    public void testSkippedTasksFreeTheirBoundedSlots() throws Exception {
+        final BoundedExecutorService boundedView = new BoundedExecutorService(new SharedExecutorView(sharedExecutor), 3);
+        final AtomicInteger inFlight = new AtomicInteger();
+        boundedView.setTaskListener(new ExecutorTaskListener() {
+            @Override
+            public void taskSubmitted() {
+                inFlight.incrementAndGet();
+            }
+
+            @Override
+            public void taskFinished() {
+                inFlight.decrementAndGet();
+            }
+        });
+        final Runnable blockingTask = new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        boundedView.execute(blockingTask);
+        boundedView.execute(blockingTask);
+        boundedView.execute(blockingTask);
+
+        boundedView.shutdownNow();
+        assertThat(boundedView.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(boundedView.getPendingTaskCount()).isEqualTo(0);
+        assertThat(inFlight.get()).isEqualTo(0);
+    }
+}
@@ -0,0 +1,153 @@
+package com.fingy.scrape;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Supplier;
+
+import org.apache.commons.io.FileUtils;
+
+import com.fingy.scrape.context.DetailsLoader;
+import com.fingy.scrape.context.ScrapeContext;
+import com.fingy.scrape.context.ScrapeDetails;
+import com.fingy.scrape.context.ScraperLinksQueue;
+import com.fingy.scrape.context.SynchronizedScraperLinksQueue;
+
+/**
+ * A scrape of made-up pages for the scheduler tests: a temporary directory with the details, visited and queued files of one or more
+ * named contexts, the {@link Page} details and a {@link PageScheduler} that scrapes the pages without fetching anything.
+ */
+public class PageScrapeFixture {
+
+    private static final String ENCODING = "UTF-8";
+
+    private final File directory;
+
+    public PageScrapeFixture(final String prefix) throws IOException {
+        directory = File.createTempFile(prefix, "");
+        directory.delete();
+        directory.mkdirs();
+    }
+
+    /**
+     * "page-0" up to "page-{@code count - 1}".
+     */
+    public static List<String> listingPages(final int count) {
+        final List<String> pages = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            pages.add("page-" + i);
+        }
+        return pages;
+    }
+
+    /**
+     * Starts the context called {@code name} with no details, no visited links and {@code queuedLinks}.
+     */
+    public void writeFiles(final String name, final Collection<String> queuedLinks) throws IOException {
+        FileUtils.writeLines(getFile(name, "details"), ENCODING, Collections.<String> emptyList());
+        FileUtils.writeLines(getFile(name, "visited"), ENCODING, Collections.<String> emptyList());
+        FileUtils.writeLines(getFile(name, "queued"), ENCODING, queuedLinks);
+    }
+
+    public ScrapeContext createContext(final String name) {
+        return createContext(name, new SynchronizedScraperLinksQueue());
+    }
+
+    /**
+     * Loads whatever the context called {@code name} last saved.
+     */
+    public ScrapeContext createContext(final String name, final ScraperLinksQueue linksQueue) {
+        return new ScrapeContext(getFile(name, "details").getPath(), getFile(name, "visited").getPath(), getFile(name, "queued").getPath(),
+                new DetailsLoader<Page>() {
+                    @Override
+                    public Page loadFromCSVLine(final String line) {
+                        return new Page(line);
+                    }
+                }, linksQueue);
+    }
+
+    /**
+     * {@code kind} is "details", "visited" or "queued".
+     */
+    public File getFile(final String name, final String kind) {
+        return new File(directory, name + "-" + kind + ".txt");
+    }
+
+    public void delete() throws IOException {
+        FileUtils.deleteDirectory(directory);
+    }
+
+    public static final class Page extends ScrapeDetails {
+
+        private static final long serialVersionUID = 1L;
+
+        private final String link;
+
+        public Page(final String link) {
+            this.link = link;
+        }
+
+        @Override
+        public String toString() {
+            return link;
+        }
+    }
+
+    /**
+     * Listing page "page-n" queues "detail-page-n"; details pages become results.
+     */
+    public static class PageScheduler extends AbstractScrapeScheduler<Page> {
+
+        public PageScheduler(final ScrapeContext context) {
+            super(context);
+        }
+
+        public PageScheduler(final ScrapeContext context, final Supplier<ExecutorService> threadPoolFactory) {
+            super(context, threadPoolFactory);
+        }
+
+        @Override
+        protected void doSpecificInitialization() {
+        }
+
+        @Override
+        protected void submitWorkGeneratingTask(final String link) {
+            getWorkGeneratingScrapingThreadPool().submit(new Runnable() {
+                @Override
+                public void run() {
+                    scrapeListingPage(link);
+                }
+            });
+        }
+
+        protected void scrapeListingPage(final String link) {
+            context.getLinksQueue().addIfNotVisited("detail-" + link);
+            context.getLinksQueue().markVisited(link);
+        }
+
+        @Override
+        protected void submitDetailScrapingTask(final String link) {
+            getDetailsScrapingCompletionService().submit(new Callable<Page>() {
+                @Override
+                public Page call() {
+                    return scrapeDetailsPage(link);
+                }
+            });
+        }
+
+        protected Page scrapeDetailsPage(final String link) {
+            context.getLinksQueue().markVisited(link);
+            return new Page(link);
+        }
+
+        @Override
+        protected boolean isDetailsLink(final String link) {
+            return link.startsWith("detail-");
+        }
+    }
+}
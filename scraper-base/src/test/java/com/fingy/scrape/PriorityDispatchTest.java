@@ -0,0 +1,75 @@
+package com.fingy.scrape;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.fingy.scrape.PageScrapeFixture.PageScheduler;
+import com.fingy.scrape.context.PriorityScraperLinksQueue;
+import com.fingy.scrape.context.ScrapeContext;
+import com.fingy.scrape.context.ScrapeResult;
+
+public class PriorityDispatchTest {
+
+    private static final int PAGES = 10;
+
+    private PageScrapeFixture fixture;
+    private ScrapeContext context;
+
+    @Before
+    public void setUp() throws Exception {
+        fixture = new PageScrapeFixture("priority");
+        fixture.writeFiles("priority", PageScrapeFixture.listingPages(PAGES));
+        context = fixture.createContext("priority", new PriorityScraperLinksQueue(1));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        fixture.delete();
+    }
+
+    @Test
+    public void testSkippedDetailsLinksReopenTheListingGate() throws Exception {
+        final SkippingScheduler scheduler = new SkippingScheduler(context);
+        final ScrapeResult[] result = new ScrapeResult[1];
+        final Thread scrape = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                result[0] = scheduler.doScrape();
+            }
+        });
+        scrape.start();
+        scrape.join(10000);
+
+        assertThat(scrape.isAlive()).isFalse();
+        assertThat(result[0].getScrapeSize()).isEqualTo(PAGES);
+        assertThat(((PriorityScraperLinksQueue) context.getLinksQueue()).getOutstandingDetailsLinks()).isEqualTo(0);
+    }
+
+    /**
+     * Listing page "page-n" also queues "detail-skip-page-n", which is marked visited without a task.
+     */
+    private static final class SkippingScheduler extends PageScheduler {
+
+        private SkippingScheduler(final ScrapeContext context) {
+            super(context);
+        }
+
+        @Override
+        protected void scrapeListingPage(final String link) {
+            context.getLinksQueue().addIfNotVisited("detail-skip-" + link);
+            super.scrapeListingPage(link);
+        }
+
+        @Override
+        protected void submitDetailScrapingTask(final String link) {
+            if (link.startsWith("detail-skip-")) {
+                context.getLinksQueue().markVisited(link);
+                return;
+            }
+            super.submitDetailScrapingTask(link);
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.fingy.scrape;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.fingy.concurrent.BoundedExecutorService;
+import com.fingy.scrape.PageScrapeFixture.Page;
+import com.fingy.scrape.PageScrapeFixture.PageScheduler;
+import com.fingy.scrape.context.ScrapeContext;
+
+public class ScrapeResultsPublishingTest {
+
+    private static final int PAGES = 20;
+    private static final int MAX_PENDING_RESULTS = 2;
+    private static final int TASK_SLOTS = 2;
+
+    private final AtomicInteger scrapedCount = new AtomicInteger();
+
+    private PageScrapeFixture fixture;
+    private ScrapeContext context;
+    private PageScheduler scheduler;
+
+    @Before
+    public void setUp() throws Exception {
+        fixture = new PageScrapeFixture("publishing");
+        fixture.writeFiles("publishing", PageScrapeFixture.listingPages(PAGES));
+        context = fixture.createContext("publishing");
+        scheduler = new PageScheduler(context, new Supplier<ExecutorService>() {
+            @Override
+            public ExecutorService get() {
+                return new BoundedExecutorService(Executors.newFixedThreadPool(1), TASK_SLOTS);
+            }
+        }) {
+            @Override
+            protected Page scrapeDetailsPage(final String link) {
+                synchronized (scrapedCount) {
+                    scrapedCount.incrementAndGet();
+                    scrapedCount.notifyAll();
+                }
+                return super.scrapeDetailsPage(link);
+            }
+        };
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        fixture.delete();
+    }
+
+    @Test
+    public void testSlowSubscriberThrottlesTheScrape() throws Exception {
+        final SlowSubscriber subscriber = new SlowSubscriber();
+        scheduler.publishResults(MAX_PENDING_RESULTS).subscribe(subscriber);
+
+        scheduler.doScrape();
+
+        assertThat(subscriber.received.get()).isEqualTo(PAGES);
+        assertThat(subscriber.completed.getCount()).isEqualTo(0L);
+        assertThat(subscriber.maxLag.get() >= MAX_PENDING_RESULTS).isTrue();
+        assertThat(subscriber.maxLag.get() <= MAX_PENDING_RESULTS + 2 * TASK_SLOTS).isTrue();
+    }
+
+    @Test
+    public void testPublishedItemsAreSavedWithTheirVisitedLinks() throws Exception {
+        final SlowSubscriber subscriber = new SlowSubscriber();
+        scheduler.publishResults(MAX_PENDING_RESULTS).subscribe(subscriber);
+
+        scheduler.doScrape();
+        context.save();
+
+        assertThat(subscriber.received.get()).isEqualTo(PAGES);
+        assertThat(context.getScrapedItemsSize()).isEqualTo(PAGES);
+        assertThat(FileUtils.readLines(fixture.getFile("publishing", "details"), "UTF-8")).hasSize(PAGES);
+        assertThat(FileUtils.readLines(fixture.getFile("publishing", "visited"), "UTF-8")).hasSize(2 * PAGES);
+    }
+
+    @Test
+    public void testCancelFailsTheSubscribers() throws Exception {
+        final CountDownLatch failed = new CountDownLatch(1);
+        scheduler.publishResults(MAX_PENDING_RESULTS).subscribe(new Flow.Subscriber<Page>() {
+            @Override
+            public void onSubscribe(final Flow.Subscription subscription) {
+            }
+
+            @Override
+            public void onNext(final Page item) {
+            }
+
+            @Override
+            public void onError(final Throwable throwable) {
+                if (throwable instanceof CancellationException) {
+                    failed.countDown();
+                }
+            }
+
+            @Override
+            public void onComplete() {
+            }
+        });
+
+        final Thread scrape = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                scheduler.doScrape();
+            }
+        });
+        scrape.start();
+        assertThat(awaitScraped(1 + MAX_PENDING_RESULTS)).isTrue();
+        assertThat(scrape.isAlive()).isTrue();
+
+        scheduler.cancel();
+        scrape.join(10000);
+        assertThat(scrape.isAlive()).isFalse();
+        assertThat(failed.await(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testResultsArePublishedOnce() {
+        scheduler.publishResults(MAX_PENDING_RESULTS);
+        scheduler.publishResults(MAX_PENDING_RESULTS);
+    }
+
+    private boolean awaitScraped(final int count) throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        synchronized (scrapedCount) {
+            while (scrapedCount.get() < count) {
+                final long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                TimeUnit.NANOSECONDS.timedWait(scrapedCount, remaining);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Takes one item at a time, only once the scrape got as far ahead of it as the pending results allow, and records how far that
+     * was.
+     */
+    private final class SlowSubscriber implements Flow.Subscriber<Page> {
+
+        private final AtomicInteger received = new AtomicInteger();
+        private final AtomicInteger maxLag = new AtomicInteger();
+        private final CountDownLatch completed = new CountDownLatch(1);
+        private Flow.Subscription subscription;
+
+        @Override
+        public void onSubscribe(final Flow.Subscription subscription) {
+            this.subscription = subscription;
+            subscription.request(1);
+        }
+
+        @Override
+        public void onNext(final Page item) {
+            final int received = this.received.incrementAndGet();
+            try {
+                awaitScraped(Math.min(PAGES, received + MAX_PENDING_RESULTS));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            maxLag.accumulateAndGet(scrapedCount.get() - received, Math::max);
+            subscription.request(1);
+        }
+
+        @Override
+        public void onError(final Throwable throwable) {
+        }
+
+        @Override
+        public void onComplete() {
+            completed.countDown();
+        }
+    }
+}
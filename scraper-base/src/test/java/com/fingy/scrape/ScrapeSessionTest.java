@@ -0,0 +1,104 @@
+package com.fingy.scrape;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.util.Collections;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.fingy.scrape.PageScrapeFixture.Page;
+import com.fingy.scrape.PageScrapeFixture.PageScheduler;
+import com.fingy.scrape.context.ScrapeContext;
+import com.fingy.scrape.context.ScrapeResult;
+
+public class ScrapeSessionTest {
+
+    private static final String NAME = "session";
+
+    private PageScrapeFixture fixture;
+    private ScrapeContext context;
+    private PageScheduler scheduler;
+
+    /**
+     * Makes a details page report the scrape as detected and queue one more listing page.
+     */
+    private volatile boolean compromiseOnDetails;
+
+    @Before
+    public void setUp() throws Exception {
+        fixture = new PageScrapeFixture(NAME);
+        fixture.writeFiles(NAME, Collections.singletonList("page-1"));
+        context = fixture.createContext(NAME);
+        scheduler = new PageScheduler(context) {
+            @Override
+            protected Page scrapeDetailsPage(final String link) {
+                if (compromiseOnDetails) {
+                    getHostCircuitBreakers().markCompromised(link);
+                    context.getLinksQueue().add("page-2");
+                }
+                return super.scrapeDetailsPage(link);
+            }
+        };
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        fixture.delete();
+    }
+
+    @Test
+    public void testIterationsShareTheContextAndPools() throws Exception {
+        final ScrapeSession<Page> session = new ScrapeSession<>(scheduler);
+
+        final ScrapeResult first = session.runIteration();
+        assertThat(first.getScrapeSize()).isEqualTo(1);
+        assertThat(first.getQueueSize()).isEqualTo(0);
+        assertThat(scheduler.getWorkGeneratingScrapingThreadPool().isShutdown()).isFalse();
+
+        context.getLinksQueue().add("page-2");
+        final ScrapeResult second = session.runIteration();
+        assertThat(second.getScrapeSize()).isEqualTo(2);
+        assertThat(session.getIterationCount()).isEqualTo(2);
+        assertThat(FileUtils.readLines(fixture.getFile(NAME, "visited"), "UTF-8").size()).isEqualTo(4);
+
+        session.close();
+        assertThat(scheduler.getWorkGeneratingScrapingThreadPool().isShutdown()).isTrue();
+    }
+
+    @Test
+    public void testCompromisedScraperEndsTheIteration() throws Exception {
+        compromiseOnDetails = true;
+
+        final ScrapeResult result = scheduler.doScrape();
+
+        assertThat(scheduler.getHostCircuitBreakers().isCompromised()).isTrue();
+        assertThat(result.getQueueSize()).isEqualTo(1);
+        assertThat(context.getLinksQueue().isVisited("page-2")).isFalse();
+    }
+
+    @Test
+    public void testNewSessionGoesOnAfterACompromisedIterationShutTheSchedulerDown() throws Exception {
+        compromiseOnDetails = true;
+        final ScrapeSession<Page> session = new ScrapeSession<>(scheduler);
+        session.runIteration();
+        assertThat(session.canRunIteration()).isFalse();
+        session.close();
+
+        final ScrapeSession<Page> next = new ScrapeSession<>(new PageScheduler(fixture.createContext(NAME)));
+        final ScrapeResult result = next.runIteration();
+        next.close();
+
+        assertThat(result.getQueueSize()).isEqualTo(0);
+        assertThat(result.getScrapeSize()).isEqualTo(2);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testClosedSessionDoesNotRunIterations() {
+        final ScrapeSession<Page> session = new ScrapeSession<>(scheduler);
+        session.close();
+        session.runIteration();
+    }
+}
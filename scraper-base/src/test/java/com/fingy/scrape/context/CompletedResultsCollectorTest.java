@@ -0,0 +1,129 @@
+package com.fingy.scrape.context;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.io.File;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Test;
+
+public class CompletedResultsCollectorTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(2);
+    private final ExecutorCompletionService<String> completionService = new ExecutorCompletionService<>(executor);
+    private final List<String> collected = new CopyOnWriteArrayList<>();
+    private final CountDownLatch firstCollected = new CountDownLatch(1);
+
+    private final CompletedResultsCollector<String> collector = new CompletedResultsCollector<>(completionService,
+            new ScrapedItemSink<String>() {
+                @Override
+                public void addScrapedItem(final String item) {
+                    collected.add(item);
+                    firstCollected.countDown();
+                }
+            });
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testResultsReachTheSinkWhileTasksAreStillRunning() throws Exception {
+        final CountDownLatch release = new CountDownLatch(1);
+        collector.start();
+        completionService.submit(returning("fast"));
+        completionService.submit(new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                release.await();
+                return "slow";
+            }
+        });
+
+        assertThat(firstCollected.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(collected).containsOnly("fast");
+
+        release.countDown();
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+        collector.finish();
+        assertThat(collected).containsOnly("fast", "slow");
+    }
+
+    @Test
+    public void testFailedTaskDoesNotDropTheOtherResults() throws Exception {
+        completionService.submit(new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                throw new IllegalStateException("page could not be parsed");
+            }
+        });
+        completionService.submit(returning("a"));
+        completionService.submit(returning("b"));
+        executor.shutdown();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+
+        collector.finish();
+        assertThat(collected).containsOnly("a", "b");
+        assertThat(collector.getCollectedCount()).isEqualTo(2);
+        assertThat(collector.getFailedCount()).isEqualTo(1);
+    }
+
+    @Test
+    public void testContextCanBeSavedWhileResultsAreCollected() throws Exception {
+        final File directory = File.createTempFile("collector", "");
+        directory.delete();
+        directory.mkdirs();
+        try {
+            final ScrapeContext context = new ScrapeContext(new File(directory, "details.txt").getPath(),
+                    new File(directory, "visited.txt").getPath(), new File(directory, "queued.txt").getPath(),
+                    new DetailsLoader<String>() {
+                        @Override
+                        public String loadFromCSVLine(final String line) {
+                            return line;
+                        }
+                    });
+            final CompletedResultsCollector<String> contextCollector = new CompletedResultsCollector<>(completionService, context);
+            final int itemCount = 20000;
+            contextCollector.start();
+            final Thread submitter = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < itemCount; i++) {
+                        completionService.submit(returning("item " + i));
+                    }
+                    executor.shutdown();
+                }
+            });
+            submitter.start();
+            while (!executor.isTerminated() || context.getScrapedItemsSize() < itemCount) {
+                context.save();
+            }
+            contextCollector.finish();
+            context.save();
+
+            assertThat(FileUtils.readLines(new File(directory, "details.txt"), "UTF-8").size()).isEqualTo(itemCount);
+        } finally {
+            FileUtils.deleteDirectory(directory);
+        }
+    }
+
+    private static Callable<String> returning(final String result) {
+        return new Callable<String>() {
+            @Override
+            public String call() {
+                return result;
+            }
+        };
+    }
+}
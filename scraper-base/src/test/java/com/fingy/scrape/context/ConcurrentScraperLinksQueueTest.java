@@ -0,0 +1,114 @@
+package com.fingy.scrape.context;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class ConcurrentScraperLinksQueueTest {
+
+    private final ConcurrentScraperLinksQueue linksQueue = new ConcurrentScraperLinksQueue();
+
+    @Test
+    public void testLinksAreTakenInInsertionOrderWithoutDuplicates() throws Exception {
+        linksQueue.add("a");
+        linksQueue.add("b");
+        linksQueue.add("a");
+        linksQueue.markVisited("c");
+        assertThat(linksQueue.addAllIfNotVisited(Arrays.asList("b", "c", "d"))).isEqualTo(1);
+
+        assertThat(linksQueue.getSize()).isEqualTo(3);
+        assertThat(linksQueue.take()).isEqualTo("a");
+        assertThat(linksQueue.take()).isEqualTo("b");
+        assertThat(linksQueue.take()).isEqualTo("d");
+        assertThat(linksQueue.isEmpty()).isTrue();
+    }
+
+    @Test
+    public void testDelayedIsEmptyWakesUpWhenLinkIsAdded() throws Exception {
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+        executor.schedule(new Runnable() {
+            @Override
+            public void run() {
+                linksQueue.addIfNotVisited("a");
+            }
+        }, 100, TimeUnit.MILLISECONDS);
+        executor.shutdown();
+
+        assertThat(linksQueue.delayedIsEmpty(10000)).isFalse();
+        assertThat(linksQueue.take(0)).isEqualTo("a");
+        assertThat(linksQueue.take(0)).isNull();
+    }
+
+    @Test
+    public void testAwaitLinksReturnsOnlyWhenQueueIsEmptyAndNoTaskIsInFlight() throws Exception {
+        assertThat(linksQueue.awaitLinksWhileTasksInFlight()).isFalse();
+
+        linksQueue.taskSubmitted();
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor();
+        executor.schedule(new Runnable() {
+            @Override
+            public void run() {
+                linksQueue.addIfNotVisited("a");
+                linksQueue.taskFinished();
+            }
+        }, 100, TimeUnit.MILLISECONDS);
+
+        assertThat(linksQueue.awaitLinksWhileTasksInFlight()).isTrue();
+        assertThat(linksQueue.take()).isEqualTo("a");
+
+        linksQueue.taskSubmitted();
+        executor.schedule(new Runnable() {
+            @Override
+            public void run() {
+                linksQueue.taskFinished();
+            }
+        }, 100, TimeUnit.MILLISECONDS);
+        executor.shutdown();
+
+        assertThat(linksQueue.awaitLinksWhileTasksInFlight()).isFalse();
+        assertThat(linksQueue.getInFlightTaskCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void testEveryLinkIsTakenOnceByConcurrentTakers() throws Exception {
+        final int takers = 8;
+        final int links = 10000;
+        final Set<String> taken = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+        final CountDownLatch allTaken = new CountDownLatch(links);
+
+        ExecutorService executor = Executors.newFixedThreadPool(takers);
+        for (int i = 0; i < takers; i++) {
+            executor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        while (true) {
+                            taken.add(linksQueue.take());
+                            allTaken.countDown();
+                        }
+                    } catch (InterruptedException ignored) {
+                    }
+                }
+            });
+        }
+
+        for (int i = 0; i < links; i++) {
+            linksQueue.addIfNotVisited("link" + i);
+        }
+
+        assertThat(allTaken.await(10, TimeUnit.SECONDS)).isTrue();
+        executor.shutdownNow();
+        assertThat(taken).hasSize(links);
+    }
+
+}
@@ -0,0 +1,96 @@
+package com.fingy.scrape.context;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class FingerprintLinkSetTest {
+
+    private final FingerprintLinkSet linkSet = new FingerprintLinkSet();
+
+    @Test
+    public void testAddedLinksAreContainedOnce() {
+        assertThat(linkSet.add("http://www.example.com/a")).isTrue();
+        assertThat(linkSet.add("http://www.example.com/a")).isFalse();
+
+        assertThat(linkSet.contains("http://www.example.com/a")).isTrue();
+        assertThat(linkSet.contains("http://www.example.com/b")).isFalse();
+        assertThat(linkSet.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void testEquivalentLinksShareAFingerprint() {
+        linkSet.add("http://www.example.com/a");
+
+        assertThat(linkSet.contains("HTTP://WWW.Example.com:80/a#top")).isTrue();
+        assertThat(linkSet.contains("http://www.example.com/A")).isFalse();
+    }
+
+    @Test
+    public void testGrowsPastInitialCapacity() {
+        final int linkCount = 100000;
+        for (int i = 0; i < linkCount; i++) {
+            linkSet.add("http://www.example.com/item?id=" + i);
+        }
+
+        assertThat(linkSet.size()).isEqualTo(linkCount);
+        for (int i = 0; i < linkCount; i++) {
+            assertThat(linkSet.contains("http://www.example.com/item?id=" + i)).isTrue();
+        }
+        assertThat(linkSet.contains("http://www.example.com/item?id=" + linkCount)).isFalse();
+    }
+
+    @Test
+    public void testRemovedLinksAreNoLongerContained() {
+        final int linkCount = 5000;
+        for (int i = 0; i < linkCount; i++) {
+            linkSet.add("http://www.example.com/item?id=" + i);
+        }
+        for (int i = 0; i < linkCount; i += 2) {
+            assertThat(linkSet.remove("http://www.example.com/item?id=" + i)).isTrue();
+        }
+
+        assertThat(linkSet.size()).isEqualTo(linkCount / 2);
+        for (int i = 0; i < linkCount; i++) {
+            assertThat(linkSet.contains("http://www.example.com/item?id=" + i)).isEqualTo(i % 2 == 1);
+        }
+        assertThat(linkSet.remove("http://www.example.com/item?id=0")).isFalse();
+    }
+
+    @Test
+    public void testCollidingLinksAreKeptApart() {
+        final FingerprintLinkSet collidingSet = new FingerprintLinkSet(0x7L);
+        final int linkCount = 200;
+        for (int i = 0; i < linkCount; i++) {
+            assertThat(collidingSet.add("http://www.example.com/item?id=" + i)).isTrue();
+        }
+        assertThat(collidingSet.add("http://www.example.com/item?id=7")).isFalse();
+        assertThat(collidingSet.size()).isEqualTo(linkCount);
+        assertThat(collidingSet.contains("http://www.example.com/item?id=" + linkCount)).isFalse();
+
+        for (int i = 0; i < linkCount; i += 2) {
+            assertThat(collidingSet.remove("http://www.example.com/item?id=" + i)).isTrue();
+        }
+        assertThat(collidingSet.size()).isEqualTo(linkCount / 2);
+        for (int i = 0; i < linkCount; i++) {
+            assertThat(collidingSet.contains("http://www.example.com/item?id=" + i)).isEqualTo(i % 2 == 1);
+        }
+    }
+
+    @Test
+    public void testCompactStoreOnlyKeepsLinksToPersist() {
+        final FingerprintVisitedLinksStore store = new FingerprintVisitedLinksStore();
+        store.restore("http://www.example.com/a");
+        store.add("http://www.example.com/a");
+        store.add("http://www.example.com/b");
+
+        assertThat(store.size()).isEqualTo(2);
+        assertThat(store.getLinks()).containsOnly("http://www.example.com/b");
+
+        store.markPersisted(Arrays.asList("http://www.example.com/b"));
+        assertThat(store.getLinks()).isEmpty();
+        assertThat(store.contains("http://www.example.com/b")).isTrue();
+    }
+}
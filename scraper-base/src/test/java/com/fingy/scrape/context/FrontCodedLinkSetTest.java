@@ -0,0 +1,95 @@
+package com.fingy.scrape.context;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.TreeSet;
+
+import org.junit.Test;
+
+public class FrontCodedLinkSetTest {
+
+    private final FrontCodedLinkSet linkSet = new FrontCodedLinkSet();
+
+    @Test
+    public void testLinksAreFoundAcrossMerges() {
+        final TreeSet<String> expected = new TreeSet<>();
+        for (int i = 0; i < 20000; i++) {
+            final String link = "http://www.mouseprice.com/house-prices/" + (i * 7919 % 20000);
+            assertThat(linkSet.add(link)).isTrue();
+            expected.add(link);
+        }
+
+        assertThat(linkSet.add("http://www.mouseprice.com/house-prices/42")).isFalse();
+        assertThat(linkSet.size()).isEqualTo(20000);
+        for (String link : expected) {
+            assertThat(linkSet.contains(link)).isTrue();
+        }
+        assertThat(linkSet.contains("http://www.mouseprice.com/house-prices/20000")).isFalse();
+        assertThat(linkSet.contains("http://www.city-data.com/")).isFalse();
+    }
+
+    @Test
+    public void testIteratesInSortedOrder() {
+        linkSet.add("http://www.city-data.com/aircraft/air-b");
+        linkSet.add("http://www.city-data.com/aircraft/air-a");
+        linkSet.compact();
+        linkSet.add("http://www.city-data.com/aircraft/air-ab");
+        linkSet.add("http://www.city-data.com/aircraft/ä");
+
+        final List<String> links = new ArrayList<>(linkSet);
+        assertThat(links).isEqualTo(new ArrayList<>(new TreeSet<>(links)));
+        assertThat(links).hasSize(4);
+    }
+
+    @Test
+    public void testLinksStayVisibleWhileMergingConcurrently() throws Exception {
+        final FrontCodedLinkSet smallBufferSet = new FrontCodedLinkSet(4096);
+        final int threadCount = 4;
+        final int linksPerThread = 5000;
+        final List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < threadCount; t++) {
+            final int thread = t;
+            threads.add(new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < linksPerThread; i++) {
+                        final String link = "http://www.mouseprice.com/house-prices/" + thread + "/" + i;
+                        smallBufferSet.add(link);
+                        if (!smallBufferSet.contains(link)) {
+                            throw new AssertionError("Lost " + link);
+                        }
+                    }
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertThat(smallBufferSet.size()).isEqualTo(threadCount * linksPerThread);
+        final List<String> links = new ArrayList<>(smallBufferSet);
+        assertThat(links).isEqualTo(new ArrayList<>(new TreeSet<>(links)));
+        assertThat(links.size()).isEqualTo(threadCount * linksPerThread);
+    }
+
+    @Test
+    public void testQueuesUseTheSetWhenFlagged() {
+        System.setProperty(InMemoryVisitedLinksStore.FRONT_CODED_PROPERTY, "true");
+        try {
+            final ScraperLinksQueue linksQueue = new SynchronizedScraperLinksQueue();
+            linksQueue.markVisited("http://www.city-data.com/b");
+            linksQueue.markVisited("http://www.city-data.com/a");
+
+            assertThat(new ArrayList<>(linksQueue.getVisitedLinks())).isEqualTo(
+                    Arrays.asList("http://www.city-data.com/a", "http://www.city-data.com/b"));
+        } finally {
+            System.clearProperty(InMemoryVisitedLinksStore.FRONT_CODED_PROPERTY);
+        }
+    }
+}
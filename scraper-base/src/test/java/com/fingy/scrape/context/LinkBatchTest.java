@@ -0,0 +1,37 @@
+package com.fingy.scrape.context;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+public class LinkBatchTest {
+
+    @Test
+    public void testFlushQueuesLinksOnceAsSpelledAndSkipsVisitedOnes() {
+        final ScraperLinksQueue linksQueue = new SynchronizedScraperLinksQueue();
+        linksQueue.markVisited("http://example.com/visited");
+
+        final LinkBatch batch = new LinkBatch(linksQueue);
+        batch.add("");
+        batch.add("http://example.com/a");
+        batch.add("http://EXAMPLE.com/a");
+        batch.add("http://example.com/visited");
+        batch.add("http://example.com/a");
+        assertThat(batch.size()).isEqualTo(4);
+        assertThat(linksQueue.getSize()).isEqualTo(0);
+
+        assertThat(batch.flush()).isEqualTo(3);
+        assertThat(batch.size()).isEqualTo(0);
+        assertThat(Arrays.asList(linksQueue.getQueuedLinks().toArray())).isEqualTo(
+                Arrays.<Object> asList("", "http://example.com/a", "http://EXAMPLE.com/a"));
+    }
+
+    @Test
+    public void testEmptyFlushLeavesTheQueueAlone() {
+        final ScraperLinksQueue linksQueue = new SynchronizedScraperLinksQueue();
+        assertThat(new LinkBatch(linksQueue).flush()).isEqualTo(0);
+        assertThat(linksQueue.isEmpty()).isTrue();
+    }
+}
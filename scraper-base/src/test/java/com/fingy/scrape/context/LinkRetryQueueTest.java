@@ -0,0 +1,103 @@
+package com.fingy.scrape.context;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.io.File;
+import java.net.SocketTimeoutException;
+
+import org.apache.commons.io.FileUtils;
+import org.jsoup.HttpStatusException;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.fingy.concurrent.BackoffPolicy;
+import com.fingy.scrape.exception.ScrapeException;
+
+public class LinkRetryQueueTest {
+
+    private static final String LINK = "http://example.com/failing";
+
+    private final ScraperLinksQueue linksQueue = new SynchronizedScraperLinksQueue();
+    private File deadLetterFile;
+    private LinkRetryQueue retryQueue;
+
+    @Before
+    public void setUp() throws Exception {
+        deadLetterFile = File.createTempFile("links", ".failed");
+        deadLetterFile.delete();
+        retryQueue = new LinkRetryQueue(linksQueue, new BackoffPolicy(100, 400, 3), deadLetterFile);
+        linksQueue.setRetryQueue(retryQueue);
+    }
+
+    @After
+    public void tearDown() {
+        retryQueue.cancelAll();
+        deadLetterFile.delete();
+    }
+
+    @Test
+    public void testFailedLinkIsQueuedAgainAfterABackoff() throws Exception {
+        linksQueue.linkFailed(LINK, new ScrapeException(new SocketTimeoutException("timed out")));
+
+        assertThat(linksQueue.getInFlightTaskCount()).isEqualTo(1);
+        assertThat(linksQueue.awaitLinksWhileTasksInFlight()).isTrue();
+        assertThat(linksQueue.take()).isEqualTo(LINK);
+        assertThat(retryQueue.getRetryCount(LINK)).isEqualTo(1);
+        assertThat(linksQueue.awaitLinksWhileTasksInFlight()).isFalse();
+        assertThat(linksQueue.getInFlightTaskCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void testLinkIsDeadLetteredOnceItUsedUpItsAttempts() throws Exception {
+        for (int attempt = 1; attempt < 3; attempt++) {
+            linksQueue.linkFailed(LINK, new HttpStatusException("attempt " + attempt, 503, LINK));
+            assertThat(linksQueue.awaitLinksWhileTasksInFlight()).isTrue();
+            linksQueue.take();
+        }
+        linksQueue.linkFailed(LINK, new SocketTimeoutException("attempt 3"));
+
+        assertThat(linksQueue.awaitLinksWhileTasksInFlight()).isFalse();
+        assertThat(linksQueue.isEmpty()).isTrue();
+        assertThat(FileUtils.readFileToString(deadLetterFile, "UTF-8")).contains(LINK + "\tjava.net.SocketTimeoutException: attempt 3");
+    }
+
+    @Test
+    public void testPermanentFailureIsDeadLetteredWithoutARetry() throws Exception {
+        linksQueue.linkFailed(LINK, new ScrapeException("no contact details on the page"));
+
+        assertThat(linksQueue.getInFlightTaskCount()).isEqualTo(0);
+        assertThat(retryQueue.getPendingRetryCount()).isEqualTo(0);
+        assertThat(FileUtils.readFileToString(deadLetterFile, "UTF-8")).contains(LINK + "\tcom.fingy.scrape.exception.ScrapeException");
+    }
+
+    @Test
+    public void testOnlyTimeoutsAndHostFailuresAreTransient() {
+        assertThat(LinkRetryQueue.isTransient(new ScrapeException(new SocketTimeoutException()))).isTrue();
+        assertThat(LinkRetryQueue.isTransient(new HttpStatusException("busy", 429, LINK))).isTrue();
+        assertThat(LinkRetryQueue.isTransient(new HttpStatusException("gone", 404, LINK))).isFalse();
+        assertThat(LinkRetryQueue.isTransient(new ScrapeException(new IllegalStateException("parse error")))).isFalse();
+    }
+
+    @Test
+    public void testVisitedLinkIsNotRetried() {
+        linksQueue.markVisited(LINK);
+        linksQueue.linkFailed(LINK, new SocketTimeoutException("parsed twice"));
+
+        assertThat(linksQueue.getInFlightTaskCount()).isEqualTo(0);
+        assertThat(retryQueue.getPendingRetryCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void testBackoffGrowsWithJitterUpToTheMaximum() {
+        final BackoffPolicy backoffPolicy = new BackoffPolicy(100, 1000, 10);
+        for (int i = 0; i < 20; i++) {
+            final long first = backoffPolicy.getDelayMillis(1);
+            final long third = backoffPolicy.getDelayMillis(3);
+            final long tenth = backoffPolicy.getDelayMillis(10);
+            assertThat(first >= 50 && first <= 100).isTrue();
+            assertThat(third >= 200 && third <= 400).isTrue();
+            assertThat(tenth >= 500 && tenth <= 1000).isTrue();
+        }
+    }
+}
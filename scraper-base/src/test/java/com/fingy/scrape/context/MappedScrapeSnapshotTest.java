@@ -0,0 +1,102 @@
+package com.fingy.scrape.context;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.io.File;
+import java.util.Arrays;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MappedScrapeSnapshotTest {
+
+    private static final DetailsLoader<String> LINE_LOADER = new DetailsLoader<String>() {
+        @Override
+        public String loadFromCSVLine(final String line) {
+            return line;
+        }
+    };
+
+    private File directory;
+    private File snapshotFile;
+
+    @Before
+    public void setUp() throws Exception {
+        directory = File.createTempFile("snapshot", "");
+        directory.delete();
+        directory.mkdirs();
+        snapshotFile = new File(directory, "state.snapshot");
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        FileUtils.deleteDirectory(directory);
+    }
+
+    @Test
+    public void testTextFilesSurviveImportAndExport() throws Exception {
+        final File details = new File(directory, "details.csv");
+        final File visited = new File(directory, "visited.txt");
+        final File queued = new File(directory, "queued.txt");
+        FileUtils.writeLines(details, "UTF-8", Arrays.asList("žluťoučký,kůň", "second,item"));
+        FileUtils.writeLines(visited, "UTF-8", Arrays.asList("http://www.example.com/c", "http://www.example.com/a"));
+        FileUtils.writeLines(queued, "UTF-8", Arrays.asList("http://www.example.com/q"));
+
+        MappedScrapeSnapshot.importTextFiles(details, visited, queued, snapshotFile);
+        final MappedScrapeSnapshot snapshot = MappedScrapeSnapshot.open(snapshotFile);
+
+        assertThat(snapshot.getDetailsLines()).isEqualTo(Arrays.asList("žluťoučký,kůň", "second,item"));
+        assertThat(snapshot.getVisitedLinks()).isEqualTo(Arrays.asList("http://www.example.com/a", "http://www.example.com/c"));
+        assertThat(snapshot.getQueuedLinks()).isEqualTo(Arrays.asList("http://www.example.com/q"));
+        assertThat(snapshot.isVisited("http://www.example.com/c")).isTrue();
+        assertThat(snapshot.isVisited("http://www.example.com/b")).isFalse();
+
+        snapshot.exportTextFiles(details, visited, queued);
+        assertThat(FileUtils.readLines(visited, "UTF-8")).isEqualTo(Arrays.asList("http://www.example.com/a", "http://www.example.com/c"));
+    }
+
+    @Test
+    public void testContextStateIsSavedToSnapshot() throws Exception {
+        final ScrapeContext context = new ScrapeContext(MappedScrapeSnapshot.open(snapshotFile), LINE_LOADER);
+        context.initialize();
+        context.getLinksQueue().markVisited("http://www.example.com/a");
+        context.getLinksQueue().add("http://www.example.com/b");
+        context.addScrapedItem("item a");
+        context.getNextLinkToScrape();
+        context.save();
+
+        final ScrapeContext restored = new ScrapeContext(MappedScrapeSnapshot.open(snapshotFile), LINE_LOADER);
+        assertThat(restored.getScrapedItemsSize()).isEqualTo(1);
+        assertThat(restored.getLinksQueue().isVisited("http://www.example.com/a")).isTrue();
+        assertThat(restored.getLinksQueue().getVisitedSize()).isEqualTo(1);
+        assertThat(restored.determineQueuedLinks()).containsOnly("http://www.example.com/b");
+    }
+
+    @Test
+    public void testMappedStateIsCarriedOverOnSave() throws Exception {
+        final ScrapeContext context = new ScrapeContext(MappedScrapeSnapshot.open(snapshotFile), LINE_LOADER);
+        context.initialize();
+        context.getLinksQueue().markVisited("http://www.example.com/b");
+        context.getLinksQueue().markVisited("http://www.example.com/d");
+        context.getLinksQueue().add("http://www.example.com/q");
+        context.addScrapedItem("item b");
+        context.save();
+
+        final ScrapeContext restored = new ScrapeContext(MappedScrapeSnapshot.open(snapshotFile), LINE_LOADER);
+        restored.initialize();
+        restored.getLinksQueue().markVisited("http://www.example.com/a");
+        restored.getLinksQueue().markVisited("http://www.example.com/c");
+        restored.getLinksQueue().markVisited("http://www.example.com/q");
+        restored.addScrapedItem("item a");
+        assertThat(restored.getScrapedItemsSize()).isEqualTo(2);
+        restored.save();
+
+        final MappedScrapeSnapshot saved = MappedScrapeSnapshot.open(snapshotFile);
+        assertThat(saved.getDetailsLines()).isEqualTo(Arrays.asList("item b", "item a"));
+        assertThat(saved.getVisitedLinks()).isEqualTo(Arrays.asList("http://www.example.com/a", "http://www.example.com/b",
+                "http://www.example.com/c", "http://www.example.com/d", "http://www.example.com/q"));
+        assertThat(saved.getQueuedLinks().isEmpty()).isTrue();
+    }
+}
@@ -0,0 +1,30 @@
+package com.fingy.scrape.context;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import org.junit.Test;
+
+public class PoliteScraperLinksQueueTest {
+
+    private final PoliteScraperLinksQueue linksQueue = new PoliteScraperLinksQueue(new HostPolitenessPolicy(0, 0)).withPolicyForLinks(
+            new PoliteScraperLinksQueue.LinkMatcher() {
+                @Override
+                public boolean matches(final String link) {
+                    return link.contains("/detail");
+                }
+            }, new HostPolitenessPolicy(60000, 0));
+
+    @Test
+    public void testOnlyLinksMatchingAPolicyDelayTheirHost() throws Exception {
+        linksQueue.add("http://a.test/search-1");
+        linksQueue.add("http://a.test/detail-1");
+        linksQueue.add("http://a.test/search-2");
+        linksQueue.add("http://b.test/search-1");
+
+        assertThat(linksQueue.take(1000)).isEqualTo("http://a.test/search-1");
+        assertThat(linksQueue.take(1000)).isEqualTo("http://b.test/search-1");
+        assertThat(linksQueue.take(1000)).isEqualTo("http://a.test/detail-1");
+        assertThat(linksQueue.take(200)).isNull();
+        assertThat(linksQueue.getSize()).isEqualTo(1);
+    }
+}
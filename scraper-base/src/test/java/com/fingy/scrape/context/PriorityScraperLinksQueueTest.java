@@ -0,0 +1,48 @@
+package com.fingy.scrape.context;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class PriorityScraperLinksQueueTest {
+
+    private final PriorityScraperLinksQueue linksQueue = new PriorityScraperLinksQueue(2);
+
+    @Before
+    public void setUp() {
+        linksQueue.setLinkClassifier(new PriorityScraperLinksQueue.LinkClassifier() {
+            @Override
+            public boolean isDetailsLink(final String link) {
+                return link.startsWith("detail");
+            }
+        });
+    }
+
+    @Test
+    public void testDetailLinksAreTakenBeforeListingLinks() throws Exception {
+        linksQueue.addAllIfNotVisited(Arrays.asList("listing-1", "detail-1", "listing-2", "detail-2"));
+
+        assertThat(linksQueue.take()).isEqualTo("detail-1");
+        assertThat(linksQueue.take()).isEqualTo("detail-2");
+        linksQueue.detailsLinkCompleted();
+        assertThat(linksQueue.take()).isEqualTo("listing-1");
+    }
+
+    @Test
+    public void testListingLinksWaitWhileDetailsAreAboveHighWaterMark() throws Exception {
+        linksQueue.addAllIfNotVisited(Arrays.asList("detail-1", "detail-2", "listing-1"));
+        linksQueue.take();
+        linksQueue.take();
+
+        assertThat(linksQueue.take(50)).isNull();
+        assertThat(linksQueue.delayedIsEmpty(0)).isFalse();
+        assertThat(linksQueue.getOutstandingDetailsLinks()).isEqualTo(2);
+
+        linksQueue.detailsLinkCompleted();
+        assertThat(linksQueue.take(50)).isEqualTo("listing-1");
+        assertThat(linksQueue.isEmpty()).isTrue();
+    }
+}
@@ -0,0 +1,61 @@
+package com.fingy.scrape.context;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.io.File;
+import java.util.Arrays;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ScrapeContextTest {
+
+    private File directory;
+
+    @Before
+    public void setUp() throws Exception {
+        directory = File.createTempFile("context", "");
+        directory.delete();
+        directory.mkdirs();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        FileUtils.deleteDirectory(directory);
+    }
+
+    @Test
+    public void testQueuedLinksAreStreamedIntoTheQueueAndBackOut() throws Exception {
+        final File queuedFile = new File(directory, "queued.txt");
+        FileUtils.writeLines(queuedFile, "UTF-8", Arrays.asList("http://www.example.com/a", "http://www.example.com/b"));
+        FileUtils.writeLines(new File(directory, "visited.txt"), "UTF-8", Arrays.asList("http://www.example.com/b"));
+
+        final ScrapeContext context = createContext();
+        assertThat(context.determineQueuedLinks()).containsOnly("http://www.example.com/a");
+
+        context.initialize();
+        assertThat(context.getLinksQueue().getSize()).isEqualTo(1);
+        final String taken = context.getNextLinkToScrape();
+        context.getLinksQueue().add(taken);
+        context.getLinksQueue().add("http://www.example.com/c");
+        context.getLinksQueue().add("http://www.example.com/d");
+        context.getLinksQueue().markVisited("http://www.example.com/d");
+        context.save();
+
+        assertThat(FileUtils.readLines(queuedFile, "UTF-8")).containsOnly("http://www.example.com/a", "http://www.example.com/c");
+        assertThat(FileUtils.readLines(queuedFile, "UTF-8")).hasSize(2);
+        assertThat(createContext().determineQueuedLinks().size()).isEqualTo(2);
+    }
+
+    private ScrapeContext createContext() {
+        return new ScrapeContext(new File(directory, "details.csv").getPath(), new File(directory, "visited.txt").getPath(),
+                new File(directory, "queued.txt").getPath(), new DetailsLoader<String>() {
+                    @Override
+                    public String loadFromCSVLine(final String line) {
+                        return line;
+                    }
+                });
+    }
+}
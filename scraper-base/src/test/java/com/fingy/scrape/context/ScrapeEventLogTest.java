@@ -0,0 +1,120 @@
+package com.fingy.scrape.context;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ScrapeEventLogTest {
+
+    private File directory;
+
+    @Before
+    public void setUp() throws Exception {
+        directory = File.createTempFile("context", "");
+        directory.delete();
+        directory.mkdirs();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        FileUtils.deleteDirectory(directory);
+    }
+
+    @Test
+    public void testReplayIgnoresPartialLastEvent() throws Exception {
+        final File logFile = new File(directory, "events.log");
+        final ScrapeEventLog eventLog = new ScrapeEventLog(logFile);
+        eventLog.logQueued("http://www.example.com/a");
+        eventLog.logVisited("http://www.example.com/a");
+        eventLog.logResult("multi\nline\\result");
+        eventLog.close();
+        FileUtils.writeStringToFile(logFile, "V\thttp://www.example.com/partial", "UTF-8", true);
+
+        final List<String> events = new ArrayList<>();
+        ScrapeEventLog.replay(logFile, new ScrapeEventLog.EventHandler() {
+            @Override
+            public void linkQueued(final String link) {
+                events.add("queued " + link);
+            }
+
+            @Override
+            public void linkVisited(final String link) {
+                events.add("visited " + link);
+            }
+
+            @Override
+            public void resultScraped(final String csvLine) {
+                events.add("result " + csvLine);
+            }
+        });
+
+        assertThat(events).isEqualTo(
+                Arrays.asList("queued http://www.example.com/a", "visited http://www.example.com/a", "result multi\nline\\result"));
+    }
+
+    @Test
+    public void testContextIsRestoredFromSnapshotAndLog() throws Exception {
+        final ScrapeContext context = createContext();
+        context.initialize();
+        context.getLinksQueue().addIfNotVisited("http://www.example.com/a");
+        context.getLinksQueue().addIfNotVisited("http://www.example.com/b");
+        context.getLinksQueue().markVisited("http://www.example.com/a");
+        context.addScrapedItem("item a");
+        context.checkpoint();
+        context.getLinksQueue().addIfNotVisited("http://www.example.com/c");
+        context.getLinksQueue().markVisited("http://www.example.com/b");
+        context.addScrapedItem("item b");
+        context.close();
+
+        final ScrapeContext restored = createContext();
+        assertThat(restored.getScrapedItemsSize()).isEqualTo(2);
+        assertThat(restored.getLinksQueue().isVisited("http://www.example.com/a")).isTrue();
+        assertThat(restored.getLinksQueue().isVisited("http://www.example.com/b")).isTrue();
+        assertThat(restored.determineQueuedLinks()).containsOnly("http://www.example.com/c");
+        restored.close();
+    }
+
+    @Test
+    public void testCheckpointWhileItemsAreAdded() throws Exception {
+        final ScrapeContext context = createContext();
+        context.initialize();
+        final int itemCount = 20000;
+        final Thread scraper = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < itemCount; i++) {
+                    context.getLinksQueue().addIfNotVisited("http://www.example.com/item?id=" + i);
+                    context.addScrapedItem("item " + i);
+                }
+            }
+        });
+        scraper.start();
+        while (scraper.isAlive()) {
+            context.checkpoint();
+        }
+        context.close();
+
+        final ScrapeContext restored = createContext();
+        assertThat(restored.getScrapedItemsSize()).isEqualTo(itemCount);
+        assertThat(restored.determineQueuedLinks().size()).isEqualTo(itemCount);
+        restored.close();
+    }
+
+    private ScrapeContext createContext() {
+        return new ScrapeContext(new File(directory, "details.csv").getPath(), new File(directory, "visited.txt").getPath(),
+                new File(directory, "queued.txt").getPath(), new DetailsLoader<String>() {
+                    @Override
+                    public String loadFromCSVLine(final String line) {
+                        return line;
+                    }
+                }, new ConcurrentScraperLinksQueue(), new File(directory, "events.log").getPath(), 1000);
+    }
+}
@@ -0,0 +1,155 @@
+package com.fingy.scrape.context;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class ScrapedItemPublisherTest {
+
+    private final ScrapedItemPublisher<Integer> publisher = new ScrapedItemPublisher<>();
+
+    @Test
+    public void testItemsAreOnlyDeliveredAsRequested() throws Exception {
+        final RecordingSubscriber subscriber = new RecordingSubscriber(2);
+        publisher.subscribe(subscriber);
+        final Thread producer = startProducer(5);
+
+        assertThat(subscriber.awaitItems(2)).isTrue();
+        assertThat(awaitBlocked(producer)).isTrue();
+        assertThat(subscriber.items.size()).isEqualTo(2);
+
+        subscriber.subscription.request(3);
+        producer.join(5000);
+        assertThat(producer.isAlive()).isFalse();
+        assertThat(subscriber.items.size()).isEqualTo(5);
+
+        publisher.close();
+        assertThat(subscriber.completed.getCount()).isEqualTo(0L);
+    }
+
+    @Test
+    public void testTheSlowestSubscriberSetsThePace() throws Exception {
+        final RecordingSubscriber fast = new RecordingSubscriber(Long.MAX_VALUE);
+        final RecordingSubscriber slow = new RecordingSubscriber(1);
+        publisher.subscribe(fast);
+        publisher.subscribe(slow);
+        final Thread producer = startProducer(3);
+
+        assertThat(slow.awaitItems(1)).isTrue();
+        assertThat(awaitBlocked(producer)).isTrue();
+        assertThat(fast.items.size()).isEqualTo(1);
+
+        slow.subscription.cancel();
+        producer.join(5000);
+        assertThat(fast.items.size()).isEqualTo(3);
+        assertThat(slow.items.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void testClosingReleasesProducersAndFailsLateSubscribers() throws Exception {
+        final Thread producer = startProducer(1);
+        assertThat(awaitBlocked(producer)).isTrue();
+
+        publisher.closeExceptionally(new CancellationException());
+        producer.join(5000);
+        assertThat(producer.isAlive()).isFalse();
+
+        final RecordingSubscriber late = new RecordingSubscriber(1);
+        publisher.subscribe(late);
+        assertThat(late.failure instanceof CancellationException).isTrue();
+        assertThat(late.items.isEmpty()).isTrue();
+    }
+
+    @Test
+    public void testNonPositiveRequestFailsTheSubscription() {
+        final RecordingSubscriber subscriber = new RecordingSubscriber(0);
+        publisher.subscribe(subscriber);
+        subscriber.subscription.request(0);
+
+        assertThat(subscriber.failure instanceof IllegalArgumentException).isTrue();
+        assertThat(publisher.getSubscriberCount()).isEqualTo(0);
+    }
+
+    private Thread startProducer(final int items) {
+        final Thread producer = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < items; i++) {
+                    publisher.addScrapedItem(i);
+                }
+            }
+        });
+        producer.start();
+        return producer;
+    }
+
+    /**
+     * Waits for the producer to wait for demand; false if it finished instead.
+     */
+    private static boolean awaitBlocked(final Thread producer) {
+        while (producer.isAlive() && producer.getState() != Thread.State.WAITING) {
+            Thread.yield();
+        }
+        return producer.isAlive();
+    }
+
+    private static final class RecordingSubscriber implements Flow.Subscriber<Integer> {
+
+        private final long initialRequest;
+        private final List<Integer> items = new CopyOnWriteArrayList<>();
+        private final CountDownLatch completed = new CountDownLatch(1);
+        private volatile Flow.Subscription subscription;
+        private volatile Throwable failure;
+
+        private RecordingSubscriber(final long initialRequest) {
+            this.initialRequest = initialRequest;
+        }
+
+        @Override
+        public void onSubscribe(final Flow.Subscription subscription) {
+            this.subscription = subscription;
+            if (initialRequest > 0) {
+                subscription.request(initialRequest);
+            }
+        }
+
+        @Override
+        public void onNext(final Integer item) {
+            synchronized (items) {
+                items.add(item);
+                items.notifyAll();
+            }
+        }
+
+        @Override
+        public void onError(final Throwable throwable) {
+            failure = throwable;
+        }
+
+        @Override
+        public void onComplete() {
+            completed.countDown();
+        }
+
+        private boolean awaitItems(final int count) throws InterruptedException {
+            final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            synchronized (items) {
+                while (items.size() < count) {
+                    final long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        return false;
+                    }
+                    TimeUnit.NANOSECONDS.timedWait(items, remaining);
+                }
+                return true;
+            }
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.fingy.scrape.context;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SpillingScraperLinksQueueTest {
+
+    private File spillDirectory;
+    private SpillingScraperLinksQueue linksQueue;
+
+    @Before
+    public void setUp() throws Exception {
+        spillDirectory = File.createTempFile("frontier", "");
+        spillDirectory.delete();
+        linksQueue = new SpillingScraperLinksQueue(3, spillDirectory, 64, new InMemoryVisitedLinksStore(new HashSet<String>()));
+    }
+
+    @After
+    public void tearDown() {
+        for (File file : spillDirectory.listFiles()) {
+            file.delete();
+        }
+        spillDirectory.delete();
+    }
+
+    @Test
+    public void testSpilledLinksAreTakenInInsertionOrder() throws Exception {
+        final List<String> links = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            links.add("http://www.example.com/item?id=" + i);
+        }
+        linksQueue.addAllIfNotVisited(links);
+        linksQueue.add(links.get(10));
+
+        assertThat(linksQueue.getSize()).isEqualTo(50);
+        assertThat(linksQueue.getSpilledSegmentCount()).isGreaterThan(1);
+        assertThat(new ArrayList<>(linksQueue.getQueuedLinks())).isEqualTo(links);
+
+        for (int i = 0; i < 25; i++) {
+            assertThat(linksQueue.take()).isEqualTo(links.get(i));
+        }
+        linksQueue.add("http://www.example.com/late");
+        for (int i = 25; i < 50; i++) {
+            assertThat(linksQueue.take()).isEqualTo(links.get(i));
+        }
+        assertThat(linksQueue.take()).isEqualTo("http://www.example.com/late");
+
+        assertThat(linksQueue.isEmpty()).isTrue();
+        assertThat(linksQueue.getSpilledSegmentCount()).isEqualTo(0);
+        assertThat(spillDirectory.listFiles().length).isEqualTo(0);
+    }
+}
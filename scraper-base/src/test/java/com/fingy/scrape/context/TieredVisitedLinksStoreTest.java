@@ -0,0 +1,98 @@
+package com.fingy.scrape.context;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TieredVisitedLinksStoreTest {
+
+    private File sortedLinksFile;
+
+    @Before
+    public void setUp() throws Exception {
+        sortedLinksFile = File.createTempFile("visited", ".sorted");
+        sortedLinksFile.delete();
+    }
+
+    @After
+    public void tearDown() {
+        sortedLinksFile.delete();
+    }
+
+    @Test
+    public void testLinksAreFoundBeforeAndAfterMerging() throws Exception {
+        final TieredVisitedLinksStore store = new TieredVisitedLinksStore(sortedLinksFile, 1000, 0.01, 10);
+        for (int i = 0; i < 25; i++) {
+            assertThat(store.add("http://www.example.com/item?id=" + i)).isTrue();
+        }
+
+        assertThat(store.add("http://www.example.com/item?id=3")).isFalse();
+        assertThat(store.add("http://WWW.example.com/item?id=24#top")).isFalse();
+        for (int i = 0; i < 25; i++) {
+            assertThat(store.contains("http://www.example.com/item?id=" + i)).isTrue();
+        }
+        assertThat(store.contains("http://www.example.com/item?id=25")).isFalse();
+        assertThat(store.size()).isEqualTo(25);
+        store.close();
+    }
+
+    @Test
+    public void testSortedFileIsReloadedOnStartup() throws Exception {
+        final TieredVisitedLinksStore store = new TieredVisitedLinksStore(sortedLinksFile, 1000);
+        for (int i = 0; i < 300; i++) {
+            store.add("http://www.example.com/item?id=" + i);
+        }
+        store.restore("http://www.example.com/item?id=7");
+        store.close();
+
+        final TieredVisitedLinksStore reloaded = new TieredVisitedLinksStore(sortedLinksFile, 1000);
+        assertThat(reloaded.size()).isEqualTo(300);
+        for (int i = 0; i < 300; i++) {
+            assertThat(reloaded.contains("http://www.example.com/item?id=" + i)).isTrue();
+        }
+        assertThat(reloaded.contains("http://www.example.com/item?id=300")).isFalse();
+        assertThat(reloaded.getLinks()).isEmpty();
+        reloaded.close();
+    }
+
+    @Test
+    public void testNoLinkIsLostWhileMergingConcurrently() throws Exception {
+        final TieredVisitedLinksStore store = new TieredVisitedLinksStore(sortedLinksFile, 100000, 0.01, 50);
+        final int threadCount = 4;
+        final int linksPerThread = 2000;
+        final List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < threadCount; t++) {
+            final int thread = t;
+            threads.add(new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    for (int i = 0; i < linksPerThread; i++) {
+                        store.add("http://www.example.com/item?thread=" + thread + "&id=" + i);
+                    }
+                }
+            }));
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        store.close();
+
+        final TieredVisitedLinksStore reloaded = new TieredVisitedLinksStore(sortedLinksFile, 100000);
+        assertThat(reloaded.size()).isEqualTo(threadCount * linksPerThread);
+        for (int t = 0; t < threadCount; t++) {
+            for (int i = 0; i < linksPerThread; i++) {
+                assertThat(reloaded.contains("http://www.example.com/item?thread=" + t + "&id=" + i)).isTrue();
+            }
+        }
+        reloaded.close();
+    }
+}
@@ -0,0 +1,157 @@
+package com.fingy.scrape.daemon;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.fingy.concurrent.BoundedExecutorService;
+import com.fingy.scrape.AbstractScrapeScheduler;
+import com.fingy.scrape.PageScrapeFixture;
+import com.fingy.scrape.PageScrapeFixture.PageScheduler;
+import com.fingy.scrape.context.ScrapeResult;
+
+public class ScrapeDaemonTest {
+
+    private static final int PAGES_PER_JOB = 10;
+
+    private PageScrapeFixture fixture;
+    private ScrapeDaemon daemon;
+
+    @Before
+    public void setUp() throws Exception {
+        fixture = new PageScrapeFixture("daemon");
+        daemon = new ScrapeDaemon(4, 2);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        daemon.shutdown();
+        fixture.delete();
+    }
+
+    @Test
+    public void testJobsRunTogetherWithinTheirQuotas() throws Exception {
+        final PageJob first = new PageJob("first");
+        final PageJob second = new PageJob("second");
+        final Future<ScrapeResult> firstResult = daemon.submit(first);
+        final Future<ScrapeResult> secondResult = daemon.submit(second);
+
+        assertThat(firstResult.get(10, TimeUnit.SECONDS).getScrapeSize()).isEqualTo(PAGES_PER_JOB);
+        assertThat(secondResult.get(10, TimeUnit.SECONDS).getScrapeSize()).isEqualTo(PAGES_PER_JOB);
+        assertThat(first.peakConcurrentTasks.get()).isEqualTo(2);
+        assertThat(second.peakConcurrentTasks.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void testPoolsOfAJobShareItsQuota() throws Exception {
+        final ExecutorService threads = Executors.newFixedThreadPool(4);
+        final CountDownLatch release = new CountDownLatch(1);
+        final Runnable blockedTask = new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        };
+        try {
+            final ScrapeJobResources resources = new ScrapeJobResources(threads, null, 2);
+            final BoundedExecutorService workGeneratingPool = resources.createThreadPool();
+            final BoundedExecutorService detailsPool = resources.createThreadPool();
+
+            workGeneratingPool.execute(blockedTask);
+            assertThat(detailsPool.isSaturated()).isFalse();
+            detailsPool.execute(blockedTask);
+            assertThat(workGeneratingPool.isSaturated()).isTrue();
+            assertThat(detailsPool.isSaturated()).isTrue();
+
+            release.countDown();
+            detailsPool.awaitFreeSlot();
+        } finally {
+            release.countDown();
+            threads.shutdownNow();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testJobNamesMustBeUnique() throws Exception {
+        daemon.submit(new PageJob("same"));
+        daemon.submit(new PageJob("same"));
+    }
+
+    private final class PageJob implements ScrapeJob {
+
+        private static final int MAX_CONCURRENT_TASKS = 2;
+
+        private final String name;
+        private final AtomicInteger runningTasks = new AtomicInteger();
+        private final AtomicInteger peakConcurrentTasks = new AtomicInteger();
+
+        private PageJob(final String name) {
+            this.name = name;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+        @Override
+        public int getMaxConcurrentTasks() {
+            return MAX_CONCURRENT_TASKS;
+        }
+
+        @Override
+        public AbstractScrapeScheduler<?> createScheduler(final ScrapeJobResources resources) {
+            try {
+                fixture.writeFiles(name, PageScrapeFixture.listingPages(PAGES_PER_JOB));
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+
+            return new PageScheduler(fixture.createContext(name), resources.getThreadPoolFactory()) {
+                @Override
+                protected void scrapeListingPage(final String link) {
+                    runTask();
+                    super.scrapeListingPage(link);
+                }
+            };
+        }
+
+        /**
+         * Holds the task until the job has run as many tasks at once as its quota allows, so the quota is reached whatever the timing.
+         */
+        private void runTask() {
+            final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            synchronized (peakConcurrentTasks) {
+                peakConcurrentTasks.accumulateAndGet(runningTasks.incrementAndGet(), Math::max);
+                peakConcurrentTasks.notifyAll();
+                try {
+                    while (peakConcurrentTasks.get() < MAX_CONCURRENT_TASKS) {
+                        final long remaining = deadline - System.nanoTime();
+                        if (remaining <= 0) {
+                            break;
+                        }
+                        TimeUnit.NANOSECONDS.timedWait(peakConcurrentTasks, remaining);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    runningTasks.decrementAndGet();
+                }
+            }
+        }
+    }
+}
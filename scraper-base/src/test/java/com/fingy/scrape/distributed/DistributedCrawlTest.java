@@ -0,0 +1,201 @@
+package com.fingy.scrape.distributed;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.fingy.scrape.PageScrapeFixture;
+import com.fingy.scrape.PageScrapeFixture.PageScheduler;
+import com.fingy.scrape.context.ScrapeContext;
+import com.fingy.scrape.util.UrlUtil;
+
+public class DistributedCrawlTest {
+
+    private static final int HOSTS = 6;
+    private static final int PAGES_PER_HOST = 10;
+    private static final int WORKERS = 2;
+
+    private final Map<String, Integer> scrapedBy = new ConcurrentHashMap<>();
+    private final Map<String, Integer> scrapeCounts = new ConcurrentHashMap<>();
+
+    private PageScrapeFixture fixture;
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() throws Exception {
+        fixture = new PageScrapeFixture("distributed");
+        executor = Executors.newFixedThreadPool(WORKERS + 1);
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        executor.shutdownNow();
+        fixture.delete();
+    }
+
+    @Test
+    public void testEveryLinkIsScrapedOnceByThePartitionOwningItsHost() throws Exception {
+        crawl();
+
+        assertThat(scrapedBy.size()).isEqualTo(HOSTS * PAGES_PER_HOST);
+        for (Map.Entry<String, Integer> scraped : scrapedBy.entrySet()) {
+            assertThat(scraped.getValue()).isEqualTo(UrlUtil.getHostPartition(scraped.getKey(), WORKERS));
+            assertThat(scrapeCounts.get(scraped.getKey())).isEqualTo(1);
+        }
+        assertThat(scrapedBy.containsValue(0) && scrapedBy.containsValue(1)).isTrue();
+    }
+
+    @Test
+    public void testEachPartitionSavesOnlyItsOwnLinks() throws Exception {
+        crawl();
+
+        for (int partition = 0; partition < WORKERS; partition++) {
+            final List<String> visitedLinks = FileUtils.readLines(fixture.getFile(String.valueOf(partition), "visited"), "UTF-8");
+            assertThat(visitedLinks.size()).isEqualTo(HOSTS * PAGES_PER_HOST / WORKERS);
+            for (String visitedLink : visitedLinks) {
+                assertThat(UrlUtil.getHostPartition(visitedLink, WORKERS)).isEqualTo(partition);
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testPartitionMustBeInRange() {
+        new PartitionedScraperLinksQueue(2, WORKERS, null);
+    }
+
+    @Test
+    public void testVisitedLinkForwardedBackIsNotQueuedAgain() throws Exception {
+        final PartitionedScraperLinksQueue linksQueue = new PartitionedScraperLinksQueue(0, WORKERS, null);
+        final String link = linkOfPartition(0, 0);
+
+        linksQueue.receive(link);
+        assertThat(linksQueue.take()).isEqualTo(link);
+        linksQueue.receive(link);
+        linksQueue.markVisited(link);
+        linksQueue.receive(link);
+        linksQueue.addAllIfNotVisited(Collections.singletonList(link));
+
+        assertThat(linksQueue.isEmpty()).isTrue();
+    }
+
+    @Test
+    public void testForwardedLinksAreForgottenPastTheLimit() {
+        final List<String> forwarded = new ArrayList<>();
+        final PartitionedScraperLinksQueue linksQueue = new PartitionedScraperLinksQueue(0, WORKERS,
+                new PartitionedScraperLinksQueue.LinkForwarder() {
+                    @Override
+                    public void forward(final String link) {
+                        forwarded.add(link);
+                    }
+                }).withMaxForwardedLinks(2);
+        final String first = linkOfPartition(1, 0);
+        final String second = linkOfPartition(1, 1);
+        final String third = linkOfPartition(1, 2);
+
+        linksQueue.addAllIfNotVisited(Arrays.asList(first, second, first));
+        linksQueue.add(third);
+        linksQueue.add(first);
+
+        assertThat(forwarded).containsExactly(first, second, third, first);
+    }
+
+    private void crawl() throws Exception {
+        try (final CrawlCoordinator coordinator = new CrawlCoordinator(0, WORKERS, 20)) {
+            final Future<?> crawl = executor.submit(new Callable<Void>() {
+                @Override
+                public Void call() throws Exception {
+                    coordinator.run(Collections.singletonList(link(0, 0)));
+                    return null;
+                }
+            });
+            final List<Future<?>> workers = new ArrayList<>();
+            for (int partition = 0; partition < WORKERS; partition++) {
+                workers.add(startWorker(coordinator.getPort(), partition));
+            }
+
+            crawl.get(30, TimeUnit.SECONDS);
+            for (Future<?> worker : workers) {
+                worker.get(30, TimeUnit.SECONDS);
+            }
+        }
+    }
+
+    private Future<?> startWorker(final int port, final int partition) throws Exception {
+        final String name = String.valueOf(partition);
+        fixture.writeFiles(name, Collections.<String> emptyList());
+
+        final CrawlWorker worker = new CrawlWorker("127.0.0.1", port, partition, WORKERS);
+        final ScrapeContext context = fixture.createContext(name, worker.getLinksQueue());
+        final HostHoppingScheduler scheduler = new HostHoppingScheduler(context, partition);
+
+        return executor.submit(new Callable<Void>() {
+            @Override
+            public Void call() throws Exception {
+                worker.run(scheduler, context);
+                return null;
+            }
+        });
+    }
+
+    private static String link(final int host, final int page) {
+        return "http://h" + host + ".test/" + page;
+    }
+
+    private static String linkOfPartition(final int partition, final int page) {
+        for (int host = 0;; host++) {
+            if (UrlUtil.getHostPartition(link(host, page), WORKERS) == partition) {
+                return link(host, page);
+            }
+        }
+    }
+
+    /**
+     * Page p of host h links to the next page of the same host and to page p of the next host, which always belongs to the other
+     * partition.
+     */
+    private final class HostHoppingScheduler extends PageScheduler {
+
+        private final int partition;
+
+        private HostHoppingScheduler(final ScrapeContext context, final int partition) {
+            super(context);
+            this.partition = partition;
+        }
+
+        @Override
+        protected void scrapeListingPage(final String link) {
+            scrapedBy.put(link, partition);
+            scrapeCounts.merge(link, 1, Integer::sum);
+
+            final int host = Integer.parseInt(UrlUtil.extractHost(link).substring(1, 2));
+            final int page = Integer.parseInt(link.substring(link.lastIndexOf('/') + 1));
+            final List<String> links = new ArrayList<>();
+            if (page + 1 < PAGES_PER_HOST) {
+                links.add(link(host, page + 1));
+            }
+            links.add(link((host + 1) % HOSTS, page));
+            context.getLinksQueue().addAllIfNotVisited(links);
+            context.getLinksQueue().markVisited(link);
+        }
+
+        @Override
+        protected boolean isDetailsLink(final String link) {
+            return false;
+        }
+    }
+}
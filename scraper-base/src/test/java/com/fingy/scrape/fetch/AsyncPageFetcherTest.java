@@ -0,0 +1,217 @@
+package com.fingy.scrape.fetch;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.util.Collections;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+import org.jsoup.HttpStatusException;
+import org.jsoup.nodes.Document;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.fingy.concurrent.AdaptiveConcurrencyLimit;
+import com.fingy.scrape.exception.ScrapeException;
+import com.fingy.scrape.jsoup.AbstractJsoupScraper;
+import com.fingy.scrape.security.ProxyConstants;
+import com.fingy.scrape.security.util.TorUtil;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+public class AsyncPageFetcherTest {
+
+    private final CountDownLatch slowPageReleased = new CountDownLatch(1);
+    private HttpServer server;
+    private AsyncPageFetcher pageFetcher;
+    private String baseUrl;
+
+    @Before
+    public void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/page", new HttpHandler() {
+            @Override
+            public void handle(final HttpExchange exchange) throws IOException {
+                final String cookie = exchange.getRequestHeaders().getFirst("Cookie");
+                respond(exchange, 200, "<html><head><title>" + cookie + "</title></head><body><a href=\"/next\">next</a></body></html>");
+            }
+        });
+        server.createContext("/slow", new HttpHandler() {
+            @Override
+            public void handle(final HttpExchange exchange) throws IOException {
+                try {
+                    slowPageReleased.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                respond(exchange, 200, "<html><head><title>slow</title></head></html>");
+            }
+        });
+        server.createContext("/missing", new HttpHandler() {
+            @Override
+            public void handle(final HttpExchange exchange) throws IOException {
+                respond(exchange, 404, "not here");
+            }
+        });
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+        pageFetcher = new AsyncPageFetcher(10, 1);
+    }
+
+    @After
+    public void tearDown() {
+        slowPageReleased.countDown();
+        pageFetcher.close();
+        server.stop(0);
+    }
+
+    @Test
+    public void testPageIsFetchedWithCookiesAndParsed() throws Exception {
+        final CompletableFuture<String> title = pageFetcher.fetch(baseUrl + "/page", Collections.singletonMap("session", "42"),
+                new CircuitBreaker(1, 60000), new AsyncPageFetcher.PageParser<String>() {
+                    @Override
+                    public String parse(final Document page) {
+                        return page.title() + " " + page.select("a").first().attr("abs:href");
+                    }
+                });
+
+        assertThat(title.get(5, TimeUnit.SECONDS)).isEqualTo("session=42 " + baseUrl + "/next");
+        assertThat(pageFetcher.getAvailableRequestSlots()).isEqualTo(10);
+    }
+
+    @Test
+    public void testErrorStatusFailsTheScrapeWithTheStatusCode() throws Exception {
+        final TitleScraper scraper = new TitleScraper(baseUrl + "/missing");
+        try {
+            scraper.scrapeAsync(pageFetcher).get(5, TimeUnit.SECONDS);
+            throw new AssertionError("Expected the scrape to fail");
+        } catch (ExecutionException e) {
+            assertThat(e.getCause()).isInstanceOf(ScrapeException.class);
+            assertThat(((HttpStatusException) e.getCause().getCause()).getStatusCode()).isEqualTo(404);
+        }
+        assertThat(scraper.processedException).isInstanceOf(HttpStatusException.class);
+    }
+
+    @Test
+    public void testCloseWaitsForTheOutstandingRequests() throws Exception {
+        final CompletableFuture<String> title = new TitleScraper(baseUrl + "/slow").scrapeAsync(pageFetcher);
+        final Thread closeThread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                pageFetcher.close();
+            }
+        });
+        closeThread.start();
+        while (closeThread.isAlive() && closeThread.getState() != Thread.State.WAITING) {
+            Thread.yield();
+        }
+        assertThat(closeThread.isAlive()).isTrue();
+        assertThat(title.isDone()).isFalse();
+
+        slowPageReleased.countDown();
+        closeThread.join(5000);
+        assertThat(closeThread.isAlive()).isFalse();
+        assertThat(title.isDone()).isTrue();
+        assertThat(title.get()).isEqualTo("slow");
+    }
+
+    @Test
+    public void testScrapeWaitsForRoomUnderItsHostLimit() throws Exception {
+        final HostConcurrencyLimiter limiter = new HostConcurrencyLimiter(1, 1);
+        final AdaptiveConcurrencyLimit hostLimit = limiter.getLimitFor(baseUrl + "/page");
+        hostLimit.acquire();
+
+        final TitleScraper scraper = new TitleScraper(baseUrl + "/page");
+        scraper.withHostConcurrencyLimiter(limiter);
+        final FutureTask<String> scrape = new FutureTask<>(new Callable<String>() {
+            @Override
+            public String call() throws Exception {
+                return scraper.scrapeAsync(pageFetcher).get(5, TimeUnit.SECONDS);
+            }
+        });
+        final Thread scrapeThread = new Thread(scrape);
+        scrapeThread.start();
+        while (scrapeThread.getState() != Thread.State.WAITING) {
+            Thread.yield();
+        }
+        assertThat(scrape.isDone()).isFalse();
+
+        hostLimit.onIgnored();
+        assertThat(scrape.get(5, TimeUnit.SECONDS)).isEqualTo("null");
+        assertThat(hostLimit.getInFlight()).isEqualTo(0);
+    }
+
+    @Test
+    public void testPagesGoThroughTheSocksProxyWhileOneIsSet() throws Exception {
+        final CountDownLatch proxyConnected = new CountDownLatch(1);
+        try (ServerSocket proxy = new ServerSocket(0, 0, InetAddress.getLoopbackAddress())) {
+            final Thread proxyThread = new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        while (true) {
+                            proxy.accept().close();
+                            proxyConnected.countDown();
+                        }
+                    } catch (IOException e) {
+                    }
+                }
+            });
+            proxyThread.start();
+            System.setProperty(ProxyConstants.SOCKS_PROXY_HOST_PROPERTY_NAME, "127.0.0.1");
+            System.setProperty(ProxyConstants.SOCKS_PROXY_PORT_PROPERTY_NAME, String.valueOf(proxy.getLocalPort()));
+            try {
+                final TitleScraper scraper = new TitleScraper("http://socks-only.test/page");
+                try {
+                    scraper.scrapeAsync(pageFetcher).get(5, TimeUnit.SECONDS);
+                    throw new AssertionError("Expected the scrape to fail");
+                } catch (ExecutionException e) {
+                    assertThat(e.getCause()).isInstanceOf(ScrapeException.class);
+                }
+            } finally {
+                TorUtil.disableSocksProxy();
+            }
+            assertThat(proxyConnected.await(5, TimeUnit.SECONDS)).isTrue();
+        }
+        assertThat(pageFetcher.getAvailableRequestSlots()).isEqualTo(10);
+    }
+
+    private static void respond(final HttpExchange exchange, final int status, final String body) throws IOException {
+        final byte[] bytes = body.getBytes("UTF-8");
+        exchange.getResponseHeaders().add("Content-Type", "text/html; charset=UTF-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(bytes);
+        }
+    }
+
+    private static class TitleScraper extends AbstractJsoupScraper<String> {
+
+        private volatile Exception processedException;
+
+        public TitleScraper(final String scrapeUrl) {
+            super(scrapeUrl);
+        }
+
+        @Override
+        protected String scrapePage(final Document page) {
+            return page.title();
+        }
+
+        @Override
+        protected void processException(final Exception e) {
+            processedException = e;
+        }
+    }
+}
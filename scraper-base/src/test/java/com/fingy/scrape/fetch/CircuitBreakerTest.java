@@ -0,0 +1,77 @@
+package com.fingy.scrape.fetch;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.net.SocketTimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import org.jsoup.HttpStatusException;
+import org.junit.Test;
+
+public class CircuitBreakerTest {
+
+    private final AtomicLong nowMillis = new AtomicLong();
+
+    @Test
+    public void testBreakerOpensAfterConsecutiveFailuresAndProbesAfterCoolDown() {
+        final CircuitBreaker breaker = createBreaker(2, 100);
+        breaker.recordFailure();
+        assertThat(breaker.allowRequest()).isTrue();
+        breaker.recordFailure();
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.allowRequest()).isFalse();
+
+        nowMillis.addAndGet(99);
+        assertThat(breaker.allowRequest()).isFalse();
+        assertThat(breaker.getRemainingCoolDownMillis()).isEqualTo(1L);
+
+        nowMillis.addAndGet(1);
+        assertThat(breaker.allowRequest()).isTrue();
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        assertThat(breaker.allowRequest()).isFalse();
+
+        breaker.recordSuccess();
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(breaker.allowRequest()).isTrue();
+    }
+
+    @Test
+    public void testFailedProbeStartsANewCoolDown() {
+        final CircuitBreaker breaker = createBreaker(5, 100);
+        breaker.trip();
+        nowMillis.addAndGet(150);
+        assertThat(breaker.allowRequest()).isTrue();
+
+        breaker.recordFailure();
+        assertThat(breaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.getRemainingCoolDownMillis()).isEqualTo(100L);
+    }
+
+    @Test
+    public void testOnlyTheFailingHostIsPaused() {
+        final HostCircuitBreakers breakers = new HostCircuitBreakers(1, 60000);
+        HostCircuitBreakers.recordOutcome(breakers.getBreakerFor("http://failing.com/a"), new SocketTimeoutException());
+
+        assertThat(breakers.getBreakerFor("http://failing.com/b").allowRequest()).isFalse();
+        assertThat(breakers.getBreakerFor("http://other.com/a").allowRequest()).isTrue();
+        assertThat(breakers.getDelayBeforeRequestMillis("http://failing.com/c", 1000) > 0).isTrue();
+        assertThat(breakers.getDelayBeforeRequestMillis("http://other.com/c", 1000)).isEqualTo(0L);
+    }
+
+    @Test
+    public void testMissingPageDoesNotCountAsHostFailure() {
+        assertThat(HostCircuitBreakers.isHostFailure(new HttpStatusException("Not found", 404, "http://a.com"))).isFalse();
+        assertThat(HostCircuitBreakers.isHostFailure(new HttpStatusException("Too many", 429, "http://a.com"))).isTrue();
+        assertThat(HostCircuitBreakers.isHostFailure(new HttpStatusException("Unavailable", 503, "http://a.com"))).isTrue();
+    }
+
+    private CircuitBreaker createBreaker(final int failureThreshold, final long coolDownMillis) {
+        return new CircuitBreaker(failureThreshold, coolDownMillis, new LongSupplier() {
+            @Override
+            public long getAsLong() {
+                return nowMillis.get();
+            }
+        });
+    }
+}
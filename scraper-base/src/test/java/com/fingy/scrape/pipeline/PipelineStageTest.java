@@ -0,0 +1,111 @@
+package com.fingy.scrape.pipeline;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.fingy.concurrent.ExecutorTaskListener;
+
+public class PipelineStageTest {
+
+    private final List<String> persisted = new CopyOnWriteArrayList<>();
+    private final AtomicInteger finishedItems = new AtomicInteger();
+
+    private final PipelineStage<String, Integer> parseStage = new PipelineStage<>("parse", 2, 10, new StageHandler<String, Integer>() {
+        @Override
+        public Integer handle(final String item) {
+            return Integer.valueOf(item);
+        }
+    });
+    private final PipelineStage<Integer, Object> persistStage = new PipelineStage<>("persist", 1, 10, new StageHandler<Integer, Object>() {
+        @Override
+        public Object handle(final Integer item) {
+            persisted.add("item-" + item);
+            return null;
+        }
+    });
+
+    @Test
+    public void testItemsGoThroughEveryStageAndFailuresAreCounted() throws Exception {
+        final ExecutorTaskListener listener = new ExecutorTaskListener() {
+            @Override
+            public void taskSubmitted() {
+            }
+
+            @Override
+            public void taskFinished() {
+                finishedItems.incrementAndGet();
+            }
+        };
+        parseStage.setNextStage(persistStage);
+        parseStage.setTaskListener(listener);
+        persistStage.setTaskListener(listener);
+        parseStage.start();
+        persistStage.start();
+
+        parseStage.put("1");
+        parseStage.put("not a number");
+        parseStage.put("3");
+
+        assertThat(parseStage.stopAndAwaitTermination(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(persistStage.stopAndAwaitTermination(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(persisted).containsOnly("item-1", "item-3");
+        assertThat(finishedItems.get()).isEqualTo(3);
+        assertThat(parseStage.getMetrics().getHandledCount()).isEqualTo(2L);
+        assertThat(parseStage.getMetrics().getFailedCount()).isEqualTo(1L);
+        assertThat(persistStage.getMetrics().getHandledCount()).isEqualTo(2L);
+        assertThat(persistStage.getMetrics().getQueueDepth()).isEqualTo(0);
+    }
+
+    @Test
+    public void testStoppingNowReleasesQueuedAndLaterItems() throws Exception {
+        final CountDownLatch handling = new CountDownLatch(1);
+        final CountDownLatch released = new CountDownLatch(5);
+        final PipelineStage<String, Object> fetchStage = new PipelineStage<>("fetch", 1, 10, new StageHandler<String, Object>() {
+            @Override
+            public Object handle(final String item) throws InterruptedException {
+                handling.countDown();
+                new CountDownLatch(1).await();
+                return item;
+            }
+        });
+        fetchStage.setTaskListener(new ExecutorTaskListener() {
+            @Override
+            public void taskSubmitted() {
+            }
+
+            @Override
+            public void taskFinished() {
+                released.countDown();
+            }
+        });
+        fetchStage.start();
+        for (int i = 0; i < 4; i++) {
+            fetchStage.put("page-" + i);
+        }
+        assertThat(handling.await(5, TimeUnit.SECONDS)).isTrue();
+
+        fetchStage.stopNow();
+        fetchStage.put("page-4");
+
+        assertThat(released.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(fetchStage.getMetrics().getQueueDepth()).isEqualTo(0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testQueueCapacityMustBePositive() {
+        new PipelineStage<>("fetch", 1, 0, new StageHandler<Object, Object>() {
+            @Override
+            public Object handle(final Object item) {
+                return item;
+            }
+        });
+    }
+}
@@ -0,0 +1,200 @@
+package com.fingy.scrape.shard;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.fingy.scrape.context.HostPolitenessPolicy;
+import com.fingy.scrape.context.ScrapedItemSink;
+import com.fingy.scrape.fetch.HostConcurrencyLimiter;
+import com.fingy.scrape.util.UrlUtil;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+public class ShardedCrawlerTest {
+
+    private final AtomicInteger slowRequestsInFlight = new AtomicInteger();
+    private final AtomicInteger maxSlowRequestsInFlight = new AtomicInteger();
+    private volatile int expectedSlowRequestsInFlight = 1;
+
+    private ExecutorService serverThreads;
+    private HttpServer server;
+    private String localhost;
+    private String loopback;
+
+    @Before
+    public void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", new HttpHandler() {
+            @Override
+            public void handle(final HttpExchange exchange) throws IOException {
+                final String path = exchange.getRequestURI().getPath();
+                final int page = path.length() > 1 ? Integer.parseInt(path.substring(1)) : 0;
+                if (page == 13) {
+                    exchange.sendResponseHeaders(404, -1);
+                    exchange.close();
+                    return;
+                }
+                final int next = (page + 1) % 20;
+                final String html = "<html><body><a href=\"" + localhost + "/" + next + "\">a</a><a href=\"" + loopback + "/" + next
+                        + "\">b</a></body></html>";
+                final byte[] body = html.getBytes(StandardCharsets.UTF_8);
+                exchange.sendResponseHeaders(200, body.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(body);
+                }
+            }
+        });
+        server.createContext("/slow/", new HttpHandler() {
+            @Override
+            public void handle(final HttpExchange exchange) throws IOException {
+                try {
+                    awaitSlowRequestsInFlight(slowRequestsInFlight.incrementAndGet());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                slowRequestsInFlight.decrementAndGet();
+                exchange.sendResponseHeaders(200, -1);
+                exchange.close();
+            }
+        });
+        serverThreads = Executors.newCachedThreadPool();
+        server.setExecutor(serverThreads);
+        server.start();
+        localhost = "http://localhost:" + server.getAddress().getPort();
+        loopback = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+        serverThreads.shutdownNow();
+    }
+
+    @Test
+    public void testCrawlsEveryPageOfEveryHostOnce() throws Exception {
+        final Set<String> items = ConcurrentHashMap.newKeySet();
+        final ShardedCrawler<String> crawler = new ShardedCrawler<>(4, 3, new ShardedCrawler.PageHandler<String>() {
+            @Override
+            public void handle(final String url, final Document page, final ShardedCrawler.PageCollector<String> collector) {
+                collector.addItem(url);
+                for (Element link : page.select("a[href]")) {
+                    collector.queueLink(link.attr("href"));
+                }
+            }
+        }, new ScrapedItemSink<String>() {
+            @Override
+            public void addScrapedItem(final String item) {
+                if (!items.add(item)) {
+                    throw new AssertionError("Scraped twice: " + item);
+                }
+            }
+        });
+
+        crawler.crawl(Arrays.asList(localhost + "/0", loopback + "/5"));
+
+        // Page 13 is missing on both hosts, so 14 and up are never reached and 127.0.0.1/0 is never linked.
+
+        assertThat(items.size()).isEqualTo(25);
+        assertThat(crawler.getFetchedCount()).isEqualTo(25L);
+        assertThat(crawler.getFailedCount()).isEqualTo(2L);
+        assertThat(crawler.getVisitedLinks().size()).isEqualTo(27);
+        assertThat(crawler.awaitShutdown(5, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    public void testHostIsHeldToItsConcurrencyLimit() throws Exception {
+        final ShardedCrawler<String> crawler = createSilentCrawler(1, 16)
+                .withHostConcurrencyLimiter(new HostConcurrencyLimiter(2, 2));
+        expectedSlowRequestsInFlight = 2;
+
+        crawler.crawl(slowPages(10));
+
+        assertThat(crawler.getFetchedCount()).isEqualTo(10L);
+        assertThat(maxSlowRequestsInFlight.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void testHostRequestsAreSpacedByThePolitenessPolicy() throws Exception {
+        final ShardedCrawler<String> crawler = createSilentCrawler(1, 16).withPolitenessPolicy(new HostPolitenessPolicy(100, 0));
+
+        final long start = System.nanoTime();
+        crawler.crawl(slowPages(4));
+
+        assertThat(crawler.getFetchedCount()).isEqualTo(4L);
+        assertThat(maxSlowRequestsInFlight.get()).isEqualTo(1);
+        assertThat(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(300)).isTrue();
+    }
+
+    @Test
+    public void testCrawlWithoutSeedsEndsAtOnce() throws Exception {
+        final ShardedCrawler<String> crawler = createSilentCrawler(2, 1);
+
+        crawler.crawl(Collections.<String> emptyList());
+        assertThat(crawler.getVisitedLinks().isEmpty()).isTrue();
+    }
+
+    @Test
+    public void testHostAlwaysMapsToTheSameShard() {
+        assertThat(UrlUtil.getHostPartition("http://example.com/a", 7)).isEqualTo(UrlUtil.getHostPartition("http://EXAMPLE.com/b", 7));
+        assertThat(UrlUtil.getHostPartition("not a link", 7) >= 0).isTrue();
+    }
+
+    /**
+     * Holds a slow request until as many as the test expects were in flight at once, so the host limit is reached whatever the timing.
+     */
+    private void awaitSlowRequestsInFlight(final int inFlight) throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        synchronized (maxSlowRequestsInFlight) {
+            maxSlowRequestsInFlight.accumulateAndGet(inFlight, Math::max);
+            maxSlowRequestsInFlight.notifyAll();
+            while (maxSlowRequestsInFlight.get() < expectedSlowRequestsInFlight) {
+                final long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return;
+                }
+                TimeUnit.NANOSECONDS.timedWait(maxSlowRequestsInFlight, remaining);
+            }
+        }
+    }
+
+    private List<String> slowPages(final int count) {
+        final List<String> pages = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            pages.add(localhost + "/slow/" + i);
+        }
+        return pages;
+    }
+
+    private static ShardedCrawler<String> createSilentCrawler(final int shardCount, final int maxRequestsPerShard) {
+        return new ShardedCrawler<>(shardCount, maxRequestsPerShard, new ShardedCrawler.PageHandler<String>() {
+            @Override
+            public void handle(final String url, final Document page, final ShardedCrawler.PageCollector<String> collector) {
+            }
+        }, new ScrapedItemSink<String>() {
+            @Override
+            public void addScrapedItem(final String item) {
+            }
+        });
+    }
+}
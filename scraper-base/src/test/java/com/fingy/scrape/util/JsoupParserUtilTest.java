@@ -0,0 +1,79 @@
+package com.fingy.scrape.util;
+
+import static org.fest.assertions.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.InetSocketAddress;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+public class JsoupParserUtilTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private HttpServer server;
+    private String stuckUrl;
+
+    @Before
+    public void setUp() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/stuck", new HttpHandler() {
+            @Override
+            public void handle(final HttpExchange exchange) throws IOException {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                exchange.close();
+            }
+        });
+        server.start();
+        stuckUrl = "http://127.0.0.1:" + server.getAddress().getPort() + "/stuck";
+    }
+
+    @After
+    public void tearDown() {
+        JsoupParserUtil.setTimeoutMillis(JsoupParserUtil.DEFAULT_TIMEOUT_MILLIS);
+        release.countDown();
+        server.stop(0);
+    }
+
+    @Test
+    public void testStuckConnectionTimesOut() throws Exception {
+        JsoupParserUtil.setTimeoutMillis(200);
+        final long start = System.currentTimeMillis();
+        try {
+            JsoupParserUtil.getResponseBodyAsTextFromUrl(stuckUrl);
+            throw new AssertionError("Expected the fetch to time out");
+        } catch (SocketTimeoutException e) {
+            assertThat(System.currentTimeMillis() - start < 5000).isTrue();
+        }
+    }
+
+    @Test
+    public void testInterruptedThreadDoesNotStartAFetch() throws Exception {
+        Thread.currentThread().interrupt();
+        try {
+            JsoupParserUtil.getPageFromUrl(stuckUrl);
+            throw new AssertionError("Expected the fetch to be cancelled");
+        } catch (InterruptedIOException e) {
+            assertThat(e instanceof SocketTimeoutException).isFalse();
+        } finally {
+            Thread.interrupted();
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testTimeoutMustBePositive() {
+        JsoupParserUtil.setTimeoutMillis(0);
+    }
+}
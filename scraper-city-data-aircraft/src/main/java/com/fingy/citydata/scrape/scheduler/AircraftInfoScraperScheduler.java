@@ -22,14 +22,14 @@ import org.apache.commons.io.FileUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.fingy.adultwholesale.scrape.AbstractAdultItemJsoupScraper;
-import com.fingy.adultwholesale.scrape.AdultItemJsoupScraper;
 import com.fingy.citydata.model.AircraftRegistrationInfo;
 import com.fingy.citydata.scrape.CityPageScraper;
 import com.fingy.citydata.scrape.StatePageScraper;
 import com.fingy.citydata.scrape.USPageScraper;
 import com.fingy.concurrent.ExecutorsUtil;
 import com.fingy.scrape.ScrapeResult;
+import com.fingy.scrape.fetch.HostCircuitBreakers;
+import com.fingy.scrape.fetch.HostConcurrencyLimiter;
 import com.fingy.scrape.queue.ScraperLinksQueue;
 
 public class AircraftInfoScraperScheduler {
@@ -47,6 +47,8 @@ public class AircraftInfoScraperScheduler {
     private ExecutorService infoScrapingThreadPool;
     private ExecutorCompletionService<Collection<AircraftRegistrationInfo>> infoScrapingCompletionService;
 
+    private final HostCircuitBreakers hostCircuitBreakers = new HostCircuitBreakers();
+    private final HostConcurrencyLimiter hostConcurrencyLimiter = new HostConcurrencyLimiter();
     private ScraperLinksQueue linksQueue;
     private Set<String> queuedLinks;
     private Set<AircraftRegistrationInfo> scrapedItems;
@@ -80,7 +82,8 @@ public class AircraftInfoScraperScheduler {
             loadVisitedLinksFromFile();
             loadQueuedLinksFromFile();
 
-            stateScrapingThreadPool.submit(new USPageScraper(MAIN_PAGE_URL, linksQueue));
+            stateScrapingThreadPool.submit(new USPageScraper(MAIN_PAGE_URL, linksQueue).withHostCircuitBreakers(hostCircuitBreakers)
+                    .withHostConcurrencyLimiter(hostConcurrencyLimiter));
 
             submitScrapingTasksWhileThereIsEnoughWork();
             awaitTerminationOfTheTasks();
@@ -117,10 +120,10 @@ public class AircraftInfoScraperScheduler {
     }
 
     private void submitScrapingTasksWhileThereIsEnoughWork() {
-        AdultItemJsoupScraper.setScrapeCompromised(false);
+        hostCircuitBreakers.reset();
 
         while (stillHaveLinksToBeScraped()) {
-            if (AbstractAdultItemJsoupScraper.isScrapeCompromised()) {
+            if (hostCircuitBreakers.isAnyHostUnavailable()) {
                 logger.trace("Session expired, breaking");
                 break;
             }
@@ -151,7 +154,8 @@ public class AircraftInfoScraperScheduler {
 
     private void submitSearchPageScrapingTask(final String link) {
         try {
-            stateScrapingThreadPool.submit(new StatePageScraper(link, linksQueue));
+            stateScrapingThreadPool.submit(new StatePageScraper(link, linksQueue).withHostCircuitBreakers(hostCircuitBreakers)
+                    .withHostConcurrencyLimiter(hostConcurrencyLimiter));
         } catch (Exception e) {
             logger.error("Exception occured", e);
         }
@@ -159,7 +163,8 @@ public class AircraftInfoScraperScheduler {
 
     private void submitInfoScrapingTask(final String link) {
         try {
-            infoScrapingCompletionService.submit(new CityPageScraper(link, linksQueue));
+            infoScrapingCompletionService.submit(new CityPageScraper(link, linksQueue).withHostCircuitBreakers(hostCircuitBreakers)
+                    .withHostConcurrencyLimiter(hostConcurrencyLimiter));
         } catch (Exception e) {
             logger.error("Exception occured", e);
         }
@@ -5,7 +5,6 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
-import java.util.Random;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorCompletionService;
@@ -20,19 +19,23 @@ import org.apache.commons.io.FileUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.fingy.adultwholesale.scrape.AbstractAdultItemJsoupScraper;
-import com.fingy.adultwholesale.scrape.AdultItemJsoupScraper;
 import com.fingy.concurrent.ExecutorsUtil;
 import com.fingy.ehentai.scrape.IndexPageScraper;
 import com.fingy.ehentai.scrape.MangaInfoScraper;
 import com.fingy.ehentai.scrape.SearchPageMangaLinksScraper;
+import com.fingy.scrape.context.HostPolitenessPolicy;
+import com.fingy.scrape.context.PoliteScraperLinksQueue;
 import com.fingy.scrape.context.ScrapeResult;
-import com.fingy.scrape.jsoup.AbstractJsoupScraper;
 import com.fingy.scrape.context.ScraperLinksQueue;
+import com.fingy.scrape.fetch.HostCircuitBreakers;
+import com.fingy.scrape.fetch.HostConcurrencyLimiter;
 
 public class EHentaiScraperScheduler {
 
     private static final int CATEGORY_TIMEOUT = 20000;
+    private static final int SEARCH_PAGE_DELAY_MILLIS = 1500;
+    private static final int MANGA_PAGE_MIN_DELAY_MILLIS = 3500;
+    private static final int MANGA_PAGE_MAX_RANDOM_DELAY_MILLIS = 3000;
     private static final int AVAILABLE_PROCESSORS = Runtime.getRuntime().availableProcessors();
 
     private final Logger logger = LoggerFactory.getLogger(getClass());
@@ -42,6 +45,8 @@ public class EHentaiScraperScheduler {
     private final ExecutorCompletionService<MangaInfo> mangaInfoScrapingCompletionService;
 
     private final ScraperLinksQueue linksQueue;
+    private final HostCircuitBreakers hostCircuitBreakers = new HostCircuitBreakers();
+    private final HostConcurrencyLimiter hostConcurrencyLimiter = new HostConcurrencyLimiter();
     private final Set<String> queuedLinks;
     private final Set<MangaInfo> scrapedItems;
 
@@ -61,7 +66,13 @@ public class EHentaiScraperScheduler {
         mangaInfoScrapingThreadPool = searchPageScrapingThreadPool; // createThreadPool(1);
         mangaInfoScrapingCompletionService = new ExecutorCompletionService<>(mangaInfoScrapingThreadPool);
 
-        linksQueue = new ScraperLinksQueue();
+        linksQueue = new PoliteScraperLinksQueue(new HostPolitenessPolicy(SEARCH_PAGE_DELAY_MILLIS, 0)).withPolicyForLinks(
+                new PoliteScraperLinksQueue.LinkMatcher() {
+                    @Override
+                    public boolean matches(final String link) {
+                        return isLinkForMangaPage(link);
+                    }
+                }, new HostPolitenessPolicy(MANGA_PAGE_MIN_DELAY_MILLIS, MANGA_PAGE_MAX_RANDOM_DELAY_MILLIS));
         queuedLinks = new LinkedHashSet<>();
         scrapedItems = new LinkedHashSet<>();
 
@@ -73,11 +84,13 @@ public class EHentaiScraperScheduler {
 
     public ScrapeResult doScrape() {
         int queuedSize = 0;
+        hostCircuitBreakers.reset();
         try {
             loadVisitedLinksFromFile();
             loadQueuedLinksFromFile();
 
-            searchPageScrapingThreadPool.submit(new IndexPageScraper(initialUrl, linksQueue));
+            searchPageScrapingThreadPool.submit(new IndexPageScraper(initialUrl, linksQueue).withHostCircuitBreakers(hostCircuitBreakers)
+                    .withHostConcurrencyLimiter(hostConcurrencyLimiter));
 
             submitScrapingTasksWhileThereIsEnoughWork();
             awaitTerminationOfTheTasks();
@@ -114,10 +127,8 @@ public class EHentaiScraperScheduler {
     }
 
     private void submitScrapingTasksWhileThereIsEnoughWork() {
-        AdultItemJsoupScraper.setScrapeCompromised(false);
-
         while (stillHaveLinksToBeScraped()) {
-            if (AbstractAdultItemJsoupScraper.isScrapeCompromised()) {
+            if (hostCircuitBreakers.isAnyHostUnavailable()) {
                 logger.trace("Session expired, breaking");
                 break;
             }
@@ -128,12 +139,9 @@ public class EHentaiScraperScheduler {
                 if (isLinkForMangaPage(link)) {
                     queuedLinks.add(link);
                     submitMangaInfoScrapingTask(link);
-                    Thread.sleep(2000 + new Random().nextInt(3000));
                 } else {
                     submitSearchPageScrapingTask(link);
                 }
-
-                Thread.sleep(1500);
             } catch (InterruptedException e) {
                 logger.error("Exception occured", e);
                 break;
@@ -151,7 +159,9 @@ public class EHentaiScraperScheduler {
 
     private void submitSearchPageScrapingTask(final String link) {
         try {
-            searchPageScrapingThreadPool.submit(new SearchPageMangaLinksScraper(link, linksQueue));
+            searchPageScrapingThreadPool.submit(
+                    new SearchPageMangaLinksScraper(link, linksQueue).withHostCircuitBreakers(hostCircuitBreakers)
+                            .withHostConcurrencyLimiter(hostConcurrencyLimiter));
         } catch (Exception e) {
             logger.error("Exception occured", e);
         }
@@ -159,14 +169,15 @@ public class EHentaiScraperScheduler {
 
     private void submitMangaInfoScrapingTask(final String link) {
         try {
-            mangaInfoScrapingCompletionService.submit(new MangaInfoScraper(link, linksQueue));
+            mangaInfoScrapingCompletionService.submit(new MangaInfoScraper(link, linksQueue).withHostCircuitBreakers(hostCircuitBreakers)
+                    .withHostConcurrencyLimiter(hostConcurrencyLimiter));
         } catch (Exception e) {
             logger.error("Exception occured", e);
         }
     }
 
     private void awaitTerminationOfTheTasks() {
-        int timeout = AbstractJsoupScraper.isScrapeCompromised() ? 0 : queuedLinks.size();
+        int timeout = hostCircuitBreakers.isAnyHostUnavailable() ? 0 : queuedLinks.size();
         ExecutorsUtil.shutDownExecutorServiceAndAwaitTermination(searchPageScrapingThreadPool, timeout, TimeUnit.SECONDS);
         ExecutorsUtil.shutDownExecutorServiceAndAwaitTermination(mangaInfoScrapingThreadPool, timeout, TimeUnit.SECONDS);
     }
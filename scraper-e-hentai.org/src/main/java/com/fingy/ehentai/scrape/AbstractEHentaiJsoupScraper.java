@@ -32,7 +32,7 @@ public abstract class AbstractEHentaiJsoupScraper<T> extends AbstractJsoupScrape
             logger.error("Exception while getting page", e);
         }
 
-        setScrapeCompromised(true);
+        markHostCompromised();
         throw new ScrapeException("Session expired");
     }
 
@@ -4,6 +4,7 @@ import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
 import org.jsoup.select.Elements;
 
+import com.fingy.scrape.context.LinkBatch;
 import com.fingy.scrape.context.ScraperLinksQueue;
 
 public class SearchPageMangaLinksScraper extends AbstractEHentaiJsoupScraper<Integer> {
@@ -15,9 +16,11 @@ public class SearchPageMangaLinksScraper extends AbstractEHentaiJsoupScraper<Int
     @Override
     protected Integer scrapePage(Document page) {
         Elements mangaLinks = page.select("table.itg td.itd div.it5 a");
+        LinkBatch mangaLinksBatch = new LinkBatch(linksQueue);
         for (Element mangaLink : mangaLinks) {
-            linksQueue.addIfNotVisited(mangaLink.attr("href"));
+            mangaLinksBatch.add(mangaLink.attr("href"));
         }
+        mangaLinksBatch.flush();
 
         linksQueue.markVisited(getScrapeUrl());
         return mangaLinks.size();
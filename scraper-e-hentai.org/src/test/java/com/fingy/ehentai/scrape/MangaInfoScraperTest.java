@@ -12,6 +12,7 @@ import org.junit.Test;
 
 import com.fingy.ehentai.MangaInfo;
 import com.fingy.scrape.context.ScraperLinksQueue;
+import com.fingy.scrape.context.SynchronizedScraperLinksQueue;
 
 @Ignore
 public class MangaInfoScraperTest {
@@ -26,7 +27,7 @@ public class MangaInfoScraperTest {
 
 	private static final MangaInfo MANGA_INFO = new MangaInfo(TITLE, "", IMAGES, TAGS, COVER_IMAGE_URL);
 
-	private ScraperLinksQueue linksQueue = new ScraperLinksQueue();
+	private ScraperLinksQueue linksQueue = new SynchronizedScraperLinksQueue();
 	private MangaInfoScraper mangaScraper = new MangaInfoScraper("", linksQueue);
 
 	@Test
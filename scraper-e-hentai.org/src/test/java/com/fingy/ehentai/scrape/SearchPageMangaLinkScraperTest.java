@@ -11,12 +11,13 @@ import org.jsoup.nodes.Document;
 import org.junit.Test;
 
 import com.fingy.scrape.context.ScraperLinksQueue;
+import com.fingy.scrape.context.SynchronizedScraperLinksQueue;
 
 public class SearchPageMangaLinkScraperTest {
 
 	private static final String MAIN_PAGE_HTM_LOCATION = "test_pages/main-page.htm";
 
-	private ScraperLinksQueue linksQueue = new ScraperLinksQueue();
+	private ScraperLinksQueue linksQueue = new SynchronizedScraperLinksQueue();
 	private SearchPageMangaLinksScraper mangaLinksScraper = new SearchPageMangaLinksScraper("", linksQueue);
 
 	@Test
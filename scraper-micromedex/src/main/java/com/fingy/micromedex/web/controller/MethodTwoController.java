@@ -53,7 +53,7 @@ public class MethodTwoController extends AbstractMicromedexController {
 
         WebClient webClient = getWebClientHolder().get();
 
-        Document page = Jsoup.connect(INTERACTIONS_QUERY_PAGE_URL).cookies(HtmlUnitUtil.getCookiesAsMap(webClient)).timeout(0).get();
+        Document page = Jsoup.connect(INTERACTIONS_QUERY_PAGE_URL).cookies(HtmlUnitUtil.getCookiesAsMap(webClient)).timeout(JsoupParserUtil.getTimeoutMillis()).get();
 
         Map<String, String> params = new HashMap<>();
         Element form = page.getElementById(SEARCH_FORM_ID);
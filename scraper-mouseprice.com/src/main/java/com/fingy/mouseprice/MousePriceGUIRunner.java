@@ -30,7 +30,6 @@ import org.slf4j.LoggerFactory;
 
 import com.fingy.gui.AppendableJTextArea;
 import com.fingy.scrape.context.ScrapeResult;
-import com.fingy.scrape.jsoup.AbstractJsoupScraper;
 import com.fingy.scrape.security.AutoRefreshingHideMyAssProxyBasedScrapeDetectionOverrider;
 import com.fingy.scrape.security.ProxyBasedScrapeDetectionOverrider;
 import com.fingy.scrape.security.TorNetworkProxyBasedScrapeDetectionOverride;
@@ -170,7 +169,7 @@ public class MousePriceGUIRunner extends JFrame {
             @Override
             public void actionPerformed(final ActionEvent e) {
                 shouldStop = true;
-                AbstractJsoupScraper.setScrapeCompromised(true);
+                scraperWorker.stopRunningScheduler();
                 infoPane.appendLine("Stopping scrape process after the current iteration");
                 btnStopScrape.setEnabled(false);
             }
@@ -239,6 +238,7 @@ public class MousePriceGUIRunner extends JFrame {
 
     private final class ScraperWorker extends SwingWorker<Object, Object> {
         private ProxyBasedScrapeDetectionOverrider scrapeDetectionOverrider;
+        private volatile ScraperScheduler runningScheduler;
 
         @Override
         protected Object doInBackground() throws Exception {
@@ -247,11 +247,18 @@ public class MousePriceGUIRunner extends JFrame {
         }
 
         public void terminate() {
-            AbstractJsoupScraper.setScrapeCompromised(true);
+            stopRunningScheduler();
             shouldStop = true;
             finalizeContext();
         }
 
+        public void stopRunningScheduler() {
+            final ScraperScheduler scheduler = runningScheduler;
+            if (scheduler != null) {
+                scheduler.getHostCircuitBreakers().stopAll();
+            }
+        }
+
         public void runScrape() {
             try {
                 shouldStop = false;
@@ -298,10 +305,11 @@ public class MousePriceGUIRunner extends JFrame {
                 infoPane.appendLine("Starting new scrape iteration");
 
                 setUpProxy();
-                ScrapeResult result = new ScraperScheduler(zipsToScrape).doScrape();
+                runningScheduler = new ScraperScheduler(zipsToScrape);
+                ScrapeResult result = runningScheduler.doScrape();
 
                 infoPane.appendLine("Finished scrape iteration");
-                infoPane.appendLine("Scrape was compromised: " + (AbstractJsoupScraper.isScrapeCompromised() && !shouldStop));
+                infoPane.appendLine("Scrape was compromised: " + (runningScheduler.getHostCircuitBreakers().isCompromised() && !shouldStop));
                 infoPane.appendLine("Total contacts scraped: " + result.getScrapeSize());
 
                 queueSize = result.getQueueSize();
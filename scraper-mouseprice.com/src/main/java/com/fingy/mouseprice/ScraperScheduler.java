@@ -15,7 +15,6 @@ import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
-import com.fingy.scrape.AbstractScraper;
 import org.apache.commons.io.FileUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -24,6 +23,9 @@ import com.fingy.concurrent.ExecutorsUtil;
 import com.fingy.mouseprice.scrape.HousePricesScraper;
 import com.fingy.scrape.context.ScrapeResult;
 import com.fingy.scrape.context.ScraperLinksQueue;
+import com.fingy.scrape.context.SynchronizedScraperLinksQueue;
+import com.fingy.scrape.fetch.HostCircuitBreakers;
+import com.fingy.scrape.fetch.HostConcurrencyLimiter;
 import com.fingy.scrape.util.JsoupParserUtil;
 
 public class ScraperScheduler {
@@ -40,6 +42,8 @@ public class ScraperScheduler {
     private final ExecutorCompletionService<List<RealEstateInfo>> detailsScrapingCompletionService;
 
     private final ScraperLinksQueue linksQueue;
+    private final HostCircuitBreakers hostCircuitBreakers = new HostCircuitBreakers();
+    private final HostConcurrencyLimiter hostConcurrencyLimiter = new HostConcurrencyLimiter();
     private final List<String> zipsToScrape;
 
     private static Set<String> visitedLinks;
@@ -54,10 +58,17 @@ public class ScraperScheduler {
         detailsScrapingThreadPool = createThreadPool();
         detailsScrapingCompletionService = new ExecutorCompletionService<>(detailsScrapingThreadPool);
 
-        linksQueue = new ScraperLinksQueue();
+        linksQueue = new SynchronizedScraperLinksQueue();
         zipsToScrape = zips;
     }
 
+    /**
+     * Reset at the start of every scrape; {@link HostCircuitBreakers#stopAll()} stops the running one.
+     */
+    public HostCircuitBreakers getHostCircuitBreakers() {
+        return hostCircuitBreakers;
+    }
+
     public ScrapeResult doScrape() {
         int queuedSize = 0;
         try {
@@ -93,10 +104,10 @@ public class ScraperScheduler {
 
     private void submitScrapingTasksWhileThereIsEnoughWork() {
         Map<String, String> cookies = getCookiesFromStartPage();
-        AbstractScraper.setScrapeCompromised(false);
+        hostCircuitBreakers.reset();
 
         while (stillHaveLinksToBeScraped()) {
-            if (AbstractScraper.isScrapeCompromised()) {
+            if (hostCircuitBreakers.isAnyHostUnavailable()) {
                 logger.trace("Session expired, breaking");
                 break;
             }
@@ -104,7 +115,9 @@ public class ScraperScheduler {
             try {
                 String link = linksQueue.take();
                 queuedLinks.add(link);
-                detailsScrapingCompletionService.submit(new HousePricesScraper(link, cookies, linksQueue));
+                detailsScrapingCompletionService.submit(
+                        new HousePricesScraper(link, cookies, linksQueue).withHostCircuitBreakers(hostCircuitBreakers)
+                                .withHostConcurrencyLimiter(hostConcurrencyLimiter));
             } catch (InterruptedException e) {
                 logger.error("Exception occured", e);
                 break;
@@ -49,7 +49,7 @@ public class HousePricesScraper extends AbstractMousePriceScraper<List<RealEstat
     @Override
     protected List<RealEstateInfo> scrapePage(final Document page) {
         if (JsoupParserUtil.getTagTextFromCssQuery(page, "div.errorSec_404 div.gm_header").equals("IP address blocked")) {
-            setScrapeCompromised(true);
+            markHostCompromised();
             throw new ScrapeException("Scrape detected");
         }
 
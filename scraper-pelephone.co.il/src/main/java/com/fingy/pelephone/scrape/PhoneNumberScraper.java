@@ -42,7 +42,7 @@ public class PhoneNumberScraper extends AbstractScraper<ContactInfo> {
 
     private void validatePhoneNumber() {
         if ("cap".equals(contact.getTelephoneNumber())) {
-            AbstractScraper.setScrapeCompromised(true);
+            markHostCompromised();
             throw new ScrapeException("Scrape detected!");
         }
     }
@@ -14,7 +14,6 @@ import java.util.concurrent.ExecutionException;
 import com.fingy.gui.AppendableJTextArea;
 import com.fingy.scrape.context.ScrapeContext;
 import com.fingy.scrape.context.ScrapeResult;
-import com.fingy.scrape.jsoup.AbstractJsoupScraper;
 import com.fingy.scrape.security.NoOpProxyBasedScrapeDetectionOverrider;
 import com.fingy.scrape.security.ProxyBasedScrapeDetectionOverrider;
 import com.fingy.scrape.security.TorNetworkProxyBasedScrapeDetectionOverride;
@@ -135,7 +134,7 @@ public class GUIRunner extends JFrame {
             @Override
             public void actionPerformed(final ActionEvent e) {
                 shouldStop = true;
-                AbstractJsoupScraper.setScrapeCompromised(true);
+                scraperWorker.stopRunningScheduler();
                 infoPane.appendLine("Stopping scrape process after the current iteration");
                 btnStopScrape.setEnabled(false);
             }
@@ -204,6 +203,7 @@ public class GUIRunner extends JFrame {
 
     private final class ScraperWorker extends SwingWorker<Object, Object> {
         private ProxyBasedScrapeDetectionOverrider scrapeDetectionOverrider = new NoOpProxyBasedScrapeDetectionOverrider();
+        private volatile ScraperScheduler runningScheduler;
 
         @Override
         protected Object doInBackground() throws Exception {
@@ -212,11 +212,18 @@ public class GUIRunner extends JFrame {
         }
 
         public void terminate() {
-            AbstractJsoupScraper.setScrapeCompromised(true);
+            stopRunningScheduler();
             shouldStop = true;
             finalizeContext();
         }
 
+        public void stopRunningScheduler() {
+            final ScraperScheduler scheduler = runningScheduler;
+            if (scheduler != null) {
+                scheduler.getHostCircuitBreakers().stopAll();
+            }
+        }
+
         public void runScrape() {
             try {
                 shouldStop = false;
@@ -262,7 +269,7 @@ public class GUIRunner extends JFrame {
                 ScrapeResult result = doScrape();
 
                 infoPane.appendLine("Finished scrape iteration");
-                infoPane.appendLine("Scrape was compromised: " + (AbstractJsoupScraper.isScrapeCompromised() && !shouldStop));
+                infoPane.appendLine("Scrape was compromised: " + (runningScheduler.getHostCircuitBreakers().isCompromised() && !shouldStop));
                 infoPane.appendLine("Total contacts scraped: " + result.getScrapeSize());
 
                 queueSize = result.getQueueSize();
@@ -272,7 +279,8 @@ public class GUIRunner extends JFrame {
         private ScrapeResult doScrape() {
             ScrapeContext context = new ScrapeContext(detailsFile, VISITED_TXT_FILE_NAME, QUEUED_TXT_FILE_NAME, new ContactInfoLoader());
 //            ScrapeResult result = new ScraperScheduler(context, scrapeUrl.getText()).doScrape();
-            ScrapeResult result = new ScraperScheduler(context, "http://www.proz.com/translation-agencies").doScrape();
+            runningScheduler = new ScraperScheduler(context, "http://www.proz.com/translation-agencies");
+            ScrapeResult result = runningScheduler.doScrape();
             context.save();
             return result;
         }
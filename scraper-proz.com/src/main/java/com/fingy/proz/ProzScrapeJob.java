@@ -0,0 +1,36 @@
+package com.fingy.proz;
+
+import com.fingy.scrape.AbstractScrapeScheduler;
+import com.fingy.scrape.context.ScrapeContext;
+import com.fingy.scrape.context.SynchronizedScraperLinksQueue;
+import com.fingy.scrape.daemon.ScrapeJob;
+import com.fingy.scrape.daemon.ScrapeJobResources;
+
+/**
+ * The translation agencies scrape as a job for {@link com.fingy.scrape.daemon.ScrapeDaemon}. Its files are prefixed with the job name so
+ * it can share a working directory with other jobs.
+ */
+public class ProzScrapeJob implements ScrapeJob {
+
+    private static final String NAME = "proz";
+    private static final String START_URL = "http://www.proz.com/translation-agencies";
+    private static final int MAX_CONCURRENT_TASKS = 16;
+    private static final int EVENT_LOG_COMPACTION_THRESHOLD = 100000;
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public int getMaxConcurrentTasks() {
+        return MAX_CONCURRENT_TASKS;
+    }
+
+    @Override
+    public AbstractScrapeScheduler<?> createScheduler(final ScrapeJobResources resources) {
+        final ScrapeContext context = new ScrapeContext(NAME + "-details.txt", NAME + "-visited.txt", NAME + "-queued.txt",
+                new ContactInfoLoader(), new SynchronizedScraperLinksQueue(), NAME + "-events.txt", EVENT_LOG_COMPACTION_THRESHOLD);
+        return new ScraperScheduler(context, START_URL, resources.getThreadPoolFactory());
+    }
+}
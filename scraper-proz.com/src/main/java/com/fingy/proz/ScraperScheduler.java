@@ -1,8 +1,10 @@
 package com.fingy.proz;
 
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 import com.fingy.proz.scrape.ContactInfoScraper;
 import com.fingy.proz.scrape.SearchResultPageListScraper;
@@ -20,19 +22,29 @@ public class ScraperScheduler extends AbstractScrapeScheduler<ContactInfo> {
         startUrl = queryUrl;
     }
 
+    public ScraperScheduler(final ScrapeContext context, final String queryUrl, final Supplier<ExecutorService> threadPoolFactory) {
+        super(context, threadPoolFactory);
+        startUrl = queryUrl;
+    }
+
     @Override
     protected void doSpecificInitialization() {
-        getWorkGeneratingScrapingThreadPool().submit(new SearchResultPageListScraper(startUrl, context.getLinksQueue()));
+        getWorkGeneratingScrapingThreadPool().submit(
+                withHostLimits(new SearchResultPageListScraper(startUrl, context.getLinksQueue())));
     }
 
     @Override
     protected void submitWorkGeneratingTask(final String link) {
-        getWorkGeneratingScrapingThreadPool().submit(new SingleResultPageScraper(link, context.getLinksQueue()));
+        getWorkGeneratingScrapingThreadPool().submit(
+                withHostLimits(new SingleResultPageScraper(link, context.getLinksQueue())));
     }
 
+    /**
+     * Profiles are plain GETs, so they go through the page fetcher; it keeps to the Tor proxy when the runner enabled it.
+     */
     @Override
     protected void submitDetailScrapingTask(final String link) {
-        getDetailsScrapingCompletionService().submit(new ContactInfoScraper(link, context.getLinksQueue()));
+        submitAsyncDetailScrapingTask(new ContactInfoScraper(link, context.getLinksQueue()));
     }
 
     @Override
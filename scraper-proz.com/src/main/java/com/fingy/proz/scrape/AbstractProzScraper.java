@@ -5,7 +5,6 @@ import java.io.IOException;
 import com.fingy.scrape.AbstractWorkQueueAwareScraper;
 import com.fingy.scrape.context.ScraperLinksQueue;
 import com.fingy.scrape.exception.ScrapeException;
-import com.fingy.scrape.jsoup.AbstractJsoupScraper;
 import com.fingy.scrape.util.HtmlUnitParserUtil;
 import org.jsoup.nodes.Document;
 
@@ -18,7 +17,7 @@ public abstract class AbstractProzScraper<T> extends AbstractWorkQueueAwareScrap
     @Override
     protected T scrapePage(final Document page) {
         if (page.text().contains("Your IP address has been temporarily blocked")){
-            AbstractJsoupScraper.setScrapeCompromised(true);
+            markHostCompromised();
             throw new ScrapeException("Scrape compromised");
         }
 
@@ -3,7 +3,6 @@ package com.fingy.proz.scrape;
 import com.fingy.proz.ContactInfo;
 import com.fingy.scrape.context.ScraperLinksQueue;
 import com.fingy.scrape.exception.ScrapeException;
-import com.fingy.scrape.jsoup.AbstractJsoupScraper;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
 
@@ -29,7 +28,7 @@ public class ContactInfoScraper extends AbstractProzScraper<ContactInfo> {
         if (!"N/A".equals(userName) || !"N/A".equals(companyName) || !"N/A".equals(name))
             return new ContactInfo(userName, companyName, name, website, address, country, phoneNumber, email);
 
-        AbstractJsoupScraper.setScrapeCompromised(true);
+        markHostCompromised();
         throw new ScrapeException("Scrape compromised");
     }
 
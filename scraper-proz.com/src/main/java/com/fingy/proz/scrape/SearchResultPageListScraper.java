@@ -1,5 +1,6 @@
 package com.fingy.proz.scrape;
 
+import com.fingy.scrape.context.LinkBatch;
 import com.fingy.scrape.context.ScraperLinksQueue;
 import org.jsoup.nodes.Document;
 
@@ -15,11 +16,13 @@ public class SearchResultPageListScraper extends AbstractProzScraper<Void> {
     @Override
     protected Void doScrapePageInternal(final Document page) {
         final int resultCount = new Integer(page.select(RESULT_COUNT_CSS_QUERY).first().text());
+        final LinkBatch pageLinks = new LinkBatch(getLinksQueue());
 
         for (int i = 0; i < resultCount; i += 20) {
             final String pageSuffix = String.format(PAGE_SUFFIX_FORMAT, i);
-            getLinksQueue().addIfNotVisited(getScrapeUrl() + pageSuffix);
+            pageLinks.add(getScrapeUrl() + pageSuffix);
         }
+        pageLinks.flush();
 
         return null;
     }
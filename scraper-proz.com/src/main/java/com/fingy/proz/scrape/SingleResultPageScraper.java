@@ -1,5 +1,6 @@
 package com.fingy.proz.scrape;
 
+import com.fingy.scrape.context.LinkBatch;
 import com.fingy.scrape.context.ScraperLinksQueue;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
@@ -14,10 +15,12 @@ public class SingleResultPageScraper extends AbstractProzScraper<Integer> {
     @Override
     protected Integer doScrapePageInternal(final Document page) {
         final Elements results = page.select("a:has(.icon-search)");
+        final LinkBatch contactLinks = new LinkBatch(getLinksQueue());
         for (Element result : results) {
             final String profileId = extractProfileIdFromDetailsLink(result);
-            getLinksQueue().addIfNotVisited(createContactDetailsUrlFromId(profileId));
+            contactLinks.add(createContactDetailsUrlFromId(profileId));
         }
+        contactLinks.flush();
         getLinksQueue().markVisited(getScrapeUrl());
         return results.size();
     }
@@ -4,6 +4,7 @@ import java.io.File;
 
 import com.fingy.proz.scrape.SearchResultPageListScraper;
 import com.fingy.scrape.context.ScraperLinksQueue;
+import com.fingy.scrape.context.SynchronizedScraperLinksQueue;
 import org.apache.commons.io.FileUtils;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
@@ -15,7 +16,7 @@ public class SearchResultPageListScraperTest {
 
     private static final String PAGE_LOCATION = "translation-agencies.html";
 
-    private ScraperLinksQueue queue = new ScraperLinksQueue();
+    private ScraperLinksQueue queue = new SynchronizedScraperLinksQueue();
     private SearchResultPageListScraper scraper = new SearchResultPageListScraper("", queue);
 
     @Test
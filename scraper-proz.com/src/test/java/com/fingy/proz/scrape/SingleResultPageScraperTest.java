@@ -3,6 +3,7 @@ package com.fingy.proz.scrape;
 import java.io.File;
 
 import com.fingy.scrape.context.ScraperLinksQueue;
+import com.fingy.scrape.context.SynchronizedScraperLinksQueue;
 import org.apache.commons.io.FileUtils;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
@@ -14,7 +15,7 @@ public class SingleResultPageScraperTest {
 
     private static final String PAGE_LOCATION = "translation-agencies.html";
 
-    private ScraperLinksQueue queue = new ScraperLinksQueue();
+    private ScraperLinksQueue queue = new SynchronizedScraperLinksQueue();
     private SingleResultPageScraper scraper = new SingleResultPageScraper("", queue);
 
     @Test
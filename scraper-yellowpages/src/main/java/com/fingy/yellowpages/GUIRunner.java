@@ -29,7 +29,6 @@ import org.slf4j.LoggerFactory;
 
 import com.fingy.gui.AppendableJTextArea;
 import com.fingy.scrape.ScrapeResult;
-import com.fingy.scrape.jsoup.AbstractJsoupScraper;
 import com.fingy.scrape.security.util.TorUtil;
 import com.jgoodies.forms.factories.FormFactory;
 import com.jgoodies.forms.layout.ColumnSpec;
@@ -49,6 +48,7 @@ public class GUIRunner extends JFrame {
 
 	private final boolean shouldUseTor = true;
 	private boolean shouldStop;
+	private volatile ScraperScheduler runningScheduler;
 
 	private final AppendableJTextArea infoPane;
 	private final JTextField contactsFilePath;
@@ -150,7 +150,10 @@ public class GUIRunner extends JFrame {
 			@Override
 			public void actionPerformed(final ActionEvent e) {
 				shouldStop = true;
-				AbstractJsoupScraper.setScrapeCompromised(true);
+				final ScraperScheduler scheduler = runningScheduler;
+				if (scheduler != null) {
+					scheduler.getHostCircuitBreakers().stopAll();
+				}
 				infoPane.appendLine("Stopping scrape process after the current iteration");
 				btnStopScrape.setEnabled(false);
 			}
@@ -254,10 +257,11 @@ public class GUIRunner extends JFrame {
 		while (queueSize > 0 && !shouldStop) {
 			infoPane.appendLine("Starting new scrape iteration for term " + term + " and location " + location);
 
-			ScrapeResult result = new ScraperScheduler(term, location, contactsFile, VISITED_TXT_FILE_NAME, QUEUED_TXT_FILE_NAME).doScrape();
+			runningScheduler = new ScraperScheduler(term, location, contactsFile, VISITED_TXT_FILE_NAME, QUEUED_TXT_FILE_NAME);
+			ScrapeResult result = runningScheduler.doScrape();
 
 			infoPane.appendLine("Finished scrape iteration");
-			infoPane.appendLine("Scrape was compromised: " + (AbstractJsoupScraper.isScrapeCompromised() && !shouldStop));
+			infoPane.appendLine("Scrape was compromised: " + (runningScheduler.getHostCircuitBreakers().isCompromised() && !shouldStop));
 			infoPane.appendLine("Total contacts scraped: " + result.getScrapeSize());
 
 			queueSize = result.getQueueSize();
@@ -6,23 +6,25 @@ import java.io.IOException;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.Random;
 import java.util.Set;
 import java.util.concurrent.ExecutorCompletionService;
-import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 
 import org.apache.commons.io.FileUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import com.fingy.adultwholesale.scrape.AbstractAdultItemJsoupScraper;
-import com.fingy.adultwholesale.scrape.AdultItemJsoupScraper;
+import com.fingy.concurrent.BoundedExecutorService;
 import com.fingy.concurrent.ExecutorsUtil;
-import com.fingy.scrape.ScrapeResult;
-import com.fingy.scrape.queue.ScraperLinksQueue;
+import com.fingy.scrape.context.CompletedResultsCollector;
+import com.fingy.scrape.context.HostPolitenessPolicy;
+import com.fingy.scrape.context.PoliteScraperLinksQueue;
+import com.fingy.scrape.context.ScrapeResult;
+import com.fingy.scrape.context.ScrapedItemSink;
+import com.fingy.scrape.context.ScraperLinksQueue;
+import com.fingy.scrape.fetch.HostCircuitBreakers;
+import com.fingy.scrape.fetch.HostConcurrencyLimiter;
 import com.fingy.scrape.util.HtmlUnitParserUtil;
 import com.fingy.yellowpages.scrape.CompanyDetailsScraper;
 import com.fingy.yellowpages.scrape.CustomSearchScraper;
@@ -31,14 +33,19 @@ public class ScraperScheduler {
     private static final String SEARCH_FORMAT = "http://www.yellowpages.com/%s/%s";
 
     private static final int DEFAULT_TERMINATION_AWAIT_INTERVAL_MINUTES = 15;
-    private static final int CATEGORY_TIMEOUT = 180000;
+    private static final int SEARCH_PAGE_DELAY_MILLIS = 1000;
+    private static final int CONTACT_PAGE_MIN_DELAY_MILLIS = 3000;
+    private static final int CONTACT_PAGE_MAX_RANDOM_DELAY_MILLIS = 4000;
 
     private final Logger logger = LoggerFactory.getLogger(getClass());
 
-    private final ExecutorService adPageScrapingThreadPool;
-    private final ExecutorService contactScrapingThreadPool;
+    private final BoundedExecutorService adPageScrapingThreadPool;
+    private final BoundedExecutorService contactScrapingThreadPool;
     private final ExecutorCompletionService<CompanyDetails> contactScrapingCompletionService;
+    private final CompletedResultsCollector<CompanyDetails> contactsCollector;
 
+    private final HostCircuitBreakers hostCircuitBreakers = new HostCircuitBreakers();
+    private final HostConcurrencyLimiter hostConcurrencyLimiter = new HostConcurrencyLimiter();
     private final ScraperLinksQueue linksQueue;
     private final Set<String> queuedLinks;
     private final Set<CompanyDetails> scrapedItems;
@@ -52,11 +59,27 @@ public class ScraperScheduler {
 
     public ScraperScheduler(final String term, final String location, final String contactsFilePath, final String visitedFilePath,
             final String queuedFilePath) {
-        adPageScrapingThreadPool = Executors.newSingleThreadExecutor();
-        contactScrapingThreadPool = Executors.newSingleThreadExecutor();
+        linksQueue = new PoliteScraperLinksQueue(new HostPolitenessPolicy(SEARCH_PAGE_DELAY_MILLIS, 0)).withPolicyForLinks(
+                new PoliteScraperLinksQueue.LinkMatcher() {
+                    @Override
+                    public boolean matches(final String link) {
+                        return !isLinkForSearchPage(link);
+                    }
+                }, new HostPolitenessPolicy(CONTACT_PAGE_MIN_DELAY_MILLIS, CONTACT_PAGE_MAX_RANDOM_DELAY_MILLIS));
+
+        adPageScrapingThreadPool = ExecutorsUtil.createBoundedExecutor(Executors.newSingleThreadExecutor());
+        adPageScrapingThreadPool.setTaskListener(linksQueue);
+        contactScrapingThreadPool = ExecutorsUtil.createBoundedExecutor(Executors.newSingleThreadExecutor());
+        contactScrapingThreadPool.setTaskListener(linksQueue);
         contactScrapingCompletionService = new ExecutorCompletionService<>(contactScrapingThreadPool);
-
-        linksQueue = new ScraperLinksQueue();
+        contactsCollector = new CompletedResultsCollector<>(contactScrapingCompletionService, new ScrapedItemSink<CompanyDetails>() {
+            @Override
+            public void addScrapedItem(final CompanyDetails contact) {
+                if (contact.isValid()) {
+                    scrapedItems.add(contact);
+                }
+            }
+        });
         queuedLinks = new LinkedHashSet<>();
         scrapedItems = new LinkedHashSet<>();
 
@@ -76,6 +99,7 @@ public class ScraperScheduler {
             loadQueuedLinksFromFile();
 
             HtmlUnitParserUtil.getPageFromUrlWithoutJavaScriptSupport(CustomSearchScraper.WWW_YELLOWPAGES_COM);
+            contactsCollector.start();
             submitSearchPageScrapingTask(String.format(SEARCH_FORMAT, searchLocation, searchTerm));
 
             submitScrapingTasksWhileThereIsEnoughWork();
@@ -92,6 +116,13 @@ public class ScraperScheduler {
         return new ScrapeResult(queuedSize, scrapedItems.size());
     }
 
+    /**
+     * The breakers of this scheduler's scrapers; stopping them ends the running iteration.
+     */
+    public HostCircuitBreakers getHostCircuitBreakers() {
+        return hostCircuitBreakers;
+    }
+
     private void loadDetailsFromFile() {
         try {
             final List<String> lines = FileUtils.readLines(contactsFile);
@@ -125,10 +156,10 @@ public class ScraperScheduler {
     }
 
     private void submitScrapingTasksWhileThereIsEnoughWork() {
-        AdultItemJsoupScraper.setScrapeCompromised(false);
+        hostCircuitBreakers.reset();
 
         while (stillHaveLinksToBeScraped()) {
-            if (AbstractAdultItemJsoupScraper.isScrapeCompromised()) {
+            if (hostCircuitBreakers.isAnyHostUnavailable()) {
                 logger.trace("Session expired, breaking");
                 break;
             }
@@ -141,10 +172,7 @@ public class ScraperScheduler {
                 } else {
                     queuedLinks.add(link);
                     submitContactScrapingTask(link);
-                    Thread.sleep(2000 + new Random().nextInt(4000));
                 }
-
-                Thread.sleep(1000);
             } catch (InterruptedException e) {
                 logger.error("Exception occured", e);
                 break;
@@ -157,15 +185,17 @@ public class ScraperScheduler {
     }
 
     private boolean stillHaveLinksToBeScraped() {
-        return !linksQueue.delayedIsEmpty(CATEGORY_TIMEOUT);
+        return linksQueue.awaitLinksWhileTasksInFlight();
     }
 
     private void submitSearchPageScrapingTask(final String link) {
-        adPageScrapingThreadPool.submit(new CustomSearchScraper(link, linksQueue));
+        adPageScrapingThreadPool.submit(new CustomSearchScraper(link, linksQueue).withHostCircuitBreakers(hostCircuitBreakers)
+                .withHostConcurrencyLimiter(hostConcurrencyLimiter));
     }
 
     private void submitContactScrapingTask(final String link) {
-        contactScrapingCompletionService.submit(new CompanyDetailsScraper(link, linksQueue));
+        contactScrapingCompletionService.submit(new CompanyDetailsScraper(link, linksQueue).withHostCircuitBreakers(hostCircuitBreakers)
+                .withHostConcurrencyLimiter(hostConcurrencyLimiter));
     }
 
     private void awaitTerminationOfTheTasks() {
@@ -175,27 +205,11 @@ public class ScraperScheduler {
                                                                  TimeUnit.MINUTES);
     }
 
-    private void collectAndSaveResults() throws FileNotFoundException, IOException {
-        collectResults();
+    private void collectAndSaveResults() throws FileNotFoundException, IOException, InterruptedException {
+        contactsCollector.finish();
         FileUtils.writeLines(contactsFile, scrapedItems);
     }
 
-    private void collectResults() {
-        long timeout = 10;
-        for (int i = 0; i < queuedLinks.size(); i++) {
-            try {
-                final Future<CompanyDetails> future = contactScrapingCompletionService.poll(timeout, TimeUnit.SECONDS);
-                CompanyDetails contact = future.get();
-
-                if (contact.isValid()) {
-                    scrapedItems.add(contact);
-                }
-            } catch (Exception e) {
-                timeout = 0;
-            }
-        }
-    }
-
     private void saveVisitedLinksToFile() {
         try {
             FileUtils.writeLines(visitedFile, linksQueue.getVisitedLinks());
@@ -28,7 +28,7 @@ public class CompanyDetailsScraper extends AbstractYellowPagesScraper<CompanyDet
             getLinksQueue().markVisited(getScrapeUrl());
             return companyDetails;
         }
-        setScrapeCompromised(true);
+        markHostCompromised();
         throw new ScrapeException("Scrape detected");
     }
 
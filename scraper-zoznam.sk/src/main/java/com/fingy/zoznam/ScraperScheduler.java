@@ -21,17 +21,20 @@ public class ScraperScheduler extends AbstractScrapeScheduler<ContactInfo> {
 
     @Override
     protected void doSpecificInitialization() {
-        getWorkGeneratingScrapingThreadPool().submit(new SearchResultsScraper(startUrl, context.getLinksQueue()));
+        getWorkGeneratingScrapingThreadPool().submit(
+                withHostLimits(new SearchResultsScraper(startUrl, context.getLinksQueue())));
     }
 
     @Override
     protected void submitWorkGeneratingTask(final String link) {
-        getWorkGeneratingScrapingThreadPool().submit(new SingleResultPageScraper(link, context.getLinksQueue()));
+        getWorkGeneratingScrapingThreadPool().submit(
+                withHostLimits(new SingleResultPageScraper(link, context.getLinksQueue())));
     }
 
     @Override
     protected void submitDetailScrapingTask(final String link) {
-        getDetailsScrapingCompletionService().submit(new ContactInfoScraper(link, context.getLinksQueue()));
+        getDetailsScrapingCompletionService().submit(
+                withHostLimits(new ContactInfoScraper(link, context.getLinksQueue())));
     }
 
     @Override
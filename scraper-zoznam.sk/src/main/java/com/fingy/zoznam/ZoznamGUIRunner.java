@@ -23,14 +23,15 @@ import javax.swing.UIManager;
 import javax.swing.UnsupportedLookAndFeelException;
 import javax.swing.plaf.nimbus.NimbusLookAndFeel;
 
+import com.fingy.scrape.ScrapeSession;
 import com.fingy.scrape.context.ScrapeContext;
+import com.fingy.scrape.context.SynchronizedScraperLinksQueue;
 import org.apache.commons.io.FileUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.fingy.gui.AppendableJTextArea;
 import com.fingy.scrape.context.ScrapeResult;
-import com.fingy.scrape.jsoup.AbstractJsoupScraper;
 import com.fingy.scrape.security.AutoRefreshingHideMyAssProxyBasedScrapeDetectionOverrider;
 import com.fingy.scrape.security.ProxyBasedScrapeDetectionOverrider;
 import com.fingy.scrape.security.TorNetworkProxyBasedScrapeDetectionOverride;
@@ -44,6 +45,8 @@ public class ZoznamGUIRunner extends JFrame {
     private static final int RETRY_COUNT = 5;
     private static final String VISITED_TXT_FILE_NAME = "visited.txt";
     private static final String QUEUED_TXT_FILE_NAME = "queued.txt";
+    private static final String EVENTS_TXT_FILE_NAME = "events.txt";
+    private static final int EVENT_LOG_COMPACTION_THRESHOLD = 100000;
     private static final String DEFAULT_DETAILS_FILE = "details.txt";
 
     private static final long serialVersionUID = 1L;
@@ -148,7 +151,7 @@ public class ZoznamGUIRunner extends JFrame {
             @Override
             public void actionPerformed(final ActionEvent e) {
                 shouldStop = true;
-                AbstractJsoupScraper.setScrapeCompromised(true);
+                scraperWorker.stopRunningScheduler();
                 infoPane.appendLine("Stopping scrape process after the current iteration");
                 btnStopScrape.setEnabled(false);
             }
@@ -216,6 +219,8 @@ public class ZoznamGUIRunner extends JFrame {
 
     private final class ScraperWorker extends SwingWorker<Object, Object> {
         private ProxyBasedScrapeDetectionOverrider scrapeDetectionOverrider;
+        private ScrapeSession<ContactInfo> session;
+        private volatile ScraperScheduler scheduler;
 
         @Override
         protected Object doInBackground() throws Exception {
@@ -224,21 +229,34 @@ public class ZoznamGUIRunner extends JFrame {
         }
 
         public void terminate() {
-            AbstractJsoupScraper.setScrapeCompromised(true);
+            stopRunningScheduler();
             shouldStop = true;
             finalizeContext();
         }
 
+        public void stopRunningScheduler() {
+            final ScraperScheduler runningScheduler = scheduler;
+            if (runningScheduler != null) {
+                runningScheduler.getHostCircuitBreakers().stopAll();
+            }
+        }
+
         public void runScrape() {
             try {
                 shouldStop = false;
                 initContext();
-
-                for (int i = 0; i < RETRY_COUNT; i++) {
-                    scrapeWhileThereAreResults();
+                try {
+                    session = createSession();
+                    try {
+                        for (int i = 0; i < RETRY_COUNT; i++) {
+                            scrapeWhileThereAreResults();
+                        }
+                    } finally {
+                        session.close();
+                    }
+                } finally {
+                    finalizeContext();
                 }
-
-                finalizeContext();
             } catch (Exception e) {
                 logger.error("Exception occured", e);
             }
@@ -274,18 +292,33 @@ public class ZoznamGUIRunner extends JFrame {
                 ScrapeResult result = doScrape();
 
                 infoPane.appendLine("Finished scrape iteration");
-                infoPane.appendLine("Scrape was compromised: " + (AbstractJsoupScraper.isScrapeCompromised() && !shouldStop));
+                infoPane.appendLine("Scrape was compromised: " + (scheduler.getHostCircuitBreakers().isCompromised() && !shouldStop));
                 infoPane.appendLine("Total contacts scraped: " + result.getScrapeSize());
 
                 queueSize = result.getQueueSize();
             }
         }
 
+        /**
+         * Loads the context once; the iterations share it and the scheduler's pools, and each one only appends to the event log.
+         */
+        private ScrapeSession<ContactInfo> createSession() {
+            ScrapeContext context = new ScrapeContext(detailsFile, VISITED_TXT_FILE_NAME, QUEUED_TXT_FILE_NAME, new ContactInfoLoader(),
+                    new SynchronizedScraperLinksQueue(), EVENTS_TXT_FILE_NAME, EVENT_LOG_COMPACTION_THRESHOLD);
+            scheduler = new ScraperScheduler(context, scrapeUrl.getText());
+            return new ScrapeSession<>(scheduler);
+        }
+
+        /**
+         * An iteration that was stopped or found the scrape compromised shuts the scheduler down; the next one then starts a new
+         * session on what the last one saved.
+         */
         private ScrapeResult doScrape() {
-            ScrapeContext context = new ScrapeContext(detailsFile, VISITED_TXT_FILE_NAME, QUEUED_TXT_FILE_NAME, new ContactInfoLoader());
-            ScrapeResult result = new ScraperScheduler(context, scrapeUrl.getText()).doScrape();
-            context.save();
-            return result;
+            if (!session.canRunIteration()) {
+                session.close();
+                session = createSession();
+            }
+            return session.runIteration();
         }
 
         private void setUpProxy() {
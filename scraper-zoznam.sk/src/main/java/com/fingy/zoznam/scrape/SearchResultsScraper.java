@@ -2,6 +2,7 @@ package com.fingy.zoznam.scrape;
 
 import org.jsoup.nodes.Document;
 
+import com.fingy.scrape.context.LinkBatch;
 import com.fingy.scrape.context.ScraperLinksQueue;
 import com.fingy.scrape.util.JsoupParserUtil;
 
@@ -13,12 +14,14 @@ public class SearchResultsScraper extends AbstractZoznamScraper<Integer> {
 
     @Override
     protected Integer scrapePage(final Document page) {
-        getLinksQueue().addIfNotVisited(getScrapeUrl());
+        LinkBatch pageLinks = new LinkBatch(getLinksQueue());
+        pageLinks.add(getScrapeUrl());
         int totalPages = Integer.parseInt(getTotalPagesString(page));
 
         for (int i = 2; i <= totalPages; i++) {
-            getLinksQueue().addIfNotVisited(getScrapeUrl() + i);
+            pageLinks.add(getScrapeUrl() + i);
         }
+        pageLinks.flush();
 
         return totalPages;
     }
@@ -10,13 +10,14 @@ import org.jsoup.nodes.Document;
 import org.junit.Test;
 
 import com.fingy.scrape.context.ScraperLinksQueue;
+import com.fingy.scrape.context.SynchronizedScraperLinksQueue;
 import com.fingy.zoznam.ContactInfo;
 
 public class ContactInfoScraperTest {
 
     private static final String PAGE_LOCATION = "contact-page.htm";
 
-    private final ScraperLinksQueue linksQueue = new ScraperLinksQueue();
+    private final ScraperLinksQueue linksQueue = new SynchronizedScraperLinksQueue();
     private final ContactInfoScraper scraper = new ContactInfoScraper("", linksQueue);
 
     @Test
@@ -10,12 +10,13 @@ import org.jsoup.nodes.Document;
 import org.junit.Test;
 
 import com.fingy.scrape.context.ScraperLinksQueue;
+import com.fingy.scrape.context.SynchronizedScraperLinksQueue;
 
 public class SearchResultsScraperTest {
 
     private static final String PAGE_LOCATION = "results.htm";
 
-    private final ScraperLinksQueue linksQueue = new ScraperLinksQueue();
+    private final ScraperLinksQueue linksQueue = new SynchronizedScraperLinksQueue();
     private final SearchResultsScraper scraper = new SearchResultsScraper("", linksQueue);
 
     @Test